@@ -0,0 +1,306 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Computes the agree sets of all pairs of tuples that share a cluster in at least one of the
+ * given {@link PositionListIndex}es (Dep-Miner, FastFDs). First every tuple is assigned the ids
+ * of its clusters (-1 for unary clusters) in a flat row major array, so that the agree set of a
+ * pair is found by comparing two rows of ids. A pair that shares clusters of several columns is only
+ * evaluated for the first of these columns, the evaluation stops as soon as the pair agrees on an
+ * earlier column. The pairs are distributed over tasks of about the block size, large clusters are
+ * split into several tasks. Every task collects its agree sets in a hash set, the sets are merged
+ * afterwards. Optionally only a random sample of the pairs is evaluated, which yields a subset of
+ * the agree sets.
+ *
+ * Pairs of tuples that agree on no column have the empty agree set, which is not returned.
+ */
+public class AgreeSetGenerator {
+
+  public static final int DEFAULT_BLOCK_SIZE = 100000;
+
+  protected List<? extends PositionListIndex> plis;
+  protected int numberOfColumns;
+  protected int parallelism = 1;
+  protected int blockSize = DEFAULT_BLOCK_SIZE;
+  protected double samplingRate = 1;
+  protected long seed;
+
+  // clusterIds[row * numberOfColumns + column] is the id of the row's cluster in the column or -1.
+  protected int[] clusterIds;
+
+  /**
+   * @param plis the plis of the columns, the index in the list is the column index
+   */
+  public AgreeSetGenerator(List<? extends PositionListIndex> plis) {
+    this.plis = plis;
+    this.numberOfColumns = plis.size();
+  }
+
+  /**
+   * @param parallelism the number of threads evaluating the pairs
+   * @return the generator
+   */
+  public AgreeSetGenerator setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism has to be positive.");
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * @param blockSize the number of pairs evaluated by a single task
+   * @return the generator
+   */
+  public AgreeSetGenerator setBlockSize(int blockSize) {
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("The block size has to be positive.");
+    }
+    this.blockSize = blockSize;
+    return this;
+  }
+
+  /**
+   * Evaluates only a random sample of the pairs of tuples. Every pair is sampled independently.
+   *
+   * @param samplingRate the probability of a pair to be evaluated in (0, 1]
+   * @param seed         the seed of the random sample
+   * @return the generator
+   */
+  public AgreeSetGenerator setSamplingRate(double samplingRate, long seed) {
+    if (!(samplingRate > 0 && samplingRate <= 1)) {
+      throw new IllegalArgumentException("The sampling rate has to be in (0, 1].");
+    }
+    this.samplingRate = samplingRate;
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * @return the distinct non empty agree sets
+   */
+  public Set<ColumnCombinationBitset> getAgreeSets() {
+    if (clusterIds == null) {
+      calculateClusterIds();
+    }
+
+    List<PairBlockTask> tasks = createTasks();
+    Set<ColumnCombinationBitset> agreeSets = new HashSet<>();
+    if (parallelism == 1) {
+      for (PairBlockTask task : tasks) {
+        agreeSets.addAll(task.call());
+      }
+      return agreeSets;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      List<Future<Set<ColumnCombinationBitset>>> results = executor.invokeAll(tasks);
+      for (Future<Set<ColumnCombinationBitset>> result : results) {
+        agreeSets.addAll(result.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("The agree set computation was interrupted.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("The agree sets could not be computed.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return agreeSets;
+  }
+
+  /**
+   * @return the maximal agree sets in descending order of cardinality
+   */
+  public List<ColumnCombinationBitset> getMaximalAgreeSets() {
+    return SuperSetGraph.maximize(getAgreeSets());
+  }
+
+  /**
+   * Returns the difference sets, the complements of the agree sets with respect to all columns.
+   *
+   * @return the distinct difference sets
+   */
+  public Set<ColumnCombinationBitset> getDifferenceSets() {
+    Set<ColumnCombinationBitset> differenceSets = new HashSet<>();
+    for (ColumnCombinationBitset agreeSet : getAgreeSets()) {
+      differenceSets.add(agreeSet.invert(numberOfColumns));
+    }
+    return differenceSets;
+  }
+
+  protected void calculateClusterIds() {
+    long numberOfTuples = 0;
+    for (PositionListIndex pli : plis) {
+      numberOfTuples = Math.max(numberOfTuples, pli.getNumberOfTuples());
+      for (LongArrayList cluster : pli.getClusters()) {
+        for (int i = 0; i < cluster.size(); i++) {
+          numberOfTuples = Math.max(numberOfTuples, cluster.getLong(i) + 1);
+        }
+      }
+    }
+    if (numberOfTuples * numberOfColumns > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+        "The number of tuples times the number of columns exceeds the range of int.");
+    }
+
+    clusterIds = new int[(int) numberOfTuples * numberOfColumns];
+    Arrays.fill(clusterIds, -1);
+    for (int column = 0; column < numberOfColumns; column++) {
+      int clusterId = 0;
+      for (LongArrayList cluster : plis.get(column).getClusters()) {
+        for (int i = 0; i < cluster.size(); i++) {
+          clusterIds[(int) cluster.getLong(i) * numberOfColumns + column] = clusterId;
+        }
+        clusterId++;
+      }
+    }
+  }
+
+  /**
+   * Cuts the clusters into blocks of about blockSize pairs. A block is a range of first tuples
+   * of a cluster that are paired with all later tuples of the cluster.
+   */
+  protected List<PairBlockTask> createTasks() {
+    List<PairBlockTask> tasks = new ArrayList<>();
+    PairBlockTask task = new PairBlockTask(tasks.size());
+    for (int column = 0; column < numberOfColumns; column++) {
+      for (LongArrayList cluster : plis.get(column).getClusters()) {
+        int from = 0;
+        long numberOfPairs = 0;
+        for (int i = 0; i < cluster.size(); i++) {
+          numberOfPairs += cluster.size() - 1 - i;
+          if (task.numberOfPairs + numberOfPairs >= blockSize) {
+            task.addBlock(column, cluster, from, i + 1, numberOfPairs);
+            tasks.add(task);
+            task = new PairBlockTask(tasks.size());
+            from = i + 1;
+            numberOfPairs = 0;
+          }
+        }
+        if (numberOfPairs > 0) {
+          task.addBlock(column, cluster, from, cluster.size(), numberOfPairs);
+        }
+      }
+    }
+    if (task.numberOfPairs > 0) {
+      tasks.add(task);
+    }
+    return tasks;
+  }
+
+  /**
+   * Evaluates the pairs of one or more blocks.
+   */
+  protected class PairBlockTask implements Callable<Set<ColumnCombinationBitset>> {
+
+    protected List<Integer> columns = new ArrayList<>();
+    protected List<LongArrayList> clusters = new ArrayList<>();
+    protected List<int[]> ranges = new ArrayList<>();
+    protected long numberOfPairs = 0;
+    protected Random random;
+
+    public PairBlockTask(int taskIndex) {
+      // Every task has its own random, so the sample does not depend on the scheduling.
+      this.random = new Random(seed + taskIndex);
+    }
+
+    protected void addBlock(int column, LongArrayList cluster, int from, int to,
+                            long numberOfPairs) {
+      columns.add(column);
+      clusters.add(cluster);
+      ranges.add(new int[]{from, to});
+      this.numberOfPairs += numberOfPairs;
+    }
+
+    @Override
+    public Set<ColumnCombinationBitset> call() {
+      Set<ColumnCombinationBitset> agreeSets = new HashSet<>();
+      long skip = nextSkip();
+      for (int block = 0; block < clusters.size(); block++) {
+        int column = columns.get(block);
+        LongArrayList cluster = clusters.get(block);
+        for (int i = ranges.get(block)[0]; i < ranges.get(block)[1]; i++) {
+          int firstRow = (int) cluster.getLong(i) * numberOfColumns;
+          for (int j = i + 1; j < cluster.size(); j++) {
+            if (skip > 0) {
+              skip--;
+              continue;
+            }
+            skip = nextSkip();
+            ColumnCombinationBitset agreeSet =
+              calculateAgreeSet(firstRow, (int) cluster.getLong(j) * numberOfColumns, column);
+            if (agreeSet != null) {
+              agreeSets.add(agreeSet);
+            }
+          }
+        }
+      }
+      return agreeSets;
+    }
+
+    /**
+     * @param firstRow  the offset of the first row in the cluster ids
+     * @param secondRow the offset of the second row in the cluster ids
+     * @param column    the column of the cluster shared by the rows
+     * @return the agree set of the rows or null if the rows agree on a column before the given
+     * column
+     */
+    protected ColumnCombinationBitset calculateAgreeSet(int firstRow, int secondRow, int column) {
+      for (int earlierColumn = 0; earlierColumn < column; earlierColumn++) {
+        int clusterId = clusterIds[firstRow + earlierColumn];
+        if (clusterId != -1 && clusterId == clusterIds[secondRow + earlierColumn]) {
+          return null;
+        }
+      }
+      ColumnCombinationBitset agreeSet = new ColumnCombinationBitset(column);
+      for (int laterColumn = column + 1; laterColumn < numberOfColumns; laterColumn++) {
+        int clusterId = clusterIds[firstRow + laterColumn];
+        if (clusterId != -1 && clusterId == clusterIds[secondRow + laterColumn]) {
+          agreeSet.addColumn(laterColumn);
+        }
+      }
+      return agreeSet;
+    }
+
+    /**
+     * @return the number of pairs to skip until the next sampled pair (geometric distribution)
+     */
+    protected long nextSkip() {
+      if (samplingRate >= 1) {
+        return 0;
+      }
+      return (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - samplingRate));
+    }
+  }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A {@link SubSetGraph} alternative with the same public api that stores the trie in flat int
+ * arrays. Every node is an index into the node arrays. The children of a node are stored as a
+ * range of the child pool that is sorted by column index. If a range is full it is moved to the
+ * end of the pool with twice its capacity. Queries traverse the trie recursively without
+ * allocating tasks or intermediate column combinations, so millions of column combinations can be
+ * stored without hash map nodes and queried without garbage collection pressure.
+ */
+public class ArraySubSetGraph {
+
+  protected static final int ROOT = 0;
+  protected static final int INITIAL_CAPACITY = 16;
+
+  // Node arrays indexed by node
+  protected boolean[] subSetEnds = new boolean[INITIAL_CAPACITY];
+  protected int[] childOffsets = new int[INITIAL_CAPACITY];
+  protected int[] childCounts = new int[INITIAL_CAPACITY];
+  protected int[] childCapacities = new int[INITIAL_CAPACITY];
+  protected int numberOfNodes = 1;
+
+  // Child pool: the column index and the node of every child
+  protected int[] childColumns = new int[INITIAL_CAPACITY];
+  protected int[] childNodes = new int[INITIAL_CAPACITY];
+  protected int childPoolSize = 0;
+
+  /**
+   * Adds a column combination to the graph. Returns the graph after adding.
+   *
+   * @param columnCombination a column combination to add
+   * @return the graph
+   */
+  public ArraySubSetGraph add(ColumnCombinationBitset columnCombination) {
+    int node = ROOT;
+    for (int columnIndex = columnCombination.nextSetBit(0); columnIndex >= 0;
+         columnIndex = columnCombination.nextSetBit(columnIndex + 1)) {
+      node = lazySubGraphGeneration(node, columnIndex);
+    }
+    subSetEnds[node] = true;
+    return this;
+  }
+
+  /**
+   * Adds all columnCombinations in the {@link java.util.Collection} to the graph.
+   *
+   * @param columnCombinations a {@link java.util.Collection} of {@link de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset}s
+   *                           to add to the graph
+   * @return the graph
+   */
+  public ArraySubSetGraph addAll(Collection<ColumnCombinationBitset> columnCombinations) {
+    for (ColumnCombinationBitset columnCombination : columnCombinations) {
+      add(columnCombination);
+    }
+
+    return this;
+  }
+
+  /**
+   * Looks for the child of the node or builds and adds a new one.
+   *
+   * @param node        the parent node
+   * @param columnIndex the column index to perform the lookup on
+   * @return the child node behind the column index
+   */
+  protected int lazySubGraphGeneration(int node, int columnIndex) {
+    int offset = childOffsets[node];
+    int count = childCounts[node];
+    int position = Arrays.binarySearch(childColumns, offset, offset + count, columnIndex);
+    if (position >= 0) {
+      return childNodes[position];
+    }
+
+    int insertionPoint = -position - 1;
+    if (count == childCapacities[node]) {
+      relocateChildren(node);
+      insertionPoint += childOffsets[node] - offset;
+      offset = childOffsets[node];
+    }
+    int end = offset + count;
+    System.arraycopy(childColumns, insertionPoint, childColumns, insertionPoint + 1,
+      end - insertionPoint);
+    System.arraycopy(childNodes, insertionPoint, childNodes, insertionPoint + 1,
+      end - insertionPoint);
+
+    int child = createNode();
+    childColumns[insertionPoint] = columnIndex;
+    childNodes[insertionPoint] = child;
+    childCounts[node]++;
+    return child;
+  }
+
+  /**
+   * Moves the children of the node to the end of the child pool doubling their capacity. The old
+   * range is abandoned.
+   */
+  protected void relocateChildren(int node) {
+    int count = childCounts[node];
+    int newCapacity = Math.max(1, 2 * childCapacities[node]);
+    if (childPoolSize + newCapacity > childColumns.length) {
+      int newPoolCapacity = Math.max(2 * childColumns.length, childPoolSize + newCapacity);
+      childColumns = Arrays.copyOf(childColumns, newPoolCapacity);
+      childNodes = Arrays.copyOf(childNodes, newPoolCapacity);
+    }
+    System.arraycopy(childColumns, childOffsets[node], childColumns, childPoolSize, count);
+    System.arraycopy(childNodes, childOffsets[node], childNodes, childPoolSize, count);
+    childOffsets[node] = childPoolSize;
+    childCapacities[node] = newCapacity;
+    childPoolSize += newCapacity;
+  }
+
+  protected int createNode() {
+    if (numberOfNodes == subSetEnds.length) {
+      int newCapacity = 2 * numberOfNodes;
+      subSetEnds = Arrays.copyOf(subSetEnds, newCapacity);
+      childOffsets = Arrays.copyOf(childOffsets, newCapacity);
+      childCounts = Arrays.copyOf(childCounts, newCapacity);
+      childCapacities = Arrays.copyOf(childCapacities, newCapacity);
+    }
+    return numberOfNodes++;
+  }
+
+  /**
+   * Returns all Subsets of the given ColumnCombination that are in the graph.
+   *
+   * @param columnCombinationToQuery given superset to search for subsets
+   * @return a list containing all found subsets
+   */
+  public ArrayList<ColumnCombinationBitset> getExistingSubsets(
+    ColumnCombinationBitset columnCombinationToQuery) {
+    ArrayList<ColumnCombinationBitset> subsets = new ArrayList<>();
+    if (this.isEmpty()) {
+      return subsets;
+    }
+
+    int[] path = new int[columnCombinationToQuery.size()];
+    collectSubsets(ROOT, 0, columnCombinationToQuery, path, 0, subsets);
+    return subsets;
+  }
+
+  protected void collectSubsets(int node, int fromColumn, ColumnCombinationBitset superset,
+                                int[] path, int depth, List<ColumnCombinationBitset> subsets) {
+    if (subSetEnds[node]) {
+      subsets.add(new ColumnCombinationBitset(Arrays.copyOf(path, depth)));
+    }
+
+    int offset = childOffsets[node];
+    int end = offset + childCounts[node];
+    int columnIndex = superset.nextSetBit(fromColumn);
+    while (columnIndex >= 0 && offset < end) {
+      int position = findChild(offset, end, columnIndex);
+      if (position >= 0) {
+        path[depth] = columnIndex;
+        collectSubsets(childNodes[position], columnIndex + 1, superset, path, depth + 1, subsets);
+        offset = position + 1;
+        columnIndex = superset.nextSetBit(columnIndex + 1);
+      } else {
+        // Skip the query columns without a child.
+        offset = -position - 1;
+        if (offset < end) {
+          columnIndex = superset.nextSetBit(childColumns[offset]);
+        }
+      }
+    }
+  }
+
+  /**
+   * The method returns when the first subset is found in the graph. This is possibly faster than
+   * {@link ArraySubSetGraph#getExistingSubsets(ColumnCombinationBitset)}, because a smaller part of
+   * the graph must be traversed.
+   *
+   * @param superset the super set
+   * @return whether at least a single subset is contained in the graph
+   */
+  public boolean containsSubset(ColumnCombinationBitset superset) {
+    if (this.isEmpty()) {
+      return false;
+    }
+    return containsSubset(ROOT, 0, superset);
+  }
+
+  protected boolean containsSubset(int node, int fromColumn, ColumnCombinationBitset superset) {
+    if (subSetEnds[node]) {
+      return true;
+    }
+
+    int offset = childOffsets[node];
+    int end = offset + childCounts[node];
+    int columnIndex = superset.nextSetBit(fromColumn);
+    while (columnIndex >= 0 && offset < end) {
+      int position = findChild(offset, end, columnIndex);
+      if (position >= 0) {
+        if (containsSubset(childNodes[position], columnIndex + 1, superset)) {
+          return true;
+        }
+        offset = position + 1;
+        columnIndex = superset.nextSetBit(columnIndex + 1);
+      } else {
+        // Skip the query columns without a child.
+        offset = -position - 1;
+        if (offset < end) {
+          columnIndex = superset.nextSetBit(childColumns[offset]);
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Searches the column in the sorted child range [offset, end). Short ranges are scanned
+   * linearly.
+   *
+   * @return the position of the child or -(insertion point) - 1
+   */
+  protected int findChild(int offset, int end, int columnIndex) {
+    if (end - offset > 8) {
+      return Arrays.binarySearch(childColumns, offset, end, columnIndex);
+    }
+    for (int position = offset; position < end; position++) {
+      if (childColumns[position] == columnIndex) {
+        return position;
+      }
+      if (childColumns[position] > columnIndex) {
+        return -position - 1;
+      }
+    }
+    return -end - 1;
+  }
+
+  /**
+   * The method returns all minimal subsets contained in the graph. The stored column combinations
+   * are sorted by cardinality, a column combination is minimal if none of the minimal column
+   * combinations found before is a subset of it.
+   *
+   * @return a list containing all minimal subsets
+   */
+  public Set<ColumnCombinationBitset> getMinimalSubsets() {
+    TreeSet<ColumnCombinationBitset> result = new TreeSet<>();
+    if (this.isEmpty()) {
+      return result;
+    }
+
+    List<ColumnCombinationBitset> columnCombinations = new ArrayList<>();
+    collectSubsets(ROOT, 0, new ColumnCombinationBitset().setAllBits(getMaximumColumn() + 1),
+      new int[getMaximumColumn() + 1], 0, columnCombinations);
+    Collections.sort(columnCombinations);
+
+    ArraySubSetGraph graph = new ArraySubSetGraph();
+    for (ColumnCombinationBitset columnCombination : columnCombinations) {
+      if (!graph.containsSubset(columnCombination)) {
+        graph.add(columnCombination);
+        result.add(columnCombination);
+      }
+    }
+    return result;
+  }
+
+  protected int getMaximumColumn() {
+    int maximumColumn = -1;
+    for (int position = 0; position < childPoolSize; position++) {
+      maximumColumn = Math.max(maximumColumn, childColumns[position]);
+    }
+    return maximumColumn;
+  }
+
+  /**
+   * @return whether the graph is empty
+   */
+  public boolean isEmpty() {
+    return childCounts[ROOT] == 0;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    ArraySubSetGraph that = (ArraySubSetGraph) o;
+
+    return equalNodes(ROOT, that, ROOT);
+  }
+
+  protected boolean equalNodes(int node, ArraySubSetGraph that, int thatNode) {
+    if (subSetEnds[node] != that.subSetEnds[thatNode]
+        || childCounts[node] != that.childCounts[thatNode]) {
+      return false;
+    }
+    int offset = childOffsets[node];
+    int thatOffset = that.childOffsets[thatNode];
+    for (int i = 0; i < childCounts[node]; i++) {
+      if (childColumns[offset + i] != that.childColumns[thatOffset + i]
+          || !equalNodes(childNodes[offset + i], that, that.childNodes[thatOffset + i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode(ROOT);
+  }
+
+  protected int hashCode(int node) {
+    int result = subSetEnds[node] ? 1 : 0;
+    int offset = childOffsets[node];
+    for (int i = 0; i < childCounts[node]; i++) {
+      result = 31 * result + childColumns[offset + i];
+      result = 31 * result + hashCode(childNodes[offset + i]);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.WAH8DocIdSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link StrippedPartition} that stores every cluster as a compressed bitmap ({@link
+ * WAH8DocIdSet}). Columns with few large clusters, e.g. flags or status codes, are stored in a
+ * fraction of the memory of a {@link PositionListIndex}. Two bitmap plis are intersected by
+ * combining every pair of clusters with a bitmap and, which is fast as long as the number of
+ * clusters is small. Row ids have to fit into an int.
+ */
+public class BitmapPositionListIndex implements StrippedPartition {
+
+  protected List<WAH8DocIdSet> clusters;
+  protected long rawKeyError = -1;
+  protected long numberOfTuples = -1;
+
+  /**
+   * @param clusters the clusters as bitmaps, every bitmap should contain at least two rows
+   */
+  public BitmapPositionListIndex(List<WAH8DocIdSet> clusters) {
+    this.clusters = clusters;
+  }
+
+  /**
+   * @param clusters       the clusters as bitmaps, every bitmap should contain at least two rows
+   * @param numberOfTuples the number of tuples of the indexed relation, -1 if unknown
+   */
+  public BitmapPositionListIndex(List<WAH8DocIdSet> clusters, long numberOfTuples) {
+    this(clusters);
+    this.numberOfTuples = numberOfTuples;
+  }
+
+  /**
+   * Constructs an empty {@link BitmapPositionListIndex}.
+   */
+  public BitmapPositionListIndex() {
+    this(new ArrayList<WAH8DocIdSet>());
+  }
+
+  /**
+   * Converts the given {@link PositionListIndex}.
+   *
+   * @param pli the {@link PositionListIndex} to convert
+   */
+  public BitmapPositionListIndex(PositionListIndex pli) {
+    this(new ArrayList<WAH8DocIdSet>(pli.getClusters().size()), pli.getNumberOfTuples());
+    for (LongArrayList cluster : pli.getClusters()) {
+      clusters.add(createBitmap(cluster));
+    }
+  }
+
+  /**
+   * Builds a bitmap of the rows of a cluster. The rows do not have to be sorted, duplicate rows are
+   * added once.
+   *
+   * @param cluster the row ids of the cluster
+   * @return the bitmap of the cluster
+   */
+  protected static WAH8DocIdSet createBitmap(LongArrayList cluster) {
+    int[] rows = new int[cluster.size()];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = (int) cluster.getLong(i);
+    }
+    Arrays.sort(rows);
+
+    WAH8DocIdSet.Builder builder = new WAH8DocIdSet.Builder();
+    for (int i = 0; i < rows.length; i++) {
+      if (i == 0 || rows[i] != rows[i - 1]) {
+        builder.add(rows[i]);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Intersects the given partition with this pli. Bitmap plis are intersected pairwise by cluster,
+   * other partitions are converted into {@link PositionListIndex}es.
+   *
+   * @param otherPartition the other {@link StrippedPartition} to intersect
+   * @return the intersected {@link StrippedPartition}
+   */
+  @Override
+  public StrippedPartition intersect(StrippedPartition otherPartition) {
+    if (otherPartition instanceof BitmapPositionListIndex) {
+      return intersect((BitmapPositionListIndex) otherPartition);
+    }
+    return toPositionListIndex().intersect(otherPartition.toPositionListIndex());
+  }
+
+  /**
+   * Intersects the given {@link BitmapPositionListIndex} with this one returning a new
+   * BitmapPositionListIndex. Every pair of clusters is combined with a bitmap and. Results with
+   * less than two rows are discarded.
+   *
+   * @param otherPLI the other {@link BitmapPositionListIndex} to intersect
+   * @return the intersected {@link BitmapPositionListIndex}
+   */
+  public BitmapPositionListIndex intersect(BitmapPositionListIndex otherPLI) {
+    List<WAH8DocIdSet> newClusters = new ArrayList<>();
+    for (WAH8DocIdSet cluster : clusters) {
+      int remainingRows = cluster.cardinality();
+      for (WAH8DocIdSet otherCluster : otherPLI.clusters) {
+        if (remainingRows < 2) {
+          break;
+        }
+        WAH8DocIdSet newCluster = WAH8DocIdSet.intersect(Arrays.asList(cluster, otherCluster));
+        int newClusterSize = newCluster.cardinality();
+        // Every row is in at most one other cluster.
+        remainingRows -= newClusterSize;
+        if (newClusterSize > 1) {
+          newClusters.add(newCluster);
+        }
+      }
+    }
+    return new BitmapPositionListIndex(newClusters,
+      Math.max(this.numberOfTuples, otherPLI.numberOfTuples));
+  }
+
+  /**
+   * Converts the {@link BitmapPositionListIndex} into an equal {@link PositionListIndex}.
+   *
+   * @return the {@link PositionListIndex}
+   */
+  @Override
+  public PositionListIndex toPositionListIndex() {
+    List<LongArrayList> newClusters = new ArrayList<>(clusters.size());
+    for (WAH8DocIdSet cluster : clusters) {
+      LongArrayList newCluster = new LongArrayList(cluster.cardinality());
+      DocIdSetIterator iterator = cluster.iterator();
+      try {
+        for (int row = iterator.nextDoc(); row != DocIdSetIterator.NO_MORE_DOCS;
+             row = iterator.nextDoc()) {
+          newCluster.add(row);
+        }
+      } catch (IOException e) {
+        // Bitmaps are held in memory.
+        throw new IllegalStateException(e);
+      }
+      newClusters.add(newCluster);
+    }
+
+    PositionListIndex pli = new PositionListIndex(newClusters, this.numberOfTuples);
+    pli.rawKeyError = this.rawKeyError;
+    return pli;
+  }
+
+  public List<WAH8DocIdSet> getClusters() {
+    return clusters;
+  }
+
+  /**
+   * @return the number of tuples of the indexed relation, -1 if unknown
+   */
+  public long getNumberOfTuples() {
+    return numberOfTuples;
+  }
+
+  /**
+   * Returns the number of non unary clusters.
+   *
+   * @return the number of clusters in the {@link BitmapPositionListIndex}
+   */
+  @Override
+  public long size() {
+    return clusters.size();
+  }
+
+  /**
+   * @return the {@link BitmapPositionListIndex} contains only unary clusters.
+   */
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * @return the column represented by the {@link BitmapPositionListIndex} is unique.
+   */
+  @Override
+  public boolean isUnique() {
+    return isEmpty();
+  }
+
+  /**
+   * Returns the number of columns to remove in order to make column unique. (raw key error)
+   *
+   * @return raw key error
+   */
+  @Override
+  public long getRawKeyError() {
+    if (rawKeyError == -1) {
+      long sumClusterSize = 0;
+      for (WAH8DocIdSet cluster : clusters) {
+        sumClusterSize += cluster.cardinality();
+      }
+      rawKeyError = sumClusterSize - clusters.size();
+    }
+
+    return rawKeyError;
+  }
+
+  /**
+   * Estimates the number of bytes the {@link BitmapPositionListIndex} occupies on the heap.
+   *
+   * @return the estimated heap size in bytes
+   */
+  @Override
+  public long getMemorySize() {
+    // Object header, fields and cluster list
+    long memorySize = 64 + 8L * clusters.size();
+    for (WAH8DocIdSet cluster : clusters) {
+      memorySize += cluster.ramBytesUsed();
+    }
+    return memorySize;
+  }
+}
@@ -32,7 +32,7 @@ import java.util.*;
  * @author Lukas Schulze
  * @author Mandy Roick
  */
-public class ColumnCombinationBitset implements Comparable<ColumnCombinationBitset> {
+public class ColumnCombinationBitset implements ColumnSet, Comparable<ColumnCombinationBitset> {
 
   protected OpenBitSet bitset;
   protected long size = 0;
@@ -160,6 +160,11 @@ public class ColumnCombinationBitset implements Comparable<ColumnCombinationBits
     return potentialSuperset.containsSubset(this);
   }
 
+  @Override
+  public boolean isSubsetOf(ColumnSet potentialSuperset) {
+    return potentialSuperset.containsSubset(this);
+  }
+
   /**
    * Returns true iff the potentialProperSuperSet contains all columns of this column combination
    * and the potentialProperSuperSet is not equal to this column combination (e.g. proper
@@ -180,9 +185,21 @@ public class ColumnCombinationBitset implements Comparable<ColumnCombinationBits
    * @return potentialSubset is a sub set
    */
   public boolean containsSubset(ColumnCombinationBitset potentialSubset) {
-    OpenBitSet ored = potentialSubset.bitset.clone();
-    ored.or(bitset);
-    return bitset.equals(ored);
+    return OpenBitSet.andNotCount(potentialSubset.bitset, bitset) == 0;
+  }
+
+  @Override
+  public boolean containsSubset(ColumnSet potentialSubset) {
+    if (potentialSubset instanceof ColumnCombinationBitset) {
+      return containsSubset((ColumnCombinationBitset) potentialSubset);
+    }
+    for (int columnIndex = potentialSubset.nextSetBit(0); columnIndex >= 0;
+         columnIndex = potentialSubset.nextSetBit(columnIndex + 1)) {
+      if (!bitset.get(columnIndex)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -224,6 +241,53 @@ public class ColumnCombinationBitset implements Comparable<ColumnCombinationBits
     return subsets;
   }
 
+  /**
+   * Lazily enumerates all subsets of the column combination (including the empty {@link
+   * ColumnCombinationBitset} and the column combination itself) by increasing size. Unlike {@link
+   * #getAllSubsets()} only the current subset is held in memory.
+   *
+   * @return an iterator over all subsets
+   */
+  public Iterator<ColumnCombinationBitset> getAllSubsetsIterator() {
+    final ColumnCombinationBitset superset = new ColumnCombinationBitset(this);
+    return new Iterator<ColumnCombinationBitset>() {
+      protected int n = 0;
+      protected SubsetIterator level = new SubsetIterator(superset, 0);
+
+      @Override
+      public boolean hasNext() {
+        while (!level.hasNext() && n < superset.size()) {
+          n++;
+          level = new SubsetIterator(superset, n);
+        }
+        return level.hasNext();
+      }
+
+      @Override
+      public ColumnCombinationBitset next() {
+        hasNext();
+        return level.next();
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Lazily enumerates all subset column combinations of size n in the order of Gosper's hack. Use
+   * {@link SubsetIterator#SubsetIterator(ColumnCombinationBitset, int, long, long)} to enumerate a
+   * range of ranks.
+   *
+   * @param n cardinality of subsets
+   * @return an iterator over the subsets with n columns
+   */
+  public SubsetIterator getNSubsetIterator(int n) {
+    return new SubsetIterator(this, n);
+  }
+
   /**
    * Returns all subset column combinations of size n.
    *
@@ -321,6 +385,7 @@ public class ColumnCombinationBitset implements Comparable<ColumnCombinationBits
    *
    * @return the list of indices with set bits
    */
+  @Override
   public List<Integer> getSetBits() {
     List<Integer> setBits = new ArrayList<>(size());
 
@@ -340,6 +405,16 @@ public class ColumnCombinationBitset implements Comparable<ColumnCombinationBits
     return setBits;
   }
 
+  @Override
+  public int nextSetBit(int fromIndex) {
+    return bitset.nextSetBit(fromIndex);
+  }
+
+  @Override
+  public ColumnCombinationBitset toColumnCombinationBitset() {
+    return new ColumnCombinationBitset(this);
+  }
+
   /**
    * Returns all the cleared bits within the maximum of all the number of columns.
    *
@@ -448,6 +523,42 @@ public class ColumnCombinationBitset implements Comparable<ColumnCombinationBits
     return supersets;
   }
 
+  /**
+   * Lazily generates the direct super sets. Supersets are bounded by the maximum superset.
+   *
+   * @param maximalSuperset maximum superset column combination
+   * @return an iterator over the direct super sets
+   */
+  public Iterator<ColumnCombinationBitset> getDirectSupersetIterator(
+    ColumnCombinationBitset maximalSuperset) {
+    final ColumnCombinationBitset subset = new ColumnCombinationBitset(this);
+    final ColumnCombinationBitset additionalColumns = maximalSuperset.minus(this);
+    return new Iterator<ColumnCombinationBitset>() {
+      protected int columnIndex = additionalColumns.nextSetBit(0);
+
+      @Override
+      public boolean hasNext() {
+        return columnIndex >= 0;
+      }
+
+      @Override
+      public ColumnCombinationBitset next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        ColumnCombinationBitset superset = new ColumnCombinationBitset(subset);
+        superset.addColumn(columnIndex);
+        columnIndex = additionalColumns.nextSetBit(columnIndex + 1);
+        return superset;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
   /**
    * Generates the direct subset column combinations.
    *
@@ -505,6 +616,7 @@ public class ColumnCombinationBitset implements Comparable<ColumnCombinationBits
    *
    * @return the number of columns in the combination.
    */
+  @Override
   public int size() {
     return (int) size;
   }
@@ -512,6 +624,7 @@ public class ColumnCombinationBitset implements Comparable<ColumnCombinationBits
   /**
    * @return if the column combination is empty
    */
+  @Override
   public boolean isEmpty() {
     return size() == 0;
   }
@@ -557,6 +670,7 @@ public class ColumnCombinationBitset implements Comparable<ColumnCombinationBits
    * @param columnIndex index of bit to test
    * @return true iff the bit at columnIndex is set
    */
+  @Override
   public boolean containsColumn(int columnIndex) {
     return bitset.get(columnIndex);
   }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.apache.lucene.util.OpenBitSet;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interns {@link ImmutableColumnCombinationBitset}s, so that equal column combinations share a
+ * single canonical instance. Lattice traversals create every column combination many times, e.g.
+ * as a direct superset of each of its direct subsets. Interned column combinations can be compared
+ * by reference and a level of candidates only holds every column combination once. Mutable {@link
+ * ColumnCombinationBitset}s cannot be interned and are converted.
+ *
+ * The pool references the canonical instances weakly and keys them by their bit pattern. Column
+ * combinations that are not used anymore are reclaimed by the garbage collector and their entries
+ * are removed on the next intern. The pool is thread safe.
+ */
+public class ColumnCombinationPool {
+
+  protected ConcurrentMap<PatternKey, CanonicalReference> canonicalInstances =
+    new ConcurrentHashMap<>();
+  protected ReferenceQueue<ImmutableColumnCombinationBitset> reclaimedInstances =
+    new ReferenceQueue<>();
+
+  /**
+   * Returns the canonical instance of the column combination. If there is none, the given column
+   * combination becomes the canonical instance.
+   *
+   * @param columnCombination the column combination to intern
+   * @return the canonical instance equal to the column combination
+   */
+  public ImmutableColumnCombinationBitset intern(
+    ImmutableColumnCombinationBitset columnCombination) {
+    removeReclaimedEntries();
+
+    PatternKey key = new PatternKey(columnCombination);
+    while (true) {
+      CanonicalReference reference = canonicalInstances.get(key);
+      if (reference != null) {
+        ImmutableColumnCombinationBitset canonicalInstance = reference.get();
+        if (canonicalInstance != null) {
+          return canonicalInstance;
+        }
+        // The canonical instance was reclaimed but the entry was not removed yet.
+        canonicalInstances.remove(key, reference);
+      }
+
+      CanonicalReference newReference =
+        new CanonicalReference(columnCombination, key, reclaimedInstances);
+      if (canonicalInstances.putIfAbsent(key, newReference) == null) {
+        return columnCombination;
+      }
+    }
+  }
+
+  /**
+   * @param columnCombination the column combination to intern
+   * @return the canonical instance with the same columns
+   */
+  public ImmutableColumnCombinationBitset intern(ColumnSet columnCombination) {
+    return intern(ImmutableColumnCombinationBitset.of(columnCombination));
+  }
+
+  /**
+   * @param columnIndices the indices of the columns
+   * @return the canonical instance of the given columns
+   */
+  public ImmutableColumnCombinationBitset intern(int... columnIndices) {
+    return intern(ImmutableColumnCombinationBitset.of(columnIndices));
+  }
+
+  /**
+   * @param columnCombination the column combination
+   * @return the canonical instances of the direct subsets
+   */
+  public List<ImmutableColumnCombinationBitset> getDirectSubsets(
+    ImmutableColumnCombinationBitset columnCombination) {
+    List<ImmutableColumnCombinationBitset> subsets = columnCombination.getDirectSubsets();
+    for (int i = 0; i < subsets.size(); i++) {
+      subsets.set(i, intern(subsets.get(i)));
+    }
+    return subsets;
+  }
+
+  /**
+   * @param columnCombination the column combination
+   * @param numberOfColumns   maximum number of columns
+   * @return the canonical instances of the direct supersets
+   */
+  public List<ImmutableColumnCombinationBitset> getDirectSupersets(
+    ImmutableColumnCombinationBitset columnCombination, int numberOfColumns) {
+    List<ImmutableColumnCombinationBitset> supersets =
+      columnCombination.getDirectSupersets(numberOfColumns);
+    for (int i = 0; i < supersets.size(); i++) {
+      supersets.set(i, intern(supersets.get(i)));
+    }
+    return supersets;
+  }
+
+  /**
+   * Returns the number of entries in the pool. Reclaimed entries that were not removed yet are
+   * counted as well.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    removeReclaimedEntries();
+    return canonicalInstances.size();
+  }
+
+  /**
+   * Removes all entries. Column combinations interned afterwards are not identical to earlier
+   * ones.
+   */
+  public void clear() {
+    canonicalInstances.clear();
+    removeReclaimedEntries();
+  }
+
+  protected void removeReclaimedEntries() {
+    CanonicalReference reference;
+    while ((reference = (CanonicalReference) reclaimedInstances.poll()) != null) {
+      canonicalInstances.remove(reference.key, reference);
+    }
+  }
+
+  /**
+   * The bit pattern of a column combination. The key must not reference the column combination
+   * itself, otherwise it would never be reclaimed.
+   */
+  protected static class PatternKey {
+
+    protected final long low;
+    protected final long high;
+    protected final OpenBitSet wide;
+    protected final int hashCode;
+
+    public PatternKey(ImmutableColumnCombinationBitset columnCombination) {
+      this.low = columnCombination.low;
+      this.high = columnCombination.high;
+      this.wide = columnCombination.wide;
+      this.hashCode = columnCombination.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      PatternKey other = (PatternKey) obj;
+      if (low != other.low || high != other.high) {
+        return false;
+      }
+      if (wide == null) {
+        return other.wide == null;
+      }
+      return wide.equals(other.wide);
+    }
+  }
+
+  protected static class CanonicalReference
+    extends WeakReference<ImmutableColumnCombinationBitset> {
+
+    protected final PatternKey key;
+
+    public CanonicalReference(ImmutableColumnCombinationBitset referent, PatternKey key,
+                              ReferenceQueue<ImmutableColumnCombinationBitset> queue) {
+      super(referent, queue);
+      this.key = key;
+    }
+  }
+}
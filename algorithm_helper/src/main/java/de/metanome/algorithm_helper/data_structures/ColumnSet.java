@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import java.util.List;
+
+/**
+ * Common read-only interface of the column combination (attribute set) representations: the mutable
+ * {@link ColumnCombinationBitset} and the {@link ImmutableColumnCombinationBitset}.
+ */
+public interface ColumnSet {
+
+  /**
+   * @return the number of columns in the combination
+   */
+  int size();
+
+  /**
+   * @return if the column combination is empty
+   */
+  boolean isEmpty();
+
+  /**
+   * @param columnIndex index of bit to test
+   * @return true iff the bit at columnIndex is set
+   */
+  boolean containsColumn(int columnIndex);
+
+  /**
+   * Returns the index of the first column at or after the given index.
+   *
+   * @param fromIndex the first index to test
+   * @return the index of the next column or -1 if there is none
+   */
+  int nextSetBit(int fromIndex);
+
+  /**
+   * Returns a list of all set column indices.
+   *
+   * @return the list of indices with set bits
+   */
+  List<Integer> getSetBits();
+
+  /**
+   * Returns true iff the potentialSubset contains no columns that are not in this column
+   * combination.
+   *
+   * @param potentialSubset that this column could be a superset of
+   * @return potentialSubset is a sub set
+   */
+  boolean containsSubset(ColumnSet potentialSubset);
+
+  /**
+   * Returns true if the potentialSuperset contains all columns of this column combination.
+   *
+   * @param potentialSuperset that this column could be a subset of
+   * @return potentialSuperset is a super set
+   */
+  boolean isSubsetOf(ColumnSet potentialSuperset);
+
+  /**
+   * @return a new {@link ColumnCombinationBitset} with the same columns
+   */
+  ColumnCombinationBitset toColumnCombinationBitset();
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A memory efficient variant of the {@link PositionListIndex}. All clusters are stored in a single
+ * int array of row ids and a second array of cluster offsets: the rows of cluster i are stored from
+ * rows[clusterOffsets[i]] (inclusive) to rows[clusterOffsets[i + 1]] (exclusive). The position list
+ * index ((0, 1), (2, 4), (3, 5)) is stored as rows [0, 1, 2, 4, 3, 5] and offsets [0, 2, 4, 6].
+ * Row ids have to be smaller than the number of tuples, so that intersections can use a dense
+ * {@link PLIProbingTable} instead of hashing pairs of cluster ids.
+ */
+public class CompactPositionListIndex {
+
+  protected int[] rows;
+  protected int[] clusterOffsets;
+  protected int numberOfTuples;
+  protected long rawKeyError = -1;
+
+  /**
+   * Constructs a {@link CompactPositionListIndex} from the given arrays. The arrays are not copied.
+   *
+   * @param rows           the row ids of all clusters
+   * @param clusterOffsets the start offsets of all clusters followed by the total number of rows
+   * @param numberOfTuples the number of tuples of the indexed relation
+   */
+  public CompactPositionListIndex(int[] rows, int[] clusterOffsets, int numberOfTuples) {
+    this.rows = rows;
+    this.clusterOffsets = clusterOffsets;
+    this.numberOfTuples = numberOfTuples;
+  }
+
+  /**
+   * Constructs an empty {@link CompactPositionListIndex}.
+   */
+  public CompactPositionListIndex() {
+    this(new int[0], new int[]{0}, 0);
+  }
+
+  /**
+   * Converts the given {@link PositionListIndex}. The number of tuples is derived from the largest
+   * row id.
+   *
+   * @param pli the {@link PositionListIndex} to convert
+   */
+  public CompactPositionListIndex(PositionListIndex pli) {
+    this(pli, -1);
+  }
+
+  /**
+   * Converts the given {@link PositionListIndex}.
+   *
+   * @param pli            the {@link PositionListIndex} to convert
+   * @param numberOfTuples the number of tuples of the indexed relation, -1 to derive it from the
+   *                       largest row id
+   */
+  public CompactPositionListIndex(PositionListIndex pli, int numberOfTuples) {
+    List<LongArrayList> clusters = pli.getClusters();
+
+    int numberOfRows = 0;
+    for (LongArrayList cluster : clusters) {
+      numberOfRows += cluster.size();
+    }
+
+    this.rows = new int[numberOfRows];
+    this.clusterOffsets = new int[clusters.size() + 1];
+
+    int maxRowId = -1;
+    int position = 0;
+    int clusterIndex = 0;
+    for (LongArrayList cluster : clusters) {
+      clusterOffsets[clusterIndex++] = position;
+      for (long rowId : cluster) {
+        rows[position++] = (int) rowId;
+        maxRowId = Math.max(maxRowId, (int) rowId);
+      }
+    }
+    clusterOffsets[clusterIndex] = position;
+
+    this.numberOfTuples = (numberOfTuples == -1) ? maxRowId + 1 : numberOfTuples;
+  }
+
+  /**
+   * Intersects the given {@link CompactPositionListIndex} with this one returning a new
+   * CompactPositionListIndex. A new {@link PLIProbingTable} is allocated for the intersection, use
+   * {@link #intersect(CompactPositionListIndex, PLIProbingTable)} to reuse a table.
+   *
+   * @param otherPLI the other {@link CompactPositionListIndex} to intersect
+   * @return the intersected {@link CompactPositionListIndex}
+   */
+  public CompactPositionListIndex intersect(CompactPositionListIndex otherPLI) {
+    return intersect(otherPLI, new PLIProbingTable());
+  }
+
+  /**
+   * Intersects the given {@link CompactPositionListIndex} with this one returning a new
+   * CompactPositionListIndex. The rows of this pli are written to the probing table, then every
+   * cluster of the other pli is split by the probed cluster ids. Apart from the result only the
+   * probing table (if too small) is allocated.
+   *
+   * @param otherPLI     the other {@link CompactPositionListIndex} to intersect
+   * @param probingTable the reusable {@link PLIProbingTable}
+   * @return the intersected {@link CompactPositionListIndex}
+   */
+  public CompactPositionListIndex intersect(CompactPositionListIndex otherPLI,
+                                            PLIProbingTable probingTable) {
+    int tuples = Math.max(this.numberOfTuples, otherPLI.numberOfTuples);
+    int numberOfClusters = this.getClusterCount();
+    probingTable.ensureCapacity(tuples, numberOfClusters);
+    int[] probe = probingTable.probe;
+    int[] counts = probingTable.counts;
+    int[] touched = probingTable.touched;
+
+    for (int cluster = 0; cluster < numberOfClusters; cluster++) {
+      for (int i = clusterOffsets[cluster]; i < clusterOffsets[cluster + 1]; i++) {
+        probe[rows[i]] = cluster + 1;
+      }
+    }
+
+    // The result cannot contain more rows than either input.
+    int maxRows = Math.min(this.rows.length, otherPLI.rows.length);
+    int[] newRows = new int[maxRows];
+    int[] newOffsets = new int[maxRows / 2 + 1];
+    int numberOfNewClusters = 0;
+    int writePosition = 0;
+
+    int[] otherRows = otherPLI.rows;
+    int[] otherOffsets = otherPLI.clusterOffsets;
+    for (int otherCluster = 0; otherCluster < otherPLI.getClusterCount(); otherCluster++) {
+      int start = otherOffsets[otherCluster];
+      int end = otherOffsets[otherCluster + 1];
+
+      // Count the rows per probed cluster.
+      int numberOfTouched = 0;
+      for (int i = start; i < end; i++) {
+        int probedCluster = probe[otherRows[i]] - 1;
+        if (probedCluster < 0) {
+          continue;
+        }
+        if (counts[probedCluster] == 0) {
+          touched[numberOfTouched++] = probedCluster;
+        }
+        counts[probedCluster]++;
+      }
+
+      // Reserve space for every non unary cluster. Reserved write positions are stored negated.
+      for (int t = 0; t < numberOfTouched; t++) {
+        int probedCluster = touched[t];
+        int count = counts[probedCluster];
+        if (count < 2) {
+          counts[probedCluster] = 0;
+          continue;
+        }
+        newOffsets[numberOfNewClusters++] = writePosition;
+        counts[probedCluster] = -(writePosition + 1);
+        writePosition += count;
+      }
+
+      // Distribute the rows.
+      for (int i = start; i < end; i++) {
+        int rowId = otherRows[i];
+        int probedCluster = probe[rowId] - 1;
+        if (probedCluster < 0 || counts[probedCluster] == 0) {
+          continue;
+        }
+        int position = -counts[probedCluster] - 1;
+        newRows[position] = rowId;
+        counts[probedCluster]--;
+      }
+
+      for (int t = 0; t < numberOfTouched; t++) {
+        counts[touched[t]] = 0;
+      }
+    }
+
+    // Reset the probing table.
+    for (int i = 0; i < rows.length; i++) {
+      probe[rows[i]] = 0;
+    }
+
+    newOffsets[numberOfNewClusters] = writePosition;
+    return new CompactPositionListIndex(
+      Arrays.copyOf(newRows, writePosition),
+      Arrays.copyOf(newOffsets, numberOfNewClusters + 1),
+      tuples);
+  }
+
+  /**
+   * Converts the {@link CompactPositionListIndex} into an equal {@link PositionListIndex}.
+   *
+   * @return the {@link PositionListIndex}
+   */
+  public PositionListIndex toPositionListIndex() {
+    List<LongArrayList> clusters = new ArrayList<>(getClusterCount());
+    for (int cluster = 0; cluster < getClusterCount(); cluster++) {
+      LongArrayList newCluster = new LongArrayList(getClusterSize(cluster));
+      for (int i = clusterOffsets[cluster]; i < clusterOffsets[cluster + 1]; i++) {
+        newCluster.add(rows[i]);
+      }
+      clusters.add(newCluster);
+    }
+
+    PositionListIndex pli = new PositionListIndex(clusters, numberOfTuples);
+    pli.rawKeyError = this.rawKeyError;
+    return pli;
+  }
+
+  /**
+   * @return the number of non unary clusters
+   */
+  public int getClusterCount() {
+    return clusterOffsets.length - 1;
+  }
+
+  /**
+   * @param clusterIndex the index of the cluster
+   * @return the number of rows in the cluster
+   */
+  public int getClusterSize(int clusterIndex) {
+    return clusterOffsets[clusterIndex + 1] - clusterOffsets[clusterIndex];
+  }
+
+  /**
+   * @param clusterIndex the index of the cluster
+   * @return a copy of the row ids in the cluster
+   */
+  public int[] getCluster(int clusterIndex) {
+    return Arrays.copyOfRange(rows, clusterOffsets[clusterIndex], clusterOffsets[clusterIndex + 1]);
+  }
+
+  /**
+   * @return the number of tuples of the indexed relation
+   */
+  public int getNumberOfTuples() {
+    return numberOfTuples;
+  }
+
+  /**
+   * Returns the number of non unary clusters.
+   *
+   * @return the number of clusters in the {@link CompactPositionListIndex}
+   */
+  public long size() {
+    return getClusterCount();
+  }
+
+  /**
+   * @return the {@link CompactPositionListIndex} contains only unary clusters.
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * @return the column represented by the {@link CompactPositionListIndex} is unique.
+   */
+  public boolean isUnique() {
+    return isEmpty();
+  }
+
+  /**
+   * Returns the number of columns to remove in order to make column unique. (raw key error)
+   *
+   * @return raw key error
+   */
+  public long getRawKeyError() {
+    if (rawKeyError == -1) {
+      rawKeyError = rows.length - getClusterCount();
+    }
+
+    return rawKeyError;
+  }
+}
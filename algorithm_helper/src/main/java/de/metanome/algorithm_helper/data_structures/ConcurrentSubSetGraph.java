@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread safe {@link SubSetGraph} with the same public api. Every node keeps its children in a
+ * {@link ConcurrentHashMap}, so concurrent inserts only contend on the nodes they both create and
+ * reads never block. A column combination is contained as soon as the volatile end flag of its
+ * last node is set, which happens after the whole path was created. Therefore {@link
+ * #containsSubset(ColumnCombinationBitset)} is linearizable: it sees every column combination
+ * whose add completed before the query started and never sees a partially added one. The
+ * enumerating queries are weakly consistent and may or may not see concurrent adds.
+ */
+public class ConcurrentSubSetGraph {
+
+  protected ConcurrentMap<Integer, ConcurrentSubSetGraph> subGraphs = new ConcurrentHashMap<>();
+  protected volatile boolean subSetEnds = false;
+
+  /**
+   * Adds a column combination to the graph. Returns the graph after adding. Can be called
+   * concurrently.
+   *
+   * @param columnCombination a column combination to add
+   * @return the graph
+   */
+  public ConcurrentSubSetGraph add(ColumnCombinationBitset columnCombination) {
+    ConcurrentSubSetGraph subGraph = this;
+
+    for (int columnIndex = columnCombination.nextSetBit(0); columnIndex >= 0;
+         columnIndex = columnCombination.nextSetBit(columnIndex + 1)) {
+      subGraph = subGraph.lazySubGraphGeneration(columnIndex);
+    }
+    subGraph.subSetEnds = true;
+    return this;
+  }
+
+  /**
+   * Adds all columnCombinations in the {@link java.util.Collection} to the graph.
+   *
+   * @param columnCombinations a {@link java.util.Collection} of {@link de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset}s
+   *                           to add to the graph
+   * @return the graph
+   */
+  public ConcurrentSubSetGraph addAll(Collection<ColumnCombinationBitset> columnCombinations) {
+    for (ColumnCombinationBitset columnCombination : columnCombinations) {
+      add(columnCombination);
+    }
+
+    return this;
+  }
+
+  /**
+   * Looks for the subgraph or atomically builds and adds a new one.
+   *
+   * @param setColumnIndex the column index to perform the lookup on
+   * @return the subgraph behind the column index
+   */
+  protected ConcurrentSubSetGraph lazySubGraphGeneration(int setColumnIndex) {
+    ConcurrentSubSetGraph subGraph = subGraphs.get(setColumnIndex);
+
+    if (subGraph == null) {
+      ConcurrentSubSetGraph newSubGraph = new ConcurrentSubSetGraph();
+      subGraph = subGraphs.putIfAbsent(setColumnIndex, newSubGraph);
+      if (subGraph == null) {
+        subGraph = newSubGraph;
+      }
+    }
+
+    return subGraph;
+  }
+
+  /**
+   * Returns all Subsets of the given ColumnCombination that are in the graph.
+   *
+   * @param columnCombinationToQuery given superset to search for subsets
+   * @return a list containing all found subsets
+   */
+  public ArrayList<ColumnCombinationBitset> getExistingSubsets(
+    ColumnCombinationBitset columnCombinationToQuery) {
+    ArrayList<ColumnCombinationBitset> subsets = new ArrayList<>();
+    if (this.isEmpty()) {
+      return subsets;
+    }
+
+    collectSubsets(0, columnCombinationToQuery, new int[columnCombinationToQuery.size()], 0,
+      subsets);
+    return subsets;
+  }
+
+  protected void collectSubsets(int fromColumn, ColumnCombinationBitset superset, int[] path,
+                                int depth, List<ColumnCombinationBitset> subsets) {
+    if (subSetEnds) {
+      subsets.add(new ColumnCombinationBitset(Arrays.copyOf(path, depth)));
+    }
+
+    for (int columnIndex = superset.nextSetBit(fromColumn); columnIndex >= 0;
+         columnIndex = superset.nextSetBit(columnIndex + 1)) {
+      ConcurrentSubSetGraph subGraph = subGraphs.get(columnIndex);
+      if (subGraph != null) {
+        path[depth] = columnIndex;
+        subGraph.collectSubsets(columnIndex + 1, superset, path, depth + 1, subsets);
+      }
+    }
+  }
+
+  /**
+   * The method returns when the first subset is found in the graph. This is possibly faster than
+   * {@link ConcurrentSubSetGraph#getExistingSubsets(ColumnCombinationBitset)}, because a smaller
+   * part of the graph must be traversed.
+   *
+   * @param superset the super set
+   * @return whether at least a single subset is contained in the graph
+   */
+  public boolean containsSubset(ColumnCombinationBitset superset) {
+    return containsSubset(0, superset);
+  }
+
+  protected boolean containsSubset(int fromColumn, ColumnCombinationBitset superset) {
+    if (subSetEnds) {
+      return true;
+    }
+
+    for (int columnIndex = superset.nextSetBit(fromColumn); columnIndex >= 0;
+         columnIndex = superset.nextSetBit(columnIndex + 1)) {
+      ConcurrentSubSetGraph subGraph = subGraphs.get(columnIndex);
+      if (subGraph != null && subGraph.containsSubset(columnIndex + 1, superset)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The method returns all minimal subsets contained in the graph.
+   *
+   * @return a list containing all minimal subsets
+   */
+  public Set<ColumnCombinationBitset> getMinimalSubsets() {
+    TreeSet<ColumnCombinationBitset> result = new TreeSet<>();
+    if (this.isEmpty()) {
+      return result;
+    }
+
+    List<ColumnCombinationBitset> columnCombinations = new ArrayList<>();
+    collectAll(new ColumnCombinationBitset(), columnCombinations);
+    Collections.sort(columnCombinations);
+
+    SubSetGraph graph = new SubSetGraph();
+    for (ColumnCombinationBitset columnCombination : columnCombinations) {
+      if (!graph.containsSubset(columnCombination)) {
+        graph.add(columnCombination);
+        result.add(columnCombination);
+      }
+    }
+    return result;
+  }
+
+  protected void collectAll(ColumnCombinationBitset path,
+                            List<ColumnCombinationBitset> columnCombinations) {
+    if (subSetEnds) {
+      columnCombinations.add(new ColumnCombinationBitset(path));
+      // Supersets along this path are not minimal.
+      return;
+    }
+    for (Map.Entry<Integer, ConcurrentSubSetGraph> subGraph : subGraphs.entrySet()) {
+      subGraph.getValue().collectAll(
+        new ColumnCombinationBitset(path).addColumn(subGraph.getKey()), columnCombinations);
+    }
+  }
+
+  /**
+   * @return whether the graph is empty
+   */
+  public boolean isEmpty() {
+    return subGraphs.isEmpty();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    ConcurrentSubSetGraph that = (ConcurrentSubSetGraph) o;
+
+    return subSetEnds == that.subSetEnds && subGraphs.equals(that.subGraphs);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * subGraphs.hashCode() + (subSetEnds ? 1 : 0);
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A thread safe {@link SuperSetGraph} with the same public api. Like the {@link SuperSetGraph} it
+ * inverts all column combinations and stores them in a {@link ConcurrentSubSetGraph}, so {@link
+ * #containsSuperset(ColumnCombinationBitset)} is linearizable and can be called while other
+ * threads add column combinations.
+ */
+public class ConcurrentSuperSetGraph {
+
+  protected int numberOfColumns = -1;
+  protected ConcurrentSubSetGraph graph = new ConcurrentSubSetGraph();
+
+  public ConcurrentSuperSetGraph(int numberOfColumns) {
+    this.numberOfColumns = numberOfColumns;
+  }
+
+  /**
+   * Adds a {@link de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset} to the
+   * graph. Can be called concurrently.
+   *
+   * @param columnCombination the {@link de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset}
+   *                          to add
+   * @return the graph
+   */
+  public ConcurrentSuperSetGraph add(ColumnCombinationBitset columnCombination) {
+    graph.add(columnCombination.invert(numberOfColumns));
+    return this;
+  }
+
+  /**
+   * Adds all {@link de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset} to the
+   * graph
+   *
+   * @param columnCombinations to be added to the graph
+   * @return the graph
+   */
+  public ConcurrentSuperSetGraph addAll(Collection<ColumnCombinationBitset> columnCombinations) {
+    for (ColumnCombinationBitset columnCombination : columnCombinations) {
+      graph.add(columnCombination.invert(numberOfColumns));
+    }
+    return this;
+  }
+
+  /**
+   * Returns all supersets of the given {@link de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset}
+   * that are in the graph
+   *
+   * @param subset given subset to search for supersets
+   * @return a list containing all found supersets
+   */
+  public ArrayList<ColumnCombinationBitset> getExistingSupersets(ColumnCombinationBitset subset) {
+    ArrayList<ColumnCombinationBitset> result = new ArrayList<>();
+    for (ColumnCombinationBitset bitset : graph.getExistingSubsets(
+      subset.invert(numberOfColumns))) {
+      result.add(bitset.invert(numberOfColumns));
+    }
+    return result;
+  }
+
+  /**
+   * The method returns when the first superset is found in the graph.
+   *
+   * @param subset the sub set
+   * @return whether at least a single superset is contained in the graph
+   */
+  public boolean containsSuperset(ColumnCombinationBitset subset) {
+    return graph.containsSubset(subset.invert(numberOfColumns));
+  }
+
+  /**
+   * @return whether the graph is empty
+   */
+  public boolean isEmpty() {
+    return this.graph.isEmpty();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    ConcurrentSuperSetGraph that = (ConcurrentSuperSetGraph) o;
+
+    return numberOfColumns == that.numberOfColumns && graph.equals(that.graph);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = numberOfColumns;
+    result = 31 * result + graph.hashCode();
+    return result;
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A dictionary encoded, column oriented copy of a relational input. Every column is stored as an
+ * array of value ids, one per row, and a sorted dictionary of its distinct values. The value id of
+ * a value is its position in the sorted dictionary, null values are encoded as {@link #NULL_ID}.
+ * Position list indices and the sorted distinct values of every column can be derived from the
+ * store without reading the input again. A column store should be created using the {@link
+ * PLIBuilder}.
+ */
+public class DictionaryColumnStore {
+
+  public static final int NULL_ID = -1;
+
+  protected List<String[]> dictionaries;
+  protected List<int[]> valueIds;
+  protected int numberOfTuples;
+  protected boolean nullEqualsNull;
+
+  /**
+   * @param dictionaries   the sorted distinct non null values of every column
+   * @param valueIds       the value ids of every column
+   * @param numberOfTuples the number of rows
+   * @param nullEqualsNull whether null values form a cluster in the plis
+   */
+  public DictionaryColumnStore(List<String[]> dictionaries, List<int[]> valueIds,
+                               int numberOfTuples, boolean nullEqualsNull) {
+    this.dictionaries = dictionaries;
+    this.valueIds = valueIds;
+    this.numberOfTuples = numberOfTuples;
+    this.nullEqualsNull = nullEqualsNull;
+  }
+
+  /**
+   * @return the number of columns
+   */
+  public int getNumberOfColumns() {
+    return valueIds.size();
+  }
+
+  /**
+   * @return the number of rows
+   */
+  public int getNumberOfTuples() {
+    return numberOfTuples;
+  }
+
+  /**
+   * Returns the value id of a single cell. Value ids are ordered like the values they encode.
+   *
+   * @param columnIndex the column index
+   * @param rowIndex    the row index
+   * @return the value id of the cell or {@link #NULL_ID}
+   */
+  public int getValueId(int columnIndex, int rowIndex) {
+    return valueIds.get(columnIndex)[rowIndex];
+  }
+
+  /**
+   * Returns the value ids of all rows of a column. The array is not copied and must not be
+   * modified.
+   *
+   * @param columnIndex the column index
+   * @return the value ids of the column
+   */
+  public int[] getValueIds(int columnIndex) {
+    return valueIds.get(columnIndex);
+  }
+
+  /**
+   * @param columnIndex the column index
+   * @param rowIndex    the row index
+   * @return the decoded value of the cell
+   */
+  public String getValue(int columnIndex, int rowIndex) {
+    return decode(columnIndex, getValueId(columnIndex, rowIndex));
+  }
+
+  /**
+   * @param columnIndex the column index
+   * @param valueId     a value id of the column
+   * @return the value encoded by the value id
+   */
+  public String decode(int columnIndex, int valueId) {
+    if (valueId == NULL_ID) {
+      return null;
+    }
+    return dictionaries.get(columnIndex)[valueId];
+  }
+
+  /**
+   * Returns the sorted distinct values of a column. "null" values are not contained.
+   *
+   * @param columnIndex the column index
+   * @return an unmodifiable view of the column's dictionary
+   */
+  public List<String> getSortedDistinctValues(int columnIndex) {
+    return Collections.unmodifiableList(Arrays.asList(dictionaries.get(columnIndex)));
+  }
+
+  /**
+   * @param columnIndex the column index
+   * @return the number of distinct non null values in the column
+   */
+  public int getNumberOfDistinctValues(int columnIndex) {
+    return dictionaries.get(columnIndex).length;
+  }
+
+  /**
+   * Builds the {@link CompactPositionListIndex} of a column with a counting sort over the value
+   * ids. The rows in every cluster are sorted ascending.
+   *
+   * @param columnIndex the column index
+   * @return the compact pli of the column
+   */
+  public CompactPositionListIndex getCompactPLI(int columnIndex) {
+    int[] columnValueIds = valueIds.get(columnIndex);
+    int numberOfValues = getNumberOfDistinctValues(columnIndex);
+
+    // Slot 0 is reserved for null values, value id v is counted in slot v + 1.
+    int[] counts = new int[numberOfValues + 1];
+    for (int valueId : columnValueIds) {
+      counts[valueId + 1]++;
+    }
+    if (!nullEqualsNull) {
+      counts[0] = 0;
+    }
+
+    int numberOfClusters = 0;
+    int numberOfRows = 0;
+    for (int count : counts) {
+      if (count > 1) {
+        numberOfClusters++;
+        numberOfRows += count;
+      }
+    }
+
+    // Convert the counts into write positions, unary clusters are marked with -1.
+    int[] clusterOffsets = new int[numberOfClusters + 1];
+    int clusterIndex = 0;
+    int position = 0;
+    for (int slot = 0; slot < counts.length; slot++) {
+      if (counts[slot] > 1) {
+        clusterOffsets[clusterIndex++] = position;
+        int count = counts[slot];
+        counts[slot] = position;
+        position += count;
+      } else {
+        counts[slot] = -1;
+      }
+    }
+    clusterOffsets[numberOfClusters] = numberOfRows;
+
+    int[] rows = new int[numberOfRows];
+    for (int rowIndex = 0; rowIndex < columnValueIds.length; rowIndex++) {
+      int slot = columnValueIds[rowIndex] + 1;
+      if (counts[slot] != -1) {
+        rows[counts[slot]++] = rowIndex;
+      }
+    }
+
+    return new CompactPositionListIndex(rows, clusterOffsets, numberOfTuples);
+  }
+
+  /**
+   * @param columnIndex the column index
+   * @return the {@link PositionListIndex} of the column
+   */
+  public PositionListIndex getPLI(int columnIndex) {
+    return getCompactPLI(columnIndex).toPositionListIndex();
+  }
+
+  /**
+   * Builds a {@link PositionListIndex} for every column.
+   *
+   * @return list of plis for all columns
+   */
+  public List<PositionListIndex> getPLIList() {
+    List<PositionListIndex> result = new ArrayList<>(getNumberOfColumns());
+    for (int columnIndex = 0; columnIndex < getNumberOfColumns(); columnIndex++) {
+      result.add(getPLI(columnIndex));
+    }
+    return result;
+  }
+}
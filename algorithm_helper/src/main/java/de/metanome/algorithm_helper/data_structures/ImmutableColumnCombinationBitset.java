@@ -0,0 +1,430 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.apache.lucene.util.OpenBitSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable representation of column combinations (attribute sets). Column combinations of the
+ * first 128 columns are stored in two long words, so that subset tests and set operations are
+ * plain bitwise operations. Column combinations containing wider columns fall back to an {@link
+ * OpenBitSet}. Subset tests never allocate, set operations only allocate the result.
+ */
+public final class ImmutableColumnCombinationBitset
+  implements ColumnSet, Comparable<ImmutableColumnCombinationBitset> {
+
+  public static final int MAX_NARROW_COLUMNS = 128;
+  public static final ImmutableColumnCombinationBitset EMPTY =
+    new ImmutableColumnCombinationBitset(0L, 0L);
+
+  protected final long low;
+  protected final long high;
+  // Only set if a column with an index of at least MAX_NARROW_COLUMNS is contained.
+  protected final OpenBitSet wide;
+  protected final int size;
+
+  protected ImmutableColumnCombinationBitset(long low, long high) {
+    this.low = low;
+    this.high = high;
+    this.wide = null;
+    this.size = Long.bitCount(low) + Long.bitCount(high);
+  }
+
+  protected ImmutableColumnCombinationBitset(OpenBitSet wide) {
+    this.low = 0L;
+    this.high = 0L;
+    this.wide = wide;
+    this.size = (int) wide.cardinality();
+  }
+
+  /**
+   * @param columnIndices the indices of the columns
+   * @return the column combination of the given columns
+   */
+  public static ImmutableColumnCombinationBitset of(int... columnIndices) {
+    int maxColumnIndex = -1;
+    for (int columnIndex : columnIndices) {
+      maxColumnIndex = Math.max(maxColumnIndex, columnIndex);
+    }
+
+    long[] words = new long[Math.max(2, OpenBitSet.bits2words(maxColumnIndex + 1))];
+    for (int columnIndex : columnIndices) {
+      words[columnIndex >>> 6] |= 1L << columnIndex;
+    }
+    return create(words);
+  }
+
+  /**
+   * @param columnCombination the column combination to copy
+   * @return an immutable column combination with the same columns
+   */
+  public static ImmutableColumnCombinationBitset of(ColumnSet columnCombination) {
+    if (columnCombination instanceof ImmutableColumnCombinationBitset) {
+      return (ImmutableColumnCombinationBitset) columnCombination;
+    }
+
+    List<Integer> setBits = columnCombination.getSetBits();
+    int[] columnIndices = new int[setBits.size()];
+    for (int i = 0; i < columnIndices.length; i++) {
+      columnIndices[i] = setBits.get(i);
+    }
+    return of(columnIndices);
+  }
+
+  /**
+   * Creates the column combination of the given words. Wide words are only kept if a column with
+   * an index of at least {@link #MAX_NARROW_COLUMNS} is set. The words are not copied.
+   */
+  protected static ImmutableColumnCombinationBitset create(long[] words) {
+    int numberOfWords = words.length;
+    while (numberOfWords > 2 && words[numberOfWords - 1] == 0) {
+      numberOfWords--;
+    }
+
+    if (numberOfWords <= 2) {
+      long low = (words.length > 0) ? words[0] : 0L;
+      long high = (words.length > 1) ? words[1] : 0L;
+      if (low == 0L && high == 0L) {
+        return EMPTY;
+      }
+      return new ImmutableColumnCombinationBitset(low, high);
+    }
+    return new ImmutableColumnCombinationBitset(new OpenBitSet(words, numberOfWords));
+  }
+
+  /**
+   * @return the number of words needed to store the column combination
+   */
+  protected int getNumberOfWords() {
+    return (wide == null) ? 2 : wide.getNumWords();
+  }
+
+  /**
+   * @param wordIndex the index of the word
+   * @return the word or 0 if the word is not stored
+   */
+  protected long getWord(int wordIndex) {
+    if (wide != null) {
+      return (wordIndex < wide.getNumWords()) ? wide.getBits()[wordIndex] : 0L;
+    }
+    if (wordIndex == 0) {
+      return low;
+    }
+    return (wordIndex == 1) ? high : 0L;
+  }
+
+  /**
+   * @param columnIndex of column to add
+   * @return a column combination with the additional column
+   */
+  public ImmutableColumnCombinationBitset addColumn(int columnIndex) {
+    if (containsColumn(columnIndex)) {
+      return this;
+    }
+    if (wide == null && columnIndex < 64) {
+      return new ImmutableColumnCombinationBitset(low | (1L << columnIndex), high);
+    }
+    if (wide == null && columnIndex < MAX_NARROW_COLUMNS) {
+      return new ImmutableColumnCombinationBitset(low, high | (1L << columnIndex));
+    }
+
+    long[] words = copyWords(Math.max(getNumberOfWords(), OpenBitSet.bits2words(columnIndex + 1)));
+    words[columnIndex >>> 6] |= 1L << columnIndex;
+    return create(words);
+  }
+
+  /**
+   * @param columnIndex of column to remove
+   * @return a column combination without the column
+   */
+  public ImmutableColumnCombinationBitset removeColumn(int columnIndex) {
+    if (!containsColumn(columnIndex)) {
+      return this;
+    }
+    if (wide == null) {
+      if (columnIndex < 64) {
+        return create(new long[]{low & ~(1L << columnIndex), high});
+      }
+      return create(new long[]{low, high & ~(1L << columnIndex)});
+    }
+
+    long[] words = copyWords(getNumberOfWords());
+    words[columnIndex >>> 6] &= ~(1L << columnIndex);
+    return create(words);
+  }
+
+  protected long[] copyWords(int numberOfWords) {
+    long[] words = new long[numberOfWords];
+    for (int i = 0; i < Math.min(numberOfWords, getNumberOfWords()); i++) {
+      words[i] = getWord(i);
+    }
+    return words;
+  }
+
+  /**
+   * @param other column combination to be unioned
+   * @return the union of the two column combinations
+   */
+  public ImmutableColumnCombinationBitset union(ImmutableColumnCombinationBitset other) {
+    if (wide == null && other.wide == null) {
+      return new ImmutableColumnCombinationBitset(low | other.low, high | other.high);
+    }
+
+    long[] words = new long[Math.max(getNumberOfWords(), other.getNumberOfWords())];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = getWord(i) | other.getWord(i);
+    }
+    return create(words);
+  }
+
+  /**
+   * @param other column combination to be intersected
+   * @return the intersection of the two column combinations
+   */
+  public ImmutableColumnCombinationBitset intersect(ImmutableColumnCombinationBitset other) {
+    if (wide == null || other.wide == null) {
+      return create(new long[]{getWord(0) & other.getWord(0), getWord(1) & other.getWord(1)});
+    }
+
+    long[] words = new long[Math.min(getNumberOfWords(), other.getNumberOfWords())];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = getWord(i) & other.getWord(i);
+    }
+    return create(words);
+  }
+
+  /**
+   * @param other column combination to be subtracted
+   * @return the difference of the two column combinations
+   */
+  public ImmutableColumnCombinationBitset minus(ImmutableColumnCombinationBitset other) {
+    if (wide == null) {
+      return create(new long[]{low & ~other.getWord(0), high & ~other.getWord(1)});
+    }
+
+    long[] words = new long[getNumberOfWords()];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = getWord(i) & ~other.getWord(i);
+    }
+    return create(words);
+  }
+
+  @Override
+  public boolean containsSubset(ColumnSet potentialSubset) {
+    if (potentialSubset instanceof ImmutableColumnCombinationBitset) {
+      ImmutableColumnCombinationBitset other = (ImmutableColumnCombinationBitset) potentialSubset;
+      if (wide == null && other.wide == null) {
+        return ((other.low & ~low) | (other.high & ~high)) == 0;
+      }
+      for (int i = 0; i < other.getNumberOfWords(); i++) {
+        if ((other.getWord(i) & ~getWord(i)) != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    for (int columnIndex = potentialSubset.nextSetBit(0); columnIndex >= 0;
+         columnIndex = potentialSubset.nextSetBit(columnIndex + 1)) {
+      if (!containsColumn(columnIndex)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param potentialProperSubset that this column could be a proper superset of
+   * @return potentialProperSubset is a real subset
+   */
+  public boolean containsProperSubset(ImmutableColumnCombinationBitset potentialProperSubset) {
+    return size > potentialProperSubset.size && containsSubset(potentialProperSubset);
+  }
+
+  @Override
+  public boolean isSubsetOf(ColumnSet potentialSuperset) {
+    return potentialSuperset.containsSubset(this);
+  }
+
+  /**
+   * @param potentialProperSuperset that this column combination could be a proper subset of
+   * @return potentialProperSuperset is a real superset
+   */
+  public boolean isProperSubsetOf(ImmutableColumnCombinationBitset potentialProperSuperset) {
+    return potentialProperSuperset.containsProperSubset(this);
+  }
+
+  @Override
+  public boolean containsColumn(int columnIndex) {
+    if (wide != null) {
+      return wide.get(columnIndex);
+    }
+    if (columnIndex < 64) {
+      return (low & (1L << columnIndex)) != 0;
+    }
+    return columnIndex < MAX_NARROW_COLUMNS && (high & (1L << columnIndex)) != 0;
+  }
+
+  @Override
+  public int nextSetBit(int fromIndex) {
+    if (wide != null) {
+      return wide.nextSetBit(fromIndex);
+    }
+    if (fromIndex < 64) {
+      long word = low & (-1L << fromIndex);
+      if (word != 0) {
+        return Long.numberOfTrailingZeros(word);
+      }
+      fromIndex = 64;
+    }
+    if (fromIndex < MAX_NARROW_COLUMNS) {
+      long word = high & (-1L << fromIndex);
+      if (word != 0) {
+        return 64 + Long.numberOfTrailingZeros(word);
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public List<Integer> getSetBits() {
+    List<Integer> setBits = new ArrayList<>(size);
+    for (int columnIndex = nextSetBit(0); columnIndex >= 0;
+         columnIndex = nextSetBit(columnIndex + 1)) {
+      setBits.add(columnIndex);
+    }
+    return setBits;
+  }
+
+  /**
+   * Generates the direct subset column combinations.
+   *
+   * @return the direct sub sets
+   */
+  public List<ImmutableColumnCombinationBitset> getDirectSubsets() {
+    List<ImmutableColumnCombinationBitset> subsets = new ArrayList<>(size);
+    for (int columnIndex = nextSetBit(0); columnIndex >= 0;
+         columnIndex = nextSetBit(columnIndex + 1)) {
+      subsets.add(removeColumn(columnIndex));
+    }
+    return subsets;
+  }
+
+  /**
+   * Generates the direct super sets. Supersets are bounded by the maximum number of columns.
+   *
+   * @param numberOfColumns maximum number of columns
+   * @return the direct super sets
+   */
+  public List<ImmutableColumnCombinationBitset> getDirectSupersets(int numberOfColumns) {
+    List<ImmutableColumnCombinationBitset> supersets = new ArrayList<>();
+    for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+      if (!containsColumn(columnIndex)) {
+        supersets.add(addColumn(columnIndex));
+      }
+    }
+    return supersets;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public ColumnCombinationBitset toColumnCombinationBitset() {
+    return new ColumnCombinationBitset(getSetBits());
+  }
+
+  @Override
+  public int hashCode() {
+    if (wide != null) {
+      return wide.hashCode();
+    }
+    long hash = low * 31 + high;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (getClass() != obj.getClass()) {
+      return false;
+    }
+    ImmutableColumnCombinationBitset other = (ImmutableColumnCombinationBitset) obj;
+    if (low != other.low || high != other.high || size != other.size) {
+      return false;
+    }
+    if (wide == null) {
+      return other.wide == null;
+    }
+    return wide.equals(other.wide);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder stringBuilder = new StringBuilder();
+
+    stringBuilder.append("ImmutableColumnCombinationBitset ");
+
+    int lastSetBitIndex = -1;
+    for (int columnIndex = nextSetBit(0); columnIndex >= 0;
+         columnIndex = nextSetBit(columnIndex + 1)) {
+      lastSetBitIndex = columnIndex;
+    }
+
+    for (int i = 0; i <= lastSetBitIndex; i++) {
+      stringBuilder.append(containsColumn(i) ? 1 : 0);
+    }
+
+    return stringBuilder.toString();
+  }
+
+  /**
+   * Column combinations are ordered by size and then lexicographically by their column indices
+   * like {@link ColumnCombinationBitset}s.
+   */
+  @Override
+  public int compareTo(ImmutableColumnCombinationBitset other) {
+    if (size != other.size) {
+      return size - other.size;
+    }
+    int thisBit = nextSetBit(0);
+    int otherBit = other.nextSetBit(0);
+    while (thisBit >= 0) {
+      if (thisBit != otherBit) {
+        return thisBit - otherBit;
+      }
+      thisBit = nextSetBit(thisBit + 1);
+      otherBit = other.nextSetBit(otherBit + 1);
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * A {@link PLIBuilder} that keeps the value index of every column, so that rows appended to the
+ * relation can be added to the {@link PositionListIndex}es later on. The index can be saved and
+ * loaded again, so the original input does not have to be read to extend the plis. The plis
+ * returned by {@link #getPLIList()} are updated in place (clusters and raw key error) when rows are
+ * appended.
+ */
+public class IncrementalPLIBuilder extends PLIBuilder {
+
+  protected static final Charset CHARSET = Charset.forName("UTF-8");
+
+  protected List<PositionListIndex> plis = new ArrayList<>();
+
+  public IncrementalPLIBuilder(RelationalInput input) {
+    super(input);
+  }
+
+  public IncrementalPLIBuilder(RelationalInput input, boolean nullEqualsNull) {
+    super(input, nullEqualsNull);
+  }
+
+  /**
+   * Builds a {@link PositionListIndex} for every column in the input. The plis stay attached to the
+   * builder and are extended by {@link #append(RelationalInput)}.
+   *
+   * @return list of plis for all columns
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  @Override
+  public List<PositionListIndex> getPLIList() throws InputIterationException {
+    ensureIndexed();
+    return Collections.unmodifiableList(plis);
+  }
+
+  /**
+   * Returns the clusters of the attached plis. The value index is not purged.
+   *
+   * @return list of associated clusters (PLI)
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  @Override
+  protected List<List<LongArrayList>> getRawPLIs() throws InputIterationException {
+    ensureIndexed();
+    List<List<LongArrayList>> rawPLIs = new ArrayList<>(plis.size());
+    for (PositionListIndex pli : plis) {
+      rawPLIs.add(pli.getClusters());
+    }
+    return rawPLIs;
+  }
+
+  /**
+   * Builds a {@link TreeSet} of the values of every column. "null" values are filtered. Unlike the
+   * {@link PLIBuilder} the value index is not modified.
+   *
+   * @return all columns' sorted distinct values
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  @Override
+  public List<TreeSet<String>> getDistinctSortedColumns() throws InputIterationException {
+    ensureIndexed();
+
+    List<TreeSet<String>> distinctSortedColumns = new LinkedList<>();
+    for (HashMap<String, LongArrayList> columnMap : columns) {
+      TreeSet<String> distinctSortedColumn = new TreeSet<>();
+      for (String value : columnMap.keySet()) {
+        if (value != null) {
+          distinctSortedColumn.add(value);
+        }
+      }
+      distinctSortedColumns.add(distinctSortedColumn);
+    }
+    return distinctSortedColumns;
+  }
+
+  /**
+   * Appends the rows of the given input to the plis. Row ids continue after the rows indexed
+   * before. Only the new rows are read.
+   *
+   * @param newRows the rows appended to the relation
+   * @return the builder
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  public IncrementalPLIBuilder append(RelationalInput newRows) throws InputIterationException {
+    ensureIndexed();
+    appendRows(newRows);
+    return this;
+  }
+
+  protected void ensureIndexed() throws InputIterationException {
+    if (columns == null) {
+      columns = new ArrayList<>();
+      this.numberOfTuples = 0;
+      appendRows(input);
+    }
+  }
+
+  protected void appendRows(RelationalInput newRows) throws InputIterationException {
+    while (newRows.hasNext()) {
+      List<String> row = newRows.next();
+      int columnCount = 0;
+      for (String cellValue : row) {
+        addValue(this.numberOfTuples, columnCount, cellValue);
+        columnCount++;
+      }
+      this.numberOfTuples++;
+    }
+    for (PositionListIndex pli : plis) {
+      pli.numberOfTuples = this.numberOfTuples;
+    }
+  }
+
+  /**
+   * Adds the value to the value index. If the value has been seen before the row is added to the
+   * value's cluster and the pli's raw key error grows by one. The pli's normalized form is reset.
+   */
+  @Override
+  protected void addValue(long rowCount, int columnCount, String attributeCell) {
+    while (columns.size() <= columnCount) {
+      columns.add(new HashMap<String, LongArrayList>());
+      plis.add(new PositionListIndex());
+    }
+
+    if (!this.nullEqualsNull && attributeCell == null) {
+      return;
+    }
+
+    HashMap<String, LongArrayList> columnMap = columns.get(columnCount);
+    LongArrayList cluster = columnMap.get(attributeCell);
+    if (cluster == null) {
+      cluster = new LongArrayList(1);
+      cluster.add(rowCount);
+      columnMap.put(attributeCell, cluster);
+      return;
+    }
+
+    cluster.add(rowCount);
+    PositionListIndex pli = plis.get(columnCount);
+    if (cluster.size() == 2) {
+      pli.clusters.add(cluster);
+    }
+    if (pli.rawKeyError != -1) {
+      pli.rawKeyError++;
+    }
+    pli.resetNormalizedForm();
+  }
+
+  /**
+   * Writes the value index to the stream. The stream is not closed.
+   *
+   * @param outputStream the stream to write to
+   * @throws IOException             if the stream cannot be written
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  public void save(OutputStream outputStream) throws IOException, InputIterationException {
+    ensureIndexed();
+
+    DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeLong(numberOfTuples);
+    out.writeBoolean(nullEqualsNull);
+    out.writeInt(columns.size());
+    for (HashMap<String, LongArrayList> columnMap : columns) {
+      out.writeInt(columnMap.size());
+      for (Map.Entry<String, LongArrayList> entry : columnMap.entrySet()) {
+        if (entry.getKey() == null) {
+          out.writeInt(-1);
+        } else {
+          byte[] value = entry.getKey().getBytes(CHARSET);
+          out.writeInt(value.length);
+          out.write(value);
+        }
+        LongArrayList rows = entry.getValue();
+        out.writeInt(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+          out.writeLong(rows.getLong(i));
+        }
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * Reads a value index written by {@link #save(OutputStream)}. The stream is not closed.
+   *
+   * @param inputStream the stream to read from
+   * @return a builder that can append new rows to the loaded plis
+   * @throws IOException if the stream cannot be read
+   */
+  public static IncrementalPLIBuilder load(InputStream inputStream) throws IOException {
+    DataInputStream in = new DataInputStream(inputStream);
+    long numberOfTuples = in.readLong();
+    IncrementalPLIBuilder builder = new IncrementalPLIBuilder(null, in.readBoolean());
+    builder.numberOfTuples = numberOfTuples;
+    builder.columns = new ArrayList<>();
+
+    int numberOfColumns = in.readInt();
+    for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+      int numberOfValues = in.readInt();
+      HashMap<String, LongArrayList> columnMap = new HashMap<>(numberOfValues * 2);
+      List<LongArrayList> clusters = new ArrayList<>();
+      for (int valueIndex = 0; valueIndex < numberOfValues; valueIndex++) {
+        int valueLength = in.readInt();
+        String value = null;
+        if (valueLength != -1) {
+          byte[] bytes = new byte[valueLength];
+          in.readFully(bytes);
+          value = new String(bytes, CHARSET);
+        }
+        int numberOfRows = in.readInt();
+        LongArrayList rows = new LongArrayList(numberOfRows);
+        for (int i = 0; i < numberOfRows; i++) {
+          rows.add(in.readLong());
+        }
+        columnMap.put(value, rows);
+        if (numberOfRows > 1) {
+          clusters.add(rows);
+        }
+      }
+      builder.columns.add(columnMap);
+      builder.plis.add(new PositionListIndex(clusters, numberOfTuples));
+    }
+
+    return builder;
+  }
+}
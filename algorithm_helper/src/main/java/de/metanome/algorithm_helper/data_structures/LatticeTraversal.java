@@ -0,0 +1,329 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bottom-up, level-wise traversal of the column combination lattice that finds all minimal valid
+ * column combinations, e.g. minimal uniques. Level k + 1 is generated from the invalid candidates
+ * of level k by joining candidates that share all but their last column (apriori-gen). A joined
+ * candidate is kept only if all of its direct subsets were invalid. Column combinations that are
+ * known to be valid or invalid beforehand are stored in a {@link SubSetGraph} and a {@link
+ * SuperSetGraph} and spare the evaluation of their supersets and subsets respectively. The
+ * candidates of a level are evaluated in parallel by a {@link ForkJoinPool} whose idle workers
+ * steal the halves of larger candidate ranges. Validity and pruning are decided by a {@link
+ * LatticeTraversalCallback}.
+ */
+public class LatticeTraversal {
+
+  // Candidate ranges of at most this size are evaluated by a single task.
+  public static final int DEFAULT_TASK_SIZE = 16;
+
+  protected int numberOfColumns;
+  protected LatticeTraversalCallback callback;
+  protected int parallelism;
+  protected int taskSize = DEFAULT_TASK_SIZE;
+  protected int maximumLevel;
+
+  protected SubSetGraph knownValid = new SubSetGraph();
+  protected SuperSetGraph knownInvalid;
+
+  protected long numberOfEvaluatedCandidates = 0;
+
+  /**
+   * Constructs a {@link LatticeTraversal} using one worker per available processor.
+   *
+   * @param numberOfColumns the number of columns of the relation
+   * @param callback        the callback deciding validity and pruning
+   */
+  public LatticeTraversal(int numberOfColumns, LatticeTraversalCallback callback) {
+    this(numberOfColumns, callback, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param numberOfColumns the number of columns of the relation
+   * @param callback        the callback deciding validity and pruning
+   * @param parallelism     the number of workers evaluating candidates
+   */
+  public LatticeTraversal(int numberOfColumns, LatticeTraversalCallback callback,
+                          int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism has to be positive.");
+    }
+    this.numberOfColumns = numberOfColumns;
+    this.callback = callback;
+    this.parallelism = parallelism;
+    this.maximumLevel = numberOfColumns;
+    this.knownInvalid = new SuperSetGraph(numberOfColumns);
+  }
+
+  /**
+   * Limits the traversal to column combinations of at most maximumLevel columns.
+   *
+   * @param maximumLevel the size of the largest evaluated column combinations
+   * @return the traversal
+   */
+  public LatticeTraversal setMaximumLevel(int maximumLevel) {
+    this.maximumLevel = maximumLevel;
+    return this;
+  }
+
+  /**
+   * Sets the size of the candidate ranges that are not split any further.
+   *
+   * @param taskSize the number of candidates evaluated by a single task
+   * @return the traversal
+   */
+  public LatticeTraversal setTaskSize(int taskSize) {
+    if (taskSize < 1) {
+      throw new IllegalArgumentException("The task size has to be positive.");
+    }
+    this.taskSize = taskSize;
+    return this;
+  }
+
+  /**
+   * Adds a column combination that is known to be valid. Its supersets are not evaluated.
+   *
+   * @param columnCombination a valid column combination
+   * @return the traversal
+   */
+  public LatticeTraversal addKnownValid(ColumnCombinationBitset columnCombination) {
+    knownValid.add(columnCombination);
+    return this;
+  }
+
+  /**
+   * Adds a column combination that is known to be invalid. Its subsets are not evaluated.
+   *
+   * @param columnCombination an invalid column combination
+   * @return the traversal
+   */
+  public LatticeTraversal addKnownInvalid(ColumnCombinationBitset columnCombination) {
+    knownInvalid.add(columnCombination);
+    return this;
+  }
+
+  /**
+   * @return the number of candidates passed to {@link LatticeTraversalCallback#isValid(ColumnCombinationBitset)}
+   */
+  public long getNumberOfEvaluatedCandidates() {
+    return numberOfEvaluatedCandidates;
+  }
+
+  /**
+   * Traverses the lattice level by level starting with the single columns.
+   *
+   * @return the minimal valid column combinations in ascending order
+   */
+  public List<ColumnCombinationBitset> traverse() {
+    List<ColumnCombinationBitset> minimalValid = new ArrayList<>();
+
+    List<ColumnCombinationBitset> candidates = new ArrayList<>(numberOfColumns);
+    for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+      candidates.add(new ColumnCombinationBitset(columnIndex));
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      int level = 1;
+      while (!candidates.isEmpty() && level <= maximumLevel) {
+        List<ColumnCombinationBitset> invalid = evaluateLevel(pool, candidates, minimalValid);
+        candidates = generateNextLevel(invalid);
+        level++;
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    Collections.sort(minimalValid);
+    return minimalValid;
+  }
+
+  /**
+   * Evaluates the candidates of a level. Valid candidates are added to the minimal valid column
+   * combinations.
+   *
+   * @param pool         the pool evaluating the candidates
+   * @param candidates   the candidates of the level
+   * @param minimalValid the minimal valid column combinations found so far
+   * @return the invalid candidates of the level
+   */
+  protected List<ColumnCombinationBitset> evaluateLevel(
+    ForkJoinPool pool,
+    List<ColumnCombinationBitset> candidates,
+    List<ColumnCombinationBitset> minimalValid) {
+
+    CandidateState[] states = new CandidateState[candidates.size()];
+    pool.invoke(new CandidateEvaluationTask(candidates, states, 0, candidates.size()));
+
+    List<ColumnCombinationBitset> invalid = new ArrayList<>();
+    for (int i = 0; i < states.length; i++) {
+      ColumnCombinationBitset candidate = candidates.get(i);
+      switch (states[i]) {
+        case EVALUATED_VALID:
+          numberOfEvaluatedCandidates++;
+          minimalValid.add(candidate);
+          break;
+        case EVALUATED_INVALID:
+          numberOfEvaluatedCandidates++;
+          invalid.add(candidate);
+          break;
+        case KNOWN_VALID:
+          minimalValid.add(candidate);
+          break;
+        case KNOWN_INVALID:
+          invalid.add(candidate);
+          break;
+        default:
+          // Pruned candidates are dropped.
+      }
+    }
+    return invalid;
+  }
+
+  /**
+   * Generates the candidates of level k + 1 from the invalid column combinations of level k. Two
+   * column combinations sharing their first k - 1 columns are joined and the result is kept if
+   * all of its direct subsets are invalid.
+   *
+   * @param invalid the invalid column combinations of level k
+   * @return the candidates of level k + 1
+   */
+  protected List<ColumnCombinationBitset> generateNextLevel(
+    List<ColumnCombinationBitset> invalid) {
+
+    // Group the column combinations by prefix, the last columns are collected in ascending order.
+    Collections.sort(invalid);
+    Map<ColumnCombinationBitset, List<Integer>> prefixBlocks = new LinkedHashMap<>();
+    for (ColumnCombinationBitset columnCombination : invalid) {
+      List<Integer> setBits = columnCombination.getSetBits();
+      int lastColumn = setBits.get(setBits.size() - 1);
+      ColumnCombinationBitset prefix =
+        new ColumnCombinationBitset(columnCombination).removeColumn(lastColumn);
+      List<Integer> lastColumns = prefixBlocks.get(prefix);
+      if (lastColumns == null) {
+        lastColumns = new ArrayList<>();
+        prefixBlocks.put(prefix, lastColumns);
+      }
+      lastColumns.add(lastColumn);
+    }
+
+    Set<ColumnCombinationBitset> invalidLevel = new HashSet<>(invalid);
+    List<ColumnCombinationBitset> nextLevel = new ArrayList<>();
+    for (Map.Entry<ColumnCombinationBitset, List<Integer>> block : prefixBlocks.entrySet()) {
+      List<Integer> lastColumns = block.getValue();
+      for (int i = 0; i < lastColumns.size(); i++) {
+        for (int j = i + 1; j < lastColumns.size(); j++) {
+          ColumnCombinationBitset candidate = new ColumnCombinationBitset(block.getKey())
+            .addColumn(lastColumns.get(i))
+            .addColumn(lastColumns.get(j));
+          if (allDirectSubsetsInvalid(candidate, block.getKey(), invalidLevel)) {
+            nextLevel.add(candidate);
+          }
+        }
+      }
+    }
+    return nextLevel;
+  }
+
+  /**
+   * Checks the direct subsets of the candidate that do not contain both joined columns. The two
+   * subsets that do were joined and are known to be invalid.
+   */
+  protected boolean allDirectSubsetsInvalid(ColumnCombinationBitset candidate,
+                                            ColumnCombinationBitset prefix,
+                                            Set<ColumnCombinationBitset> invalidLevel) {
+    for (int columnIndex : prefix.getSetBits()) {
+      ColumnCombinationBitset subset = new ColumnCombinationBitset(candidate)
+        .removeColumn(columnIndex);
+      if (!invalidLevel.contains(subset)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected enum CandidateState {
+    PRUNED, KNOWN_VALID, KNOWN_INVALID, EVALUATED_VALID, EVALUATED_INVALID
+  }
+
+  /**
+   * Evaluates a range of candidates. Ranges larger than the task size are split in halves that
+   * can be stolen by idle workers.
+   */
+  protected class CandidateEvaluationTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    protected List<ColumnCombinationBitset> candidates;
+    protected CandidateState[] states;
+    protected int from;
+    protected int to;
+
+    public CandidateEvaluationTask(List<ColumnCombinationBitset> candidates,
+                                   CandidateState[] states, int from, int to) {
+      this.candidates = candidates;
+      this.states = states;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > taskSize) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new CandidateEvaluationTask(candidates, states, from, middle),
+                  new CandidateEvaluationTask(candidates, states, middle, to));
+        return;
+      }
+
+      for (int i = from; i < to; i++) {
+        states[i] = evaluate(candidates.get(i));
+      }
+    }
+
+    /**
+     * The graphs of known column combinations are only modified between levels and can be read
+     * concurrently.
+     */
+    protected CandidateState evaluate(ColumnCombinationBitset candidate) {
+      if (callback.isPruned(candidate)) {
+        return CandidateState.PRUNED;
+      }
+      if (knownValid.containsSubset(candidate)) {
+        return CandidateState.KNOWN_VALID;
+      }
+      if (knownInvalid.containsSuperset(candidate)) {
+        return CandidateState.KNOWN_INVALID;
+      }
+      if (callback.isValid(candidate)) {
+        return CandidateState.EVALUATED_VALID;
+      }
+      return CandidateState.EVALUATED_INVALID;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+/**
+ * Decides validity and pruning of the candidates of a {@link LatticeTraversal}. A candidate is, for
+ * example, valid if it is unique or determines a fixed right hand side. Both methods are called
+ * concurrently from the worker threads of the traversal and have to be thread safe.
+ */
+public interface LatticeTraversalCallback {
+
+  /**
+   * Called before a candidate is evaluated. Pruned candidates are neither valid nor extended to
+   * the next level.
+   *
+   * @param candidate the candidate column combination
+   * @return whether the candidate and all of its supersets should be skipped
+   */
+  boolean isPruned(ColumnCombinationBitset candidate);
+
+  /**
+   * Evaluates a candidate, e.g. by intersecting plis. Valid candidates are minimal and are not
+   * extended to the next level.
+   *
+   * @param candidate the candidate column combination
+   * @return whether the candidate is valid
+   */
+  boolean isValid(ColumnCombinationBitset candidate);
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.apache.lucene.util.OpenBitSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Enumerates the minimal hitting sets (minimal transversals) of a hypergraph whose edges are
+ * {@link ColumnCombinationBitset}s, e.g. the minimal uniques from the complements of the maximal
+ * non uniques, or the minimal fd left hand sides from difference sets. The edges are minimized
+ * with {@link SubSetGraph#minimize(java.util.Collection)} first, as supersets of other edges are
+ * hit anyway.
+ *
+ * The search is the depth-first MMCS algorithm (Murakami and Uno): a partial hitting set S is
+ * extended by the candidate columns of the uncovered edge with the fewest candidates. Every
+ * column in S keeps its critical edges, the edges that are hit by this column only. Extensions
+ * that leave a column without critical edges are not minimal and are not explored, so every
+ * minimal hitting set is found exactly once and no minimality check on the output is needed. All
+ * sets of edges are bitsets over the edge indices.
+ *
+ * Minimal hitting sets are passed to a {@link MinimalHittingSetReceiver} as soon as they are
+ * found. With a parallelism greater than one the branches of the search are forked on a {@link
+ * ForkJoinPool} while other workers are idle. A timeout stops the search early.
+ */
+public class MinimalHittingSetEnumerator {
+
+  protected OpenBitSet[] edges;
+  // columnEdges[column] contains the indices of the edges containing the column.
+  protected OpenBitSet[] columnEdges;
+  protected OpenBitSet columns;
+  protected boolean hasEmptyEdge;
+
+  protected int parallelism = 1;
+  protected long timeoutMillis = 0;
+
+  protected MinimalHittingSetReceiver receiver;
+  protected long deadline;
+  protected volatile boolean timedOut;
+
+  /**
+   * @param edges the edges of the hypergraph
+   */
+  public MinimalHittingSetEnumerator(Collection<ColumnCombinationBitset> edges) {
+    List<ColumnCombinationBitset> minimalEdges = SubSetGraph.minimize(edges);
+
+    this.edges = new OpenBitSet[minimalEdges.size()];
+    this.columns = new OpenBitSet();
+    for (int edge = 0; edge < this.edges.length; edge++) {
+      this.edges[edge] = minimalEdges.get(edge).bitset.clone();
+      this.columns.union(this.edges[edge]);
+      this.hasEmptyEdge |= minimalEdges.get(edge).isEmpty();
+    }
+
+    int numberOfColumns = 0;
+    for (int column = columns.nextSetBit(0); column >= 0; column = columns.nextSetBit(column + 1)) {
+      numberOfColumns = column + 1;
+    }
+    this.columnEdges = new OpenBitSet[numberOfColumns];
+    for (int column = 0; column < numberOfColumns; column++) {
+      columnEdges[column] = new OpenBitSet(this.edges.length);
+    }
+    for (int edge = 0; edge < this.edges.length; edge++) {
+      for (int column = this.edges[edge].nextSetBit(0); column >= 0;
+           column = this.edges[edge].nextSetBit(column + 1)) {
+        columnEdges[column].fastSet(edge);
+      }
+    }
+  }
+
+  /**
+   * Sets the number of workers of the search. A parallelism of one (default) searches in the
+   * calling thread.
+   *
+   * @param parallelism the number of workers
+   * @return the enumerator
+   */
+  public MinimalHittingSetEnumerator setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism has to be positive.");
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Stops the search after the given time. The minimal hitting sets found until then have been
+   * received. Zero (default) disables the timeout.
+   *
+   * @param timeoutMillis the maximal duration of the search in milliseconds
+   * @return the enumerator
+   */
+  public MinimalHittingSetEnumerator setTimeout(long timeoutMillis) {
+    if (timeoutMillis < 0) {
+      throw new IllegalArgumentException("The timeout must not be negative.");
+    }
+    this.timeoutMillis = timeoutMillis;
+    return this;
+  }
+
+  /**
+   * Enumerates all minimal hitting sets and passes them to the receiver.
+   *
+   * @param receiver the receiver of the minimal hitting sets
+   * @return true if the search completed, false if it was stopped by the timeout
+   */
+  public boolean enumerate(MinimalHittingSetReceiver receiver) {
+    this.receiver = receiver;
+    this.deadline = System.nanoTime() + timeoutMillis * 1000000;
+    this.timedOut = false;
+
+    if (hasEmptyEdge) {
+      // An empty edge cannot be hit.
+      return true;
+    }
+
+    OpenBitSet uncovered = new OpenBitSet(edges.length);
+    uncovered.set(0, edges.length);
+    SearchTask root = new SearchTask(new int[0], new OpenBitSet[0], columns.clone(), uncovered);
+    if (parallelism == 1) {
+      root.compute();
+    } else {
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      try {
+        pool.invoke(root);
+      } finally {
+        pool.shutdown();
+      }
+    }
+    return !timedOut;
+  }
+
+  /**
+   * Enumerates all minimal hitting sets. If the search timed out, the list contains the minimal
+   * hitting sets found until then.
+   *
+   * @return the minimal hitting sets in ascending order
+   */
+  public List<ColumnCombinationBitset> getMinimalHittingSets() {
+    final List<ColumnCombinationBitset> minimalHittingSets = new ArrayList<>();
+    enumerate(new MinimalHittingSetReceiver() {
+      @Override
+      public void receiveMinimalHittingSet(ColumnCombinationBitset minimalHittingSet) {
+        minimalHittingSets.add(minimalHittingSet);
+      }
+    });
+    Collections.sort(minimalHittingSets);
+    return minimalHittingSets;
+  }
+
+  protected void emit(int[] hittingSet) {
+    ColumnCombinationBitset minimalHittingSet = new ColumnCombinationBitset(hittingSet);
+    synchronized (receiver) {
+      receiver.receiveMinimalHittingSet(minimalHittingSet);
+    }
+  }
+
+  protected boolean isTimedOut() {
+    if (!timedOut && timeoutMillis > 0 && System.nanoTime() - deadline > 0) {
+      timedOut = true;
+    }
+    return timedOut;
+  }
+
+  /**
+   * A node of the search: the partial hitting set with the critical edges of its columns, the
+   * remaining candidate columns and the uncovered edges. The task only reads its state, so the
+   * bitsets may be shared with sibling tasks.
+   */
+  protected class SearchTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    protected int[] hittingSet;
+    protected OpenBitSet[] criticalEdges;
+    protected OpenBitSet candidates;
+    protected OpenBitSet uncovered;
+
+    public SearchTask(int[] hittingSet, OpenBitSet[] criticalEdges, OpenBitSet candidates,
+                      OpenBitSet uncovered) {
+      this.hittingSet = hittingSet;
+      this.criticalEdges = criticalEdges;
+      this.candidates = candidates;
+      this.uncovered = uncovered;
+    }
+
+    @Override
+    protected void compute() {
+      if (isTimedOut()) {
+        return;
+      }
+      if (uncovered.isEmpty()) {
+        emit(hittingSet);
+        return;
+      }
+
+      int edge = chooseEdge();
+      if (edge < 0) {
+        // An uncovered edge has no candidates left.
+        return;
+      }
+
+      OpenBitSet branchColumns = edges[edge].clone();
+      branchColumns.and(candidates);
+      OpenBitSet remainingCandidates = candidates.clone();
+      remainingCandidates.andNot(edges[edge]);
+
+      List<SearchTask> forkedTasks = null;
+      for (int column = branchColumns.nextSetBit(0); column >= 0;
+           column = branchColumns.nextSetBit(column + 1)) {
+        SearchTask child = extend(column, remainingCandidates);
+        if (child != null) {
+          if (parallelism > 1 && getSurplusQueuedTaskCount() < 2) {
+            if (forkedTasks == null) {
+              forkedTasks = new ArrayList<>();
+            }
+            child.candidates = remainingCandidates.clone();
+            forkedTasks.add(child);
+          } else {
+            child.compute();
+          }
+        }
+        // Later branches may contain this column, earlier ones must not.
+        remainingCandidates.fastSet(column);
+      }
+
+      if (forkedTasks != null) {
+        invokeAll(forkedTasks);
+      }
+    }
+
+    /**
+     * @return the uncovered edge with the fewest candidates or -1 if an uncovered edge has no
+     * candidates
+     */
+    protected int chooseEdge() {
+      int chosenEdge = -1;
+      long minimumCandidates = Long.MAX_VALUE;
+      for (int edge = uncovered.nextSetBit(0); edge >= 0; edge = uncovered.nextSetBit(edge + 1)) {
+        long numberOfCandidates = OpenBitSet.intersectionCount(edges[edge], candidates);
+        if (numberOfCandidates == 0) {
+          return -1;
+        }
+        if (numberOfCandidates < minimumCandidates) {
+          minimumCandidates = numberOfCandidates;
+          chosenEdge = edge;
+        }
+      }
+      return chosenEdge;
+    }
+
+    /**
+     * Adds the column to the hitting set and updates the critical and uncovered edges.
+     *
+     * @return the child task or null if a column of the hitting set would lose all of its
+     * critical edges
+     */
+    protected SearchTask extend(int column, OpenBitSet childCandidates) {
+      OpenBitSet edgesOfColumn = columnEdges[column];
+
+      int size = hittingSet.length;
+      OpenBitSet[] childCriticalEdges = new OpenBitSet[size + 1];
+      for (int i = 0; i < size; i++) {
+        if (OpenBitSet.intersectionCount(criticalEdges[i], edgesOfColumn) == 0) {
+          childCriticalEdges[i] = criticalEdges[i];
+        } else {
+          childCriticalEdges[i] = criticalEdges[i].clone();
+          childCriticalEdges[i].andNot(edgesOfColumn);
+          if (childCriticalEdges[i].isEmpty()) {
+            return null;
+          }
+        }
+      }
+      childCriticalEdges[size] = uncovered.clone();
+      childCriticalEdges[size].and(edgesOfColumn);
+
+      OpenBitSet childUncovered = uncovered.clone();
+      childUncovered.andNot(edgesOfColumn);
+
+      int[] childHittingSet = Arrays.copyOf(hittingSet, size + 1);
+      childHittingSet[size] = column;
+      return new SearchTask(childHittingSet, childCriticalEdges, childCandidates, childUncovered);
+    }
+  }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+/**
+ * Receives the minimal hitting sets found by a {@link MinimalHittingSetEnumerator} as soon as
+ * they are found. The calls are synchronized by the enumerator, so receivers need not be thread
+ * safe even if the search runs in parallel.
+ */
+public interface MinimalHittingSetReceiver {
+
+  /**
+   * @param minimalHittingSet a minimal hitting set, every set is received once
+   */
+  void receiveMinimalHittingSet(ColumnCombinationBitset minimalHittingSet);
+}
@@ -16,9 +16,13 @@
 
 package de.metanome.algorithm_helper.data_structures;
 
+import de.metanome.algorithm_integration.input.BatchRelationalInput;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputIterationException;
 import de.metanome.algorithm_integration.input.RelationalInput;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
 import java.util.*;
 
@@ -29,6 +33,10 @@ import java.util.*;
  */
 public class PLIBuilder {
 
+  public static final int MAX_BITMAP_CLUSTERS = 16;
+  public static final int MIN_BITMAP_CLUSTER_SIZE = 64;
+  public static final int INPUT_BATCH_SIZE = 1024;
+
   protected long numberOfTuples = -1;
   protected List<HashMap<String, LongArrayList>> columns = null;
   protected RelationalInput input;
@@ -54,7 +62,130 @@ public class PLIBuilder {
     List<List<LongArrayList>> rawPLIs = getRawPLIs();
     List<PositionListIndex> result = new ArrayList<>();
     for (List<LongArrayList> rawPLI : rawPLIs) {
-      result.add(new PositionListIndex(rawPLI));
+      result.add(new PositionListIndex(rawPLI, this.numberOfTuples));
+    }
+    return result;
+  }
+
+  /**
+   * Builds a {@link CompactPositionListIndex} for every column in the input.
+   *
+   * @return list of compact plis for all columns
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  public List<CompactPositionListIndex> getCompactPLIList() throws InputIterationException {
+    List<List<LongArrayList>> rawPLIs = getRawPLIs();
+    List<CompactPositionListIndex> result = new ArrayList<>();
+    for (List<LongArrayList> rawPLI : rawPLIs) {
+      result.add(
+        new CompactPositionListIndex(new PositionListIndex(rawPLI), (int) getNumberOfTuples()));
+    }
+    return result;
+  }
+
+  /**
+   * Builds a {@link StrippedPartition} for every column in the input. Columns with few large
+   * clusters are stored as {@link BitmapPositionListIndex}es, all other columns as {@link
+   * PositionListIndex}es.
+   *
+   * @return list of partitions for all columns
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  public List<StrippedPartition> getStrippedPartitionList() throws InputIterationException {
+    List<List<LongArrayList>> rawPLIs = getRawPLIs();
+    List<StrippedPartition> result = new ArrayList<>();
+    for (List<LongArrayList> rawPLI : rawPLIs) {
+      PositionListIndex pli = new PositionListIndex(rawPLI, this.numberOfTuples);
+      if (isBitmapSuitable(rawPLI)) {
+        result.add(new BitmapPositionListIndex(pli));
+      } else {
+        result.add(pli);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * A column is stored as bitmaps if it has at most {@link #MAX_BITMAP_CLUSTERS} clusters with
+   * {@link #MIN_BITMAP_CLUSTER_SIZE} rows on average and the row ids fit into an int.
+   *
+   * @param rawPLI the clusters of the column
+   * @return whether the column should be stored as {@link BitmapPositionListIndex}
+   */
+  protected boolean isBitmapSuitable(List<LongArrayList> rawPLI) {
+    if (rawPLI.isEmpty() || rawPLI.size() > MAX_BITMAP_CLUSTERS
+        || this.numberOfTuples > Integer.MAX_VALUE) {
+      return false;
+    }
+
+    long numberOfRows = 0;
+    for (LongArrayList cluster : rawPLI) {
+      numberOfRows += cluster.size();
+    }
+    return numberOfRows >= (long) MIN_BITMAP_CLUSTER_SIZE * rawPLI.size();
+  }
+
+  /**
+   * Builds a {@link SampledPositionListIndex} for every column on a Bernoulli sample of the input.
+   * Every row is sampled independently with the given sampling rate and the sampled rows are
+   * numbered consecutively. Unsampled rows are only counted, so building the sample plis costs
+   * about the sampling rate times a full build. The input is consumed, {@link #getNumberOfTuples()}
+   * returns the number of rows of the complete input afterwards.
+   *
+   * @param samplingRate the probability of a row to be sampled in (0, 1]
+   * @param seed         the seed of the random number generator
+   * @return list of sampled plis for all columns
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  public List<SampledPositionListIndex> getSampledPLIList(double samplingRate, long seed)
+    throws InputIterationException {
+    if (samplingRate <= 0 || samplingRate > 1) {
+      throw new IllegalArgumentException("The sampling rate has to be in (0, 1].");
+    }
+
+    Random random = new Random(seed);
+    LongArrayList numberOfValues = new LongArrayList();
+    LongArrayList numberOfSampledValues = new LongArrayList();
+    long numberOfSampledTuples = 0;
+    columns = new ArrayList<>();
+    this.numberOfTuples = 0;
+    while (input.hasNext()) {
+      List<String> row = input.next();
+      boolean sampled = random.nextDouble() < samplingRate;
+      int columnCount = 0;
+      for (String cellValue : row) {
+        if (numberOfValues.size() <= columnCount) {
+          numberOfValues.add(0);
+          numberOfSampledValues.add(0);
+        }
+        boolean indexed = this.nullEqualsNull || cellValue != null;
+        if (indexed) {
+          numberOfValues.set(columnCount, numberOfValues.getLong(columnCount) + 1);
+        }
+        if (sampled) {
+          addValue(numberOfSampledTuples, columnCount, cellValue);
+          if (indexed) {
+            numberOfSampledValues.set(columnCount, numberOfSampledValues.getLong(columnCount) + 1);
+          }
+        }
+        columnCount++;
+      }
+      if (sampled) {
+        numberOfSampledTuples++;
+      }
+      this.numberOfTuples++;
+    }
+
+    // Columns that only occur in unsampled rows have no value map yet.
+    while (columns.size() < numberOfValues.size()) {
+      columns.add(new HashMap<String, LongArrayList>());
+    }
+
+    List<List<LongArrayList>> rawPLIs = purgePLIEntries();
+    List<SampledPositionListIndex> result = new ArrayList<>();
+    for (int columnIndex = 0; columnIndex < rawPLIs.size(); columnIndex++) {
+      result.add(new SampledPositionListIndex(rawPLIs.get(columnIndex), numberOfSampledTuples,
+        numberOfValues.getLong(columnIndex), numberOfSampledValues.getLong(columnIndex)));
     }
     return result;
   }
@@ -113,7 +244,124 @@ public class PLIBuilder {
     return distinctSortedColumns;
   }
 
+  /**
+   * Reads the input into a {@link DictionaryColumnStore}. Every column is stored as an int array
+   * of value ids and a sorted dictionary, so the store needs about four bytes per cell plus the
+   * distinct values. The plis and sorted distinct values can then be derived from the store. Cells
+   * missing in short rows are stored as null, so every column has a value id for every row. The
+   * input is consumed, so the builder's other methods cannot be used afterwards.
+   *
+   * @return the dictionary encoded columns
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  public DictionaryColumnStore getColumnStore() throws InputIterationException {
+    List<Object2IntOpenHashMap<String>> valueMaps = new ArrayList<>();
+    List<List<String>> unsortedDictionaries = new ArrayList<>();
+    List<IntArrayList> valueIds = new ArrayList<>();
+
+    this.numberOfTuples = 0;
+    while (input.hasNext()) {
+      List<String> row = input.next();
+      int columnCount = 0;
+      for (String cellValue : row) {
+        if (valueMaps.size() <= columnCount) {
+          Object2IntOpenHashMap<String> valueMap = new Object2IntOpenHashMap<>();
+          valueMap.defaultReturnValue(DictionaryColumnStore.NULL_ID);
+          valueMaps.add(valueMap);
+          unsortedDictionaries.add(new ArrayList<String>());
+          // A column first seen in a later row is null in the earlier rows.
+          IntArrayList columnValueIds = new IntArrayList();
+          columnValueIds.size((int) this.numberOfTuples);
+          Arrays.fill(columnValueIds.elements(), 0, columnValueIds.size(),
+            DictionaryColumnStore.NULL_ID);
+          valueIds.add(columnValueIds);
+        }
+        int valueId = encodeValue(cellValue, valueMaps.get(columnCount),
+          unsortedDictionaries.get(columnCount));
+        valueIds.get(columnCount).add(valueId);
+        columnCount++;
+      }
+      for (; columnCount < valueIds.size(); columnCount++) {
+        valueIds.get(columnCount).add(DictionaryColumnStore.NULL_ID);
+      }
+      this.numberOfTuples++;
+    }
+
+    List<String[]> dictionaries = new ArrayList<>(valueIds.size());
+    List<int[]> sortedValueIds = new ArrayList<>(valueIds.size());
+    for (int columnIndex = 0; columnIndex < valueIds.size(); columnIndex++) {
+      // Free the value map before sorting.
+      valueMaps.set(columnIndex, null);
+      List<String> unsortedDictionary = unsortedDictionaries.get(columnIndex);
+      String[] dictionary = unsortedDictionary.toArray(new String[unsortedDictionary.size()]);
+      unsortedDictionaries.set(columnIndex, null);
+
+      IntArrayList columnValueIds = valueIds.get(columnIndex);
+      columnValueIds.trim();
+      dictionaries.add(dictionary);
+      sortedValueIds.add(sortDictionary(dictionary, columnValueIds.elements()));
+    }
+
+    return new DictionaryColumnStore(dictionaries, sortedValueIds, (int) this.numberOfTuples,
+      this.nullEqualsNull);
+  }
+
+  protected int encodeValue(String cellValue, Object2IntOpenHashMap<String> valueMap,
+                            List<String> dictionary) {
+    if (cellValue == null) {
+      return DictionaryColumnStore.NULL_ID;
+    }
+
+    int valueId = valueMap.getInt(cellValue);
+    if (valueId == DictionaryColumnStore.NULL_ID) {
+      valueId = dictionary.size();
+      valueMap.put(cellValue, valueId);
+      dictionary.add(cellValue);
+    }
+    return valueId;
+  }
+
+  /**
+   * Sorts the dictionary in place and rewrites the value ids to the sorted positions.
+   *
+   * @param dictionary the dictionary in order of first occurrence
+   * @param valueIds   the value ids referring to the unsorted dictionary
+   * @return the rewritten value ids
+   */
+  protected int[] sortDictionary(final String[] dictionary, int[] valueIds) {
+    Integer[] order = new Integer[dictionary.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        return dictionary[o1].compareTo(dictionary[o2]);
+      }
+    });
+
+    int[] newIds = new int[dictionary.length];
+    String[] sortedValues = new String[dictionary.length];
+    for (int newId = 0; newId < order.length; newId++) {
+      newIds[order[newId]] = newId;
+      sortedValues[newId] = dictionary[order[newId]];
+    }
+    System.arraycopy(sortedValues, 0, dictionary, 0, dictionary.length);
+
+    for (int row = 0; row < valueIds.length; row++) {
+      if (valueIds[row] != DictionaryColumnStore.NULL_ID) {
+        valueIds[row] = newIds[valueIds[row]];
+      }
+    }
+    return valueIds;
+  }
+
   protected void calculateUnpurgedPLI() throws InputIterationException {
+    if (input instanceof BatchRelationalInput) {
+      calculateUnpurgedPLIFromBatches((BatchRelationalInput) input);
+      return;
+    }
+
     long rowCount = 0;
     this.numberOfTuples = 0;
     while (input.hasNext()) {
@@ -128,6 +376,29 @@ public class PLIBuilder {
     }
   }
 
+  /**
+   * Reads the input in batches and indexes one column of a batch at a time, which avoids a list
+   * per row and keeps a single value map in use.
+   *
+   * @param batchInput an input that reads batches natively
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  protected void calculateUnpurgedPLIFromBatches(BatchRelationalInput batchInput)
+    throws InputIterationException {
+    this.numberOfTuples = 0;
+    ColumnBatch batch = new ColumnBatch(batchInput.numberOfColumns(), INPUT_BATCH_SIZE);
+    int numberOfRows;
+    while ((numberOfRows = batchInput.nextBatch(batch)) > 0) {
+      for (int columnCount = 0; columnCount < batch.numberOfColumns(); columnCount++) {
+        String[] values = batch.getColumn(columnCount);
+        for (int row = 0; row < numberOfRows; row++) {
+          addValue(this.numberOfTuples + row, columnCount, values[row]);
+        }
+      }
+      this.numberOfTuples += numberOfRows;
+    }
+  }
+
   protected void addValue(long rowCount, int columnCount, String attributeCell) {
     if (columns.size() <= columnCount) {
       columns.add(new HashMap<String, LongArrayList>());
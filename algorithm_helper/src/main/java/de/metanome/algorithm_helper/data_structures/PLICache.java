@@ -0,0 +1,225 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of intersected {@link PositionListIndex}es keyed by their column combination. The
+ * single column plis are always available, intersected plis are cached until their estimated size
+ * exceeds the byte budget. Then the least recently used intersected plis are evicted. A missing pli
+ * is calculated from the largest cached subset of its column combination, so that a pli whose
+ * direct subset is cached costs a single intersection.
+ */
+public class PLICache {
+
+  protected List<PositionListIndex> columnPLIs;
+  protected long byteBudget;
+  protected long byteUsage = 0;
+
+  // Access ordered, so that the least recently used pli is evicted first.
+  protected LinkedHashMap<ColumnCombinationBitset, PositionListIndex> cachedPLIs =
+    new LinkedHashMap<>(16, 0.75f, true);
+  protected Map<ColumnCombinationBitset, Long> cachedSizes = new HashMap<>();
+
+  protected long hits = 0;
+  protected long misses = 0;
+  protected long evictions = 0;
+
+  /**
+   * @param columnPLIs the plis of all single columns ordered by column index
+   * @param byteBudget the number of bytes of intersected plis to cache
+   */
+  public PLICache(List<PositionListIndex> columnPLIs, long byteBudget) {
+    this.columnPLIs = columnPLIs;
+    this.byteBudget = byteBudget;
+  }
+
+  /**
+   * Returns the pli of the column combination. Missing plis are calculated and cached.
+   *
+   * @param columnCombination a non empty column combination
+   * @return the pli of the column combination
+   */
+  public PositionListIndex getPLI(ColumnCombinationBitset columnCombination) {
+    if (columnCombination.isEmpty()) {
+      throw new IllegalArgumentException("The column combination must not be empty.");
+    }
+    if (columnCombination.size() == 1) {
+      return columnPLIs.get(columnCombination.getSetBits().get(0));
+    }
+
+    PositionListIndex pli = cachedPLIs.get(columnCombination);
+    if (pli != null) {
+      hits++;
+      return pli;
+    }
+
+    misses++;
+    pli = calculatePLI(columnCombination);
+    put(columnCombination, pli);
+    return pli;
+  }
+
+  /**
+   * Adds a pli to the cache. Plis larger than the byte budget are not cached.
+   *
+   * @param columnCombination the column combination of the pli
+   * @param pli               the pli
+   */
+  public void put(ColumnCombinationBitset columnCombination, PositionListIndex pli) {
+    if (columnCombination.size() < 2) {
+      return;
+    }
+
+    long memorySize = pli.getMemorySize();
+    if (memorySize > byteBudget) {
+      return;
+    }
+
+    Long previousSize = cachedSizes.put(columnCombination, memorySize);
+    if (previousSize != null) {
+      byteUsage -= previousSize;
+    }
+    cachedPLIs.put(columnCombination, pli);
+    byteUsage += memorySize;
+
+    evict(columnCombination);
+  }
+
+  /**
+   * Calculates the pli by starting from the largest cached subset and intersecting the cached
+   * subsets that cover most of the remaining columns. Remaining columns without cached subsets are
+   * intersected one by one.
+   *
+   * @param columnCombination the column combination
+   * @return the pli of the column combination
+   */
+  protected PositionListIndex calculatePLI(ColumnCombinationBitset columnCombination) {
+    PositionListIndex pli = null;
+    ColumnCombinationBitset remainingColumns = columnCombination;
+
+    while (!remainingColumns.isEmpty()) {
+      ColumnCombinationBitset subset = findBestCachedSubset(columnCombination, remainingColumns);
+      PositionListIndex subsetPLI;
+      if (subset == null) {
+        int columnIndex = remainingColumns.getSetBits().get(0);
+        subset = new ColumnCombinationBitset(columnIndex);
+        subsetPLI = columnPLIs.get(columnIndex);
+      } else {
+        subsetPLI = cachedPLIs.get(subset);
+      }
+
+      pli = (pli == null) ? subsetPLI : pli.intersect(subsetPLI);
+      remainingColumns = remainingColumns.minus(subset);
+    }
+
+    return pli;
+  }
+
+  /**
+   * Finds the cached subset of the column combination that contains most of the remaining
+   * columns.
+   *
+   * @param columnCombination the column combination to calculate
+   * @param remainingColumns  the columns not yet covered
+   * @return the best cached subset or null if no cached subset contains two remaining columns
+   */
+  protected ColumnCombinationBitset findBestCachedSubset(
+    ColumnCombinationBitset columnCombination, ColumnCombinationBitset remainingColumns) {
+    ColumnCombinationBitset bestSubset = null;
+    int bestCoverage = 1;
+    for (ColumnCombinationBitset cachedColumnCombination : cachedPLIs.keySet()) {
+      if (cachedColumnCombination.size() <= bestCoverage
+          || !columnCombination.containsSubset(cachedColumnCombination)) {
+        continue;
+      }
+      int coverage = cachedColumnCombination.intersect(remainingColumns).size();
+      if (coverage > bestCoverage) {
+        bestCoverage = coverage;
+        bestSubset = cachedColumnCombination;
+      }
+    }
+    return bestSubset;
+  }
+
+  /**
+   * Evicts the least recently used plis until the byte budget is met. The pli of the protected
+   * column combination is never evicted.
+   *
+   * @param protectedColumnCombination the column combination that was just added
+   */
+  protected void evict(ColumnCombinationBitset protectedColumnCombination) {
+    Iterator<ColumnCombinationBitset> iterator = cachedPLIs.keySet().iterator();
+    while (byteUsage > byteBudget && iterator.hasNext()) {
+      ColumnCombinationBitset columnCombination = iterator.next();
+      if (columnCombination.equals(protectedColumnCombination)) {
+        continue;
+      }
+      iterator.remove();
+      byteUsage -= cachedSizes.remove(columnCombination);
+      evictions++;
+    }
+  }
+
+  /**
+   * @param columnCombination the column combination
+   * @return whether the pli of the column combination is cached
+   */
+  public boolean contains(ColumnCombinationBitset columnCombination) {
+    return cachedPLIs.containsKey(columnCombination);
+  }
+
+  /**
+   * @return the number of cached intersected plis
+   */
+  public int size() {
+    return cachedPLIs.size();
+  }
+
+  /**
+   * @return the estimated number of bytes of cached intersected plis
+   */
+  public long getByteUsage() {
+    return byteUsage;
+  }
+
+  /**
+   * @return the number of multi column lookups answered from the cache
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * @return the number of multi column lookups that required an intersection
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return the number of plis evicted from the cache
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+}
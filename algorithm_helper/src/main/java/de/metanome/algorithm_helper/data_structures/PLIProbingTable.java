@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+/**
+ * Reusable scratch arrays for the intersection of {@link CompactPositionListIndex}es and {@link
+ * PositionListIndex}es that know their number of tuples. The probe array maps every row id to its
+ * cluster (cluster index + 1, 0 for unique rows) and the counts array counts the rows per cluster.
+ * All arrays are reset to zero after every intersection, so a single table can be reused for any
+ * number of intersections. A table must not be shared between threads.
+ */
+public class PLIProbingTable {
+
+  protected int[] probe;
+  protected int[] counts;
+  protected int[] touched;
+
+  /**
+   * Constructs an empty {@link PLIProbingTable}. The arrays grow on demand.
+   */
+  public PLIProbingTable() {
+    this(0, 0);
+  }
+
+  /**
+   * Constructs a {@link PLIProbingTable} that can intersect plis with the given number of tuples
+   * and clusters without growing.
+   *
+   * @param numberOfTuples   the number of tuples of the plis to intersect
+   * @param numberOfClusters the maximal number of clusters of the probed pli
+   */
+  public PLIProbingTable(int numberOfTuples, int numberOfClusters) {
+    probe = new int[numberOfTuples];
+    counts = new int[numberOfClusters];
+    touched = new int[numberOfClusters];
+  }
+
+  /**
+   * Grows the arrays if they cannot hold the given number of tuples or clusters. The grown arrays
+   * are zeroed, so the table stays reusable.
+   *
+   * @param numberOfTuples   the number of tuples of the plis to intersect
+   * @param numberOfClusters the number of clusters of the probed pli
+   */
+  protected void ensureCapacity(int numberOfTuples, int numberOfClusters) {
+    if (probe.length < numberOfTuples) {
+      probe = new int[numberOfTuples];
+    }
+    if (counts.length < numberOfClusters) {
+      counts = new int[numberOfClusters];
+      touched = new int[numberOfClusters];
+    }
+  }
+
+  /**
+   * @return the number of tuples the table can probe without growing
+   */
+  public int getCapacity() {
+    return probe.length;
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link PLIBuilder} that distributes the columns of the input over a pool of worker threads. The
+ * input is read in batches of rows by the calling thread. While the workers index the columns of
+ * one batch the next batch is read. Every column is always indexed by the same worker, so the
+ * partial clusters never have to be merged and the results equal those of the {@link PLIBuilder}.
+ */
+public class ParallelPLIBuilder extends PLIBuilder {
+
+  public static final int DEFAULT_BATCH_SIZE = 10000;
+
+  protected int numberOfThreads;
+  protected int batchSize = DEFAULT_BATCH_SIZE;
+  protected long[] columnBuildTimes = new long[0];
+
+  /**
+   * Constructs a {@link ParallelPLIBuilder} using one thread per available processor.
+   *
+   * @param input the input to build the plis for
+   */
+  public ParallelPLIBuilder(RelationalInput input) {
+    this(input, true, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param input           the input to build the plis for
+   * @param nullEqualsNull  whether null values are treated as equal
+   * @param numberOfThreads the number of worker threads
+   */
+  public ParallelPLIBuilder(RelationalInput input, boolean nullEqualsNull, int numberOfThreads) {
+    super(input, nullEqualsNull);
+    if (numberOfThreads < 1) {
+      throw new IllegalArgumentException("The number of threads has to be positive.");
+    }
+    this.numberOfThreads = numberOfThreads;
+  }
+
+  /**
+   * Sets the number of rows that are read before they are handed to the workers.
+   *
+   * @param batchSize the number of rows per batch
+   * @return the builder
+   */
+  public ParallelPLIBuilder setBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size has to be positive.");
+    }
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Returns the time spent indexing each column in nanoseconds. Can be used after the plis were
+   * calculated. The time spent reading the input is not included.
+   *
+   * @return the build time of every column in nanoseconds
+   */
+  public long[] getColumnBuildTimes() {
+    return Arrays.copyOf(columnBuildTimes, columnBuildTimes.length);
+  }
+
+  @Override
+  protected void calculateUnpurgedPLI() throws InputIterationException {
+    ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+    try {
+      this.numberOfTuples = 0;
+      List<String[]> batch = readBatch();
+      while (!batch.isEmpty()) {
+        prepareColumns(batch);
+        List<Future<?>> runningTasks = new ArrayList<>(numberOfThreads);
+        for (int worker = 0; worker < numberOfThreads; worker++) {
+          runningTasks.add(executor.submit(new ColumnIndexTask(worker, batch, numberOfTuples)));
+        }
+        this.numberOfTuples += batch.size();
+        // Read the next batch while the workers are busy.
+        batch = readBatch();
+        awaitTasks(runningTasks);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Reads up to batchSize rows from the input.
+   *
+   * @return the rows read
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  protected List<String[]> readBatch() throws InputIterationException {
+    List<String[]> batch = new ArrayList<>(batchSize);
+    while (batch.size() < batchSize && input.hasNext()) {
+      List<String> row = input.next();
+      batch.add(row.toArray(new String[row.size()]));
+    }
+    return batch;
+  }
+
+  /**
+   * Creates the value maps for all columns in the batch. Must not be called while workers are
+   * running.
+   *
+   * @param batch the rows to be indexed next
+   */
+  protected void prepareColumns(List<String[]> batch) {
+    int numberOfColumns = columns.size();
+    for (String[] row : batch) {
+      numberOfColumns = Math.max(numberOfColumns, row.length);
+    }
+    while (columns.size() < numberOfColumns) {
+      columns.add(new HashMap<String, LongArrayList>());
+    }
+    if (columnBuildTimes.length < numberOfColumns) {
+      columnBuildTimes = Arrays.copyOf(columnBuildTimes, numberOfColumns);
+    }
+  }
+
+  protected void awaitTasks(List<Future<?>> runningTasks) throws InputIterationException {
+    try {
+      for (Future<?> task : runningTasks) {
+        task.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InputIterationException("The pli construction was interrupted.", e);
+    } catch (ExecutionException e) {
+      throw new InputIterationException("A column could not be indexed.", e.getCause());
+    }
+  }
+
+  /**
+   * Indexes every numberOfThreads-th column of a batch starting with the worker's index.
+   */
+  protected class ColumnIndexTask implements Runnable {
+
+    protected int worker;
+    protected List<String[]> batch;
+    protected long firstRowId;
+
+    public ColumnIndexTask(int worker, List<String[]> batch, long firstRowId) {
+      this.worker = worker;
+      this.batch = batch;
+      this.firstRowId = firstRowId;
+    }
+
+    @Override
+    public void run() {
+      for (int columnIndex = worker; columnIndex < columns.size();
+           columnIndex += numberOfThreads) {
+        long startTime = System.nanoTime();
+        long rowId = firstRowId;
+        for (String[] row : batch) {
+          if (columnIndex < row.length) {
+            addValue(rowId, columnIndex, row[columnIndex]);
+          }
+          rowId++;
+        }
+        columnBuildTimes[columnIndex] += System.nanoTime() - startTime;
+      }
+    }
+  }
+}
@@ -18,23 +18,48 @@ package de.metanome.algorithm_helper.data_structures;
 
 import it.unimi.dsi.fastutil.longs.*;
 
+import java.lang.ref.SoftReference;
 import java.util.*;
 
 /**
  * Position list indices (or stripped partitions) are an index structure that stores the positions
  * of equal values in a nested list. A column with the values a, a, b, c, b, c transfers to the
  * position list index ((0, 1), (2, 4), (3, 5)). Clusters of size 1 are discarded. A position list
- * index should be created using the {@link PLIBuilder}.
+ * index should be created using the {@link PLIBuilder}. Position list indices that know the number
+ * of tuples of the relation are intersected with a dense {@link PLIProbingTable} instead of a hash
+ * map.
  */
-public class PositionListIndex {
+public class PositionListIndex implements StrippedPartition {
+
+  // Dense probing tables are reused by all intersections of a thread. They are softly referenced,
+  // so that tables of idle long-lived threads are reclaimed before memory runs out.
+  protected static final ThreadLocal<SoftReference<PLIProbingTable>> PROBING_TABLES =
+    new ThreadLocal<>();
 
   protected List<LongArrayList> clusters;
   protected long rawKeyError = -1;
+  protected long numberOfTuples = -1;
+
+  // Normalized form used by equals and hashCode, calculated on first use. Plis are shared between
+  // threads, so the immutable form is published through a single volatile field.
+  protected volatile NormalizedForm normalizedForm;
 
   public PositionListIndex(List<LongArrayList> clusters) {
     this.clusters = clusters;
   }
 
+  /**
+   * Constructs a {@link PositionListIndex} of a relation with the given number of tuples. All row
+   * ids have to be smaller than the number of tuples.
+   *
+   * @param clusters       the clusters
+   * @param numberOfTuples the number of tuples of the indexed relation, -1 if unknown
+   */
+  public PositionListIndex(List<LongArrayList> clusters, long numberOfTuples) {
+    this.clusters = clusters;
+    this.numberOfTuples = numberOfTuples;
+  }
+
   /**
    * Constructs an empty {@link PositionListIndex}.
    */
@@ -42,23 +67,304 @@ public class PositionListIndex {
     this.clusters = new ArrayList<>();
   }
 
+  /**
+   * Returns the dense {@link PLIProbingTable} of the current thread, which is created again if it
+   * was released or reclaimed.
+   *
+   * @return the probing table of the current thread
+   */
+  protected static PLIProbingTable getProbingTable() {
+    SoftReference<PLIProbingTable> reference = PROBING_TABLES.get();
+    PLIProbingTable probingTable = reference == null ? null : reference.get();
+    if (probingTable == null) {
+      probingTable = new PLIProbingTable();
+      PROBING_TABLES.set(new SoftReference<>(probingTable));
+    }
+    return probingTable;
+  }
+
+  /**
+   * Releases the dense {@link PLIProbingTable} of the current thread. Long-lived threads, e.g.
+   * request threads, should release the table once they are done intersecting plis.
+   */
+  public static void releaseProbingTable() {
+    PROBING_TABLES.remove();
+  }
+
   /**
    * Intersects the given PositionListIndex with this PositionListIndex returning a new
-   * PositionListIndex. For the intersection the smaller PositionListIndex is converted into a
-   * HashMap.
+   * PositionListIndex. If both PositionListIndices know their number of tuples the intersection
+   * uses the dense {@link PLIProbingTable} of the current thread, otherwise this PositionListIndex
+   * is converted into a HashMap.
    *
    * @param otherPLI the other {@link PositionListIndex} to intersect
    * @return the intersected {@link PositionListIndex}
    */
   public PositionListIndex intersect(PositionListIndex otherPLI) {
-    //TODO Optimize Smaller PLI as Hashmap?
-    return calculateIntersection(otherPLI);
+    if (this.numberOfTuples == -1 || otherPLI.numberOfTuples == -1
+        || Math.max(this.numberOfTuples, otherPLI.numberOfTuples) > Integer.MAX_VALUE) {
+      return calculateIntersection(otherPLI);
+    }
+    return intersect(otherPLI, getProbingTable());
+  }
+
+  /**
+   * Intersects the given PositionListIndex with this PositionListIndex using the given dense
+   * {@link PLIProbingTable}. The probing table maps the rows of this PositionListIndex to their
+   * clusters, then every cluster of the other PositionListIndex is split by the probed clusters.
+   * Both PositionListIndices have to know their number of tuples.
+   *
+   * @param otherPLI     the other {@link PositionListIndex} to intersect
+   * @param probingTable the reusable {@link PLIProbingTable}
+   * @return the intersected {@link PositionListIndex}
+   */
+  public PositionListIndex intersect(PositionListIndex otherPLI, PLIProbingTable probingTable) {
+    int tuples = (int) Math.max(this.numberOfTuples, otherPLI.numberOfTuples);
+    int numberOfClusters = clusters.size();
+    probingTable.ensureCapacity(tuples, numberOfClusters);
+    int[] probe = probingTable.probe;
+    int[] counts = probingTable.counts;
+    int[] touched = probingTable.touched;
+
+    int clusterId = 1;
+    for (LongArrayList cluster : clusters) {
+      for (int i = 0; i < cluster.size(); i++) {
+        probe[(int) cluster.getLong(i)] = clusterId;
+      }
+      clusterId++;
+    }
+
+    List<LongArrayList> newClusters = new ArrayList<>();
+    for (LongArrayList otherCluster : otherPLI.clusters) {
+      long[] otherRows = otherCluster.elements();
+      int otherClusterSize = otherCluster.size();
+
+      // Count the rows per probed cluster.
+      int numberOfTouched = 0;
+      for (int i = 0; i < otherClusterSize; i++) {
+        int probedCluster = probe[(int) otherRows[i]] - 1;
+        if (probedCluster < 0) {
+          continue;
+        }
+        if (counts[probedCluster] == 0) {
+          touched[numberOfTouched++] = probedCluster;
+        }
+        counts[probedCluster]++;
+      }
+
+      // Create the non unary clusters. Their indices are stored negated in the counts.
+      for (int t = 0; t < numberOfTouched; t++) {
+        int probedCluster = touched[t];
+        int count = counts[probedCluster];
+        if (count < 2) {
+          counts[probedCluster] = 0;
+          continue;
+        }
+        counts[probedCluster] = -(newClusters.size() + 1);
+        newClusters.add(new LongArrayList(count));
+      }
+
+      // Distribute the rows.
+      for (int i = 0; i < otherClusterSize; i++) {
+        long rowId = otherRows[i];
+        int probedCluster = probe[(int) rowId] - 1;
+        if (probedCluster < 0 || counts[probedCluster] == 0) {
+          continue;
+        }
+        newClusters.get(-counts[probedCluster] - 1).add(rowId);
+      }
+
+      for (int t = 0; t < numberOfTouched; t++) {
+        counts[touched[t]] = 0;
+      }
+    }
+
+    // Reset the probing table.
+    for (LongArrayList cluster : clusters) {
+      for (int i = 0; i < cluster.size(); i++) {
+        probe[(int) cluster.getLong(i)] = 0;
+      }
+    }
+
+    return new PositionListIndex(newClusters, tuples);
+  }
+
+  /**
+   * Intersects the given partition with this PositionListIndex. Other representations are
+   * converted into {@link PositionListIndex}es.
+   *
+   * @param otherPartition the other {@link StrippedPartition} to intersect
+   * @return the intersected {@link PositionListIndex}
+   */
+  @Override
+  public PositionListIndex intersect(StrippedPartition otherPartition) {
+    return intersect(otherPartition.toPositionListIndex());
+  }
+
+  /**
+   * Checks whether this PositionListIndex refines the other PositionListIndex, i.e. whether the
+   * functional dependency from the columns of this PositionListIndex to the columns of the other
+   * holds. This is the case iff every cluster of this PositionListIndex lies within a single
+   * cluster of the other. The other PositionListIndex is probed with the dense {@link
+   * PLIProbingTable} of the current thread and the check stops at the first violating cluster, the
+   * intersection is never materialized. Row ids have to fit into an int.
+   *
+   * @param otherPLI the {@link PositionListIndex} of the dependent columns
+   * @return whether this PositionListIndex refines the other
+   */
+  public boolean refines(PositionListIndex otherPLI) {
+    PLIProbingTable probingTable = getProbingTable();
+    int[] probe = otherPLI.fillProbingTable(probingTable, getNumberOfProbedTuples(otherPLI));
+
+    boolean refines = true;
+    for (LongArrayList cluster : clusters) {
+      long[] rows = cluster.elements();
+      int probedCluster = probe[(int) rows[0]];
+      // Rows in unary clusters of the other PositionListIndex have unique values.
+      if (probedCluster == 0) {
+        refines = false;
+        break;
+      }
+      for (int i = 1; i < cluster.size() && refines; i++) {
+        refines = probe[(int) rows[i]] == probedCluster;
+      }
+      if (!refines) {
+        break;
+      }
+    }
+
+    otherPLI.clearProbingTable(probe);
+    return refines;
+  }
+
+  /**
+   * Calculates the raw g3 error of the functional dependency from the columns of this
+   * PositionListIndex to the columns of the other, the minimal number of tuples to remove for the
+   * functional dependency to hold. The calculation stops as soon as the error exceeds the maximal
+   * error, so the result is only exact if it does not exceed the maximal error. Row ids have to
+   * fit into an int.
+   *
+   * @param otherPLI     the {@link PositionListIndex} of the dependent columns
+   * @param maximalError the error at which the calculation may stop
+   * @return the raw g3 error or a lower bound greater than the maximal error
+   */
+  public long getRawG3Error(PositionListIndex otherPLI, long maximalError) {
+    PLIProbingTable probingTable = getProbingTable();
+    int[] probe = otherPLI.fillProbingTable(probingTable, getNumberOfProbedTuples(otherPLI));
+    probingTable.ensureCapacity(probe.length, otherPLI.clusters.size());
+    int[] counts = probingTable.counts;
+    int[] touched = probingTable.touched;
+
+    long error = 0;
+    for (LongArrayList cluster : clusters) {
+      long[] rows = cluster.elements();
+      int clusterSize = cluster.size();
+
+      // Only the rows of the largest group of equal dependent values are kept.
+      int maximalCount = 0;
+      int numberOfTouched = 0;
+      for (int i = 0; i < clusterSize; i++) {
+        int probedCluster = probe[(int) rows[i]] - 1;
+        if (probedCluster < 0) {
+          maximalCount = Math.max(maximalCount, 1);
+          continue;
+        }
+        if (counts[probedCluster] == 0) {
+          touched[numberOfTouched++] = probedCluster;
+        }
+        maximalCount = Math.max(maximalCount, ++counts[probedCluster]);
+      }
+      for (int t = 0; t < numberOfTouched; t++) {
+        counts[touched[t]] = 0;
+      }
+
+      error += clusterSize - maximalCount;
+      if (error > maximalError) {
+        break;
+      }
+    }
+
+    otherPLI.clearProbingTable(probe);
+    return error;
+  }
+
+  /**
+   * @param otherPLI the {@link PositionListIndex} of the dependent columns
+   * @return the raw g3 error of the functional dependency from this to the other columns
+   */
+  public long getRawG3Error(PositionListIndex otherPLI) {
+    return getRawG3Error(otherPLI, Long.MAX_VALUE);
+  }
+
+  /**
+   * @return the number of tuples the probing table has to hold for both PositionListIndices
+   */
+  protected int getNumberOfProbedTuples(PositionListIndex otherPLI) {
+    long tuples = Math.max(this.numberOfTuples, otherPLI.numberOfTuples);
+    if (this.numberOfTuples == -1 || otherPLI.numberOfTuples == -1) {
+      tuples = Math.max(tuples, Math.max(getMaximalRowId(), otherPLI.getMaximalRowId()) + 1);
+    }
+    if (tuples > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The row ids exceed the range of int.");
+    }
+    return (int) tuples;
+  }
+
+  protected long getMaximalRowId() {
+    long maximalRowId = -1;
+    for (LongArrayList cluster : clusters) {
+      for (int i = 0; i < cluster.size(); i++) {
+        maximalRowId = Math.max(maximalRowId, cluster.getLong(i));
+      }
+    }
+    return maximalRowId;
+  }
+
+  /**
+   * Maps the rows of this PositionListIndex to their clusters (cluster index + 1).
+   *
+   * @return the probe array of the table
+   */
+  protected int[] fillProbingTable(PLIProbingTable probingTable, int numberOfTuples) {
+    probingTable.ensureCapacity(numberOfTuples, 0);
+    int[] probe = probingTable.probe;
+    int clusterId = 1;
+    for (LongArrayList cluster : clusters) {
+      for (int i = 0; i < cluster.size(); i++) {
+        probe[(int) cluster.getLong(i)] = clusterId;
+      }
+      clusterId++;
+    }
+    return probe;
+  }
+
+  protected void clearProbingTable(int[] probe) {
+    for (LongArrayList cluster : clusters) {
+      for (int i = 0; i < cluster.size(); i++) {
+        probe[(int) cluster.getLong(i)] = 0;
+      }
+    }
+  }
+
+  /**
+   * @return this {@link PositionListIndex}
+   */
+  @Override
+  public PositionListIndex toPositionListIndex() {
+    return this;
   }
 
   public List<LongArrayList> getClusters() {
     return clusters;
   }
 
+  /**
+   * @return the number of tuples of the indexed relation, -1 if unknown
+   */
+  public long getNumberOfTuples() {
+    return numberOfTuples;
+  }
+
   /**
    * Creates a complete (deep) copy of the {@link de.metanome.algorithm_helper.data_structures.PositionListIndex}.
    *
@@ -71,29 +377,29 @@ public class PositionListIndex {
       newClusters.add(cluster.clone());
     }
 
-    PositionListIndex clone = new PositionListIndex(newClusters);
+    PositionListIndex clone = new PositionListIndex(newClusters, this.numberOfTuples);
     clone.rawKeyError = this.rawKeyError;
     return clone;
   }
 
+  /**
+   * The hash code is calculated on the normalized form of the {@link PositionListIndex} and is
+   * cached.
+   *
+   * @return the hash code
+   */
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-
-    List<LongOpenHashSet> setCluster = convertClustersToSets(clusters);
-
-    Collections.sort(setCluster, new Comparator<LongSet>() {
-
-      @Override
-      public int compare(LongSet o1, LongSet o2) {
-        return o1.hashCode() - o2.hashCode();
-      }
-    });
-    result = prime * result + (setCluster.hashCode());
-    return result;
+    return normalize().hashCode;
   }
 
+  /**
+   * Two {@link PositionListIndex}es are equal if they have the same clusters regardless of the
+   * order of clusters and rows. The normalized forms are compared linearly.
+   *
+   * @param obj the other object
+   * @return whether the plis are equal
+   */
   @Override
   public boolean equals(Object obj) {
 
@@ -112,31 +418,131 @@ public class PositionListIndex {
         return false;
       }
     } else {
-      List<LongOpenHashSet> setCluster = convertClustersToSets(clusters);
-      List<LongOpenHashSet> otherSetCluster = convertClustersToSets(other.clusters);
-
-      for (LongOpenHashSet cluster : setCluster) {
-        if (!otherSetCluster.contains(cluster)) {
-          return false;
-        }
+      if (other.clusters == null) {
+        return false;
       }
-      for (LongOpenHashSet cluster : otherSetCluster) {
-        if (!setCluster.contains(cluster)) {
-          return false;
-        }
+      NormalizedForm form = normalize();
+      NormalizedForm otherForm = other.normalize();
+      if (form.hashCode != otherForm.hashCode) {
+        return false;
+      }
+      if (!Arrays.equals(form.offsets, otherForm.offsets)) {
+        return false;
+      }
+      if (!Arrays.equals(form.rows, otherForm.rows)) {
+        return false;
       }
     }
 
     return true;
   }
 
-  protected List<LongOpenHashSet> convertClustersToSets(List<LongArrayList> listCluster) {
-    List<LongOpenHashSet> setClusters = new LinkedList<>();
-    for (LongList cluster : listCluster) {
-      setClusters.add(new LongOpenHashSet(cluster));
+  /**
+   * Returns a 64 bit fingerprint of the normalized form. Equal {@link PositionListIndex}es have
+   * equal fingerprints, so plis can be deduplicated by fingerprint before they are compared.
+   *
+   * @return the fingerprint
+   */
+  public long getFingerprint() {
+    NormalizedForm form = normalize();
+    long fingerprint = form.offsets.length;
+    for (int offset : form.offsets) {
+      fingerprint = mixFingerprint(fingerprint, offset);
+    }
+    for (long row : form.rows) {
+      fingerprint = mixFingerprint(fingerprint, row);
+    }
+    return fingerprint;
+  }
+
+  protected static long mixFingerprint(long fingerprint, long value) {
+    long mixed = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+    mixed = (mixed ^ (mixed >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return (fingerprint ^ mixed ^ (mixed >>> 33)) * 0x9e3779b97f4a7c15L;
+  }
+
+  /**
+   * Calculates the normalized form once: the rows of every cluster are sorted and deduplicated, the
+   * clusters are ordered by their first row. Threads that normalize concurrently compute equal
+   * forms, so it does not matter which one is published.
+   *
+   * @return the normalized form
+   */
+  protected NormalizedForm normalize() {
+    NormalizedForm form = normalizedForm;
+    if (form != null) {
+      return form;
+    }
+
+    long[][] sortedClusters = new long[clusters.size()][];
+    int numberOfClusters = 0;
+    int numberOfRows = 0;
+    for (LongArrayList cluster : clusters) {
+      if (cluster.isEmpty()) {
+        continue;
+      }
+      long[] rows = cluster.toLongArray();
+      Arrays.sort(rows);
+      int distinctRows = 1;
+      for (int i = 1; i < rows.length; i++) {
+        if (rows[i] != rows[distinctRows - 1]) {
+          rows[distinctRows++] = rows[i];
+        }
+      }
+      sortedClusters[numberOfClusters++] =
+        (distinctRows == rows.length) ? rows : Arrays.copyOf(rows, distinctRows);
+      numberOfRows += distinctRows;
+    }
+
+    Arrays.sort(sortedClusters, 0, numberOfClusters, new Comparator<long[]>() {
+      @Override
+      public int compare(long[] o1, long[] o2) {
+        return Long.compare(o1[0], o2[0]);
+      }
+    });
+
+    int[] offsets = new int[numberOfClusters];
+    long[] rows = new long[numberOfRows];
+    int position = 0;
+    for (int clusterIndex = 0; clusterIndex < numberOfClusters; clusterIndex++) {
+      long[] cluster = sortedClusters[clusterIndex];
+      offsets[clusterIndex] = position;
+      System.arraycopy(cluster, 0, rows, position, cluster.length);
+      position += cluster.length;
     }
 
-    return setClusters;
+    form = new NormalizedForm(rows, offsets);
+    normalizedForm = form;
+    return form;
+  }
+
+  /**
+   * Discards the cached normalized form and hash code. Has to be called if the clusters are
+   * modified after the {@link PositionListIndex} has been hashed or compared.
+   */
+  protected void resetNormalizedForm() {
+    normalizedForm = null;
+  }
+
+  /**
+   * The concatenated rows of the sorted clusters, the start of every cluster in the rows and the
+   * hash code of both.
+   */
+  protected static class NormalizedForm {
+
+    protected final long[] rows;
+    protected final int[] offsets;
+    protected final int hashCode;
+
+    protected NormalizedForm(long[] rows, int[] offsets) {
+      this.rows = rows;
+      this.offsets = offsets;
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + Arrays.hashCode(offsets);
+      result = prime * result + Arrays.hashCode(rows);
+      this.hashCode = result;
+    }
   }
 
   /**
@@ -158,7 +564,8 @@ public class PositionListIndex {
       }
       clusters.add(cluster);
     }
-    return new PositionListIndex(clusters);
+    return new PositionListIndex(clusters,
+      Math.max(this.numberOfTuples, otherPLI.numberOfTuples));
   }
 
   protected void buildMap(PositionListIndex otherPLI, Long2LongOpenHashMap hashedPLI,
@@ -211,6 +618,7 @@ public class PositionListIndex {
    *
    * @return the number of clusters in the {@link PositionListIndex}
    */
+  @Override
   public long size() {
     return clusters.size();
   }
@@ -218,6 +626,7 @@ public class PositionListIndex {
   /**
    * @return the {@link PositionListIndex} contains only unary clusters.
    */
+  @Override
   public boolean isEmpty() {
     return size() == 0;
   }
@@ -225,15 +634,34 @@ public class PositionListIndex {
   /**
    * @return the column represented by the {@link PositionListIndex} is unique.
    */
+  @Override
   public boolean isUnique() {
     return isEmpty();
   }
 
+  /**
+   * Estimates the number of bytes the {@link PositionListIndex} occupies on the heap. The estimate
+   * assumes a 64 bit vm and counts the allocated capacity of the clusters.
+   *
+   * @return the estimated heap size in bytes
+   */
+  @Override
+  public long getMemorySize() {
+    // Object header, fields and cluster list
+    long memorySize = 64 + 8L * clusters.size();
+    for (LongArrayList cluster : clusters) {
+      // LongArrayList object and array header
+      memorySize += 40 + 8L * cluster.elements().length;
+    }
+    return memorySize;
+  }
+
   /**
    * Returns the number of columns to remove in order to make column unique. (raw key error)
    *
    * @return raw key error
    */
+  @Override
   public long getRawKeyError() {
     if (rawKeyError == -1) {
       rawKeyError = calculateRawKeyError();
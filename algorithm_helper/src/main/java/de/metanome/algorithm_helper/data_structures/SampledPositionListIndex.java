@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.List;
+
+/**
+ * A {@link PositionListIndex} built on a sample of the rows. The row ids refer to the sampled rows.
+ * {@link #getRawKeyError()} returns the key error of the sample, the key error of the complete
+ * relation is estimated by {@link #getEstimatedRawKeyError()}. The estimate uses the guaranteed
+ * error estimator (GEE) for the number of distinct values: values seen once in the sample are
+ * scaled by the square root of the inverse sampling ratio, values seen more often are counted once.
+ * The bounds are deterministic, they are derived from the smallest and largest number of distinct
+ * values that are consistent with the sample.
+ */
+public class SampledPositionListIndex extends PositionListIndex {
+
+  protected long numberOfValues;
+  protected long numberOfSampledValues;
+
+  /**
+   * @param clusters              the clusters of the sample
+   * @param numberOfValues        the number of indexed values of the complete relation
+   * @param numberOfSampledValues the number of indexed values in the sample
+   */
+  public SampledPositionListIndex(List<LongArrayList> clusters, long numberOfValues,
+                                  long numberOfSampledValues) {
+    super(clusters);
+    this.numberOfValues = numberOfValues;
+    this.numberOfSampledValues = numberOfSampledValues;
+  }
+
+  /**
+   * @param clusters              the clusters of the sample
+   * @param numberOfTuples        the number of sampled tuples, -1 if unknown
+   * @param numberOfValues        the number of indexed values of the complete relation
+   * @param numberOfSampledValues the number of indexed values in the sample
+   */
+  public SampledPositionListIndex(List<LongArrayList> clusters, long numberOfTuples,
+                                  long numberOfValues, long numberOfSampledValues) {
+    super(clusters, numberOfTuples);
+    this.numberOfValues = numberOfValues;
+    this.numberOfSampledValues = numberOfSampledValues;
+  }
+
+  /**
+   * Intersects the sampled plis. The intersection only contains values indexed in both plis, so the
+   * smaller value counts are used. They are exact if nulls are indexed (null equals null), and
+   * upper bounds otherwise.
+   *
+   * @param otherPLI the other {@link SampledPositionListIndex} of the same sample
+   * @return the intersected {@link SampledPositionListIndex}
+   */
+  public SampledPositionListIndex intersect(SampledPositionListIndex otherPLI) {
+    PositionListIndex intersection = super.intersect(otherPLI);
+    return new SampledPositionListIndex(intersection.getClusters(),
+      intersection.getNumberOfTuples(),
+      Math.min(numberOfValues, otherPLI.numberOfValues),
+      Math.min(numberOfSampledValues, otherPLI.numberOfSampledValues));
+  }
+
+  /**
+   * Intersects the given pli with this one. Sampled plis of the same sample are intersected into a
+   * {@link SampledPositionListIndex}, see {@link #intersect(SampledPositionListIndex)}.
+   *
+   * @param otherPLI the other {@link PositionListIndex} to intersect
+   * @return the intersected {@link PositionListIndex}
+   */
+  @Override
+  public PositionListIndex intersect(PositionListIndex otherPLI) {
+    if (otherPLI instanceof SampledPositionListIndex) {
+      return intersect((SampledPositionListIndex) otherPLI);
+    }
+    return super.intersect(otherPLI);
+  }
+
+  /**
+   * @return the number of indexed values of the complete relation
+   */
+  public long getNumberOfValues() {
+    return numberOfValues;
+  }
+
+  /**
+   * @return the number of indexed values in the sample
+   */
+  public long getNumberOfSampledValues() {
+    return numberOfSampledValues;
+  }
+
+  /**
+   * Estimates the raw key error of the complete relation.
+   *
+   * @return the estimated raw key error
+   */
+  public double getEstimatedRawKeyError() {
+    if (numberOfSampledValues == 0) {
+      return (getRawKeyErrorLowerBound() + getRawKeyErrorUpperBound()) / 2.0;
+    }
+
+    double scale = Math.sqrt((double) numberOfValues / numberOfSampledValues);
+    double estimatedDistinctValues = scale * getNumberOfSingletons() + size();
+    estimatedDistinctValues = Math.min(estimatedDistinctValues, getMaximumDistinctValues());
+    return numberOfValues - estimatedDistinctValues;
+  }
+
+  /**
+   * Every duplicate seen in the sample is a duplicate in the relation, so the lower bound is at
+   * least the raw key error of the sample.
+   *
+   * @return the smallest raw key error consistent with the sample
+   */
+  public long getRawKeyErrorLowerBound() {
+    return Math.max(numberOfValues - getMaximumDistinctValues(), 0);
+  }
+
+  /**
+   * @return the largest raw key error consistent with the sample
+   */
+  public long getRawKeyErrorUpperBound() {
+    // Every value seen in the sample exists in the relation.
+    return Math.max(numberOfValues - Math.max(getNumberOfSampledDistinctValues(), 1), 0);
+  }
+
+  /**
+   * @return the number of values that occur once in the sample
+   */
+  protected long getNumberOfSingletons() {
+    return numberOfSampledValues - getRawKeyError() - size();
+  }
+
+  protected long getNumberOfSampledDistinctValues() {
+    return getNumberOfSingletons() + size();
+  }
+
+  /**
+   * Every value not sampled can be distinct.
+   */
+  protected long getMaximumDistinctValues() {
+    return getNumberOfSampledDistinctValues() + numberOfValues - numberOfSampledValues;
+  }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.algorithm_execution.FileCreationException;
+import de.metanome.algorithm_integration.algorithm_execution.FileGenerator;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * A map of {@link PositionListIndex}es that keeps at most a configurable number of bytes of plis on
+ * the heap. When the heap budget is exceeded the least recently used plis are written to temporary
+ * files and dropped from the heap. They are read back in when they are requested
+ * again. Stored plis must not be modified, as a pli that is paged in again is read from the file
+ * written on its first eviction.
+ *
+ * @param <K> the key type, e.g. the column combination a pli was built on
+ */
+public class SpillingPLIStore<K> extends AbstractMap<K, PositionListIndex> implements Closeable {
+
+  // Number of bytes buffered when spill files are written and read
+  protected static final int BUFFER_SIZE = 1 << 16;
+
+  protected FileGenerator fileGenerator;
+  protected long heapBudget;
+  protected long heapUsage = 0;
+
+  protected Set<K> keys = new HashSet<>();
+  // Access ordered, so that the least recently used pli is evicted first.
+  protected LinkedHashMap<K, PositionListIndex> residentPLIs = new LinkedHashMap<>(16, 0.75f, true);
+  protected Map<K, Long> residentSizes = new HashMap<>();
+  protected Map<K, File> spilledPLIs = new HashMap<>();
+
+  /**
+   * @param fileGenerator the generator for the spill files
+   * @param heapBudget    the number of bytes of plis kept on the heap
+   */
+  public SpillingPLIStore(FileGenerator fileGenerator, long heapBudget) {
+    this.fileGenerator = fileGenerator;
+    this.heapBudget = heapBudget;
+  }
+
+  /**
+   * Returns the pli stored under the key. Spilled plis are read back onto the heap, which may evict
+   * other plis.
+   *
+   * @param key the key
+   * @return the stored pli or null
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public PositionListIndex get(Object key) {
+    PositionListIndex pli = residentPLIs.get(key);
+    if (pli != null) {
+      return pli;
+    }
+
+    File file = spilledPLIs.get(key);
+    if (file == null) {
+      return null;
+    }
+
+    pli = readPLI(file);
+    addResident((K) key, pli);
+    return pli;
+  }
+
+  /**
+   * Stores the pli under the key. Unlike {@link Map#put(Object, Object)} the previous pli is only
+   * returned if it was on the heap.
+   *
+   * @param key the key
+   * @param pli the pli to store
+   * @return the previous pli if it was on the heap
+   */
+  @Override
+  public PositionListIndex put(K key, PositionListIndex pli) {
+    PositionListIndex previousPLI = removeFromStorage(key);
+    keys.add(key);
+    addResident(key, pli);
+    return previousPLI;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return keys.contains(key);
+  }
+
+  @Override
+  public PositionListIndex remove(Object key) {
+    if (!keys.remove(key)) {
+      return null;
+    }
+
+    PositionListIndex pli = residentPLIs.get(key);
+    if (pli == null) {
+      pli = readPLI(spilledPLIs.get(key));
+    }
+    removeFromStorage(key);
+    return pli;
+  }
+
+  @Override
+  public int size() {
+    return keys.size();
+  }
+
+  @Override
+  public void clear() {
+    for (File file : spilledPLIs.values()) {
+      file.delete();
+    }
+    keys.clear();
+    residentPLIs.clear();
+    residentSizes.clear();
+    spilledPLIs.clear();
+    heapUsage = 0;
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return Collections.unmodifiableSet(keys);
+  }
+
+  /**
+   * Returns a view of all entries. Iterating the entries reads every spilled pli back in.
+   *
+   * @return the entries of the store
+   */
+  @Override
+  public Set<Entry<K, PositionListIndex>> entrySet() {
+    return new AbstractSet<Entry<K, PositionListIndex>>() {
+      @Override
+      public Iterator<Entry<K, PositionListIndex>> iterator() {
+        final Iterator<K> keyIterator = keys.iterator();
+        return new Iterator<Entry<K, PositionListIndex>>() {
+          protected K currentKey;
+
+          @Override
+          public boolean hasNext() {
+            return keyIterator.hasNext();
+          }
+
+          @Override
+          public Entry<K, PositionListIndex> next() {
+            currentKey = keyIterator.next();
+            return new SimpleImmutableEntry<>(currentKey, get(currentKey));
+          }
+
+          @Override
+          public void remove() {
+            keyIterator.remove();
+            removeFromStorage(currentKey);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.size();
+      }
+    };
+  }
+
+  /**
+   * Deletes all spill files and closes the file generator.
+   *
+   * @throws IOException if the file generator cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    clear();
+    fileGenerator.close();
+  }
+
+  /**
+   * @return the estimated number of bytes of plis on the heap
+   */
+  public long getHeapUsage() {
+    return heapUsage;
+  }
+
+  /**
+   * @return the number of plis on the heap
+   */
+  public int getNumberOfResidentPLIs() {
+    return residentPLIs.size();
+  }
+
+  /**
+   * @return the number of plis that have been written to disk
+   */
+  public int getNumberOfSpilledPLIs() {
+    return spilledPLIs.size();
+  }
+
+  protected PositionListIndex removeFromStorage(Object key) {
+    PositionListIndex pli = residentPLIs.remove(key);
+    if (pli != null) {
+      heapUsage -= residentSizes.remove(key);
+    }
+    File file = spilledPLIs.remove(key);
+    if (file != null) {
+      file.delete();
+    }
+    return pli;
+  }
+
+  protected void addResident(K key, PositionListIndex pli) {
+    long memorySize = pli.getMemorySize();
+    residentPLIs.put(key, pli);
+    residentSizes.put(key, memorySize);
+    heapUsage += memorySize;
+    evict(key);
+  }
+
+  /**
+   * Evicts the least recently used plis until the heap budget is met. The pli stored under the
+   * protected key is never evicted.
+   *
+   * @param protectedKey the key of the pli that was just requested
+   */
+  protected void evict(K protectedKey) {
+    Iterator<Entry<K, PositionListIndex>> residentIterator = residentPLIs.entrySet().iterator();
+    while (heapUsage > heapBudget && residentIterator.hasNext()) {
+      Entry<K, PositionListIndex> entry = residentIterator.next();
+      K key = entry.getKey();
+      if (key.equals(protectedKey)) {
+        continue;
+      }
+      if (!spilledPLIs.containsKey(key)) {
+        spilledPLIs.put(key, writePLI(entry.getValue()));
+      }
+      residentIterator.remove();
+      heapUsage -= residentSizes.remove(key);
+    }
+  }
+
+  /**
+   * Writes the pli to a new file. The file contains the raw key error, the number of tuples, the
+   * number of clusters, the size of each cluster and then all row ids as longs. The file is
+   * written through a buffer, so plis of any size can be spilled and no mapping keeps the file
+   * open once it is deleted.
+   *
+   * @param pli the pli to write
+   * @return the file
+   */
+  protected File writePLI(PositionListIndex pli) {
+    List<LongArrayList> clusters = pli.getClusters();
+
+    try {
+      File file = fileGenerator.getTemporaryFile();
+      try (FileChannel channel = new FileOutputStream(file).getChannel()) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        writeLong(channel, buffer, pli.rawKeyError);
+        writeLong(channel, buffer, pli.numberOfTuples);
+        writeLong(channel, buffer, clusters.size());
+        for (LongArrayList cluster : clusters) {
+          writeLong(channel, buffer, cluster.size());
+        }
+        for (LongArrayList cluster : clusters) {
+          long[] rows = cluster.elements();
+          for (int i = 0; i < cluster.size(); i++) {
+            writeLong(channel, buffer, rows[i]);
+          }
+        }
+        flush(channel, buffer);
+      }
+      return file;
+    } catch (FileCreationException | IOException e) {
+      throw new IllegalStateException("The position list index could not be spilled to disk.", e);
+    }
+  }
+
+  protected static void writeLong(FileChannel channel, ByteBuffer buffer, long value)
+    throws IOException {
+    if (buffer.remaining() < 8) {
+      flush(channel, buffer);
+    }
+    buffer.putLong(value);
+  }
+
+  protected static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Reads a pli from a file written by {@link #writePLI(PositionListIndex)}.
+   *
+   * @param file the file
+   * @return the pli
+   */
+  protected PositionListIndex readPLI(File file) {
+    try (FileChannel channel = new FileInputStream(file).getChannel()) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      // The buffer starts empty.
+      buffer.flip();
+      long rawKeyError = readLong(channel, buffer);
+      long numberOfTuples = readLong(channel, buffer);
+      int numberOfClusters = (int) readLong(channel, buffer);
+      int[] clusterSizes = new int[numberOfClusters];
+      for (int i = 0; i < numberOfClusters; i++) {
+        clusterSizes[i] = (int) readLong(channel, buffer);
+      }
+
+      List<LongArrayList> clusters = new ArrayList<>(numberOfClusters);
+      for (int clusterSize : clusterSizes) {
+        long[] rows = new long[clusterSize];
+        for (int i = 0; i < clusterSize; i++) {
+          rows[i] = readLong(channel, buffer);
+        }
+        clusters.add(LongArrayList.wrap(rows));
+      }
+
+      PositionListIndex pli = new PositionListIndex(clusters, numberOfTuples);
+      pli.rawKeyError = rawKeyError;
+      return pli;
+    } catch (IOException e) {
+      throw new IllegalStateException("The position list index could not be read from disk.", e);
+    }
+  }
+
+  protected static long readLong(FileChannel channel, ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < 8) {
+      buffer.compact();
+      while (buffer.position() < 8) {
+        if (channel.read(buffer) < 0) {
+          throw new EOFException("The spill file is incomplete.");
+        }
+      }
+      buffer.flip();
+    }
+    return buffer.getLong();
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+/**
+ * Common interface of the position list index (stripped partition) representations. The {@link
+ * PositionListIndex} stores clusters as lists of row ids, the {@link BitmapPositionListIndex} as
+ * compressed bitmaps. The {@link PLIBuilder} chooses the representation per column.
+ */
+public interface StrippedPartition {
+
+  /**
+   * Intersects the given partition with this partition returning a new partition.
+   *
+   * @param otherPartition the other {@link StrippedPartition} to intersect
+   * @return the intersected {@link StrippedPartition}
+   */
+  StrippedPartition intersect(StrippedPartition otherPartition);
+
+  /**
+   * @return the number of non unary clusters
+   */
+  long size();
+
+  /**
+   * @return the partition contains only unary clusters
+   */
+  boolean isEmpty();
+
+  /**
+   * @return the column represented by the partition is unique
+   */
+  boolean isUnique();
+
+  /**
+   * Returns the number of columns to remove in order to make column unique. (raw key error)
+   *
+   * @return raw key error
+   */
+  long getRawKeyError();
+
+  /**
+   * @return the estimated heap size in bytes
+   */
+  long getMemorySize();
+
+  /**
+   * Converts the partition into an equal {@link PositionListIndex}.
+   *
+   * @return the {@link PositionListIndex}
+   */
+  PositionListIndex toPositionListIndex();
+}
@@ -222,6 +222,59 @@ public class SubSetGraph {
     return result;
   }
 
+  /**
+   * Returns the minimal column combinations of the collection (its minimal antichain). The column
+   * combinations are bucketed by cardinality and swept in ascending order. A column combination
+   * is minimal iff none of the minimal column combinations found before is a subset of it, which
+   * is checked against an {@link ArraySubSetGraph}. Duplicates are returned once. Unlike adding
+   * the column combinations to a graph and calling {@link #getMinimalSubsets()}, only the minimal
+   * column combinations are ever stored in a graph.
+   *
+   * @param columnCombinations the column combinations to minimize
+   * @return the minimal column combinations in ascending order of cardinality
+   */
+  public static List<ColumnCombinationBitset> minimize(
+    Collection<ColumnCombinationBitset> columnCombinations) {
+    List<ColumnCombinationBitset> minimalColumnCombinations = new ArrayList<>();
+    List<List<ColumnCombinationBitset>> buckets = bucketByCardinality(columnCombinations);
+    if (!buckets.isEmpty() && !buckets.get(0).isEmpty()) {
+      // The empty column combination is a subset of all others.
+      minimalColumnCombinations.add(buckets.get(0).get(0));
+      return minimalColumnCombinations;
+    }
+
+    ArraySubSetGraph graph = new ArraySubSetGraph();
+    for (List<ColumnCombinationBitset> bucket : buckets) {
+      for (ColumnCombinationBitset columnCombination : bucket) {
+        // Column combinations of the same cardinality are only subsets if they are equal.
+        if (!graph.containsSubset(columnCombination)) {
+          graph.add(columnCombination);
+          minimalColumnCombinations.add(columnCombination);
+        }
+      }
+    }
+    return minimalColumnCombinations;
+  }
+
+  /**
+   * Distributes the column combinations into buckets by cardinality (counting sort).
+   *
+   * @param columnCombinations the column combinations to distribute
+   * @return the buckets in ascending order of cardinality, some buckets may be empty
+   */
+  protected static List<List<ColumnCombinationBitset>> bucketByCardinality(
+    Collection<ColumnCombinationBitset> columnCombinations) {
+    List<List<ColumnCombinationBitset>> buckets = new ArrayList<>();
+    for (ColumnCombinationBitset columnCombination : columnCombinations) {
+      int cardinality = columnCombination.size();
+      while (buckets.size() <= cardinality) {
+        buckets.add(new ArrayList<ColumnCombinationBitset>());
+      }
+      buckets.get(cardinality).add(columnCombination);
+    }
+    return buckets;
+  }
+
   /**
    * @return whether the graph is empty
    */
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily enumerates the subsets of size n of a column combination. Only the current subset is held
+ * in memory. The subsets are enumerated in colexicographic order, which is the order of Gosper's
+ * hack on the positions of the superset's columns. Every subset has a rank in this order
+ * (combinadic), so a level can be split into rank ranges that are enumerated independently, e.g. by
+ * different threads. Ranks have to fit into a long.
+ */
+public class SubsetIterator implements Iterator<ColumnCombinationBitset> {
+
+  protected int[] columns;
+  protected int n;
+  // binomials[c][j] = c choose j for c <= number of columns and j <= n
+  protected long[][] binomials;
+
+  // Positions of the current subset's columns in ascending order.
+  protected int[] positions;
+  protected long remaining;
+
+  /**
+   * Enumerates all subsets of size n of the superset.
+   *
+   * @param superset the column combination whose subsets are enumerated
+   * @param n        the size of the subsets
+   */
+  public SubsetIterator(ColumnCombinationBitset superset, int n) {
+    this(superset, n, 0, -1);
+  }
+
+  /**
+   * Enumerates the subsets of size n of the superset with ranks in [fromRank, toRank).
+   *
+   * @param superset the column combination whose subsets are enumerated
+   * @param n        the size of the subsets
+   * @param fromRank the rank of the first subset (inclusive)
+   * @param toRank   the rank after the last subset (exclusive), -1 for all remaining subsets
+   */
+  public SubsetIterator(ColumnCombinationBitset superset, int n, long fromRank, long toRank) {
+    List<Integer> setBits = superset.getSetBits();
+    this.columns = new int[setBits.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = setBits.get(i);
+    }
+    this.n = n;
+    this.binomials = calculateBinomials(columns.length, n);
+
+    long numberOfSubsets = getNumberOfSubsets();
+    if (toRank == -1 || toRank > numberOfSubsets) {
+      toRank = numberOfSubsets;
+    }
+    if (fromRank < 0) {
+      throw new IllegalArgumentException("The rank must not be negative.");
+    }
+    this.remaining = Math.max(toRank - fromRank, 0);
+    if (remaining > 0) {
+      this.positions = unrankPositions(fromRank);
+    }
+  }
+
+  protected static long[][] calculateBinomials(int numberOfColumns, int n) {
+    int maxK = Math.max(n, 0);
+    long[][] binomials = new long[numberOfColumns + 1][maxK + 1];
+    for (int c = 0; c <= numberOfColumns; c++) {
+      binomials[c][0] = 1;
+      for (int j = 1; j <= Math.min(c, maxK); j++) {
+        long sum = binomials[c - 1][j - 1] + binomials[c - 1][j];
+        if (sum < 0) {
+          throw new IllegalArgumentException("The number of subsets exceeds the range of long.");
+        }
+        binomials[c][j] = sum;
+      }
+    }
+    return binomials;
+  }
+
+  /**
+   * @return the number of subsets of size n of the superset
+   */
+  public long getNumberOfSubsets() {
+    if (n < 0 || n > columns.length) {
+      return 0;
+    }
+    return binomials[columns.length][n];
+  }
+
+  /**
+   * Returns the rank of the subset in the enumeration order.
+   *
+   * @param subset a subset of size n of the superset
+   * @return the rank of the subset
+   */
+  public long rank(ColumnCombinationBitset subset) {
+    if (subset.size() != n) {
+      throw new IllegalArgumentException("The subset has to contain " + n + " columns.");
+    }
+
+    long rank = 0;
+    int position = 0;
+    int i = 0;
+    for (int columnIndex : subset.getSetBits()) {
+      while (position < columns.length && columns[position] < columnIndex) {
+        position++;
+      }
+      if (position == columns.length || columns[position] != columnIndex) {
+        throw new IllegalArgumentException("The column combination is not a subset.");
+      }
+      rank += binomials[position][i + 1];
+      i++;
+    }
+    return rank;
+  }
+
+  /**
+   * Returns the subset with the given rank in the enumeration order.
+   *
+   * @param rank the rank in [0, number of subsets)
+   * @return the subset with the rank
+   */
+  public ColumnCombinationBitset unrank(long rank) {
+    return createSubset(unrankPositions(rank));
+  }
+
+  protected int[] unrankPositions(long rank) {
+    if (rank < 0 || rank >= getNumberOfSubsets()) {
+      throw new IllegalArgumentException("The rank is out of range.");
+    }
+
+    int[] newPositions = new int[n];
+    int position = columns.length;
+    for (int i = n - 1; i >= 0; i--) {
+      // Find the largest position with position choose (i + 1) <= rank.
+      do {
+        position--;
+      } while (binomials[position][i + 1] > rank);
+      newPositions[i] = position;
+      rank -= binomials[position][i + 1];
+    }
+    return newPositions;
+  }
+
+  protected ColumnCombinationBitset createSubset(int[] subsetPositions) {
+    ColumnCombinationBitset subset = new ColumnCombinationBitset();
+    for (int position : subsetPositions) {
+      subset.addColumn(columns[position]);
+    }
+    return subset;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return remaining > 0;
+  }
+
+  @Override
+  public ColumnCombinationBitset next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    ColumnCombinationBitset subset = createSubset(positions);
+    remaining--;
+    if (remaining > 0) {
+      advance();
+    }
+    return subset;
+  }
+
+  /**
+   * Moves to the colexicographic successor: the lowest position that can be incremented is
+   * incremented and all lower positions are reset.
+   */
+  protected void advance() {
+    int i = 0;
+    while (i < n - 1 && positions[i] + 1 == positions[i + 1]) {
+      i++;
+    }
+    positions[i]++;
+    for (int j = 0; j < i; j++) {
+      positions[j] = j;
+    }
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -18,6 +18,7 @@ package de.metanome.algorithm_helper.data_structures;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * A graph that allows for efficient lookup of all supersets in a graph structure for a given {@link
@@ -96,6 +97,39 @@ public class SuperSetGraph {
     return graph.containsSubset(subset.invert(numberOfColumns));
   }
 
+  /**
+   * Returns the maximal column combinations of the collection (its maximal antichain). Like the
+   * graph itself the method inverts all column combinations, minimizes them with {@link
+   * SubSetGraph#minimize(java.util.Collection)} and inverts the result. Duplicates are returned
+   * once.
+   *
+   * @param columnCombinations the column combinations to maximize
+   * @return the maximal column combinations in descending order of cardinality
+   */
+  public static List<ColumnCombinationBitset> maximize(
+    Collection<ColumnCombinationBitset> columnCombinations) {
+    int numberOfColumns = 0;
+    for (ColumnCombinationBitset columnCombination : columnCombinations) {
+      if (!columnCombination.isEmpty()) {
+        int lastColumn = columnCombination.bitset.prevSetBit(columnCombination.bitset.length() - 1);
+        numberOfColumns = Math.max(numberOfColumns, lastColumn + 1);
+      }
+    }
+
+    List<ColumnCombinationBitset> invertedColumnCombinations =
+      new ArrayList<>(columnCombinations.size());
+    for (ColumnCombinationBitset columnCombination : columnCombinations) {
+      invertedColumnCombinations.add(columnCombination.invert(numberOfColumns));
+    }
+
+    List<ColumnCombinationBitset> maximalColumnCombinations =
+      SubSetGraph.minimize(invertedColumnCombinations);
+    for (int i = 0; i < maximalColumnCombinations.size(); i++) {
+      maximalColumnCombinations.set(i, maximalColumnCombinations.get(i).invert(numberOfColumns));
+    }
+    return maximalColumnCombinations;
+  }
+
   /**
    * @return whether the graph is empty
    */
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.AgreeSetGenerator}
+ */
+public class AgreeSetGeneratorTest {
+
+  protected int[][] table;
+
+  @Before
+  public void setUp() throws Exception {
+    table = new int[][]{
+      {1, 1, 5, 0},
+      {2, 1, 5, 2},
+      {3, 1, 3, 0},
+      {4, 1, 3, 4},
+      {5, 2, 5, 5}};
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link AgreeSetGenerator#getAgreeSets()} <p/> The agree sets of all pairs of
+   * tuples sharing a cluster should be returned once.
+   */
+  @Test
+  public void testGetAgreeSets() {
+    // Setup
+    AgreeSetGenerator generator = new AgreeSetGenerator(createPLIs(table));
+    // Expected values
+    Set<ColumnCombinationBitset> expectedAgreeSets = new HashSet<>(Arrays.asList(
+      new ColumnCombinationBitset(1, 2),
+      new ColumnCombinationBitset(1, 3),
+      new ColumnCombinationBitset(1),
+      new ColumnCombinationBitset(2)));
+
+    // Execute functionality
+    Set<ColumnCombinationBitset> actualAgreeSets = generator.getAgreeSets();
+
+    // Check result
+    assertEquals(expectedAgreeSets, actualAgreeSets);
+  }
+
+  /**
+   * Test method for {@link AgreeSetGenerator#getMaximalAgreeSets()} and {@link
+   * AgreeSetGenerator#getDifferenceSets()}
+   */
+  @Test
+  public void testGetMaximalAgreeSetsAndDifferenceSets() {
+    // Setup
+    AgreeSetGenerator generator = new AgreeSetGenerator(createPLIs(table));
+    // Expected values
+    Set<ColumnCombinationBitset> expectedMaximalAgreeSets = new HashSet<>(Arrays.asList(
+      new ColumnCombinationBitset(1, 2),
+      new ColumnCombinationBitset(1, 3)));
+    Set<ColumnCombinationBitset> expectedDifferenceSets = new HashSet<>(Arrays.asList(
+      new ColumnCombinationBitset(0, 3),
+      new ColumnCombinationBitset(0, 2),
+      new ColumnCombinationBitset(0, 2, 3),
+      new ColumnCombinationBitset(0, 1, 3)));
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualMaximalAgreeSets = generator.getMaximalAgreeSets();
+    Set<ColumnCombinationBitset> actualDifferenceSets = generator.getDifferenceSets();
+
+    // Check result
+    assertEquals(expectedMaximalAgreeSets, new HashSet<>(actualMaximalAgreeSets));
+    assertEquals(expectedDifferenceSets, actualDifferenceSets);
+  }
+
+  /**
+   * Test method for {@link AgreeSetGenerator#getAgreeSets()} <p/> The parallel computation with
+   * clusters split into small blocks should return the agree sets of a brute force comparison of
+   * all pairs.
+   */
+  @Test
+  public void testGetAgreeSetsParallel() {
+    // Setup
+    int[][] randomTable = createRandomTable(200, 6);
+    AgreeSetGenerator generator = new AgreeSetGenerator(createPLIs(randomTable))
+      .setParallelism(4)
+      .setBlockSize(50);
+    // Expected values
+    Set<ColumnCombinationBitset> expectedAgreeSets = new HashSet<>();
+    for (int i = 0; i < randomTable.length; i++) {
+      for (int j = i + 1; j < randomTable.length; j++) {
+        ColumnCombinationBitset agreeSet = new ColumnCombinationBitset();
+        for (int column = 0; column < randomTable[i].length; column++) {
+          if (randomTable[i][column] == randomTable[j][column]) {
+            agreeSet.addColumn(column);
+          }
+        }
+        if (!agreeSet.isEmpty()) {
+          expectedAgreeSets.add(agreeSet);
+        }
+      }
+    }
+
+    // Execute functionality
+    Set<ColumnCombinationBitset> actualAgreeSets = generator.getAgreeSets();
+
+    // Check result
+    assertEquals(expectedAgreeSets, actualAgreeSets);
+  }
+
+  /**
+   * Test method for {@link AgreeSetGenerator#setSamplingRate(double, long)} <p/> A sample should
+   * return a subset of the agree sets that does not depend on the parallelism.
+   */
+  @Test
+  public void testSetSamplingRate() {
+    // Setup
+    List<PositionListIndex> plis = createPLIs(createRandomTable(200, 6));
+    Set<ColumnCombinationBitset> allAgreeSets = new AgreeSetGenerator(plis).getAgreeSets();
+
+    // Execute functionality
+    Set<ColumnCombinationBitset> sequentialSample = new AgreeSetGenerator(plis)
+      .setBlockSize(50)
+      .setSamplingRate(0.05, 42)
+      .getAgreeSets();
+    Set<ColumnCombinationBitset> parallelSample = new AgreeSetGenerator(plis)
+      .setBlockSize(50)
+      .setSamplingRate(0.05, 42)
+      .setParallelism(3)
+      .getAgreeSets();
+
+    // Check result
+    assertTrue(allAgreeSets.containsAll(sequentialSample));
+    assertFalse(sequentialSample.isEmpty());
+    assertEquals(sequentialSample, parallelSample);
+  }
+
+  /**
+   * Test method for {@link AgreeSetGenerator#setSamplingRate(double, long)} <p/> The sampling rate
+   * has to be in (0, 1].
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetSamplingRateInvalid() {
+    // Execute functionality
+    // Check result
+    new AgreeSetGenerator(createPLIs(table)).setSamplingRate(0, 42);
+  }
+
+  /**
+   * Test method for {@link AgreeSetGenerator#getAgreeSets()} <p/> The cluster ids of all cells are
+   * stored in a single array, so the number of cells has to fit into an int.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetAgreeSetsTooManyCells() {
+    // Setup
+    List<LongArrayList> clusters = new ArrayList<>();
+    clusters.add(new LongArrayList(new long[]{0, Integer.MAX_VALUE / 2}));
+    List<PositionListIndex> plis = new ArrayList<>();
+    for (int column = 0; column < 3; column++) {
+      plis.add(new PositionListIndex(clusters));
+    }
+
+    // Execute functionality
+    // Check result
+    new AgreeSetGenerator(plis).getAgreeSets();
+  }
+
+  protected int[][] createRandomTable(int numberOfRows, int numberOfColumns) {
+    Random random = new Random(11);
+    int[][] randomTable = new int[numberOfRows][numberOfColumns];
+    for (int[] row : randomTable) {
+      for (int column = 0; column < numberOfColumns; column++) {
+        row[column] = random.nextInt(5 + 10 * column);
+      }
+    }
+    return randomTable;
+  }
+
+  protected List<PositionListIndex> createPLIs(int[][] values) {
+    List<PositionListIndex> plis = new ArrayList<>();
+    for (int column = 0; column < values[0].length; column++) {
+      Map<Integer, LongArrayList> clusters = new HashMap<>();
+      for (int row = 0; row < values.length; row++) {
+        LongArrayList cluster = clusters.get(values[row][column]);
+        if (cluster == null) {
+          cluster = new LongArrayList();
+          clusters.put(values[row][column], cluster);
+        }
+        cluster.add(row);
+      }
+      List<LongArrayList> strippedClusters = new ArrayList<>();
+      for (LongArrayList cluster : clusters.values()) {
+        if (cluster.size() > 1) {
+          strippedClusters.add(cluster);
+        }
+      }
+      plis.add(new PositionListIndex(strippedClusters, values.length));
+    }
+    return plis;
+  }
+}
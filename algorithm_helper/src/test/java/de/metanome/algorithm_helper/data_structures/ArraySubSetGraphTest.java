@@ -0,0 +1,244 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.test_helper.EqualsAndHashCodeTester;
+import org.hamcrest.collection.IsIterableContainingInAnyOrder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.ArraySubSetGraph}
+ */
+public class ArraySubSetGraphTest {
+
+  /**
+   * Test method for {@link ArraySubSetGraph#add(ColumnCombinationBitset)} <p/> After inserting a
+   * column combination a child node for every set bit should exist. Add should return the graph
+   * after addition.
+   */
+  @Test
+  public void testAdd() {
+    // Setup
+    ArraySubSetGraph graph = new ArraySubSetGraph();
+    ColumnCombinationBitset columnCombination = new ColumnCombinationBitset(2, 4, 7);
+
+    // Execute functionality
+    ArraySubSetGraph graphAfterAdd = graph.add(columnCombination);
+
+    // Check result
+    // Check existence of column indices in child nodes by iterating
+    int actualNode = ArraySubSetGraph.ROOT;
+    for (int setColumnIndex : columnCombination.getSetBits()) {
+      int offset = graph.childOffsets[actualNode];
+      int position = graph.findChild(offset, offset + graph.childCounts[actualNode],
+        setColumnIndex);
+      assertTrue(position >= 0);
+      actualNode = graph.childNodes[position];
+    }
+    assertTrue(graph.subSetEnds[actualNode]);
+
+    // Check add return value
+    assertSame(graph, graphAfterAdd);
+  }
+
+  /**
+   * Test method for {@link ArraySubSetGraph#addAll(java.util.Collection)} <p/> After inserting all
+   * column combinations the graph should be equal to the expected graph from the fixture
+   * regardless of the insertion order. AddAll should return the graph after addition.
+   */
+  @Test
+  public void testAddAll() {
+    // Setup
+    SubSetGraphFixture fixture = new SubSetGraphFixture();
+    ArraySubSetGraph graph = new ArraySubSetGraph();
+    // Expected values
+    List<ColumnCombinationBitset> columnCombinations =
+      new ArrayList<>(fixture.getExpectedIncludedColumnCombinations());
+    Collections.reverse(columnCombinations);
+    ArraySubSetGraph expectedGraph = fixture.getArrayGraph();
+
+    // Execute functionality
+    ArraySubSetGraph graphAfterAddAll = graph.addAll(columnCombinations);
+
+    // Check result
+    assertEquals(expectedGraph, graph);
+    assertSame(graph, graphAfterAddAll);
+  }
+
+  /**
+   * Test method for {@link ArraySubSetGraph#getExistingSubsets(ColumnCombinationBitset)}
+   */
+  @Test
+  public void testGetExistingSubsets() {
+    // Setup
+    SubSetGraphFixture fixture = new SubSetGraphFixture();
+    ArraySubSetGraph graph = fixture.getArrayGraph();
+    ColumnCombinationBitset columnCombinationToQuery = fixture.getColumnCombinationForSubsetQuery();
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualSubsets =
+      graph.getExistingSubsets(columnCombinationToQuery);
+
+    // Check result
+    assertThat(actualSubsets,
+      IsIterableContainingInAnyOrder
+        .containsInAnyOrder(fixture.getExpectedSubsetsFromQuery()));
+  }
+
+  /**
+   * Test method for {@link ArraySubSetGraph#getExistingSubsets(ColumnCombinationBitset)} <p/> An
+   * empty list should be returned on an empty graph.
+   */
+  @Test
+  public void testGetExistingSubsetsOnEmptyGraph() {
+    // Setup
+    ArraySubSetGraph graph = new ArraySubSetGraph();
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualSubsets =
+      graph.getExistingSubsets(new ColumnCombinationBitset(1, 3, 5));
+
+    // Check result
+    assertTrue(actualSubsets.isEmpty());
+  }
+
+  /**
+   * Test method for {@link ArraySubSetGraph#containsSubset(ColumnCombinationBitset)}
+   */
+  @Test
+  public void testContainsSubset() {
+    // Setup
+    SubSetGraphFixture fixture = new SubSetGraphFixture();
+    ArraySubSetGraph actualGraph = fixture.getArrayGraph();
+
+    // Execute functionality
+    // Check result
+    assertTrue(actualGraph.containsSubset(fixture.getExpectedIncludedColumnCombinations().get(0)));
+    assertTrue(actualGraph.containsSubset(fixture.getColumnCombinationForSubsetQuery()));
+    assertFalse(actualGraph.containsSubset(new ColumnCombinationBitset(1)));
+    assertFalse(new ArraySubSetGraph().containsSubset(new ColumnCombinationBitset(1, 3)));
+  }
+
+  /**
+   * Test method for {@link ArraySubSetGraph#containsSubset(ColumnCombinationBitset)} and {@link
+   * ArraySubSetGraph#getExistingSubsets(ColumnCombinationBitset)} <p/> The results should equal
+   * those of the {@link SubSetGraph} on random column combinations. Wide nodes force the child
+   * ranges to be relocated.
+   */
+  @Test
+  public void testQueriesEqualSubSetGraph() {
+    // Setup
+    Random random = new Random(42);
+    SubSetGraph expectedGraph = new SubSetGraph();
+    ArraySubSetGraph graph = new ArraySubSetGraph();
+    for (int i = 0; i < 500; i++) {
+      ColumnCombinationBitset columnCombination = createRandomColumnCombination(random, 40, 4);
+      expectedGraph.add(columnCombination);
+      graph.add(columnCombination);
+    }
+
+    for (int i = 0; i < 500; i++) {
+      ColumnCombinationBitset query = createRandomColumnCombination(random, 40, 12);
+
+      // Execute functionality
+      // Check result
+      assertEquals(expectedGraph.containsSubset(query), graph.containsSubset(query));
+      assertEquals(new HashSet<>(expectedGraph.getExistingSubsets(query)),
+        new HashSet<>(graph.getExistingSubsets(query)));
+    }
+    assertEquals(expectedGraph.getMinimalSubsets(), graph.getMinimalSubsets());
+  }
+
+  /**
+   * Test method for {@link ArraySubSetGraph#isEmpty()}
+   */
+  @Test
+  public void testIsEmpty() {
+    // Setup
+    ArraySubSetGraph emptyGraph = new ArraySubSetGraph();
+    ArraySubSetGraph nonEmptyGraph = new ArraySubSetGraph();
+    nonEmptyGraph.add(new ColumnCombinationBitset(10));
+
+    // Execute functionality
+    // Check result
+    assertTrue(emptyGraph.isEmpty());
+    assertFalse(nonEmptyGraph.isEmpty());
+  }
+
+  /**
+   * Test method for {@link ArraySubSetGraph#equals(Object)} and {@link ArraySubSetGraph#hashCode()}
+   */
+  @Test
+  public void testEqualsAndHashCode() {
+    // Setup
+    ArraySubSetGraph actualGraph = new ArraySubSetGraph();
+    ArraySubSetGraph equalsGraph = new ArraySubSetGraph();
+    ArraySubSetGraph notEqualsGraph = new ArraySubSetGraph();
+
+    actualGraph.add(new ColumnCombinationBitset(2, 5, 10, 20));
+    actualGraph.add((new ColumnCombinationBitset(2, 5, 8, 15)));
+
+    equalsGraph.add((new ColumnCombinationBitset(2, 5, 8, 15)));
+    equalsGraph.add(new ColumnCombinationBitset(2, 5, 10, 20));
+
+    notEqualsGraph.add(new ColumnCombinationBitset(2, 5, 12, 20));
+    notEqualsGraph.add((new ColumnCombinationBitset(2, 5, 10, 15)));
+
+    // Execute functionality
+    // Check result
+    EqualsAndHashCodeTester<ArraySubSetGraph> tester = new EqualsAndHashCodeTester<>();
+    tester.performBasicEqualsAndHashCodeChecks(actualGraph, equalsGraph, notEqualsGraph);
+  }
+
+  /**
+   * Test method for {@link ArraySubSetGraph#getMinimalSubsets()}
+   */
+  @Test
+  public void testGetMinimalSubsets() {
+    // Setup
+    SubSetGraphFixture fixture = new SubSetGraphFixture();
+    ArraySubSetGraph graph = fixture.getArrayGraph();
+
+    // Execute functionality
+    Set<ColumnCombinationBitset> actualMinimalSubsets = graph.getMinimalSubsets();
+
+    // Check result
+    assertThat(actualMinimalSubsets,
+      IsIterableContainingInAnyOrder
+        .containsInAnyOrder(fixture.getExpectedMinimalSubsets()));
+  }
+
+  protected ColumnCombinationBitset createRandomColumnCombination(Random random,
+                                                                  int numberOfColumns,
+                                                                  int maximumSize) {
+    ColumnCombinationBitset columnCombination = new ColumnCombinationBitset();
+    int size = 1 + random.nextInt(maximumSize);
+    while (columnCombination.size() < size) {
+      columnCombination.addColumn(random.nextInt(numberOfColumns));
+    }
+    return columnCombination;
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.BitmapPositionListIndex}
+ */
+public class BitmapPositionListIndexTest {
+
+  protected PositionListIndexFixture fixture;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PositionListIndexFixture();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link BitmapPositionListIndex#BitmapPositionListIndex(PositionListIndex)} and
+   * {@link BitmapPositionListIndex#toPositionListIndex()} <p/> The conversion should not change the
+   * clusters.
+   */
+  @Test
+  public void testConversion() {
+    // Setup
+    PositionListIndex permutatedFirstPLI = fixture.getPermutatedFirstPLI();
+
+    // Execute functionality
+    BitmapPositionListIndex bitmapPLI = new BitmapPositionListIndex(permutatedFirstPLI);
+
+    // Check result
+    assertEquals(fixture.getFirstPLI(), bitmapPLI.toPositionListIndex());
+    assertEquals(fixture.getFirstPLISize(), bitmapPLI.size());
+    assertEquals(fixture.getExpectedFirstPLIRawKeyError(), bitmapPLI.getRawKeyError());
+    assertFalse(bitmapPLI.isUnique());
+    assertTrue(new BitmapPositionListIndex().isUnique());
+  }
+
+  /**
+   * Test method for {@link BitmapPositionListIndex#intersect(BitmapPositionListIndex)} <p/> The
+   * bitmap intersection should equal the intersection of the {@link PositionListIndex}es.
+   */
+  @Test
+  public void testIntersect() {
+    // Setup
+    BitmapPositionListIndex firstPLI = new BitmapPositionListIndex(fixture.getFirstPLI());
+    BitmapPositionListIndex secondPLI = new BitmapPositionListIndex(fixture.getSecondPLI());
+    // Expected values
+    PositionListIndex expectedPLI = fixture.getExpectedIntersectedPLI();
+
+    // Execute functionality
+    BitmapPositionListIndex actualPLI = firstPLI.intersect(secondPLI);
+
+    // Check result
+    assertEquals(expectedPLI, actualPLI.toPositionListIndex());
+    assertEquals(fixture.getExpectedIntersectedPLIRawKeyError(), actualPLI.getRawKeyError());
+  }
+
+  /**
+   * Test method for {@link BitmapPositionListIndex#intersect(StrippedPartition)} <p/> Partitions of
+   * different representations should be intersectable.
+   */
+  @Test
+  public void testIntersectMixed() {
+    // Setup
+    StrippedPartition firstPLI = new BitmapPositionListIndex(fixture.getFirstPLI());
+    StrippedPartition secondPLI = fixture.getSecondPLI();
+    // Expected values
+    PositionListIndex expectedPLI = fixture.getExpectedIntersectedPLI();
+
+    // Execute functionality
+    StrippedPartition actualPLI = firstPLI.intersect(secondPLI);
+    StrippedPartition actualReversedPLI = secondPLI.intersect(firstPLI);
+
+    // Check result
+    assertEquals(expectedPLI, actualPLI.toPositionListIndex());
+    assertEquals(expectedPLI, actualReversedPLI.toPositionListIndex());
+  }
+
+  /**
+   * Test method for {@link BitmapPositionListIndex#toPositionListIndex()} <p/> The number of tuples
+   * should survive the conversions and intersections, so that the converted plis can be
+   * intersected with the dense probing table.
+   */
+  @Test
+  public void testNumberOfTuples() {
+    // Setup
+    PositionListIndex firstPLI = new PositionListIndex(fixture.getFirstPLI().getClusters(), 20);
+    PositionListIndex secondPLI = new PositionListIndex(fixture.getSecondPLI().getClusters(), 20);
+    BitmapPositionListIndex firstBitmapPLI = new BitmapPositionListIndex(firstPLI);
+    BitmapPositionListIndex secondBitmapPLI = new BitmapPositionListIndex(secondPLI);
+    // Expected values
+    PositionListIndex expectedPLI = fixture.getExpectedIntersectedPLI();
+
+    // Execute functionality
+    BitmapPositionListIndex actualPLI = firstBitmapPLI.intersect(secondBitmapPLI);
+    StrippedPartition actualMixedPLI = firstBitmapPLI.intersect((StrippedPartition) secondPLI);
+
+    // Check result
+    assertEquals(20, firstBitmapPLI.getNumberOfTuples());
+    assertEquals(20, firstBitmapPLI.toPositionListIndex().getNumberOfTuples());
+    assertEquals(20, actualPLI.getNumberOfTuples());
+    assertEquals(expectedPLI, actualPLI.toPositionListIndex());
+    assertEquals(20, actualMixedPLI.toPositionListIndex().getNumberOfTuples());
+    assertEquals(expectedPLI, actualMixedPLI.toPositionListIndex());
+  }
+
+  /**
+   * Test method for {@link BitmapPositionListIndex#getMemorySize()} <p/> A column with a few large
+   * clusters should be smaller as bitmaps.
+   */
+  @Test
+  public void testGetMemorySize() {
+    // Setup
+    List<LongArrayList> clusters = new ArrayList<>();
+    clusters.add(new LongArrayList());
+    clusters.add(new LongArrayList());
+    for (long row = 0; row < 10000; row++) {
+      clusters.get((int) (row % 2)).add(row);
+    }
+    PositionListIndex pli = new PositionListIndex(clusters);
+
+    // Execute functionality
+    BitmapPositionListIndex bitmapPLI = new BitmapPositionListIndex(pli);
+
+    // Check result
+    assertTrue(bitmapPLI.getMemorySize() < pli.getMemorySize());
+    assertEquals(pli.getRawKeyError(), bitmapPLI.getRawKeyError());
+  }
+}
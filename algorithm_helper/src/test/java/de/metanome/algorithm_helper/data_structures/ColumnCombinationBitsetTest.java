@@ -24,6 +24,7 @@ import org.apache.lucene.util.OpenBitSet;
 import org.hamcrest.collection.IsIterableContainingInAnyOrder;
 import org.junit.Test;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -725,6 +726,32 @@ public class ColumnCombinationBitsetTest {
     );
   }
 
+  /**
+   * Test method for {@link ColumnCombinationBitset#getDirectSupersetIterator(ColumnCombinationBitset)}
+   * <p/> The iterator should enumerate the same direct super sets as {@link
+   * ColumnCombinationBitset#getDirectSupersets(ColumnCombinationBitset)}.
+   */
+  @Test
+  public void testGetDirectSupersetIterator() {
+    // Setup
+    ColumnCombinationBitsetFixture fixture = new ColumnCombinationBitsetFixture();
+    ColumnCombinationBitset columnCombination = fixture.getColumnCombination1();
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualDirectSupersets = new LinkedList<>();
+    Iterator<ColumnCombinationBitset> iterator =
+      columnCombination.getDirectSupersetIterator(fixture.getExpectedSupersetOfColumn1());
+    while (iterator.hasNext()) {
+      actualDirectSupersets.add(iterator.next());
+    }
+
+    // Check result
+    assertThat(actualDirectSupersets,
+      IsIterableContainingInAnyOrder.containsInAnyOrder(
+        fixture.getExpectedDirectSupersetsColumnCombinationBitset())
+    );
+  }
+
   /**
    * Test method for {@link ColumnCombinationBitset#getDirectSubsets()} <p/> Generates the direct
    * subset column combinations.
@@ -920,6 +947,31 @@ public class ColumnCombinationBitsetTest {
       .containsInAnyOrder(fixture.getExpectedSubsetArray1()));
   }
 
+  /**
+   * Test method for {@link ColumnCombinationBitset#getAllSubsetsIterator()} <p/> The iterator
+   * should enumerate all subsets by increasing size.
+   */
+  @Test
+  public void testGetAllSubsetsIterator() {
+    // Setup
+    ColumnCombinationBitsetFixture fixture = new ColumnCombinationBitsetFixture();
+    ColumnCombinationBitset columnCombination = fixture.getColumnCombination1();
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualSubsets = new LinkedList<>();
+    Iterator<ColumnCombinationBitset> iterator = columnCombination.getAllSubsetsIterator();
+    while (iterator.hasNext()) {
+      actualSubsets.add(iterator.next());
+    }
+
+    // Check result
+    assertThat(actualSubsets, IsIterableContainingInAnyOrder
+      .containsInAnyOrder(fixture.getExpectedSubsetArray1()));
+    for (int i = 1; i < actualSubsets.size(); i++) {
+      assertTrue(actualSubsets.get(i - 1).size() <= actualSubsets.get(i).size());
+    }
+  }
+
   /**
    * Test method for {@link ColumnCombinationBitset#getAllSubsets()} <p/> The list of subsets of the
    * empty {@link ColumnCombinationBitset} should be empty.
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.ColumnCombinationPool}
+ */
+public class ColumnCombinationPoolTest {
+
+  /**
+   * Test method for {@link ColumnCombinationPool#intern(ImmutableColumnCombinationBitset)}
+   * <p/>
+   * Equal column combinations should be interned to the same instance, the first interned
+   * instance is the canonical one.
+   */
+  @Test
+  public void testIntern() {
+    // Setup
+    ColumnCombinationPool pool = new ColumnCombinationPool();
+    ImmutableColumnCombinationBitset first = ImmutableColumnCombinationBitset.of(0, 3, 7);
+    ImmutableColumnCombinationBitset equal = ImmutableColumnCombinationBitset.of(0, 3, 7);
+    ImmutableColumnCombinationBitset wide = ImmutableColumnCombinationBitset.of(2, 200);
+
+    // Execute functionality
+    ImmutableColumnCombinationBitset actualFirst = pool.intern(first);
+    ImmutableColumnCombinationBitset actualEqual = pool.intern(equal);
+    ImmutableColumnCombinationBitset actualMutable =
+      pool.intern(new ColumnCombinationBitset(0, 3, 7));
+    ImmutableColumnCombinationBitset actualIndices = pool.intern(0, 3, 7);
+    ImmutableColumnCombinationBitset actualWide = pool.intern(wide);
+    ImmutableColumnCombinationBitset actualWideEqual = pool.intern(2, 200);
+    ImmutableColumnCombinationBitset actualOther = pool.intern(0, 3);
+
+    // Check result
+    assertSame(first, actualFirst);
+    assertSame(first, actualEqual);
+    assertSame(first, actualMutable);
+    assertSame(first, actualIndices);
+    assertSame(wide, actualWide);
+    assertSame(wide, actualWideEqual);
+    assertNotSame(first, actualOther);
+    assertEquals(ImmutableColumnCombinationBitset.of(0, 3), actualOther);
+    assertEquals(3, pool.size());
+  }
+
+  /**
+   * Test method for {@link ColumnCombinationPool#getDirectSubsets(ImmutableColumnCombinationBitset)}
+   * and {@link ColumnCombinationPool#getDirectSupersets(ImmutableColumnCombinationBitset, int)}
+   * <p/>
+   * Column combinations generated from different column combinations should be the same
+   * instance.
+   */
+  @Test
+  public void testGetDirectSubsetsAndSupersets() {
+    // Setup
+    ColumnCombinationPool pool = new ColumnCombinationPool();
+    ImmutableColumnCombinationBitset columnCombination01 = pool.intern(0, 1);
+    ImmutableColumnCombinationBitset columnCombination02 = pool.intern(0, 2);
+    // Expected values
+    ImmutableColumnCombinationBitset expectedSuperset = pool.intern(0, 1, 2);
+
+    // Execute functionality
+    List<ImmutableColumnCombinationBitset> actualSubsets01 =
+      pool.getDirectSubsets(columnCombination01);
+    List<ImmutableColumnCombinationBitset> actualSubsets02 =
+      pool.getDirectSubsets(columnCombination02);
+    List<ImmutableColumnCombinationBitset> actualSupersets01 =
+      pool.getDirectSupersets(columnCombination01, 3);
+    List<ImmutableColumnCombinationBitset> actualSupersets02 =
+      pool.getDirectSupersets(columnCombination02, 3);
+
+    // Check result
+    assertEquals(2, actualSubsets01.size());
+    assertEquals(2, actualSubsets02.size());
+    ImmutableColumnCombinationBitset subset0 = findEqual(actualSubsets01, 0);
+    assertSame(subset0, findEqual(actualSubsets02, 0));
+    assertSame(expectedSuperset, actualSupersets01.get(0));
+    assertSame(expectedSuperset, actualSupersets02.get(0));
+    assertEquals(1, actualSupersets01.size());
+  }
+
+  protected ImmutableColumnCombinationBitset findEqual(
+    List<ImmutableColumnCombinationBitset> columnCombinations, int... columnIndices) {
+    ImmutableColumnCombinationBitset expected = ImmutableColumnCombinationBitset.of(columnIndices);
+    for (ImmutableColumnCombinationBitset columnCombination : columnCombinations) {
+      if (expected.equals(columnCombination)) {
+        return columnCombination;
+      }
+    }
+    fail("Missing column combination " + expected);
+    return null;
+  }
+
+  /**
+   * Test method for {@link ColumnCombinationPool#size()} and {@link ColumnCombinationPool#clear()}
+   * <p/>
+   * Entries of column combinations that are not referenced anymore should be reclaimed.
+   */
+  @Test
+  public void testReclamation() throws InterruptedException {
+    // Setup
+    ColumnCombinationPool pool = new ColumnCombinationPool();
+    ImmutableColumnCombinationBitset retained = pool.intern(1, 2);
+    for (int i = 0; i < 1000; i++) {
+      pool.intern(i, i + 1, i + 5);
+    }
+
+    // Execute functionality
+    for (int attempt = 0; attempt < 50 && pool.size() > 1; attempt++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    // Check result
+    assertEquals(1, pool.size());
+    assertSame(retained, pool.intern(1, 2));
+
+    // Execute functionality
+    pool.clear();
+
+    // Check result
+    assertEquals(0, pool.size());
+    assertNotSame(retained, pool.intern(1, 2));
+  }
+
+  /**
+   * Test method for {@link ColumnCombinationPool#intern(ImmutableColumnCombinationBitset)}
+   * <p/>
+   * Threads interning the same column combinations concurrently should all receive the same
+   * instances.
+   */
+  @Test
+  public void testInternConcurrently() throws Exception {
+    // Setup
+    final ColumnCombinationPool pool = new ColumnCombinationPool();
+    final int numberOfColumnCombinations = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<List<ImmutableColumnCombinationBitset>>> futures = new ArrayList<>();
+
+    // Execute functionality
+    for (int thread = 0; thread < 4; thread++) {
+      futures.add(executor.submit(new Callable<List<ImmutableColumnCombinationBitset>>() {
+        @Override
+        public List<ImmutableColumnCombinationBitset> call() {
+          List<ImmutableColumnCombinationBitset> interned = new ArrayList<>();
+          for (int i = 0; i < numberOfColumnCombinations; i++) {
+            interned.add(pool.intern(i % 7, i + 10));
+          }
+          return interned;
+        }
+      }));
+    }
+    List<List<ImmutableColumnCombinationBitset>> results = new ArrayList<>();
+    for (Future<List<ImmutableColumnCombinationBitset>> future : futures) {
+      results.add(future.get());
+    }
+    executor.shutdown();
+
+    // Check result
+    for (List<ImmutableColumnCombinationBitset> result : results) {
+      for (int i = 0; i < numberOfColumnCombinations; i++) {
+        assertSame(results.get(0).get(i), result.get(i));
+      }
+    }
+    assertEquals(numberOfColumnCombinations, pool.size());
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.CompactPositionListIndex}
+ */
+public class CompactPositionListIndexTest {
+
+  protected PositionListIndexFixture fixture;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PositionListIndexFixture();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link CompactPositionListIndex#CompactPositionListIndex(PositionListIndex)}
+   * and {@link CompactPositionListIndex#toPositionListIndex()}
+   * <p/>
+   * Converting a {@link PositionListIndex} back and forth should not change it.
+   */
+  @Test
+  public void testConversion() {
+    // Setup
+    PositionListIndex pli = fixture.getFirstPLI();
+
+    // Execute functionality
+    CompactPositionListIndex compactPLI = new CompactPositionListIndex(pli);
+
+    // Check result
+    assertEquals(pli, compactPLI.toPositionListIndex());
+    assertEquals(9, compactPLI.getNumberOfTuples());
+    assertEquals(2, compactPLI.getClusterCount());
+    assertEquals(3, compactPLI.getClusterSize(1));
+    assertArrayEquals(new int[]{5, 6, 7}, compactPLI.getCluster(1));
+  }
+
+  /**
+   * Test method for {@link CompactPositionListIndex#intersect(CompactPositionListIndex)}
+   * <p/>
+   * The intersection should equal the intersection of {@link PositionListIndex#intersect(PositionListIndex)}.
+   */
+  @Test
+  public void testIntersect() {
+    // Setup
+    CompactPositionListIndex firstPLI = new CompactPositionListIndex(fixture.getFirstPLI());
+    CompactPositionListIndex secondPLI = new CompactPositionListIndex(fixture.getSecondPLI());
+    // Expected values
+    PositionListIndex expectedPLI = fixture.getExpectedIntersectedPLI();
+
+    // Execute functionality
+    CompactPositionListIndex actualIntersectedPLI = firstPLI.intersect(secondPLI);
+
+    // Check result
+    assertEquals(expectedPLI, actualIntersectedPLI.toPositionListIndex());
+    assertEquals(expectedPLI, secondPLI.intersect(firstPLI).toPositionListIndex());
+  }
+
+  /**
+   * Test method for {@link CompactPositionListIndex#intersect(CompactPositionListIndex,
+   * PLIProbingTable)}
+   * <p/>
+   * A {@link PLIProbingTable} should be reusable for several intersections.
+   */
+  @Test
+  public void testIntersectReusesProbingTable() {
+    // Setup
+    CompactPositionListIndex firstPLI = new CompactPositionListIndex(fixture.getFirstPLI());
+    CompactPositionListIndex secondPLI = new CompactPositionListIndex(fixture.getSecondPLI());
+    PLIProbingTable probingTable = new PLIProbingTable();
+    // Expected values
+    PositionListIndex expectedPLI = fixture.getExpectedIntersectedPLI();
+
+    // Execute functionality
+    CompactPositionListIndex first = firstPLI.intersect(secondPLI, probingTable);
+    CompactPositionListIndex second = secondPLI.intersect(firstPLI, probingTable);
+    CompactPositionListIndex self = firstPLI.intersect(firstPLI, probingTable);
+
+    // Check result
+    assertEquals(expectedPLI, first.toPositionListIndex());
+    assertEquals(expectedPLI, second.toPositionListIndex());
+    assertEquals(fixture.getFirstPLI(), self.toPositionListIndex());
+    for (int probedCluster : probingTable.probe) {
+      assertEquals(0, probedCluster);
+    }
+  }
+
+  /**
+   * Test method for {@link CompactPositionListIndex#getRawKeyError()}
+   */
+  @Test
+  public void testGetRawKeyError() {
+    // Setup
+    CompactPositionListIndex firstPli = new CompactPositionListIndex(fixture.getFirstPLI());
+    CompactPositionListIndex secondPli = new CompactPositionListIndex(fixture.getSecondPLI());
+
+    // Execute functionality
+    // Check result
+    assertEquals(fixture.getExpectedFirstPLIRawKeyError(), firstPli.getRawKeyError());
+    assertEquals(fixture.getExpectedSecondPLIRawKeyError(), secondPli.getRawKeyError());
+    assertEquals(fixture.getExpectedIntersectedPLIRawKeyError(),
+      firstPli.intersect(secondPli).getRawKeyError());
+  }
+
+  /**
+   * Test method for {@link CompactPositionListIndex#isEmpty()}, {@link
+   * CompactPositionListIndex#isUnique()}
+   */
+  @Test
+  public void testIsEmptyUnique() {
+    // Setup
+    CompactPositionListIndex emptyPli = new CompactPositionListIndex();
+    CompactPositionListIndex nonEmptyPli = new CompactPositionListIndex(fixture.getFirstPLI());
+
+    // Execute functionality
+    // Check result
+    assertTrue(emptyPli.isEmpty());
+    assertTrue(emptyPli.isUnique());
+    assertFalse(nonEmptyPli.isEmpty());
+    assertFalse(nonEmptyPli.isUnique());
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.hamcrest.collection.IsIterableContainingInAnyOrder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.ConcurrentSubSetGraph}
+ */
+public class ConcurrentSubSetGraphTest {
+
+  protected static final int NUMBER_OF_COLUMNS = 30;
+
+  /**
+   * Test method for {@link ConcurrentSubSetGraph#getExistingSubsets(ColumnCombinationBitset)}
+   */
+  @Test
+  public void testGetExistingSubsets() {
+    // Setup
+    SubSetGraphFixture fixture = new SubSetGraphFixture();
+    ConcurrentSubSetGraph graph =
+      new ConcurrentSubSetGraph().addAll(fixture.getExpectedIncludedColumnCombinations());
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualSubsets =
+      graph.getExistingSubsets(fixture.getColumnCombinationForSubsetQuery());
+
+    // Check result
+    assertThat(actualSubsets,
+      IsIterableContainingInAnyOrder
+        .containsInAnyOrder(fixture.getExpectedSubsetsFromQuery()));
+    assertTrue(new ConcurrentSubSetGraph()
+      .getExistingSubsets(fixture.getColumnCombinationForSubsetQuery()).isEmpty());
+  }
+
+  /**
+   * Test method for {@link ConcurrentSubSetGraph#containsSubset(ColumnCombinationBitset)}
+   */
+  @Test
+  public void testContainsSubset() {
+    // Setup
+    SubSetGraphFixture fixture = new SubSetGraphFixture();
+    ConcurrentSubSetGraph graph =
+      new ConcurrentSubSetGraph().addAll(fixture.getExpectedIncludedColumnCombinations());
+
+    // Execute functionality
+    // Check result
+    assertTrue(graph.containsSubset(fixture.getExpectedIncludedColumnCombinations().get(0)));
+    assertTrue(graph.containsSubset(fixture.getColumnCombinationForSubsetQuery()));
+    assertFalse(graph.containsSubset(new ColumnCombinationBitset(1)));
+    assertFalse(new ConcurrentSubSetGraph().containsSubset(new ColumnCombinationBitset(1, 3)));
+  }
+
+  /**
+   * Test method for {@link ConcurrentSubSetGraph#getMinimalSubsets()}
+   */
+  @Test
+  public void testGetMinimalSubsets() {
+    // Setup
+    SubSetGraphFixture fixture = new SubSetGraphFixture();
+    ConcurrentSubSetGraph graph =
+      new ConcurrentSubSetGraph().addAll(fixture.getExpectedIncludedColumnCombinations());
+
+    // Execute functionality
+    Set<ColumnCombinationBitset> actualMinimalSubsets = graph.getMinimalSubsets();
+
+    // Check result
+    assertThat(actualMinimalSubsets,
+      IsIterableContainingInAnyOrder
+        .containsInAnyOrder(fixture.getExpectedMinimalSubsets()));
+  }
+
+  /**
+   * Stress test for {@link ConcurrentSubSetGraph#add(ColumnCombinationBitset)} and {@link
+   * ConcurrentSubSetGraph#containsSubset(ColumnCombinationBitset)} <p/> Writers add random column
+   * combinations concurrently and publish them after the add returned. Readers running at the
+   * same time have to find every published column combination. Afterwards the graph should equal
+   * a graph built sequentially.
+   */
+  @Test
+  public void testConcurrentAddAndContainsSubset() throws Exception {
+    // Setup
+    final int numberOfWriters = 4;
+    final int numberOfReaders = 4;
+    final int columnCombinationsPerWriter = 2000;
+    final ConcurrentSubSetGraph graph = new ConcurrentSubSetGraph();
+    final ConcurrentLinkedQueue<ColumnCombinationBitset> published = new ConcurrentLinkedQueue<>();
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch writersDone = new CountDownLatch(numberOfWriters);
+    // Expected values
+    ConcurrentSubSetGraph expectedGraph = new ConcurrentSubSetGraph();
+    SubSetGraph expectedSubSetGraph = new SubSetGraph();
+    for (int writer = 0; writer < numberOfWriters; writer++) {
+      for (ColumnCombinationBitset columnCombination : createColumnCombinations(writer,
+        columnCombinationsPerWriter)) {
+        expectedGraph.add(columnCombination);
+        expectedSubSetGraph.add(columnCombination);
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(numberOfWriters + numberOfReaders);
+    List<Future<Integer>> readers = new ArrayList<>();
+    try {
+      for (int writer = 0; writer < numberOfWriters; writer++) {
+        final List<ColumnCombinationBitset> columnCombinations =
+          createColumnCombinations(writer, columnCombinationsPerWriter);
+        executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            start.await();
+            for (ColumnCombinationBitset columnCombination : columnCombinations) {
+              graph.add(columnCombination);
+              published.add(columnCombination);
+            }
+            writersDone.countDown();
+            return null;
+          }
+        });
+      }
+      for (int reader = 0; reader < numberOfReaders; reader++) {
+        readers.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() throws Exception {
+            start.await();
+            int numberOfMisses = 0;
+            while (writersDone.getCount() > 0 || !published.isEmpty()) {
+              ColumnCombinationBitset columnCombination = published.poll();
+              if (columnCombination == null) {
+                Thread.yield();
+              } else if (!graph.containsSubset(columnCombination)) {
+                numberOfMisses++;
+              }
+            }
+            return numberOfMisses;
+          }
+        }));
+      }
+
+      // Execute functionality
+      start.countDown();
+
+      // Check result
+      for (Future<Integer> reader : readers) {
+        assertEquals(Integer.valueOf(0), reader.get(60, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(expectedGraph, graph);
+    Random random = new Random(23);
+    for (int i = 0; i < 1000; i++) {
+      ColumnCombinationBitset query = createRandomColumnCombination(random, 8);
+      assertEquals(expectedSubSetGraph.containsSubset(query), graph.containsSubset(query));
+    }
+  }
+
+  protected List<ColumnCombinationBitset> createColumnCombinations(int seed, int number) {
+    Random random = new Random(seed);
+    List<ColumnCombinationBitset> columnCombinations = new ArrayList<>(number);
+    for (int i = 0; i < number; i++) {
+      columnCombinations.add(createRandomColumnCombination(random, 5));
+    }
+    return columnCombinations;
+  }
+
+  protected ColumnCombinationBitset createRandomColumnCombination(Random random, int maximumSize) {
+    ColumnCombinationBitset columnCombination = new ColumnCombinationBitset();
+    int size = 1 + random.nextInt(maximumSize);
+    while (columnCombination.size() < size) {
+      columnCombination.addColumn(random.nextInt(NUMBER_OF_COLUMNS));
+    }
+    return columnCombination;
+  }
+}
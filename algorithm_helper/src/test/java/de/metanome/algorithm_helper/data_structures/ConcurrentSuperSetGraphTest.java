@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.hamcrest.collection.IsIterableContainingInAnyOrder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.ConcurrentSuperSetGraph}
+ */
+public class ConcurrentSuperSetGraphTest {
+
+  SuperSetGraphFixture fixture;
+
+  @Before
+  public void setup() {
+    fixture = new SuperSetGraphFixture();
+  }
+
+  /**
+   * Test method for {@link ConcurrentSuperSetGraph#getExistingSupersets(ColumnCombinationBitset)}
+   */
+  @Test
+  public void testGetExistingSupersets() {
+    // Setup
+    ConcurrentSuperSetGraph graph = new ConcurrentSuperSetGraph(fixture.getNumberOfColumns())
+      .addAll(fixture.getExpectedIncludedColumnCombinations());
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualSupersets =
+      graph.getExistingSupersets(fixture.getColumnCombinationForSupersetQuery());
+
+    // Check result
+    assertThat(actualSupersets,
+      IsIterableContainingInAnyOrder
+        .containsInAnyOrder(fixture.getExpectedSupersetsFromQuery()));
+  }
+
+  /**
+   * Test method for {@link ConcurrentSuperSetGraph#containsSuperset(ColumnCombinationBitset)}
+   */
+  @Test
+  public void testContainsSuperset() {
+    // Setup
+    ConcurrentSuperSetGraph graph = new ConcurrentSuperSetGraph(fixture.getNumberOfColumns())
+      .addAll(fixture.getExpectedIncludedColumnCombinations());
+
+    // Execute functionality
+    // Check result
+    assertTrue(graph.containsSuperset(fixture.getExpectedIncludedColumnCombinations().get(0)));
+    assertTrue(graph.containsSuperset(fixture.getColumnCombinationForSupersetQuery()));
+    assertFalse(graph.containsSuperset(new ColumnCombinationBitset(1, 2, 3, 5, 8, 9)));
+    assertFalse(new ConcurrentSuperSetGraph(fixture.getNumberOfColumns())
+      .containsSuperset(new ColumnCombinationBitset(1, 3)));
+  }
+
+  /**
+   * Stress test for {@link ConcurrentSuperSetGraph#add(ColumnCombinationBitset)} <p/> Every thread
+   * adds column combinations and checks that each is contained right after its add returned.
+   * Afterwards the graph should equal a graph built sequentially.
+   */
+  @Test
+  public void testConcurrentAddAndContainsSuperset() throws Exception {
+    // Setup
+    final int numberOfThreads = 8;
+    final int numberOfColumns = 16;
+    final ConcurrentSuperSetGraph graph = new ConcurrentSuperSetGraph(numberOfColumns);
+    final AtomicInteger numberOfMisses = new AtomicInteger();
+    // Expected values
+    ConcurrentSuperSetGraph expectedGraph = new ConcurrentSuperSetGraph(numberOfColumns);
+    for (int thread = 0; thread < numberOfThreads; thread++) {
+      expectedGraph.addAll(createColumnCombinations(thread, numberOfColumns));
+    }
+
+    // Execute functionality
+    ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+    List<Future<?>> tasks = new ArrayList<>();
+    try {
+      for (int thread = 0; thread < numberOfThreads; thread++) {
+        final List<ColumnCombinationBitset> columnCombinations =
+          createColumnCombinations(thread, numberOfColumns);
+        tasks.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            for (ColumnCombinationBitset columnCombination : columnCombinations) {
+              graph.add(columnCombination);
+              if (!graph.containsSuperset(columnCombination)) {
+                numberOfMisses.incrementAndGet();
+              }
+            }
+          }
+        }));
+      }
+      for (Future<?> task : tasks) {
+        task.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Check result
+    assertEquals(0, numberOfMisses.get());
+    assertEquals(expectedGraph, graph);
+  }
+
+  protected List<ColumnCombinationBitset> createColumnCombinations(int seed, int numberOfColumns) {
+    Random random = new Random(seed);
+    List<ColumnCombinationBitset> columnCombinations = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      ColumnCombinationBitset columnCombination = new ColumnCombinationBitset();
+      int size = numberOfColumns / 2 + random.nextInt(numberOfColumns / 4);
+      while (columnCombination.size() < size) {
+        columnCombination.addColumn(random.nextInt(numberOfColumns));
+      }
+      columnCombinations.add(columnCombination);
+    }
+    return columnCombinations;
+  }
+}
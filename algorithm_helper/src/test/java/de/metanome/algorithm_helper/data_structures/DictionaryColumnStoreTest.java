@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+import de.metanome.algorithm_integration.input.InputGenerationException;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.DictionaryColumnStore}
+ */
+public class DictionaryColumnStoreTest {
+
+  protected PLIBuilderFixture fixture;
+  protected DictionaryColumnStore columnStore;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PLIBuilderFixture();
+    columnStore = new PLIBuilder(fixture.getInputGenerator().generateNewCopy()).getColumnStore();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link DictionaryColumnStore#getPLIList()} <p/> The plis derived from the store
+   * should equal the plis built by the {@link PLIBuilder}.
+   */
+  @Test
+  public void testGetPLIListNullEqualsNull() {
+    // Setup
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = columnStore.getPLIList();
+
+    // Check result
+    assertEquals(expectedPLIList, actualPLIList);
+  }
+
+  /**
+   * Test method for {@link DictionaryColumnStore#getPLIList()} <p/> Null values should not form a
+   * cluster if null does not equal null.
+   */
+  @Test
+  public void testGetPLIListNullNotEqualsNull()
+    throws InputIterationException, InputGenerationException, AlgorithmConfigurationException {
+    // Setup
+    columnStore =
+      new PLIBuilder(fixture.getInputGenerator().generateNewCopy(), false).getColumnStore();
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(false);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = columnStore.getPLIList();
+
+    // Check result
+    assertEquals(expectedPLIList, actualPLIList);
+  }
+
+  /**
+   * Test method for {@link DictionaryColumnStore#getSortedDistinctValues(int)} <p/> The
+   * dictionaries should equal the distinct sorted columns of the {@link PLIBuilder}.
+   */
+  @Test
+  public void testGetSortedDistinctValues() {
+    // Setup
+    // Expected values
+    List<TreeSet<String>> expectedDistinctSortedColumns =
+      fixture.getExpectedDistinctSortedColumns();
+
+    // Execute functionality
+    // Check result
+    assertEquals(expectedDistinctSortedColumns.size(), columnStore.getNumberOfColumns());
+    for (int columnIndex = 0; columnIndex < columnStore.getNumberOfColumns(); columnIndex++) {
+      assertEquals(new ArrayList<>(expectedDistinctSortedColumns.get(columnIndex)),
+        columnStore.getSortedDistinctValues(columnIndex));
+    }
+  }
+
+  /**
+   * Test method for {@link DictionaryColumnStore#getValueId(int, int)} and {@link
+   * DictionaryColumnStore#getValue(int, int)} <p/> Value ids should be ordered like the values and
+   * decode to the original values.
+   */
+  @Test
+  public void testGetValue() {
+    // Execute functionality
+    // Check result
+    assertEquals(fixture.getExpectedNumberOfTuples(), columnStore.getNumberOfTuples());
+    for (int row = 0; row < fixture.table.size(); row++) {
+      for (int column = 0; column < columnStore.getNumberOfColumns(); column++) {
+        assertEquals(fixture.table.get(row).get(column), columnStore.getValue(column, row));
+      }
+    }
+    // Column 2 contains "5", "5", "3", "3", "5"
+    assertArrayEquals(new int[]{1, 1, 0, 0, 1}, columnStore.getValueIds(2));
+    assertEquals(DictionaryColumnStore.NULL_ID, columnStore.getValueId(3, 0));
+  }
+
+  /**
+   * Test method for {@link PLIBuilder#getColumnStore()} <p/> Cells missing in short rows, also
+   * before the first row containing the column, should be stored as null so that the value ids
+   * stay aligned with the rows.
+   */
+  @Test
+  public void testGetColumnStoreShortRows()
+    throws InputIterationException, InputGenerationException, AlgorithmConfigurationException {
+    // Setup
+    fixture.table.get(0).remove(3);
+    fixture.table.get(1).remove(3);
+    fixture.table.get(4).remove(3);
+
+    // Execute functionality
+    DictionaryColumnStore actualColumnStore =
+      new PLIBuilder(fixture.getInputGenerator().generateNewCopy()).getColumnStore();
+
+    // Check result
+    // Column 3 contains null, null, null, "4", null
+    assertArrayEquals(new int[]{DictionaryColumnStore.NULL_ID, DictionaryColumnStore.NULL_ID,
+      DictionaryColumnStore.NULL_ID, 0, DictionaryColumnStore.NULL_ID},
+      actualColumnStore.getValueIds(3));
+    assertEquals("4", actualColumnStore.getValue(3, 3));
+    assertArrayEquals(new int[]{1, 1, 0, 0, 1}, actualColumnStore.getValueIds(2));
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.ImmutableColumnCombinationBitset}
+ */
+public class ImmutableColumnCombinationBitsetTest {
+
+  /**
+   * Test method for {@link ImmutableColumnCombinationBitset#of(int...)} <p/> Narrow and wide column
+   * combinations should contain exactly the given columns.
+   */
+  @Test
+  public void testOf() {
+    // Setup
+    // Expected values
+    List<Integer> expectedNarrowBits = Arrays.asList(0, 63, 64, 127);
+    List<Integer> expectedWideBits = Arrays.asList(3, 200);
+
+    // Execute functionality
+    ImmutableColumnCombinationBitset narrow = ImmutableColumnCombinationBitset.of(127, 0, 64, 63);
+    ImmutableColumnCombinationBitset wide = ImmutableColumnCombinationBitset.of(200, 3);
+
+    // Check result
+    assertEquals(expectedNarrowBits, narrow.getSetBits());
+    assertEquals(4, narrow.size());
+    assertEquals(expectedWideBits, wide.getSetBits());
+    assertEquals(2, wide.size());
+    assertTrue(wide.containsColumn(200));
+    assertFalse(wide.containsColumn(199));
+    assertFalse(narrow.containsColumn(300));
+    assertSame(ImmutableColumnCombinationBitset.EMPTY, ImmutableColumnCombinationBitset.of());
+  }
+
+  /**
+   * Test method for {@link ImmutableColumnCombinationBitset#containsSubset(ColumnSet)} <p/> Subset
+   * tests should work across narrow, wide and {@link ColumnCombinationBitset} representations.
+   */
+  @Test
+  public void testContainsSubset() {
+    // Setup
+    ImmutableColumnCombinationBitset narrowSuperset = ImmutableColumnCombinationBitset.of(1, 2, 70);
+    ImmutableColumnCombinationBitset narrowSubset = ImmutableColumnCombinationBitset.of(2, 70);
+    ImmutableColumnCombinationBitset wideSuperset = ImmutableColumnCombinationBitset.of(2, 70, 500);
+    ColumnCombinationBitset mutableSubset = new ColumnCombinationBitset(1, 70);
+
+    // Execute functionality
+    // Check result
+    assertTrue(narrowSuperset.containsSubset(narrowSubset));
+    assertFalse(narrowSubset.containsSubset(narrowSuperset));
+    assertTrue(wideSuperset.containsSubset(narrowSubset));
+    assertFalse(narrowSubset.containsSubset(wideSuperset));
+    assertFalse(wideSuperset.containsSubset(narrowSuperset));
+    assertTrue(narrowSuperset.containsSubset(mutableSubset));
+    assertTrue(mutableSubset.isSubsetOf(narrowSuperset));
+    assertTrue(narrowSubset.isProperSubsetOf(narrowSuperset));
+    assertFalse(narrowSubset.isProperSubsetOf(narrowSubset));
+    assertTrue(narrowSubset.toColumnCombinationBitset().isSubsetOf(wideSuperset));
+  }
+
+  /**
+   * Test method for {@link ImmutableColumnCombinationBitset#union(ImmutableColumnCombinationBitset)},
+   * {@link ImmutableColumnCombinationBitset#intersect(ImmutableColumnCombinationBitset)} and {@link
+   * ImmutableColumnCombinationBitset#minus(ImmutableColumnCombinationBitset)} <p/> The operations
+   * should not change the operands and results without wide columns should be narrow.
+   */
+  @Test
+  public void testSetOperations() {
+    // Setup
+    ImmutableColumnCombinationBitset first = ImmutableColumnCombinationBitset.of(1, 65, 300);
+    ImmutableColumnCombinationBitset second = ImmutableColumnCombinationBitset.of(1, 2);
+
+    // Execute functionality
+    ImmutableColumnCombinationBitset union = first.union(second);
+    ImmutableColumnCombinationBitset intersection = first.intersect(second);
+    ImmutableColumnCombinationBitset difference =
+      first.minus(ImmutableColumnCombinationBitset.of(300));
+
+    // Check result
+    assertEquals(ImmutableColumnCombinationBitset.of(1, 2, 65, 300), union);
+    assertEquals(ImmutableColumnCombinationBitset.of(1), intersection);
+    assertEquals(ImmutableColumnCombinationBitset.of(1, 65), difference);
+    assertNull(difference.wide);
+    assertEquals(ImmutableColumnCombinationBitset.of(1, 65).hashCode(), difference.hashCode());
+    assertEquals(ImmutableColumnCombinationBitset.of(1, 65, 300), first);
+    assertEquals(ImmutableColumnCombinationBitset.of(1, 2), second);
+  }
+
+  /**
+   * Test method for {@link ImmutableColumnCombinationBitset#addColumn(int)} and {@link
+   * ImmutableColumnCombinationBitset#removeColumn(int)} <p/> Adding and removing columns should
+   * return new column combinations.
+   */
+  @Test
+  public void testAddRemoveColumn() {
+    // Setup
+    ImmutableColumnCombinationBitset columnCombination = ImmutableColumnCombinationBitset.of(4);
+
+    // Execute functionality
+    ImmutableColumnCombinationBitset added = columnCombination.addColumn(100).addColumn(150);
+    ImmutableColumnCombinationBitset removed = added.removeColumn(150);
+
+    // Check result
+    assertEquals(ImmutableColumnCombinationBitset.of(4), columnCombination);
+    assertEquals(ImmutableColumnCombinationBitset.of(4, 100, 150), added);
+    assertEquals(ImmutableColumnCombinationBitset.of(4, 100), removed);
+    assertNull(removed.wide);
+    assertSame(removed, removed.removeColumn(7));
+  }
+
+  /**
+   * Test method for {@link ImmutableColumnCombinationBitset#getDirectSubsets()} and {@link
+   * ImmutableColumnCombinationBitset#getDirectSupersets(int)}
+   */
+  @Test
+  public void testGetDirectSubsetsSupersets() {
+    // Setup
+    ImmutableColumnCombinationBitset columnCombination = ImmutableColumnCombinationBitset.of(0, 2);
+
+    // Execute functionality
+    List<ImmutableColumnCombinationBitset> subsets = columnCombination.getDirectSubsets();
+    List<ImmutableColumnCombinationBitset> supersets = columnCombination.getDirectSupersets(4);
+
+    // Check result
+    assertEquals(Arrays.asList(ImmutableColumnCombinationBitset.of(2),
+      ImmutableColumnCombinationBitset.of(0)), subsets);
+    assertEquals(Arrays.asList(ImmutableColumnCombinationBitset.of(0, 1, 2),
+      ImmutableColumnCombinationBitset.of(0, 2, 3)), supersets);
+  }
+
+  /**
+   * Test method for {@link ImmutableColumnCombinationBitset#compareTo(ImmutableColumnCombinationBitset)}
+   * <p/> Column combinations should be ordered like {@link ColumnCombinationBitset}s.
+   */
+  @Test
+  public void testCompareTo() {
+    // Setup
+    ImmutableColumnCombinationBitset small = ImmutableColumnCombinationBitset.of(5);
+    ImmutableColumnCombinationBitset first = ImmutableColumnCombinationBitset.of(1, 3);
+    ImmutableColumnCombinationBitset second = ImmutableColumnCombinationBitset.of(1, 200);
+
+    // Execute functionality
+    // Check result
+    assertTrue(small.compareTo(first) < 0);
+    assertTrue(first.compareTo(second) < 0);
+    assertTrue(second.compareTo(first) > 0);
+    assertEquals(0, first.compareTo(ImmutableColumnCombinationBitset.of(3, 1)));
+  }
+}
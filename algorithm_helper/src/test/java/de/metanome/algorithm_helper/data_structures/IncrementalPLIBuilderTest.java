@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.input.InputIterationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.IncrementalPLIBuilder}
+ */
+public class IncrementalPLIBuilderTest {
+
+  protected PLIBuilderFixture fixture;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PLIBuilderFixture();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link IncrementalPLIBuilder#getPLIList()} <p/> Without appended rows the plis
+   * should equal the plis of the {@link PLIBuilder}.
+   */
+  @Test
+  public void testGetPLIList() throws InputIterationException {
+    // Setup
+    IncrementalPLIBuilder builder =
+      new IncrementalPLIBuilder(fixture.getRelationalInput(0, 5), false);
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(false);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = builder.getPLIList();
+
+    // Check result
+    assertEquals(expectedPLIList, actualPLIList);
+    assertEquals(expectedPLIList, builder.getPLIList());
+    assertEquals(fixture.getExpectedDistinctSortedColumns(), builder.getDistinctSortedColumns());
+  }
+
+  /**
+   * Test method for {@link IncrementalPLIBuilder#append(de.metanome.algorithm_integration.input.RelationalInput)}
+   * <p/> Appending rows should update the clusters and the cached raw key errors in place.
+   */
+  @Test
+  public void testAppend() throws InputIterationException {
+    // Setup
+    IncrementalPLIBuilder builder = new IncrementalPLIBuilder(fixture.getRelationalInput(0, 3));
+    List<PositionListIndex> plis = builder.getPLIList();
+    for (PositionListIndex pli : plis) {
+      pli.getRawKeyError();
+    }
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+
+    // Execute functionality
+    builder.append(fixture.getRelationalInput(3, 5));
+
+    // Check result
+    assertEquals(expectedPLIList, plis);
+    assertEquals(fixture.getExpectedNumberOfTuples(), builder.getNumberOfTuples());
+    for (int i = 0; i < plis.size(); i++) {
+      assertEquals(expectedPLIList.get(i).getRawKeyError(), plis.get(i).getRawKeyError());
+    }
+  }
+
+  /**
+   * Test method for {@link IncrementalPLIBuilder#save(java.io.OutputStream)} and {@link
+   * IncrementalPLIBuilder#load(java.io.InputStream)} <p/> A loaded index should be extendable
+   * without the original rows.
+   */
+  @Test
+  public void testSaveLoadAppend() throws InputIterationException, IOException {
+    // Setup
+    IncrementalPLIBuilder builder = new IncrementalPLIBuilder(fixture.getRelationalInput(0, 2));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    builder.save(outputStream);
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+
+    // Execute functionality
+    IncrementalPLIBuilder loadedBuilder =
+      IncrementalPLIBuilder.load(new ByteArrayInputStream(outputStream.toByteArray()));
+    loadedBuilder.append(fixture.getRelationalInput(2, 5));
+
+    // Check result
+    assertEquals(expectedPLIList, loadedBuilder.getPLIList());
+    assertEquals(fixture.getExpectedNumberOfTuples(), loadedBuilder.getNumberOfTuples());
+    assertEquals(fixture.getExpectedDistinctSortedColumns(),
+      loadedBuilder.getDistinctSortedColumns());
+  }
+}
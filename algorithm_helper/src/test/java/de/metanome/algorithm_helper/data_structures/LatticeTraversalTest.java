@@ -0,0 +1,191 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.LatticeTraversal}
+ */
+public class LatticeTraversalTest {
+
+  protected static final int NUMBER_OF_COLUMNS = 6;
+
+  protected List<ColumnCombinationBitset> expectedMinimalValid;
+  protected ColumnCombinationBitset prunedColumns;
+  protected AtomicLong numberOfValidityChecks;
+  protected LatticeTraversalCallback callback;
+
+  @Before
+  public void setUp() throws Exception {
+    expectedMinimalValid = Arrays.asList(
+      new ColumnCombinationBitset(2),
+      new ColumnCombinationBitset(0, 1),
+      new ColumnCombinationBitset(1, 3),
+      new ColumnCombinationBitset(0, 3, 4),
+      new ColumnCombinationBitset(0, 4, 5));
+    prunedColumns = new ColumnCombinationBitset();
+    numberOfValidityChecks = new AtomicLong();
+    // A candidate is valid iff it contains one of the expected minimal valid column combinations.
+    callback = new LatticeTraversalCallback() {
+      @Override
+      public boolean isPruned(ColumnCombinationBitset candidate) {
+        return !candidate.intersect(prunedColumns).isEmpty();
+      }
+
+      @Override
+      public boolean isValid(ColumnCombinationBitset candidate) {
+        numberOfValidityChecks.incrementAndGet();
+        for (ColumnCombinationBitset minimalValid : expectedMinimalValid) {
+          if (candidate.containsSubset(minimalValid)) {
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link LatticeTraversal#traverse()} <p/> All minimal valid column combinations
+   * should be found in ascending order. Only candidates whose direct subsets are all invalid
+   * should be evaluated.
+   */
+  @Test
+  public void testTraverse() {
+    // Setup
+    LatticeTraversal traversal = new LatticeTraversal(NUMBER_OF_COLUMNS, callback, 4)
+      .setTaskSize(1);
+    // Expected values
+    long expectedNumberOfEvaluations = 0;
+    for (ColumnCombinationBitset columnCombination : new ColumnCombinationBitset()
+      .setAllBits(NUMBER_OF_COLUMNS).getAllSubsets()) {
+      if (!columnCombination.isEmpty() && !containsValidProperSubset(columnCombination)) {
+        expectedNumberOfEvaluations++;
+      }
+    }
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualMinimalValid = traversal.traverse();
+
+    // Check result
+    assertEquals(expectedMinimalValid, actualMinimalValid);
+    assertEquals(expectedNumberOfEvaluations, traversal.getNumberOfEvaluatedCandidates());
+    assertEquals(expectedNumberOfEvaluations, numberOfValidityChecks.get());
+  }
+
+  /**
+   * Test method for {@link LatticeTraversal#traverse()} <p/> Pruned candidates and their
+   * supersets should neither be evaluated nor returned.
+   */
+  @Test
+  public void testTraversePruned() {
+    // Setup
+    prunedColumns = new ColumnCombinationBitset(3);
+    LatticeTraversal traversal = new LatticeTraversal(NUMBER_OF_COLUMNS, callback);
+    // Expected values
+    List<ColumnCombinationBitset> expectedResult = Arrays.asList(
+      new ColumnCombinationBitset(2),
+      new ColumnCombinationBitset(0, 1),
+      new ColumnCombinationBitset(0, 4, 5));
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualMinimalValid = traversal.traverse();
+
+    // Check result
+    assertEquals(expectedResult, actualMinimalValid);
+  }
+
+  /**
+   * Test method for {@link LatticeTraversal#addKnownValid(ColumnCombinationBitset)} and {@link
+   * LatticeTraversal#addKnownInvalid(ColumnCombinationBitset)} <p/> Known column combinations
+   * should not be evaluated but the result should remain the same.
+   */
+  @Test
+  public void testTraverseKnownColumnCombinations() {
+    // Setup
+    new LatticeTraversal(NUMBER_OF_COLUMNS, callback).traverse();
+    long numberOfEvaluationsWithoutKnowledge = numberOfValidityChecks.getAndSet(0);
+    LatticeTraversal traversal = new LatticeTraversal(NUMBER_OF_COLUMNS, callback)
+      .addKnownValid(new ColumnCombinationBitset(0, 1))
+      .addKnownValid(new ColumnCombinationBitset(0, 1, 5))
+      .addKnownInvalid(new ColumnCombinationBitset(0, 3, 5));
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualMinimalValid = traversal.traverse();
+
+    // Check result
+    assertEquals(expectedMinimalValid, actualMinimalValid);
+    // {0, 1} is known to be valid, {0, 3, 5} and its six non empty subsets to be invalid.
+    assertEquals(numberOfEvaluationsWithoutKnowledge - 8, numberOfValidityChecks.get());
+  }
+
+  /**
+   * Test method for {@link LatticeTraversal#setMaximumLevel(int)} <p/> Column combinations larger
+   * than the maximum level should not be evaluated.
+   */
+  @Test
+  public void testSetMaximumLevel() {
+    // Setup
+    LatticeTraversal traversal = new LatticeTraversal(NUMBER_OF_COLUMNS, callback)
+      .setMaximumLevel(2);
+    // Expected values
+    List<ColumnCombinationBitset> expectedResult = new ArrayList<>(expectedMinimalValid);
+    expectedResult.removeAll(Arrays.asList(
+      new ColumnCombinationBitset(0, 3, 4),
+      new ColumnCombinationBitset(0, 4, 5)));
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualMinimalValid = traversal.traverse();
+
+    // Check result
+    assertEquals(expectedResult, actualMinimalValid);
+  }
+
+  /**
+   * Test method for {@link LatticeTraversal#LatticeTraversal(int, LatticeTraversalCallback, int)}
+   * <p/> The parallelism has to be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorInvalidParallelism() {
+    // Execute functionality
+    // Check result
+    new LatticeTraversal(NUMBER_OF_COLUMNS, callback, 0);
+  }
+
+  protected boolean containsValidProperSubset(ColumnCombinationBitset columnCombination) {
+    for (ColumnCombinationBitset minimalValid : expectedMinimalValid) {
+      if (columnCombination.containsProperSubset(minimalValid)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
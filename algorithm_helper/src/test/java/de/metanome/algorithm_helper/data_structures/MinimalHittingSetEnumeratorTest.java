@@ -0,0 +1,203 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.MinimalHittingSetEnumerator}
+ */
+public class MinimalHittingSetEnumeratorTest {
+
+  protected List<ColumnCombinationBitset> edges;
+
+  @Before
+  public void setUp() throws Exception {
+    edges = Arrays.asList(
+      new ColumnCombinationBitset(0, 1),
+      new ColumnCombinationBitset(1, 2),
+      new ColumnCombinationBitset(2, 3),
+      // Superset of another edge, does not change the result
+      new ColumnCombinationBitset(0, 1, 3));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link MinimalHittingSetEnumerator#getMinimalHittingSets()} <p/> All minimal
+   * hitting sets should be returned once in ascending order.
+   */
+  @Test
+  public void testGetMinimalHittingSets() {
+    // Setup
+    MinimalHittingSetEnumerator enumerator = new MinimalHittingSetEnumerator(edges);
+    // Expected values
+    List<ColumnCombinationBitset> expectedHittingSets = Arrays.asList(
+      new ColumnCombinationBitset(0, 2),
+      new ColumnCombinationBitset(1, 2),
+      new ColumnCombinationBitset(1, 3));
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualHittingSets = enumerator.getMinimalHittingSets();
+
+    // Check result
+    assertEquals(expectedHittingSets, actualHittingSets);
+  }
+
+  /**
+   * Test method for {@link MinimalHittingSetEnumerator#getMinimalHittingSets()} <p/> Without edges
+   * the empty set is the only minimal hitting set, an empty edge cannot be hit at all.
+   */
+  @Test
+  public void testGetMinimalHittingSetsDegenerate() {
+    // Execute functionality
+    // Check result
+    assertEquals(Arrays.asList(new ColumnCombinationBitset()),
+      new MinimalHittingSetEnumerator(new ArrayList<ColumnCombinationBitset>())
+        .getMinimalHittingSets());
+    assertTrue(new MinimalHittingSetEnumerator(
+      Arrays.asList(new ColumnCombinationBitset(1), new ColumnCombinationBitset()))
+                 .getMinimalHittingSets().isEmpty());
+  }
+
+  /**
+   * Test method for {@link MinimalHittingSetEnumerator#getMinimalHittingSets()} <p/> The
+   * sequential and the parallel search should return the same minimal hitting sets as a brute
+   * force search on random hypergraphs.
+   */
+  @Test
+  public void testGetMinimalHittingSetsRandom() {
+    // Setup
+    int numberOfColumns = 10;
+    Random random = new Random(3);
+    ColumnCombinationBitset allColumns =
+      new ColumnCombinationBitset().setAllBits(numberOfColumns);
+    for (int hypergraph = 0; hypergraph < 10; hypergraph++) {
+      List<ColumnCombinationBitset> randomEdges = new ArrayList<>();
+      for (int i = 0; i < 15; i++) {
+        ColumnCombinationBitset edge = new ColumnCombinationBitset();
+        int size = 1 + random.nextInt(5);
+        while (edge.size() < size) {
+          edge.addColumn(random.nextInt(numberOfColumns));
+        }
+        randomEdges.add(edge);
+      }
+      // Expected values
+      List<ColumnCombinationBitset> expectedHittingSets = new ArrayList<>();
+      for (ColumnCombinationBitset candidate : allColumns.getAllSubsets()) {
+        if (isHittingSet(candidate, randomEdges) && isMinimal(candidate, randomEdges)) {
+          expectedHittingSets.add(candidate);
+        }
+      }
+      Collections.sort(expectedHittingSets);
+
+      // Execute functionality
+      List<ColumnCombinationBitset> actualSequentialHittingSets =
+        new MinimalHittingSetEnumerator(randomEdges).getMinimalHittingSets();
+      List<ColumnCombinationBitset> actualParallelHittingSets =
+        new MinimalHittingSetEnumerator(randomEdges).setParallelism(4).getMinimalHittingSets();
+
+      // Check result
+      assertEquals(expectedHittingSets, actualSequentialHittingSets);
+      assertEquals(expectedHittingSets, actualParallelHittingSets);
+    }
+  }
+
+  /**
+   * Test method for {@link MinimalHittingSetEnumerator#enumerate(MinimalHittingSetReceiver)} <p/>
+   * The search should stop after the timeout and report that it did not complete. The minimal
+   * hitting sets found until then should have been received.
+   */
+  @Test
+  public void testEnumerateTimeout() {
+    // Setup
+    // 12 disjoint edges of two columns have 2^12 minimal hitting sets.
+    List<ColumnCombinationBitset> disjointEdges = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      disjointEdges.add(new ColumnCombinationBitset(2 * i, 2 * i + 1));
+    }
+    MinimalHittingSetEnumerator enumerator =
+      new MinimalHittingSetEnumerator(disjointEdges).setTimeout(10);
+    final List<ColumnCombinationBitset> receivedHittingSets = new ArrayList<>();
+
+    // Execute functionality
+    boolean completed = enumerator.enumerate(new MinimalHittingSetReceiver() {
+      @Override
+      public void receiveMinimalHittingSet(ColumnCombinationBitset minimalHittingSet) {
+        receivedHittingSets.add(minimalHittingSet);
+        try {
+          Thread.sleep(20);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    // Check result
+    assertFalse(completed);
+    assertFalse(receivedHittingSets.isEmpty());
+    assertTrue(receivedHittingSets.size() < 4096);
+    assertTrue(enumerator.setTimeout(0).enumerate(new MinimalHittingSetReceiver() {
+      @Override
+      public void receiveMinimalHittingSet(ColumnCombinationBitset minimalHittingSet) {
+      }
+    }));
+  }
+
+  /**
+   * Test method for {@link MinimalHittingSetEnumerator#setParallelism(int)} <p/> The parallelism
+   * has to be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetParallelismInvalid() {
+    // Execute functionality
+    // Check result
+    new MinimalHittingSetEnumerator(edges).setParallelism(0);
+  }
+
+  protected boolean isHittingSet(ColumnCombinationBitset candidate,
+                                 List<ColumnCombinationBitset> hypergraph) {
+    for (ColumnCombinationBitset edge : hypergraph) {
+      if (candidate.intersect(edge).isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected boolean isMinimal(ColumnCombinationBitset hittingSet,
+                              List<ColumnCombinationBitset> hypergraph) {
+    for (ColumnCombinationBitset subset : hittingSet.getDirectSubsets()) {
+      if (isHittingSet(subset, hypergraph)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -77,6 +77,29 @@ public class PLIBuilderFixture {
     return input;
   }
 
+  /**
+   * Returns an input over the given range of rows, that does not share its position with the other
+   * inputs of the fixture.
+   */
+  public RelationalInput getRelationalInput(int fromRow, int toRow)
+    throws InputIterationException {
+    RelationalInput input = mock(RelationalInput.class);
+    final Iterator<ArrayList<String>> rows = table.subList(fromRow, toRow).iterator();
+
+    when(input.hasNext()).thenAnswer(new Answer<Boolean>() {
+      public Boolean answer(InvocationOnMock invocation) throws Throwable {
+        return rows.hasNext();
+      }
+    });
+
+    when(input.next()).thenAnswer(new Answer<ArrayList<String>>() {
+      public ArrayList<String> answer(InvocationOnMock invocation) throws Throwable {
+        return rows.next();
+      }
+    });
+
+    return input;
+  }
 
   public long getExpectedNumberOfTuples() {
     return table.size();
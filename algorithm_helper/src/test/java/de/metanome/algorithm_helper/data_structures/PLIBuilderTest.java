@@ -17,17 +17,22 @@
 package de.metanome.algorithm_helper.data_structures;
 
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+import de.metanome.algorithm_integration.input.BatchRelationalInputAdapter;
 import de.metanome.algorithm_integration.input.InputGenerationException;
 import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.hamcrest.collection.IsIterableContainingInAnyOrder;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.TreeSet;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
 
 /**
  * Tests for {@link de.metanome.algorithm_helper.data_structures.PLIBuilder}
@@ -65,6 +70,36 @@ public class PLIBuilderTest {
 
     // Check result
     assertThat(actualPLIList, IsIterableContainingInAnyOrder.containsInAnyOrder(expectedPLIArray));
+    for (PositionListIndex actualPLI : actualPLIList) {
+      assertEquals(fixture.getExpectedNumberOfTuples(), actualPLI.getNumberOfTuples());
+    }
+  }
+
+  /**
+   * Test method for {@link PLIBuilder#getPLIList()}
+   * <p/>
+   * Inputs that read batches natively should be indexed batch by batch with the same result.
+   */
+  @Test
+  public void testCalculatePLIFromBatches() throws InputIterationException {
+    for (boolean nullEqualsNull : new boolean[]{true, false}) {
+      // Setup
+      RelationalInput input =
+        fixture.getRelationalInput(0, (int) fixture.getExpectedNumberOfTuples());
+      when(input.numberOfColumns()).thenReturn(fixture.getExpectedPLIList(true).size());
+      PLIBuilder batchBuilder =
+        new PLIBuilder(new BatchRelationalInputAdapter(input), nullEqualsNull);
+      // Expected values
+      List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(nullEqualsNull);
+
+      // Execute functionality
+      List<PositionListIndex> actualPLIList = batchBuilder.getPLIList();
+
+      // Check result
+      assertThat(actualPLIList, IsIterableContainingInAnyOrder.containsInAnyOrder(
+        expectedPLIList.toArray(new PositionListIndex[expectedPLIList.size()])));
+      assertEquals(fixture.getExpectedNumberOfTuples(), batchBuilder.getNumberOfTuples());
+    }
   }
 
   /**
@@ -89,6 +124,100 @@ public class PLIBuilderTest {
     assertThat(actualPLIList, IsIterableContainingInAnyOrder.containsInAnyOrder(expectedPLIArray));
   }
 
+  /**
+   * Test method for {@link PLIBuilder#getCompactPLIList()} <p/> Tests that {@link
+   * de.metanome.algorithm_helper.data_structures.CompactPositionListIndex}es are build correctly.
+   */
+  @Test
+  public void testGetCompactPLIList() throws InputIterationException {
+    // Setup
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+
+    // Execute functionality
+    List<CompactPositionListIndex> actualPLIList = builder.getCompactPLIList();
+
+    // Check result
+    assertEquals(expectedPLIList.size(), actualPLIList.size());
+    for (int i = 0; i < actualPLIList.size(); i++) {
+      assertEquals(expectedPLIList.get(i), actualPLIList.get(i).toPositionListIndex());
+      assertEquals(fixture.getExpectedNumberOfTuples(), actualPLIList.get(i).getNumberOfTuples());
+    }
+  }
+
+  /**
+   * Test method for {@link PLIBuilder#getStrippedPartitionList()} <p/> Columns with small clusters
+   * should be stored as {@link PositionListIndex}es.
+   */
+  @Test
+  public void testGetStrippedPartitionList() throws InputIterationException {
+    // Setup
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+
+    // Execute functionality
+    List<StrippedPartition> actualPartitionList = builder.getStrippedPartitionList();
+
+    // Check result
+    assertEquals(expectedPLIList, actualPartitionList);
+  }
+
+  /**
+   * Test method for {@link PLIBuilder#isBitmapSuitable(java.util.List)} <p/> Only columns with few
+   * large clusters should be stored as bitmaps.
+   */
+  @Test
+  public void testIsBitmapSuitable() {
+    // Setup
+    List<LongArrayList> largeClusters = new ArrayList<>();
+    largeClusters.add(new LongArrayList());
+    for (long row = 0; row < PLIBuilder.MIN_BITMAP_CLUSTER_SIZE; row++) {
+      largeClusters.get(0).add(row);
+    }
+    List<LongArrayList> smallClusters = new ArrayList<>();
+    smallClusters.add(new LongArrayList(new long[]{0, 1}));
+
+    // Execute functionality
+    // Check result
+    assertTrue(builder.isBitmapSuitable(largeClusters));
+    assertFalse(builder.isBitmapSuitable(smallClusters));
+    assertFalse(builder.isBitmapSuitable(new ArrayList<LongArrayList>()));
+  }
+
+  /**
+   * Test method for {@link PLIBuilder#getSampledPLIList(double, long)} <p/> A complete sample should
+   * result in the exact plis and key errors.
+   */
+  @Test
+  public void testGetSampledPLIListComplete() throws InputIterationException {
+    // Setup
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+
+    // Execute functionality
+    List<SampledPositionListIndex> actualPLIList = builder.getSampledPLIList(1, 42);
+
+    // Check result
+    assertEquals(fixture.getExpectedNumberOfTuples(), builder.getNumberOfTuples());
+    for (int i = 0; i < expectedPLIList.size(); i++) {
+      SampledPositionListIndex actualPLI = actualPLIList.get(i);
+      long expectedRawKeyError = expectedPLIList.get(i).getRawKeyError();
+      assertEquals(expectedPLIList.get(i), new PositionListIndex(actualPLI.getClusters()));
+      assertEquals(expectedRawKeyError, actualPLI.getEstimatedRawKeyError(), 0.0001);
+      assertEquals(expectedRawKeyError, actualPLI.getRawKeyErrorLowerBound());
+      assertEquals(expectedRawKeyError, actualPLI.getRawKeyErrorUpperBound());
+    }
+  }
+
+  /**
+   * Test method for {@link PLIBuilder#getSampledPLIList(double, long)} <p/> The sampling rate has to
+   * be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetSampledPLIListInvalidRate() throws InputIterationException {
+    builder.getSampledPLIList(0, 42);
+  }
+
   /**
    * Test method for {@link PLIBuilder#getDistinctSortedColumns()} <p/> Creates the distinct sorted
    * columns from the raw plis.
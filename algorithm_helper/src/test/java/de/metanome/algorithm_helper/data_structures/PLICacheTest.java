@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.PLICache}
+ */
+public class PLICacheTest {
+
+  protected PositionListIndexFixture fixture;
+  protected List<PositionListIndex> columnPLIs;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PositionListIndexFixture();
+    columnPLIs = new ArrayList<>();
+    columnPLIs.add(fixture.getFirstPLI());
+    columnPLIs.add(fixture.getSecondPLI());
+    columnPLIs.add(fixture.getSupersetOfFirstPLI());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link PLICache#getPLI(ColumnCombinationBitset)} <p/> Single column plis should
+   * be returned directly, intersected plis should be calculated once and then be cached.
+   */
+  @Test
+  public void testGetPLI() {
+    // Setup
+    PLICache cache = new PLICache(columnPLIs, Long.MAX_VALUE);
+    ColumnCombinationBitset firstAndSecond = new ColumnCombinationBitset(0, 1);
+
+    // Execute functionality
+    PositionListIndex firstPLI = cache.getPLI(new ColumnCombinationBitset(0));
+    PositionListIndex intersectedPLI = cache.getPLI(firstAndSecond);
+    PositionListIndex cachedPLI = cache.getPLI(firstAndSecond);
+
+    // Check result
+    assertSame(columnPLIs.get(0), firstPLI);
+    assertEquals(fixture.getExpectedIntersectedPLI(), intersectedPLI);
+    assertSame(intersectedPLI, cachedPLI);
+    assertTrue(cache.contains(firstAndSecond));
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  /**
+   * Test method for {@link PLICache#getPLI(ColumnCombinationBitset)} <p/> A pli should be
+   * calculated from its largest cached subset.
+   */
+  @Test
+  public void testGetPLIFromCachedSubset() {
+    // Setup
+    PLICache cache = new PLICache(columnPLIs, Long.MAX_VALUE);
+    ColumnCombinationBitset firstAndSecond = new ColumnCombinationBitset(0, 1);
+    ColumnCombinationBitset allColumns = new ColumnCombinationBitset(0, 1, 2);
+    // Expected values
+    PositionListIndex expectedPLI =
+      columnPLIs.get(0).intersect(columnPLIs.get(1)).intersect(columnPLIs.get(2));
+
+    // Execute functionality
+    cache.getPLI(firstAndSecond);
+    // Replace the cached pli with a marker to detect that the subset is reused.
+    PositionListIndex marker = new PositionListIndex();
+    cache.put(firstAndSecond, marker);
+    PositionListIndex actualPLI = cache.getPLI(allColumns);
+
+    // Check result
+    assertEquals(marker.intersect(columnPLIs.get(2)), actualPLI);
+    assertEquals(expectedPLI,
+      new PLICache(columnPLIs, Long.MAX_VALUE).getPLI(allColumns));
+  }
+
+  /**
+   * Test method for {@link PLICache#put(ColumnCombinationBitset, PositionListIndex)} <p/> The least
+   * recently used plis should be evicted if the byte budget is exceeded.
+   */
+  @Test
+  public void testEviction() {
+    // Setup
+    PositionListIndex intersectedPLI = fixture.getExpectedIntersectedPLI();
+    PLICache cache = new PLICache(columnPLIs, intersectedPLI.getMemorySize());
+    ColumnCombinationBitset firstAndSecond = new ColumnCombinationBitset(0, 1);
+    ColumnCombinationBitset secondAndThird = new ColumnCombinationBitset(1, 2);
+
+    // Execute functionality
+    cache.put(firstAndSecond, intersectedPLI);
+    cache.put(secondAndThird, intersectedPLI.clone());
+
+    // Check result
+    assertFalse(cache.contains(firstAndSecond));
+    assertTrue(cache.contains(secondAndThird));
+    assertEquals(1, cache.getEvictions());
+    assertTrue(cache.getByteUsage() <= intersectedPLI.getMemorySize());
+  }
+
+  /**
+   * Test method for {@link PLICache#getPLI(ColumnCombinationBitset)} <p/> Empty column combinations
+   * have no pli.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetPLIEmpty() {
+    new PLICache(columnPLIs, Long.MAX_VALUE).getPLI(new ColumnCombinationBitset());
+  }
+}
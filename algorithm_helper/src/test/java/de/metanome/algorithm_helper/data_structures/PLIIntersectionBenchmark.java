@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the hash map intersection of {@link PositionListIndex}es with the dense probing table
+ * intersection. The numbers of rows are passed as arguments (default 1000000 and 10000000), e.g.
+ * 100000000 rows need a heap of about 8 GB. Run with java -cp (test and runtime classpath)
+ * de.metanome.algorithm_helper.data_structures.PLIIntersectionBenchmark 1000000 10000000
+ * 100000000.
+ */
+public class PLIIntersectionBenchmark {
+
+  protected static final int WARMUP_ITERATIONS = 3;
+  protected static final int MEASURED_ITERATIONS = 5;
+  protected static final int NUMBER_OF_DISTINCT_VALUES = 1000;
+
+  public static void main(String[] args) {
+    long[] numbersOfRows = {1000000, 10000000};
+    if (args.length > 0) {
+      numbersOfRows = new long[args.length];
+      for (int i = 0; i < args.length; i++) {
+        numbersOfRows[i] = Long.parseLong(args[i]);
+      }
+    }
+
+    for (long numberOfRows : numbersOfRows) {
+      PositionListIndex firstPLI = createPLI(numberOfRows, 1);
+      PositionListIndex secondPLI = createPLI(numberOfRows, 2);
+      PositionListIndex firstHashedPLI = new PositionListIndex(firstPLI.getClusters());
+      PositionListIndex secondHashedPLI = new PositionListIndex(secondPLI.getClusters());
+
+      double hashTime = measure(firstHashedPLI, secondHashedPLI);
+      double denseTime = measure(firstPLI, secondPLI);
+      System.out.printf("%d rows: hash map %.1f ms, dense probing table %.1f ms%n",
+        numberOfRows, hashTime, denseTime);
+    }
+  }
+
+  /**
+   * @return the average time of an intersection in milliseconds
+   */
+  protected static double measure(PositionListIndex firstPLI, PositionListIndex secondPLI) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      firstPLI.intersect(secondPLI);
+    }
+
+    long start = System.nanoTime();
+    long clusters = 0;
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      clusters += firstPLI.intersect(secondPLI).size();
+    }
+    long time = System.nanoTime() - start;
+
+    // Use the result, so that the intersection is not eliminated.
+    if (clusters < 0) {
+      throw new IllegalStateException();
+    }
+    return time / 1e6 / MEASURED_ITERATIONS;
+  }
+
+  /**
+   * Creates a pli of a column with uniformly distributed values.
+   */
+  protected static PositionListIndex createPLI(long numberOfRows, long seed) {
+    Random random = new Random(seed);
+    List<LongArrayList> clusters = new ArrayList<>(NUMBER_OF_DISTINCT_VALUES);
+    for (int i = 0; i < NUMBER_OF_DISTINCT_VALUES; i++) {
+      clusters.add(new LongArrayList());
+    }
+    for (long row = 0; row < numberOfRows; row++) {
+      clusters.get(random.nextInt(NUMBER_OF_DISTINCT_VALUES)).add(row);
+    }
+    return new PositionListIndex(clusters, numberOfRows);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+import de.metanome.algorithm_integration.input.InputGenerationException;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.ParallelPLIBuilder}
+ */
+public class ParallelPLIBuilderTest {
+
+  protected PLIBuilderFixture fixture;
+  protected ParallelPLIBuilder builder;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PLIBuilderFixture();
+    builder = new ParallelPLIBuilder(fixture.getInputGenerator().generateNewCopy(), true, 3)
+      .setBatchSize(2);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link ParallelPLIBuilder#getPLIList()} <p/> The plis should equal the ones
+   * built by the sequential {@link PLIBuilder} even if the input is read in several batches.
+   */
+  @Test
+  public void testCalculatePLINullEqualsNull() throws InputIterationException {
+    // Setup
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = builder.getPLIList();
+
+    // Check result
+    assertEquals(expectedPLIList, actualPLIList);
+    assertEquals(fixture.getExpectedNumberOfTuples(), builder.getNumberOfTuples());
+  }
+
+  /**
+   * Test method for {@link ParallelPLIBuilder#getPLIList()} <p/> Null values should not be indexed
+   * if null does not equal null.
+   */
+  @Test
+  public void testCalculatePLINullNotEqualsNull()
+    throws InputIterationException, InputGenerationException, AlgorithmConfigurationException {
+    // Setup
+    builder = new ParallelPLIBuilder(fixture.getInputGenerator().generateNewCopy(), false, 2);
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(false);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = builder.getPLIList();
+
+    // Check result
+    assertEquals(expectedPLIList, actualPLIList);
+  }
+
+  /**
+   * Test method for {@link ParallelPLIBuilder#getDistinctSortedColumns()}
+   */
+  @Test
+  public void testGetDistinctSortedColumns() throws InputIterationException {
+    // Setup
+    // Expected values
+    List<TreeSet<String>>
+      expectedDistinctSortedColumns =
+      fixture.getExpectedDistinctSortedColumns();
+
+    // Execute functionality
+    List<TreeSet<String>> actualDistinctSortedColumns = builder.getDistinctSortedColumns();
+
+    // Check result
+    assertEquals(expectedDistinctSortedColumns, actualDistinctSortedColumns);
+  }
+
+  /**
+   * Test method for {@link ParallelPLIBuilder#getColumnBuildTimes()} <p/> A build time should be
+   * reported for every column.
+   */
+  @Test
+  public void testGetColumnBuildTimes() throws InputIterationException {
+    // Execute functionality
+    builder.getPLIList();
+    long[] buildTimes = builder.getColumnBuildTimes();
+
+    // Check result
+    assertEquals(4, buildTimes.length);
+    for (long buildTime : buildTimes) {
+      assertTrue(buildTime >= 0);
+    }
+  }
+
+  /**
+   * Test method for {@link ParallelPLIBuilder#ParallelPLIBuilder(de.metanome.algorithm_integration.input.RelationalInput,
+   * boolean, int)} <p/> A non positive number of threads should be rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorInvalidNumberOfThreads()
+    throws InputIterationException, InputGenerationException, AlgorithmConfigurationException {
+    new ParallelPLIBuilder(fixture.getInputGenerator().generateNewCopy(), true, 0);
+  }
+}
@@ -22,8 +22,13 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -78,6 +83,59 @@ public class PositionListIndexTest {
     assertEquals(expectedPLI, actualIntersectedPLI);
   }
 
+  /**
+   * Test method for {@link PositionListIndex#intersect(PositionListIndex, PLIProbingTable)} <p/>
+   * {@link PositionListIndex}es that know their number of tuples should be intersected with a
+   * dense probing table. The table should be reusable.
+   */
+  @Test
+  public void testIntersectDense() {
+    // Setup
+    PositionListIndex firstPLI = new PositionListIndex(fixture.getFirstPLI().getClusters(), 9);
+    PositionListIndex secondPLI = new PositionListIndex(fixture.getSecondPLI().getClusters(), 9);
+    PLIProbingTable probingTable = new PLIProbingTable();
+    // Expected values
+    PositionListIndex expectedPLI = fixture.getExpectedIntersectedPLI();
+
+    // Execute functionality
+    PositionListIndex actualIntersectedPLI = firstPLI.intersect(secondPLI, probingTable);
+    PositionListIndex actualReversedPLI = secondPLI.intersect(firstPLI, probingTable);
+    PositionListIndex actualThreadLocalPLI = firstPLI.intersect(secondPLI);
+
+    // Check result
+    assertEquals(expectedPLI, actualIntersectedPLI);
+    assertEquals(expectedPLI, actualReversedPLI);
+    assertEquals(expectedPLI, actualThreadLocalPLI);
+    assertEquals(9, actualIntersectedPLI.getNumberOfTuples());
+    assertEquals(fixture.getExpectedIntersectedPLIRawKeyError(),
+      actualIntersectedPLI.getRawKeyError());
+  }
+
+  /**
+   * Test method for {@link PositionListIndex#releaseProbingTable()} <p/> The probing table of the
+   * current thread should be dropped on release and created again on the next intersection.
+   */
+  @Test
+  public void testReleaseProbingTable() {
+    // Setup
+    PositionListIndex firstPLI = new PositionListIndex(fixture.getFirstPLI().getClusters(), 9);
+    PositionListIndex secondPLI = new PositionListIndex(fixture.getSecondPLI().getClusters(), 9);
+    // Earlier tests on this thread may have grown the probing table.
+    PositionListIndex.releaseProbingTable();
+    firstPLI.intersect(secondPLI);
+    int capacityBeforeRelease = PositionListIndex.getProbingTable().getCapacity();
+
+    // Execute functionality
+    PositionListIndex.releaseProbingTable();
+    int capacityAfterRelease = PositionListIndex.getProbingTable().getCapacity();
+    PositionListIndex actualIntersectedPLI = firstPLI.intersect(secondPLI);
+
+    // Check result
+    assertEquals(9, capacityBeforeRelease);
+    assertEquals(0, capacityAfterRelease);
+    assertEquals(fixture.getExpectedIntersectedPLI(), actualIntersectedPLI);
+  }
+
   /**
    * Test method for {@link PositionListIndex#hashCode()}
    */
@@ -114,6 +172,49 @@ public class PositionListIndexTest {
     assertNotEquals(firstPLI, supersetOfFirstPLI);
   }
 
+  /**
+   * Test method for {@link PositionListIndex#equals(Object)} and {@link PositionListIndex#hashCode()}
+   * <p/> Equal plis should stay equal and keep their hash code, when clusters or rows are
+   * reordered.
+   */
+  @Test
+  public void testEqualsReordered() {
+    // Setup
+    PositionListIndex firstPLI = fixture.getFirstPLI();
+    List<LongArrayList> reorderedClusters = new ArrayList<>();
+    for (LongArrayList cluster : firstPLI.clone().getClusters()) {
+      Collections.reverse(cluster);
+      reorderedClusters.add(0, cluster);
+    }
+    PositionListIndex reorderedPLI = new PositionListIndex(reorderedClusters);
+
+    // Execute functionality
+    // Check result
+    assertEquals(firstPLI, reorderedPLI);
+    assertEquals(firstPLI.hashCode(), reorderedPLI.hashCode());
+    assertEquals(firstPLI, reorderedPLI);
+    assertNotEquals(fixture.getSupersetOfFirstPLI(), reorderedPLI);
+  }
+
+  /**
+   * Test method for {@link PositionListIndex#getFingerprint()} <p/> Equal plis should have equal
+   * fingerprints.
+   */
+  @Test
+  public void testGetFingerprint() {
+    // Setup
+    PositionListIndex firstPLI = fixture.getFirstPLI();
+    PositionListIndex permutatedFirstPLI = fixture.getPermutatedFirstPLI();
+    PositionListIndex secondPLI = fixture.getSecondPLI();
+
+    // Execute functionality
+    // Check result
+    assertEquals(firstPLI.getFingerprint(), permutatedFirstPLI.getFingerprint());
+    assertNotEquals(firstPLI.getFingerprint(), secondPLI.getFingerprint());
+    assertNotEquals(firstPLI.getFingerprint(),
+      fixture.getSupersetOfFirstPLI().getFingerprint());
+  }
+
   /**
    * Test method for {@link PositionListIndex#asHashMap()}
    * <p/>
@@ -201,4 +302,94 @@ public class PositionListIndexTest {
       assertEquals(pli.getClusters().get(i), copy.getClusters().get(i));
     }
   }
+
+  /**
+   * Test method for {@link PositionListIndex#refines(PositionListIndex)} <p/> A pli refines
+   * another pli iff every cluster lies within a single cluster of the other, rows with unique
+   * dependent values violate the refinement.
+   */
+  @Test
+  public void testRefines() {
+    // Setup
+    PositionListIndex determinantPLI = createPLI(new int[]{1, 1, 2, 2, 3, 3, 4}, 7);
+    PositionListIndex violatedPLI = createPLI(new int[]{1, 1, 2, 2, 3, 4, 5}, 7);
+    PositionListIndex refinedPLI = createPLI(new int[]{1, 1, 1, 1, 3, 3, 5}, 7);
+    PositionListIndex uniquePLI = createPLI(new int[]{1, 2, 3, 4, 5, 6, 7}, -1);
+
+    // Execute functionality
+    // Check result
+    assertFalse(determinantPLI.refines(violatedPLI));
+    assertTrue(determinantPLI.refines(refinedPLI));
+    assertFalse(refinedPLI.refines(determinantPLI));
+    assertFalse(determinantPLI.refines(uniquePLI));
+    assertTrue(uniquePLI.refines(determinantPLI));
+  }
+
+  /**
+   * Test method for {@link PositionListIndex#getRawG3Error(PositionListIndex, long)} <p/> The
+   * error should be the number of tuples to remove for the functional dependency to hold. The
+   * calculation may stop as soon as the maximal error is exceeded.
+   */
+  @Test
+  public void testGetRawG3Error() {
+    // Setup
+    PositionListIndex determinantPLI = createPLI(new int[]{1, 1, 1, 2, 2, 3, 3, 3, 3}, 9);
+    PositionListIndex dependentPLI = createPLI(new int[]{1, 1, 2, 3, 4, 5, 5, 6, 6}, 9);
+
+    // Execute functionality
+    // Check result
+    // One tuple of the first, one of the second and two of the third cluster
+    assertEquals(4, determinantPLI.getRawG3Error(dependentPLI));
+    assertEquals(4, determinantPLI.getRawG3Error(dependentPLI, 4));
+    assertTrue(determinantPLI.getRawG3Error(dependentPLI, 0) > 0);
+    assertEquals(0, dependentPLI.getRawG3Error(dependentPLI));
+  }
+
+  /**
+   * Test method for {@link PositionListIndex#refines(PositionListIndex)} and {@link
+   * PositionListIndex#getRawG3Error(PositionListIndex)} <p/> The results should match the
+   * functional dependency checks on the intersection for random columns.
+   */
+  @Test
+  public void testRefinesRandom() {
+    // Setup
+    Random random = new Random(5);
+    for (int i = 0; i < 50; i++) {
+      int[] determinantValues = new int[100];
+      int[] dependentValues = new int[100];
+      for (int row = 0; row < 100; row++) {
+        determinantValues[row] = random.nextInt(40);
+        // The dependent values are mostly functionally determined.
+        dependentValues[row] =
+          random.nextInt(20) == 0 ? random.nextInt(100) : determinantValues[row] % 7;
+      }
+      PositionListIndex determinantPLI = createPLI(determinantValues, 100);
+      PositionListIndex dependentPLI = createPLI(dependentValues, 100);
+      // Expected values
+      boolean expectedRefines = determinantPLI.intersect(dependentPLI).getRawKeyError()
+                                == determinantPLI.getRawKeyError();
+
+      // Execute functionality
+      // Check result
+      assertEquals(expectedRefines, determinantPLI.refines(dependentPLI));
+      assertEquals(expectedRefines, determinantPLI.getRawG3Error(dependentPLI) == 0);
+    }
+  }
+
+  protected PositionListIndex createPLI(int[] values, long numberOfTuples) {
+    Map<Integer, LongArrayList> clusters = new HashMap<>();
+    for (int row = 0; row < values.length; row++) {
+      if (!clusters.containsKey(values[row])) {
+        clusters.put(values[row], new LongArrayList());
+      }
+      clusters.get(values[row]).add(row);
+    }
+    List<LongArrayList> strippedClusters = new ArrayList<>();
+    for (LongArrayList cluster : clusters.values()) {
+      if (cluster.size() > 1) {
+        strippedClusters.add(cluster);
+      }
+    }
+    return new PositionListIndex(strippedClusters, numberOfTuples);
+  }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.SampledPositionListIndex}
+ */
+public class SampledPositionListIndexTest {
+
+  protected List<LongArrayList> clusters;
+
+  @Before
+  public void setUp() throws Exception {
+    clusters = new ArrayList<>();
+    clusters.add(new LongArrayList(new long[]{0, 1}));
+    clusters.add(new LongArrayList(new long[]{2, 3, 4}));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link SampledPositionListIndex#getEstimatedRawKeyError()} <p/> A sample of 10
+   * out of 40 values with 5 singletons and 2 clusters should be estimated with 2 * 5 + 2 distinct
+   * values. The lower bound is the key error of the sample, the upper bound assumes that the
+   * relation only contains the sampled values.
+   */
+  @Test
+  public void testGetEstimatedRawKeyError() {
+    // Setup
+    SampledPositionListIndex pli = new SampledPositionListIndex(clusters, 40, 10);
+
+    // Execute functionality
+    // Check result
+    assertEquals(3, pli.getRawKeyError());
+    assertEquals(28, pli.getEstimatedRawKeyError(), 0.0001);
+    assertEquals(3, pli.getRawKeyErrorLowerBound());
+    assertEquals(33, pli.getRawKeyErrorUpperBound());
+  }
+
+  /**
+   * Test method for {@link SampledPositionListIndex#getEstimatedRawKeyError()} <p/> If no values
+   * were sampled the bounds should cover all possible key errors.
+   */
+  @Test
+  public void testGetEstimatedRawKeyErrorEmptySample() {
+    // Setup
+    SampledPositionListIndex pli =
+      new SampledPositionListIndex(new ArrayList<LongArrayList>(), 5, 0);
+
+    // Execute functionality
+    // Check result
+    assertEquals(0, pli.getRawKeyErrorLowerBound());
+    assertEquals(4, pli.getRawKeyErrorUpperBound());
+    assertEquals(2, pli.getEstimatedRawKeyError(), 0.0001);
+  }
+
+  /**
+   * Test method for {@link SampledPositionListIndex#intersect(SampledPositionListIndex)} <p/> The
+   * intersection should keep the smaller value counts.
+   */
+  @Test
+  public void testIntersect() {
+    // Setup
+    SampledPositionListIndex pli = new SampledPositionListIndex(clusters, 40, 10);
+    List<LongArrayList> otherClusters = new ArrayList<>();
+    otherClusters.add(new LongArrayList(new long[]{0, 1, 2}));
+    SampledPositionListIndex otherPLI = new SampledPositionListIndex(otherClusters, 30, 8);
+    // Expected values
+    List<LongArrayList> expectedClusters = new ArrayList<>();
+    expectedClusters.add(new LongArrayList(new long[]{0, 1}));
+
+    // Execute functionality
+    SampledPositionListIndex actualPLI = pli.intersect(otherPLI);
+
+    // Check result
+    assertEquals(new PositionListIndex(expectedClusters),
+      new PositionListIndex(actualPLI.getClusters()));
+    assertEquals(30, actualPLI.getNumberOfValues());
+    assertEquals(8, actualPLI.getNumberOfSampledValues());
+  }
+
+  /**
+   * Test method for {@link SampledPositionListIndex#intersect(PositionListIndex)} <p/> Sampled
+   * plis intersected as {@link StrippedPartition}s should stay sampled and keep the number of
+   * sampled tuples.
+   */
+  @Test
+  public void testIntersectStrippedPartition() {
+    // Setup
+    StrippedPartition pli = new SampledPositionListIndex(clusters, 10, 40, 10);
+    List<LongArrayList> otherClusters = new ArrayList<>();
+    otherClusters.add(new LongArrayList(new long[]{0, 1, 2}));
+    StrippedPartition otherPLI = new SampledPositionListIndex(otherClusters, 10, 30, 8);
+    // Expected values
+    List<LongArrayList> expectedClusters = new ArrayList<>();
+    expectedClusters.add(new LongArrayList(new long[]{0, 1}));
+
+    // Execute functionality
+    StrippedPartition actualPartition = pli.intersect(otherPLI);
+
+    // Check result
+    assertTrue(actualPartition instanceof SampledPositionListIndex);
+    SampledPositionListIndex actualPLI = (SampledPositionListIndex) actualPartition;
+    assertEquals(new PositionListIndex(expectedClusters),
+      new PositionListIndex(actualPLI.getClusters()));
+    assertEquals(10, actualPLI.getNumberOfTuples());
+    assertEquals(30, actualPLI.getNumberOfValues());
+    assertEquals(8, actualPLI.getNumberOfSampledValues());
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.algorithm_execution.FileCreationException;
+import de.metanome.algorithm_integration.algorithm_execution.FileGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.SpillingPLIStore}
+ */
+public class SpillingPLIStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  protected PositionListIndexFixture fixture;
+  protected FileGenerator fileGenerator;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PositionListIndexFixture();
+    fileGenerator = new FileGenerator() {
+      @Override
+      public File getTemporaryFile() throws FileCreationException {
+        try {
+          return folder.newFile();
+        } catch (IOException e) {
+          throw new FileCreationException("Could not create temporary file.", e);
+        }
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link SpillingPLIStore#put(Object, PositionListIndex)} and {@link
+   * SpillingPLIStore#get(Object)} <p/> Plis should stay on the heap if the budget suffices.
+   */
+  @Test
+  public void testPutGetWithinBudget() {
+    // Setup
+    SpillingPLIStore<String> store = new SpillingPLIStore<>(fileGenerator, Long.MAX_VALUE);
+    PositionListIndex firstPLI = fixture.getFirstPLI();
+
+    // Execute functionality
+    store.put("first", firstPLI);
+    store.put("second", fixture.getSecondPLI());
+
+    // Check result
+    assertSame(firstPLI, store.get("first"));
+    assertEquals(2, store.size());
+    assertEquals(2, store.getNumberOfResidentPLIs());
+    assertEquals(0, store.getNumberOfSpilledPLIs());
+    assertNull(store.get("third"));
+  }
+
+  /**
+   * Test method for {@link SpillingPLIStore#get(Object)} <p/> Least recently used plis should be
+   * spilled when the budget is exceeded and read back in unchanged.
+   */
+  @Test
+  public void testSpillAndPageIn() {
+    // Setup
+    PositionListIndex firstPLI = fixture.getFirstPLI();
+    PositionListIndex secondPLI = fixture.getSecondPLI();
+    SpillingPLIStore<String> store = new SpillingPLIStore<>(fileGenerator,
+      firstPLI.getMemorySize());
+    firstPLI.getRawKeyError();
+
+    // Execute functionality
+    store.put("first", firstPLI);
+    store.put("second", secondPLI);
+
+    // Check result
+    assertEquals(1, store.getNumberOfResidentPLIs());
+    assertEquals(1, store.getNumberOfSpilledPLIs());
+    assertTrue(store.containsKey("first"));
+    assertTrue(store.getHeapUsage() <= secondPLI.getMemorySize());
+
+    PositionListIndex pagedInPLI = store.get("first");
+    assertNotSame(firstPLI, pagedInPLI);
+    assertEquals(firstPLI, pagedInPLI);
+    assertEquals(fixture.getExpectedFirstPLIRawKeyError(), pagedInPLI.rawKeyError);
+    assertEquals(secondPLI, store.get("second"));
+    assertEquals(2, store.size());
+  }
+
+  /**
+   * Test method for {@link SpillingPLIStore#remove(Object)} and {@link SpillingPLIStore#close()}
+   * <p/> Spill files should be deleted when plis are removed.
+   */
+  @Test
+  public void testRemoveAndClose() throws IOException {
+    // Setup
+    SpillingPLIStore<String> store = new SpillingPLIStore<>(fileGenerator, 0);
+    store.put("first", fixture.getFirstPLI());
+    store.put("second", fixture.getSecondPLI());
+    store.put("intersected", fixture.getExpectedIntersectedPLI());
+
+    // Execute functionality
+    PositionListIndex removedPLI = store.remove("first");
+
+    // Check result
+    assertEquals(fixture.getFirstPLI(), removedPLI);
+    assertFalse(store.containsKey("first"));
+    assertEquals(2, store.size());
+    assertEquals(1, folder.getRoot().listFiles().length);
+
+    store.close();
+    assertEquals(0, store.size());
+    assertEquals(0, folder.getRoot().listFiles().length);
+  }
+}
@@ -31,6 +31,16 @@ public class SubSetGraphFixture {
     return graph;
   }
 
+  public ArraySubSetGraph getArrayGraph() {
+    ArraySubSetGraph graph = new ArraySubSetGraph();
+
+    for (ColumnCombinationBitset columnCombination : getExpectedIncludedColumnCombinations()) {
+      graph.add(columnCombination);
+    }
+
+    return graph;
+  }
+
   public List<ColumnCombinationBitset> getExpectedIncludedColumnCombinations() {
     List<ColumnCombinationBitset> includedColumnCombinations = new ArrayList<>();
 
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link SubSetGraph#minimize(java.util.Collection)} with adding all column combinations
+ * to a {@link SubSetGraph} and calling {@link SubSetGraph#getMinimalSubsets()}. The numbers of
+ * random column combinations are passed as arguments (default 100000 and 1000000). Run with java
+ * -cp (test and runtime classpath) de.metanome.algorithm_helper.data_structures.SubSetGraphMinimizationBenchmark
+ * 1000000 10000000.
+ */
+public class SubSetGraphMinimizationBenchmark {
+
+  protected static final int NUMBER_OF_COLUMNS = 40;
+  protected static final int MAXIMUM_SIZE = 8;
+
+  public static void main(String[] args) {
+    int[] numbersOfColumnCombinations = {100000, 1000000};
+    if (args.length > 0) {
+      numbersOfColumnCombinations = new int[args.length];
+      for (int i = 0; i < args.length; i++) {
+        numbersOfColumnCombinations[i] = Integer.parseInt(args[i]);
+      }
+    }
+
+    for (int numberOfColumnCombinations : numbersOfColumnCombinations) {
+      List<ColumnCombinationBitset> columnCombinations =
+        createColumnCombinations(numberOfColumnCombinations);
+
+      // Warm up both paths on a part of the input.
+      List<ColumnCombinationBitset> warmup = columnCombinations.subList(0,
+        Math.min(10000, numberOfColumnCombinations));
+      new SubSetGraph().addAll(warmup).getMinimalSubsets();
+      SubSetGraph.minimize(warmup);
+
+      long start = System.nanoTime();
+      int graphResult = new SubSetGraph().addAll(columnCombinations).getMinimalSubsets().size();
+      double graphTime = (System.nanoTime() - start) / 1e6;
+
+      start = System.nanoTime();
+      int bulkResult = SubSetGraph.minimize(columnCombinations).size();
+      double bulkTime = (System.nanoTime() - start) / 1e6;
+
+      if (graphResult != bulkResult) {
+        throw new IllegalStateException("The minimal column combinations differ.");
+      }
+      System.out.printf("%d column combinations (%d minimal): getMinimalSubsets %.1f ms, "
+                        + "minimize %.1f ms%n",
+        numberOfColumnCombinations, bulkResult, graphTime, bulkTime);
+    }
+  }
+
+  protected static List<ColumnCombinationBitset> createColumnCombinations(int number) {
+    Random random = new Random(1);
+    List<ColumnCombinationBitset> columnCombinations = new ArrayList<>(number);
+    for (int i = 0; i < number; i++) {
+      ColumnCombinationBitset columnCombination = new ColumnCombinationBitset();
+      int size = 2 + random.nextInt(MAXIMUM_SIZE - 1);
+      while (columnCombination.size() < size) {
+        columnCombination.addColumn(random.nextInt(NUMBER_OF_COLUMNS));
+      }
+      columnCombinations.add(columnCombination);
+    }
+    return columnCombinations;
+  }
+}
@@ -20,8 +20,12 @@ import de.metanome.test_helper.EqualsAndHashCodeTester;
 import org.hamcrest.collection.IsIterableContainingInAnyOrder;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.Assert.*;
@@ -214,4 +218,60 @@ public class SubSetGraphTest {
       IsIterableContainingInAnyOrder
         .containsInAnyOrder(fixture.getExpectedMinimalSubsets()));
   }
+
+  /**
+   * Test method for {@link SubSetGraph#minimize(java.util.Collection)} <p/> The minimal column
+   * combinations should be returned once in ascending order of cardinality.
+   */
+  @Test
+  public void testMinimize() {
+    // Setup
+    SubSetGraphFixture fixture = new SubSetGraphFixture();
+    List<ColumnCombinationBitset> columnCombinations =
+      new ArrayList<>(fixture.getExpectedIncludedColumnCombinations());
+    columnCombinations.addAll(fixture.getExpectedIncludedColumnCombinations());
+    // Expected values
+    List<ColumnCombinationBitset> expectedMinimalSubsets = Arrays.asList(
+      new ColumnCombinationBitset(1, 3),
+      new ColumnCombinationBitset(5, 6, 8),
+      new ColumnCombinationBitset(1, 2, 4, 7),
+      new ColumnCombinationBitset(2, 3, 4, 7, 8));
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualMinimalSubsets = SubSetGraph.minimize(columnCombinations);
+
+    // Check result
+    assertEquals(expectedMinimalSubsets, actualMinimalSubsets);
+    assertEquals(Arrays.asList(new ColumnCombinationBitset()), SubSetGraph.minimize(
+      Arrays.asList(new ColumnCombinationBitset(2), new ColumnCombinationBitset())));
+  }
+
+  /**
+   * Test method for {@link SubSetGraph#minimize(java.util.Collection)} <p/> The result should
+   * equal the minimal subsets of a graph containing random column combinations.
+   */
+  @Test
+  public void testMinimizeEqualsGetMinimalSubsets() {
+    // Setup
+    Random random = new Random(7);
+    List<ColumnCombinationBitset> columnCombinations = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      ColumnCombinationBitset columnCombination = new ColumnCombinationBitset();
+      int size = 1 + random.nextInt(6);
+      while (columnCombination.size() < size) {
+        columnCombination.addColumn(random.nextInt(20));
+      }
+      columnCombinations.add(columnCombination);
+    }
+    // Expected values
+    Set<ColumnCombinationBitset> expectedMinimalSubsets =
+      new SubSetGraph().addAll(columnCombinations).getMinimalSubsets();
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualMinimalSubsets = SubSetGraph.minimize(columnCombinations);
+
+    // Check result
+    assertEquals(expectedMinimalSubsets.size(), actualMinimalSubsets.size());
+    assertEquals(expectedMinimalSubsets, new HashSet<>(actualMinimalSubsets));
+  }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_helper.data_structures;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.SubsetIterator}
+ */
+public class SubsetIteratorTest {
+
+  protected ColumnCombinationBitset superset;
+
+  @Before
+  public void setUp() throws Exception {
+    superset = new ColumnCombinationBitset(0, 2, 5, 7);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  /**
+   * Test method for {@link SubsetIterator#next()} <p/> The subsets should be enumerated in
+   * colexicographic order.
+   */
+  @Test
+  public void testNext() {
+    // Setup
+    SubsetIterator iterator = new SubsetIterator(superset, 2);
+    // Expected values
+    List<ColumnCombinationBitset> expectedSubsets = Arrays.asList(
+      new ColumnCombinationBitset(0, 2),
+      new ColumnCombinationBitset(0, 5),
+      new ColumnCombinationBitset(2, 5),
+      new ColumnCombinationBitset(0, 7),
+      new ColumnCombinationBitset(2, 7),
+      new ColumnCombinationBitset(5, 7));
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualSubsets = new ArrayList<>();
+    while (iterator.hasNext()) {
+      actualSubsets.add(iterator.next());
+    }
+
+    // Check result
+    assertEquals(expectedSubsets, actualSubsets);
+    assertEquals(new HashSet<>(superset.getNSubsetColumnCombinations(2)),
+      new HashSet<>(actualSubsets));
+    assertEquals(6, iterator.getNumberOfSubsets());
+  }
+
+  /**
+   * Test method for {@link SubsetIterator#next()} <p/> Exhausted iterators should throw.
+   */
+  @Test(expected = NoSuchElementException.class)
+  public void testNextExhausted() {
+    // Setup
+    SubsetIterator iterator = new SubsetIterator(superset, 0);
+
+    // Execute functionality
+    assertEquals(new ColumnCombinationBitset(), iterator.next());
+    iterator.next();
+  }
+
+  /**
+   * Test method for {@link SubsetIterator#rank(ColumnCombinationBitset)} and {@link
+   * SubsetIterator#unrank(long)} <p/> Ranking and unranking should be inverse to each other and
+   * follow the enumeration order.
+   */
+  @Test
+  public void testRankUnrank() {
+    // Setup
+    SubsetIterator iterator = new SubsetIterator(superset, 3);
+
+    // Execute functionality
+    // Check result
+    long rank = 0;
+    while (iterator.hasNext()) {
+      ColumnCombinationBitset subset = iterator.next();
+      assertEquals(rank, iterator.rank(subset));
+      assertEquals(subset, iterator.unrank(rank));
+      rank++;
+    }
+    assertEquals(4, rank);
+  }
+
+  /**
+   * Test method for {@link SubsetIterator#SubsetIterator(ColumnCombinationBitset, int, long, long)}
+   * <p/> Rank ranges should split a level into disjoint parts.
+   */
+  @Test
+  public void testRankRanges() {
+    // Setup
+    ColumnCombinationBitset wideSuperset = new ColumnCombinationBitset().setAllBits(40);
+    long numberOfSubsets = new SubsetIterator(wideSuperset, 3).getNumberOfSubsets();
+    long splitRank = numberOfSubsets / 3;
+    // Expected values
+    List<ColumnCombinationBitset> expectedSubsets = new ArrayList<>();
+    SubsetIterator completeIterator = new SubsetIterator(wideSuperset, 3);
+    while (completeIterator.hasNext()) {
+      expectedSubsets.add(completeIterator.next());
+    }
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualSubsets = new ArrayList<>();
+    SubsetIterator firstPart = new SubsetIterator(wideSuperset, 3, 0, splitRank);
+    SubsetIterator secondPart = new SubsetIterator(wideSuperset, 3, splitRank, -1);
+    while (firstPart.hasNext()) {
+      actualSubsets.add(firstPart.next());
+    }
+    while (secondPart.hasNext()) {
+      actualSubsets.add(secondPart.next());
+    }
+
+    // Check result
+    assertEquals(9880, numberOfSubsets);
+    assertEquals(expectedSubsets, actualSubsets);
+  }
+
+  /**
+   * Test method for {@link SubsetIterator#rank(ColumnCombinationBitset)} <p/> Column combinations
+   * that are not subsets cannot be ranked.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRankNoSubset() {
+    new SubsetIterator(superset, 2).rank(new ColumnCombinationBitset(0, 3));
+  }
+}
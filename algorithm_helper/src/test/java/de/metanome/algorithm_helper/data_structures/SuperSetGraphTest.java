@@ -21,6 +21,7 @@ import org.hamcrest.collection.IsIterableContainingInAnyOrder;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -203,4 +204,31 @@ public class SuperSetGraphTest {
     EqualsAndHashCodeTester<SuperSetGraph> tester = new EqualsAndHashCodeTester<>();
     tester.performBasicEqualsAndHashCodeChecks(actualGraph, equalsGraph, notEqualsGraph);
   }
+
+  /**
+   * Test method for {@link SuperSetGraph#maximize(java.util.Collection)} <p/> The maximal column
+   * combinations should be returned in descending order of cardinality.
+   */
+  @Test
+  public void testMaximize() {
+    // Setup
+    List<ColumnCombinationBitset> columnCombinations =
+      fixture.getExpectedIncludedColumnCombinations();
+    // Expected values
+    List<ColumnCombinationBitset> expectedMaximalSupersets = Arrays.asList(
+      new ColumnCombinationBitset(1, 2, 3, 4, 7, 8),
+      new ColumnCombinationBitset(1, 3, 4, 6),
+      new ColumnCombinationBitset(1, 4, 6, 8),
+      new ColumnCombinationBitset(5, 6, 8));
+
+    // Execute functionality
+    List<ColumnCombinationBitset> actualMaximalSupersets =
+      SuperSetGraph.maximize(columnCombinations);
+
+    // Check result
+    assertEquals(expectedMaximalSupersets.get(0), actualMaximalSupersets.get(0));
+    assertThat(actualMaximalSupersets, IsIterableContainingInAnyOrder.containsInAnyOrder(
+      expectedMaximalSupersets.toArray(new ColumnCombinationBitset[4])));
+    assertEquals(expectedMaximalSupersets.get(3), actualMaximalSupersets.get(3));
+  }
 }
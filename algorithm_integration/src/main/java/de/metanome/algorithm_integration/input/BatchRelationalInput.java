@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_integration.input;
+
+/**
+ * A {@link RelationalInput} that can read batches of rows into a {@link ColumnBatch}. Reading
+ * batches avoids creating a list for every row. Batches and {@link #next()} can be mixed, the
+ * batches continue after the last row returned. Other inputs can be read in batches through a
+ * {@link BatchRelationalInputAdapter}.
+ */
+public interface BatchRelationalInput extends RelationalInput {
+
+  /**
+   * Clears the batch and reads up to {@link ColumnBatch#capacity()} rows into it. The batch has to
+   * have the input's number of columns.
+   *
+   * @param batch the batch to fill
+   * @return the number of rows read, 0 if there are no more rows
+   * @throws de.metanome.algorithm_integration.input.InputIterationException if the rows could not
+   *                                                                          be read
+   */
+  int nextBatch(ColumnBatch batch) throws InputIterationException;
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_integration.input;
+
+import java.util.List;
+
+/**
+ * Reads batches from any {@link RelationalInput} by copying the rows returned by {@link
+ * RelationalInput#next()}. Consumers of batches use {@link #of(RelationalInput)}, so inputs that
+ * implement {@link BatchRelationalInput} natively are not wrapped.
+ */
+public class BatchRelationalInputAdapter implements BatchRelationalInput {
+
+  protected RelationalInput input;
+
+  /**
+   * @param input the input to read batches from
+   */
+  public BatchRelationalInputAdapter(RelationalInput input) {
+    this.input = input;
+  }
+
+  /**
+   * @param input a relational input
+   * @return the input if it reads batches natively, an adapter otherwise
+   */
+  public static BatchRelationalInput of(RelationalInput input) {
+    if (input instanceof BatchRelationalInput) {
+      return (BatchRelationalInput) input;
+    }
+    return new BatchRelationalInputAdapter(input);
+  }
+
+  @Override
+  public int nextBatch(ColumnBatch batch) throws InputIterationException {
+    batch.clear();
+    while (!batch.isFull() && input.hasNext()) {
+      List<String> row = input.next();
+      try {
+        batch.addRow(row);
+      } catch (IllegalArgumentException e) {
+        throw new InputIterationException("The row does not fit into the batch", e);
+      }
+    }
+    return batch.size();
+  }
+
+  @Override
+  public boolean hasNext() throws InputIterationException {
+    return input.hasNext();
+  }
+
+  @Override
+  public List<String> next() throws InputIterationException {
+    return input.next();
+  }
+
+  @Override
+  public int numberOfColumns() {
+    return input.numberOfColumns();
+  }
+
+  @Override
+  public String relationName() {
+    return input.relationName();
+  }
+
+  @Override
+  public List<String> columnNames() {
+    return input.columnNames();
+  }
+
+  @Override
+  public void close() throws Exception {
+    input.close();
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_integration.input;
+
+import java.util.List;
+
+/**
+ * A reusable buffer for a batch of rows of a {@link RelationalInput}. The values are stored column
+ * by column, so consumers can process one column of the batch at a time.
+ *
+ * @see BatchRelationalInput
+ */
+public class ColumnBatch {
+
+  protected String[][] columns;
+  protected int capacity;
+  protected int size = 0;
+
+  /**
+   * @param numberOfColumns the number of columns of the rows
+   * @param capacity        the maximal number of rows in the batch
+   */
+  public ColumnBatch(int numberOfColumns, int capacity) {
+    if (numberOfColumns < 0 || capacity < 1) {
+      throw new IllegalArgumentException(
+        "The number of columns must not be negative and the capacity has to be positive.");
+    }
+    this.capacity = capacity;
+    this.columns = new String[numberOfColumns][capacity];
+  }
+
+  /**
+   * Removes all rows, the arrays are reused for the next rows.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * @return the number of rows in the batch
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Sets the number of rows after the values have been set with {@link #setValue(int, int,
+   * String)}.
+   *
+   * @param size the number of rows in the batch
+   */
+  public void setSize(int size) {
+    if (size < 0 || size > capacity) {
+      throw new IllegalArgumentException("The size has to be in [0, " + capacity + "].");
+    }
+    this.size = size;
+  }
+
+  /**
+   * @return the maximal number of rows in the batch
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * @return the batch contains as many rows as it can hold
+   */
+  public boolean isFull() {
+    return size == capacity;
+  }
+
+  /**
+   * @return the number of columns of the rows
+   */
+  public int numberOfColumns() {
+    return columns.length;
+  }
+
+  /**
+   * Returns the values of a column. Only the first {@link #size()} values belong to the batch, the
+   * array is reused for the next batch.
+   *
+   * @param columnIndex the index of the column
+   * @return the column's values
+   */
+  public String[] getColumn(int columnIndex) {
+    return columns[columnIndex];
+  }
+
+  /**
+   * @param rowIndex    the index of the row in the batch
+   * @param columnIndex the index of the column
+   * @return the value
+   */
+  public String getValue(int rowIndex, int columnIndex) {
+    return columns[columnIndex][rowIndex];
+  }
+
+  /**
+   * @param rowIndex    the index of the row in the batch
+   * @param columnIndex the index of the column
+   * @param value       the new value
+   */
+  public void setValue(int rowIndex, int columnIndex, String value) {
+    columns[columnIndex][rowIndex] = value;
+  }
+
+  /**
+   * Appends a row to the batch.
+   *
+   * @param row the values of the row
+   * @throws IllegalArgumentException if the row does not have the batch's number of columns
+   * @throws IllegalStateException    if the batch is full
+   */
+  public void addRow(String[] row) {
+    checkRow(row.length);
+    for (int columnIndex = 0; columnIndex < row.length; columnIndex++) {
+      columns[columnIndex][size] = row[columnIndex];
+    }
+    size++;
+  }
+
+  /**
+   * Appends a row to the batch.
+   *
+   * @param row the values of the row
+   * @throws IllegalArgumentException if the row does not have the batch's number of columns
+   * @throws IllegalStateException    if the batch is full
+   */
+  public void addRow(List<String> row) {
+    checkRow(row.size());
+    int columnIndex = 0;
+    for (String value : row) {
+      columns[columnIndex++][size] = value;
+    }
+    size++;
+  }
+
+  protected void checkRow(int numberOfValues) {
+    if (numberOfValues != columns.length) {
+      throw new IllegalArgumentException(
+        "The row has " + numberOfValues + " instead of " + columns.length + " values.");
+    }
+    if (isFull()) {
+      throw new IllegalStateException("The batch is full.");
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_integration.input;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test for {@link BatchRelationalInputAdapter}
+ */
+public class BatchRelationalInputAdapterTest {
+
+  /**
+   * Test method for {@link BatchRelationalInputAdapter#nextBatch(ColumnBatch)}
+   * <p/>
+   * The rows of the wrapped input should be copied into the batches.
+   */
+  @Test
+  public void testNextBatch() throws InputIterationException {
+    // Setup
+    RelationalInput input = mock(RelationalInput.class);
+    List<String> firstRow = Arrays.asList("1", "2");
+    List<String> secondRow = Arrays.asList("3", null);
+    List<String> thirdRow = Arrays.asList("5", "6");
+    when(input.hasNext()).thenReturn(true, true, true, false);
+    when(input.next()).thenReturn(firstRow).thenReturn(secondRow).thenReturn(thirdRow);
+    when(input.numberOfColumns()).thenReturn(2);
+    BatchRelationalInput batchInput = BatchRelationalInputAdapter.of(input);
+    ColumnBatch batch = new ColumnBatch(batchInput.numberOfColumns(), 2);
+
+    // Execute functionality
+    // Check result
+    assertEquals(2, batchInput.nextBatch(batch));
+    assertArrayEquals(new String[]{"1", "3"}, batch.getColumn(0));
+    assertArrayEquals(new String[]{"2", null}, batch.getColumn(1));
+    assertEquals(1, batchInput.nextBatch(batch));
+    assertEquals("6", batch.getValue(0, 1));
+    assertEquals(0, batchInput.nextBatch(batch));
+  }
+
+  /**
+   * Test method for {@link BatchRelationalInputAdapter#of(RelationalInput)}
+   * <p/>
+   * Inputs that read batches natively should not be wrapped.
+   */
+  @Test
+  public void testOf() {
+    // Setup
+    BatchRelationalInput nativeInput = mock(BatchRelationalInput.class);
+    RelationalInput input = mock(RelationalInput.class);
+
+    // Execute functionality
+    // Check result
+    assertSame(nativeInput, BatchRelationalInputAdapter.of(nativeInput));
+    assertTrue(BatchRelationalInputAdapter.of(input) instanceof BatchRelationalInputAdapter);
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.algorithm_integration.input;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ColumnBatch}
+ */
+public class ColumnBatchTest {
+
+  /**
+   * Test method for {@link ColumnBatch#addRow(java.util.List)} and {@link
+   * ColumnBatch#addRow(String[])}
+   * <p/>
+   * Rows should be stored column by column until the batch is full.
+   */
+  @Test
+  public void testAddRow() {
+    // Setup
+    ColumnBatch batch = new ColumnBatch(2, 2);
+
+    // Execute functionality
+    batch.addRow(Arrays.asList("a", null));
+    batch.addRow(new String[]{"b", "c"});
+
+    // Check result
+    assertEquals(2, batch.size());
+    assertTrue(batch.isFull());
+    assertEquals("a", batch.getValue(0, 0));
+    assertNull(batch.getValue(0, 1));
+    assertArrayEquals(new String[]{"a", "b"}, batch.getColumn(0));
+    assertArrayEquals(new String[]{null, "c"}, batch.getColumn(1));
+    try {
+      batch.addRow(new String[]{"d", "e"});
+      fail("Expected an IllegalStateException to be thrown.");
+    } catch (IllegalStateException e) {
+      // Intentionally left blank
+    }
+
+    // Execute functionality
+    batch.clear();
+
+    // Check result
+    assertEquals(0, batch.size());
+    assertFalse(batch.isFull());
+    try {
+      batch.addRow(Arrays.asList("a"));
+      fail("Expected an IllegalArgumentException to be thrown.");
+    } catch (IllegalArgumentException e) {
+      // Intentionally left blank
+    }
+  }
+
+  /**
+   * Test method for {@link ColumnBatch#setValue(int, int, String)} and {@link
+   * ColumnBatch#setSize(int)}
+   * <p/>
+   * Values set in place should belong to the batch once the size is set.
+   */
+  @Test
+  public void testSetValue() {
+    // Setup
+    ColumnBatch batch = new ColumnBatch(1, 3);
+
+    // Execute functionality
+    batch.setValue(0, 0, "a");
+    batch.setValue(1, 0, "b");
+    batch.setSize(2);
+
+    // Check result
+    assertEquals(2, batch.size());
+    assertEquals(3, batch.capacity());
+    assertEquals(1, batch.numberOfColumns());
+    assertEquals("b", batch.getValue(1, 0));
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.metanome.backend.input.cache;
+
+import de.metanome.algorithm_integration.input.BatchRelationalInput;
+import de.metanome.algorithm_integration.input.ColumnBatch;
+import de.metanome.algorithm_integration.input.InputIterationException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streams the rows of a complete {@link ColumnarInputCache} file. The file is decoded block by
+ * block. Equal values of a dictionary encoded column are returned as the same string instance.
+ */
+public class CachedRelationalInput implements BatchRelationalInput {
+
+  protected DataInputStream input;
+  protected String relationName;
+  protected List<String> columnNames;
+  protected int numberOfColumns;
+
+  protected List<List<String>> dictionaries;
+  // Rows of the current block by column.
+  protected String[][] block;
+  protected int blockSize;
+  protected int rowIndex;
+  protected boolean endReached;
+
+  /**
+   * @param cacheFile the complete cache file
+   * @throws IOException if the file cannot be read or is not a cache file of this version
+   */
+  public CachedRelationalInput(File cacheFile) throws IOException {
+    this.input = new DataInputStream(
+      new BufferedInputStream(new FileInputStream(cacheFile), 1 << 16));
+    try {
+      readHeader();
+    } catch (IOException e) {
+      input.close();
+      throw e;
+    }
+
+    this.dictionaries = new ArrayList<>(numberOfColumns);
+    for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+      List<String> dictionary = new ArrayList<>();
+      dictionary.add(null);
+      dictionaries.add(dictionary);
+    }
+    this.block = new String[numberOfColumns][ColumnarInputCache.BLOCK_SIZE];
+  }
+
+  protected void readHeader() throws IOException {
+    if (input.readInt() != ColumnarInputCache.MAGIC_NUMBER
+        || input.readInt() != ColumnarInputCache.VERSION) {
+      throw new IOException("The file is not a cache file of version "
+                            + ColumnarInputCache.VERSION + ".");
+    }
+    relationName = readString();
+    numberOfColumns = input.readInt();
+    String[] names = new String[numberOfColumns];
+    for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+      names[columnIndex] = readString();
+    }
+    columnNames = Collections.unmodifiableList(Arrays.asList(names));
+  }
+
+  @Override
+  public boolean hasNext() throws InputIterationException {
+    if (rowIndex == blockSize && !endReached) {
+      readBlock();
+    }
+    return rowIndex < blockSize;
+  }
+
+  /**
+   * @return the next row or null if there are no more rows
+   * @throws InputIterationException if the cache file could not be read
+   */
+  @Override
+  public List<String> next() throws InputIterationException {
+    if (!hasNext()) {
+      return null;
+    }
+
+    String[] row = new String[numberOfColumns];
+    for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+      row[columnIndex] = block[columnIndex][rowIndex];
+    }
+    rowIndex++;
+    return Collections.unmodifiableList(Arrays.asList(row));
+  }
+
+  /**
+   * Copies the decoded rows column by column into the batch.
+   *
+   * @param batch the batch to fill
+   * @return the number of rows read, 0 if there are no more rows
+   * @throws InputIterationException if the cache file could not be read
+   */
+  @Override
+  public int nextBatch(ColumnBatch batch) throws InputIterationException {
+    batch.clear();
+    while (!batch.isFull() && hasNext()) {
+      int numberOfRows = Math.min(blockSize - rowIndex, batch.capacity() - batch.size());
+      for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+        System.arraycopy(block[columnIndex], rowIndex, batch.getColumn(columnIndex),
+          batch.size(), numberOfRows);
+      }
+      rowIndex += numberOfRows;
+      batch.setSize(batch.size() + numberOfRows);
+    }
+    return batch.size();
+  }
+
+  protected void readBlock() throws InputIterationException {
+    try {
+      blockSize = input.readInt();
+      rowIndex = 0;
+      if (blockSize == 0) {
+        endReached = true;
+        return;
+      }
+      for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+        byte encoding = input.readByte();
+        if (encoding == ColumnarInputCache.DICTIONARY_ENCODING) {
+          readDictionaryColumn(columnIndex);
+        } else {
+          readPlainColumn(columnIndex);
+        }
+      }
+    } catch (IOException e) {
+      throw new InputIterationException("Could not read the cached input", e);
+    }
+  }
+
+  protected void readDictionaryColumn(int columnIndex) throws IOException {
+    List<String> dictionary = dictionaries.get(columnIndex);
+    int numberOfNewValues = input.readInt();
+    for (int i = 0; i < numberOfNewValues; i++) {
+      dictionary.add(readString());
+    }
+    String[] values = block[columnIndex];
+    for (int row = 0; row < blockSize; row++) {
+      values[row] = dictionary.get(input.readInt());
+    }
+  }
+
+  protected void readPlainColumn(int columnIndex) throws IOException {
+    // Plain columns never return to the dictionary encoding.
+    dictionaries.set(columnIndex, null);
+    String[] values = block[columnIndex];
+    for (int row = 0; row < blockSize; row++) {
+      values[row] = readString();
+    }
+  }
+
+  protected String readString() throws IOException {
+    int length = input.readInt();
+    if (length == ColumnarInputCache.NULL_LENGTH) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public int numberOfColumns() {
+    return numberOfColumns;
+  }
+
+  @Override
+  public String relationName() {
+    return relationName;
+  }
+
+  @Override
+  public List<String> columnNames() {
+    return columnNames;
+  }
+
+  @Override
+  public void close() throws Exception {
+    input.close();
+  }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.metanome.backend.input.cache;
+
+import de.metanome.algorithm_integration.input.BatchRelationalInput;
+import de.metanome.algorithm_integration.input.BatchRelationalInputAdapter;
+import de.metanome.algorithm_integration.input.ColumnBatch;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Passes the rows of a source input through and writes them to a {@link ColumnarInputCache} file.
+ * The cache file is only completed when the source has been read to its end. If the input is closed
+ * early or the source fails, the incomplete file is discarded. Failures writing the cache file do
+ * not affect the rows returned, the cache entry is abandoned instead. Batches are read from the
+ * source natively if it is a {@link BatchRelationalInput}.
+ */
+public class CachingRelationalInput implements BatchRelationalInput {
+
+  protected BatchRelationalInput source;
+  protected File cacheFile;
+  protected File temporaryFile;
+  protected DataOutputStream output;
+  protected int numberOfColumns;
+
+  // Rows of the current block by column.
+  protected String[][] block;
+  protected int blockSize;
+  protected List<Map<String, Integer>> dictionaries;
+  protected boolean[] plainColumns;
+
+  /**
+   * @param source    the input to read and cache
+   * @param cacheFile the file of the complete cache entry
+   */
+  public CachingRelationalInput(RelationalInput source, File cacheFile) {
+    this.source = BatchRelationalInputAdapter.of(source);
+    this.cacheFile = cacheFile;
+    this.numberOfColumns = source.numberOfColumns();
+    this.block = new String[numberOfColumns][ColumnarInputCache.BLOCK_SIZE];
+    this.dictionaries = new ArrayList<>(numberOfColumns);
+    for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+      dictionaries.add(new HashMap<String, Integer>());
+    }
+    this.plainColumns = new boolean[numberOfColumns];
+
+    try {
+      temporaryFile =
+        File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getParentFile());
+      output = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(temporaryFile), 1 << 16));
+      writeHeader();
+    } catch (IOException e) {
+      abandon();
+    }
+  }
+
+  protected void writeHeader() throws IOException {
+    output.writeInt(ColumnarInputCache.MAGIC_NUMBER);
+    output.writeInt(ColumnarInputCache.VERSION);
+    writeString(source.relationName());
+    output.writeInt(numberOfColumns);
+    for (String columnName : source.columnNames()) {
+      writeString(columnName);
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws InputIterationException {
+    boolean hasNext;
+    try {
+      hasNext = source.hasNext();
+    } catch (InputIterationException e) {
+      abandon();
+      throw e;
+    }
+
+    if (!hasNext) {
+      complete();
+    }
+    return hasNext;
+  }
+
+  @Override
+  public List<String> next() throws InputIterationException {
+    List<String> row;
+    try {
+      row = source.next();
+    } catch (InputIterationException e) {
+      abandon();
+      throw e;
+    }
+
+    if (row != null && output != null) {
+      for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+        block[columnIndex][blockSize] = row.get(columnIndex);
+      }
+      blockSize++;
+      if (blockSize == ColumnarInputCache.BLOCK_SIZE) {
+        writeBlock();
+      }
+    }
+    return row;
+  }
+
+  /**
+   * Reads the batch from the source and appends its columns to the current block.
+   *
+   * @param batch the batch to fill
+   * @return the number of rows read, 0 if there are no more rows
+   * @throws InputIterationException if the source could not be read
+   */
+  @Override
+  public int nextBatch(ColumnBatch batch) throws InputIterationException {
+    int numberOfRows;
+    try {
+      numberOfRows = source.nextBatch(batch);
+    } catch (InputIterationException e) {
+      abandon();
+      throw e;
+    }
+
+    if (numberOfRows == 0) {
+      complete();
+    }
+    int batchIndex = 0;
+    while (batchIndex < numberOfRows && output != null) {
+      int numberOfCopiedRows =
+        Math.min(numberOfRows - batchIndex, ColumnarInputCache.BLOCK_SIZE - blockSize);
+      for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+        System.arraycopy(batch.getColumn(columnIndex), batchIndex, block[columnIndex], blockSize,
+          numberOfCopiedRows);
+      }
+      batchIndex += numberOfCopiedRows;
+      blockSize += numberOfCopiedRows;
+      if (blockSize == ColumnarInputCache.BLOCK_SIZE) {
+        writeBlock();
+      }
+    }
+    return numberOfRows;
+  }
+
+  /**
+   * Writes the buffered rows as a block. The block starts with its number of rows followed by the
+   * columns. Dictionary encoded columns store the number of new values, the new values and the
+   * value ids of the rows. Plain columns store the values of the rows.
+   */
+  protected void writeBlock() {
+    try {
+      output.writeInt(blockSize);
+      for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+        if (!plainColumns[columnIndex] && !writeDictionaryColumn(columnIndex)) {
+          plainColumns[columnIndex] = true;
+          // The dictionary is not needed anymore.
+          dictionaries.set(columnIndex, null);
+        }
+        if (plainColumns[columnIndex]) {
+          writePlainColumn(columnIndex);
+        }
+      }
+    } catch (IOException e) {
+      abandon();
+    }
+    blockSize = 0;
+  }
+
+  /**
+   * @return false if the dictionary would exceed the maximum size, nothing has been written then
+   */
+  protected boolean writeDictionaryColumn(int columnIndex) throws IOException {
+    Map<String, Integer> dictionary = dictionaries.get(columnIndex);
+    String[] values = block[columnIndex];
+    int[] valueIds = new int[blockSize];
+    List<String> newValues = new ArrayList<>();
+    for (int rowIndex = 0; rowIndex < blockSize; rowIndex++) {
+      String value = values[rowIndex];
+      if (value == null) {
+        valueIds[rowIndex] = ColumnarInputCache.NULL_ID;
+        continue;
+      }
+      Integer valueId = dictionary.get(value);
+      if (valueId == null) {
+        // Ids start after the null id.
+        valueId = dictionary.size() + 1;
+        dictionary.put(value, valueId);
+        newValues.add(value);
+      }
+      valueIds[rowIndex] = valueId;
+    }
+
+    if (dictionary.size() > ColumnarInputCache.MAXIMUM_DICTIONARY_SIZE) {
+      return false;
+    }
+
+    output.writeByte(ColumnarInputCache.DICTIONARY_ENCODING);
+    output.writeInt(newValues.size());
+    for (String value : newValues) {
+      writeString(value);
+    }
+    for (int valueId : valueIds) {
+      output.writeInt(valueId);
+    }
+    return true;
+  }
+
+  protected void writePlainColumn(int columnIndex) throws IOException {
+    output.writeByte(ColumnarInputCache.PLAIN_ENCODING);
+    String[] values = block[columnIndex];
+    for (int rowIndex = 0; rowIndex < blockSize; rowIndex++) {
+      writeString(values[rowIndex]);
+    }
+  }
+
+  protected void writeString(String value) throws IOException {
+    if (value == null) {
+      output.writeInt(ColumnarInputCache.NULL_LENGTH);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  /**
+   * Writes the last block and the end marker and moves the complete file into the cache.
+   */
+  protected void complete() {
+    if (output == null) {
+      return;
+    }
+    if (blockSize > 0) {
+      writeBlock();
+    }
+
+    try {
+      if (output != null) {
+        // A block without rows ends the file.
+        output.writeInt(0);
+        output.close();
+        output = null;
+        Files.move(temporaryFile.toPath(), cacheFile.toPath(),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        temporaryFile = null;
+      }
+    } catch (IOException e) {
+      abandon();
+    }
+  }
+
+  /**
+   * Stops writing and deletes the incomplete cache file.
+   */
+  protected void abandon() {
+    if (output != null) {
+      try {
+        output.close();
+      } catch (IOException e) {
+        // The file is deleted anyway.
+      }
+      output = null;
+    }
+    if (temporaryFile != null) {
+      temporaryFile.delete();
+    }
+    block = null;
+    dictionaries = null;
+  }
+
+  @Override
+  public int numberOfColumns() {
+    return numberOfColumns;
+  }
+
+  @Override
+  public String relationName() {
+    return source.relationName();
+  }
+
+  @Override
+  public List<String> columnNames() {
+    return source.columnNames();
+  }
+
+  @Override
+  public void close() throws Exception {
+    abandon();
+    source.close();
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.metanome.backend.input.cache;
+
+import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+import de.metanome.algorithm_integration.input.InputGenerationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import de.metanome.algorithm_integration.input.RelationalInputGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A local cache of parsed relational inputs in a binary columnar format. The first copy of an input
+ * is read from its source and written to the cache while it is consumed. Once a copy has been read
+ * completely, later copies are streamed from the cache file without parsing or querying the source
+ * again.
+ *
+ * Entries are identified by a key, which has to change whenever the source's content or its parser
+ * settings change, e.g. a file's path, modification time, length and settings. Sources without a
+ * modification time, e.g. database tables, have to be invalidated explicitly, so they are only
+ * cached from the system properties if {@link #TABLES_PROPERTY} is set as well. Outdated entries
+ * are never read again and can be removed with {@link #clear()}.
+ *
+ * The cache file stores the relation name and column names followed by blocks of rows. Every block
+ * stores its rows column by column, dictionary encoded: only the values that are new to the column
+ * are written together with the value ids of the block's rows. Columns whose dictionary grows beyond
+ * {@link #MAXIMUM_DICTIONARY_SIZE} are stored plainly from then on. Cache files are written to a
+ * temporary file and moved to their final name once complete, so concurrent processes read only
+ * complete entries.
+ */
+public class ColumnarInputCache {
+
+  /**
+   * The system property holding the directory of the cache enabled by {@link
+   * #fromSystemProperty()}.
+   */
+  public static final String DIRECTORY_PROPERTY = "metanome.input.cache.directory";
+  /**
+   * The system property that has to be "true" for {@link #forTablesFromSystemProperty()} to cache
+   * database tables. Changed tables are not detected.
+   */
+  public static final String TABLES_PROPERTY = "metanome.input.cache.tables";
+
+  protected static final String FILE_EXTENSION = ".columns";
+  protected static final int MAGIC_NUMBER = 0x4d434331;
+  protected static final int VERSION = 1;
+  protected static final int BLOCK_SIZE = 4096;
+  protected static final int MAXIMUM_DICTIONARY_SIZE = 1 << 16;
+
+  protected static final byte DICTIONARY_ENCODING = 0;
+  protected static final byte PLAIN_ENCODING = 1;
+  // Id of the null value in dictionaries and length of the null value in plain columns.
+  protected static final int NULL_ID = 0;
+  protected static final int NULL_LENGTH = -1;
+
+  protected File directory;
+
+  /**
+   * @param directory the directory of the cache files, it is created if it does not exist
+   */
+  public ColumnarInputCache(File directory) {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalArgumentException(
+        "The cache directory " + directory + " could not be created.");
+    }
+    this.directory = directory;
+  }
+
+  /**
+   * Creates the cache in the directory given by the system property {@link #DIRECTORY_PROPERTY}.
+   *
+   * @return the cache or null if the property is not set
+   */
+  public static ColumnarInputCache fromSystemProperty() {
+    String directory = System.getProperty(DIRECTORY_PROPERTY);
+    if (directory == null || directory.isEmpty()) {
+      return null;
+    }
+    return new ColumnarInputCache(new File(directory));
+  }
+
+  /**
+   * Creates the cache for database tables in the directory given by the system property {@link
+   * #DIRECTORY_PROPERTY}. Tables are only cached if {@link #TABLES_PROPERTY} is "true" as well.
+   *
+   * @return the cache or null if tables are not cached
+   */
+  public static ColumnarInputCache forTablesFromSystemProperty() {
+    if (!Boolean.getBoolean(TABLES_PROPERTY)) {
+      return null;
+    }
+    return fromSystemProperty();
+  }
+
+  /**
+   * Generates a new copy of the input with the given key. Complete cache entries are read from the
+   * cache. Otherwise a copy of the source is returned that writes the cache entry while it is
+   * consumed. Entries that cannot be read, e.g. from an older version, are replaced.
+   *
+   * @param key    the key identifying the source and its settings
+   * @param source the generator of the source input
+   * @return a new copy of the input
+   * @throws InputGenerationException        if no copy of the source could be created
+   * @throws AlgorithmConfigurationException if the source is not configured correctly
+   */
+  public RelationalInput generateNewCopy(String key, RelationalInputGenerator source)
+    throws InputGenerationException, AlgorithmConfigurationException {
+    File cacheFile = getCacheFile(key);
+    if (cacheFile.isFile()) {
+      try {
+        return new CachedRelationalInput(cacheFile);
+      } catch (IOException e) {
+        // The entry is rewritten from the source.
+        cacheFile.delete();
+      }
+    }
+
+    return new CachingRelationalInput(source.generateNewCopy(), cacheFile);
+  }
+
+  /**
+   * @param key the key identifying the source and its settings
+   * @return whether a complete entry with the key is cached
+   */
+  public boolean contains(String key) {
+    return getCacheFile(key).isFile();
+  }
+
+  /**
+   * Removes the entry with the given key, e.g. after the underlying table has changed.
+   *
+   * @param key the key identifying the source and its settings
+   */
+  public void invalidate(String key) {
+    getCacheFile(key).delete();
+  }
+
+  /**
+   * Removes all entries of the cache.
+   */
+  public void clear() {
+    File[] cacheFiles = directory.listFiles();
+    if (cacheFiles == null) {
+      return;
+    }
+    for (File cacheFile : cacheFiles) {
+      if (cacheFile.getName().endsWith(FILE_EXTENSION)) {
+        cacheFile.delete();
+      }
+    }
+  }
+
+  /**
+   * @return the directory of the cache files
+   */
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Keys are hashed to file names, so they can be of any length and contain any character.
+   *
+   * @param key the key identifying the source and its settings
+   * @return the cache file of the key
+   */
+  protected File getCacheFile(String key) {
+    byte[] hash;
+    try {
+      hash = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform supports SHA-1.
+      throw new IllegalStateException(e);
+    }
+
+    StringBuilder fileName = new StringBuilder(hash.length * 2 + FILE_EXTENSION.length());
+    for (byte hashByte : hash) {
+      fileName.append(String.format("%02x", hashByte & 0xff));
+    }
+    fileName.append(FILE_EXTENSION);
+    return new File(directory, fileName.toString());
+  }
+}
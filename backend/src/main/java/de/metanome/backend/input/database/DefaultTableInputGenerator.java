@@ -16,11 +16,14 @@
 
 package de.metanome.backend.input.database;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
 import de.metanome.algorithm_integration.configuration.ConfigurationSettingTableInput;
 import de.metanome.algorithm_integration.input.InputGenerationException;
 import de.metanome.algorithm_integration.input.RelationalInput;
+import de.metanome.algorithm_integration.input.RelationalInputGenerator;
 import de.metanome.algorithm_integration.input.TableInputGenerator;
+import de.metanome.backend.input.cache.ColumnarInputCache;
 
 import java.sql.ResultSet;
 
@@ -40,6 +43,7 @@ public class DefaultTableInputGenerator implements TableInputGenerator {
 
   protected DefaultDatabaseConnectionGenerator defaultDatabaseConnectionGenerator;
   protected String table;
+  protected ColumnarInputCache cache;
 
   protected DefaultTableInputGenerator() {
   }
@@ -77,11 +81,70 @@ public class DefaultTableInputGenerator implements TableInputGenerator {
    */
   @Override
   public RelationalInput generateNewCopy() throws InputGenerationException, AlgorithmConfigurationException {
+    // Generators are passed to the algorithm execution as json, which does not hold the cache.
+    ColumnarInputCache inputCache =
+      (cache != null) ? cache : ColumnarInputCache.forTablesFromSystemProperty();
+    if (inputCache != null) {
+      return inputCache.generateNewCopy(getCacheKey(), new RelationalInputGenerator() {
+        @Override
+        public RelationalInput generateNewCopy()
+          throws InputGenerationException, AlgorithmConfigurationException {
+          return generateUncachedCopy();
+        }
+      });
+    }
+
+    return generateUncachedCopy();
+  }
+
+  /**
+   * Queries the table without the cache.
+   *
+   * @return the {@link de.metanome.algorithm_integration.input.RelationalInput}
+   * @throws InputGenerationException if the database statement could not be executed
+   */
+  protected RelationalInput generateUncachedCopy()
+    throws InputGenerationException, AlgorithmConfigurationException {
     String query = String.format(BASE_STATEMENT, table);
     return defaultDatabaseConnectionGenerator
       .generateRelationalInputFromSql(query);
   }
 
+  /**
+   * Tables have no modification time, so the key only identifies the table. Changed tables have
+   * to be invalidated in the cache.
+   *
+   * @return the key of the table input in the cache
+   */
+  @JsonIgnore
+  public String getCacheKey() {
+    return "table:" + defaultDatabaseConnectionGenerator.getDbUrl()
+           + '|' + defaultDatabaseConnectionGenerator.getUserName() + '|' + table;
+  }
+
+  /**
+   * @return the cache of queried inputs or null if the cache of the system properties is used
+   */
+  @JsonIgnore
+  public ColumnarInputCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Sets the cache of queried inputs. The first copy queries the table and writes it to the cache,
+   * later copies are read from the cache. Changes of the table are not detected, the cache entry
+   * has to be invalidated with {@link ColumnarInputCache#invalidate(String)} and {@link
+   * #getCacheKey()}. Without a cache the generator only caches the table if the system properties
+   * enable caching of tables, see {@link ColumnarInputCache#forTablesFromSystemProperty()}.
+   *
+   * @param cache the cache or null to use the cache of the system properties
+   * @return the generator
+   */
+  public DefaultTableInputGenerator setCache(ColumnarInputCache cache) {
+    this.cache = cache;
+    return this;
+  }
+
   @Override
   public ResultSet sortBy(String column, Boolean descending) throws InputGenerationException, AlgorithmConfigurationException {
     String query = String.format(SORT_STATEMENT, table, column, descending ? "DESC" : "ASC");
@@ -17,8 +17,9 @@
 package de.metanome.backend.input.database;
 
 import com.google.common.collect.ImmutableList;
+import de.metanome.algorithm_integration.input.BatchRelationalInput;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputIterationException;
-import de.metanome.algorithm_integration.input.RelationalInput;
 
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -26,7 +27,7 @@ import java.sql.SQLException;
 import java.util.LinkedList;
 import java.util.List;
 
-public class ResultSetIterator implements RelationalInput {
+public class ResultSetIterator implements BatchRelationalInput {
 
   protected ResultSet resultSet;
   protected int numberOfColumns;
@@ -95,6 +96,31 @@ public class ResultSetIterator implements RelationalInput {
     return ImmutableList.copyOf(resultRow);
   }
 
+  /**
+   * Reads the values of the result set directly into the batch.
+   *
+   * @param batch the batch to fill
+   * @return the number of rows read, 0 if there are no more rows
+   * @throws InputIterationException if the rows could not be retrieved
+   */
+  @Override
+  public int nextBatch(ColumnBatch batch) throws InputIterationException {
+    batch.clear();
+    while (!batch.isFull() && hasNext()) {
+      nextCalled = false;
+      int rowIndex = batch.size();
+      for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+        try {
+          batch.setValue(rowIndex, columnIndex, resultSet.getString(columnIndex + 1));
+        } catch (SQLException e) {
+          throw new InputIterationException("Could not retrieve values from result set", e);
+        }
+      }
+      batch.setSize(rowIndex + 1);
+    }
+    return batch.size();
+  }
+
   @Override
   public int numberOfColumns() {
     return numberOfColumns;
@@ -16,16 +16,23 @@
 
 package de.metanome.backend.input.file;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
 import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
 import de.metanome.algorithm_integration.input.FileInputGenerator;
 import de.metanome.algorithm_integration.input.InputGenerationException;
 import de.metanome.algorithm_integration.input.InputIterationException;
 import de.metanome.algorithm_integration.input.RelationalInput;
+import de.metanome.algorithm_integration.input.RelationalInputGenerator;
+import de.metanome.backend.input.cache.ColumnarInputCache;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Generator for {@link de.metanome.algorithm_integration.input.RelationalInput}s based on file
@@ -38,6 +45,11 @@ public class DefaultFileInputGenerator implements FileInputGenerator {
 
   protected File inputFile;
   protected ConfigurationSettingFileInput setting;
+  protected int parallelism = 1;
+  protected ColumnarInputCache cache;
+  // The chunk starts of the last split and the key of the file version and settings they belong to.
+  protected long[] chunkStarts;
+  protected String chunkStartsKey;
 
   protected DefaultFileInputGenerator() {
   }
@@ -71,6 +83,36 @@ public class DefaultFileInputGenerator implements FileInputGenerator {
 
   @Override
   public RelationalInput generateNewCopy() throws InputGenerationException {
+    // Generators are passed to the algorithm execution as json, which does not hold the cache.
+    ColumnarInputCache inputCache =
+      (cache != null) ? cache : ColumnarInputCache.fromSystemProperty();
+    if (inputCache != null) {
+      try {
+        return inputCache.generateNewCopy(getCacheKey(), new RelationalInputGenerator() {
+          @Override
+          public RelationalInput generateNewCopy() throws InputGenerationException {
+            return generateUncachedCopy();
+          }
+        });
+      } catch (AlgorithmConfigurationException e) {
+        throw new InputGenerationException("Could not read the cached file input", e);
+      }
+    }
+
+    return generateUncachedCopy();
+  }
+
+  /**
+   * Parses the file without the cache.
+   *
+   * @return a new copy of the file input
+   * @throws InputGenerationException if the file cannot be read
+   */
+  protected RelationalInput generateUncachedCopy() throws InputGenerationException {
+    if (parallelism > 1) {
+      return new ParallelFileIterator(generateChunks());
+    }
+
     try {
       return new FileIterator(inputFile.getName(), new FileReader(inputFile), setting);
     } catch (FileNotFoundException e) {
@@ -80,6 +122,116 @@ public class DefaultFileInputGenerator implements FileInputGenerator {
     }
   }
 
+  /**
+   * Splits the file into one chunk per thread of the parallelism. The chunks start at record
+   * boundaries and can be read concurrently, e.g. by algorithms that consume rows in parallel.
+   * Finding the record boundaries tokenizes the file up to the last chunk start, so the boundaries
+   * are reused as long as the file, the settings and the parallelism are unchanged.
+   *
+   * @return {@link de.metanome.algorithm_integration.input.RelationalInput}s over the consecutive
+   * chunks of the file
+   * @throws InputGenerationException if the file cannot be mapped or split
+   */
+  public List<RelationalInput> generateChunks() throws InputGenerationException {
+    try {
+      MappedFileIterator fileIterator =
+        new MappedFileIterator(inputFile.getName(), inputFile, setting);
+      List<RelationalInput> chunks =
+        new ArrayList<RelationalInput>(fileIterator.split(getChunkStarts(fileIterator)));
+      // The chunks share the mapping, which stays valid.
+      fileIterator.close();
+      return chunks;
+    } catch (InputIterationException | IOException e) {
+      throw new InputGenerationException("Could not split the file input", e);
+    }
+  }
+
+  protected synchronized long[] getChunkStarts(MappedFileIterator fileIterator)
+    throws InputGenerationException {
+    String key = getCacheKey() + '|' + parallelism;
+    if (!key.equals(chunkStartsKey)) {
+      chunkStarts = fileIterator.findChunkStarts(parallelism);
+      chunkStartsKey = key;
+    }
+    return chunkStarts;
+  }
+
+  /**
+   * @return the number of threads reading the file
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Sets the number of threads reading the file. With more than one thread {@link
+   * #generateNewCopy()} parses chunks of the file concurrently and returns their rows in order.
+   *
+   * @param parallelism the number of threads
+   * @return the generator
+   */
+  public DefaultFileInputGenerator setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism has to be positive.");
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * The key identifies the file's content by its path, modification time and length as well as all
+   * settings that change the parsed values.
+   *
+   * @return the key of the file input in the cache
+   * @throws InputGenerationException if the file path cannot be resolved
+   */
+  @JsonIgnore
+  public String getCacheKey() throws InputGenerationException {
+    String path;
+    try {
+      path = inputFile.getCanonicalPath();
+    } catch (IOException e) {
+      throw new InputGenerationException("Could not resolve the file path", e);
+    }
+    return new StringBuilder("file:").append(path)
+      .append('|').append(inputFile.lastModified())
+      .append('|').append(inputFile.length())
+      .append('|').append(Charset.defaultCharset().name())
+      .append('|').append(setting.getSeparatorAsChar())
+      .append('|').append(setting.getQuoteCharAsChar())
+      .append('|').append(setting.getEscapeCharAsChar())
+      .append('|').append(setting.isStrictQuotes())
+      .append('|').append(setting.isIgnoreLeadingWhiteSpace())
+      .append('|').append(setting.getSkipLines())
+      .append('|').append(setting.hasHeader())
+      .append('|').append(setting.isSkipDifferingLines())
+      .append('|').append(setting.getNullValue())
+      .toString();
+  }
+
+  /**
+   * @return the cache of parsed inputs or null if the cache of the system property {@link
+   * ColumnarInputCache#DIRECTORY_PROPERTY} is used
+   */
+  @JsonIgnore
+  public ColumnarInputCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Sets the cache of parsed inputs. The first copy parses the file and writes it to the cache,
+   * later copies are read from the cache until the file or the setting changes. Without a cache the
+   * generator uses the cache in the directory of the system property {@link
+   * ColumnarInputCache#DIRECTORY_PROPERTY}, if it is set.
+   *
+   * @param cache the cache or null to use the cache of the system property
+   * @return the generator
+   */
+  public DefaultFileInputGenerator setCache(ColumnarInputCache cache) {
+    this.cache = cache;
+    return this;
+  }
+
   /**
    * @return inputFile
    */
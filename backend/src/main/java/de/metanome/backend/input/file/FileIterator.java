@@ -18,21 +18,24 @@ package de.metanome.backend.input.file;
 
 import au.com.bytecode.opencsv.CSVReader;
 import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.BatchRelationalInput;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputIterationException;
-import de.metanome.algorithm_integration.input.RelationalInput;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 /**
- * {@link FileIterator}s are Iterators over lines in a file file.
+ * {@link FileIterator}s are Iterators over lines in a file file. Lines can also be read in batches,
+ * which does not create a list per line.
  *
  * @author Jakob Zwiener
  */
-public class FileIterator implements RelationalInput {
+public class FileIterator implements BatchRelationalInput {
 
   public static final boolean DEFAULT_HAS_HEADER = true;
   public static final boolean DEFAULT_SKIP_DIFFERING_LINES = false;
@@ -42,7 +45,7 @@ public class FileIterator implements RelationalInput {
 
   protected CSVReader csvReader;
   protected List<String> headerLine;
-  protected List<String> nextLine;
+  protected String[] nextLine;
   protected String relationName;
   protected int numberOfColumns = 0;
   // Initialized to -1 because of lookahead
@@ -73,11 +76,11 @@ public class FileIterator implements RelationalInput {
 
     this.nextLine = readNextLine();
     if (this.nextLine != null) {
-      this.numberOfColumns = this.nextLine.size();
+      this.numberOfColumns = this.nextLine.length;
     }
 
     if (hasHeader) {
-      this.headerLine = this.nextLine;
+      this.headerLine = (this.nextLine == null) ? null : toList(this.nextLine);
       next();
     }
 
@@ -94,7 +97,32 @@ public class FileIterator implements RelationalInput {
 
   @Override
   public List<String> next() throws InputIterationException {
-    List<String> currentLine = this.nextLine;
+    String[] currentLine = nextValues();
+
+    if (currentLine == null) {
+      return null;
+    }
+    return toList(currentLine);
+  }
+
+  @Override
+  public int nextBatch(ColumnBatch batch) throws InputIterationException {
+    batch.clear();
+    while (!batch.isFull() && hasNext()) {
+      batch.addRow(nextValues());
+    }
+    return batch.size();
+  }
+
+  /**
+   * Returns the values of the next line and reads the line after it.
+   *
+   * @return the next line's values
+   * @throws InputIterationException if the line after the next line could not be read or if the
+   *                                 next line has a differing length
+   */
+  protected String[] nextValues() throws InputIterationException {
+    String[] currentLine = this.nextLine;
 
     if (currentLine == null) {
       return null;
@@ -110,9 +138,14 @@ public class FileIterator implements RelationalInput {
     return currentLine;
   }
 
-  protected void failDifferingLine(List<String> currentLine)
+  protected List<String> toList(String[] line) {
+    // Return an immutable list
+    return Collections.unmodifiableList(Arrays.asList(line));
+  }
+
+  protected void failDifferingLine(String[] currentLine)
     throws InputIterationException {
-    if (currentLine.size() != this.numberOfColumns()) {
+    if (currentLine.length != this.numberOfColumns()) {
       throw new InputIterationException(
         "Csv line length did not match on line " + currentLineNumber);
     }
@@ -123,7 +156,7 @@ public class FileIterator implements RelationalInput {
       return;
     }
 
-    while (this.nextLine.size() != this.numberOfColumns()) {
+    while (this.nextLine.length != this.numberOfColumns()) {
       this.nextLine = readNextLine();
       this.numberOfSkippedLines++;
       if (!hasNext()) {
@@ -140,7 +173,7 @@ public class FileIterator implements RelationalInput {
     return Collections.unmodifiableList(headerList);
   }
 
-  protected List<String> readNextLine() throws InputIterationException {
+  protected String[] readNextLine() throws InputIterationException {
     String[] lineArray;
     try {
       lineArray = this.csvReader.readNext();
@@ -148,21 +181,15 @@ public class FileIterator implements RelationalInput {
     } catch (IOException e) {
       throw new InputIterationException("Could not read next line in file input", e);
     }
-    if (lineArray == null) {
-      return null;
-    } else {
+    if (lineArray != null) {
       // Convert empty Strings to null
-      List<String> list = new ArrayList<String>();
-      for (String val : lineArray) {
-        if (val.equals(this.nullValue)) {
-          list.add(null);
-        } else {
-          list.add(val);
+      for (int i = 0; i < lineArray.length; i++) {
+        if (lineArray[i].equals(this.nullValue)) {
+          lineArray[i] = null;
         }
       }
-      // Return an immutable list
-      return Collections.unmodifiableList(list);
     }
+    return lineArray;
   }
 
   @Override
@@ -0,0 +1,752 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.backend.input.file;
+
+import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link MappedFileIterator}s are Iterators over lines in a memory mapped file. In contrast to the
+ * {@link FileIterator} the file is not read through a {@link java.io.Reader}, the bytes are
+ * tokenized directly. A row only stores the byte ranges of its cells, the Strings are created when
+ * a cell is requested. The rows follow the quoting and escaping rules of the {@link FileIterator}
+ * (opencsv), a UTF-8 byte order mark is skipped. Unlike opencsv, the quote state does not carry
+ * over from the previous record, so a record starting with an empty quoted cell ("") starts with
+ * an empty cell instead of a quote.
+ *
+ * The separator, quote and escape characters have to be ASCII characters and the charset has to
+ * encode ASCII characters as single bytes, e.g. UTF-8 or ISO-8859-1.
+ */
+public class MappedFileIterator implements RelationalInput {
+
+  // Files are mapped in segments, because a mapping cannot be larger than 2 GB.
+  protected static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+  protected static final byte[] UTF8_BYTE_ORDER_MARK = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+  // Lies outside the range of signed bytes, so no byte of the file matches an unused character.
+  protected static final int UNUSED_CHARACTER = Integer.MIN_VALUE;
+  // Marks cells that have not been converted into Strings yet, compared by reference.
+  protected static final String UNMATERIALIZED = new String();
+
+  protected RandomAccessFile file;
+  protected MappedByteBuffer[] segments;
+  protected int segmentShift;
+  protected int segmentMask;
+  protected long fileSize;
+  // Offset of the next record
+  protected long position = 0;
+  // Offset after the last record, the file size unless the iterator reads a chunk of the file
+  protected long end;
+  // Offset of the lookahead record
+  protected long nextLineStart;
+
+  protected Charset charset;
+  protected char separator;
+  protected char quote;
+  protected char escape;
+  protected boolean strictQuotes;
+  protected boolean ignoreLeadingWhiteSpace;
+  protected String nullValue;
+  protected byte[] nullValueBytes;
+  // The special characters as bytes, UNUSED_CHARACTER if the character is not used ('\0').
+  protected int separatorByte;
+  protected int quoteByte;
+  protected int escapeByte;
+
+  // Cell ranges of the record that is currently tokenized, reused for every record.
+  protected long[] cellBounds = new long[64];
+  protected boolean[] plainCells = new boolean[32];
+
+  protected List<String> headerLine;
+  protected List<String> nextLine;
+  protected String relationName;
+  protected int numberOfColumns = 0;
+  // Initialized to -1 because of lookahead
+  protected int currentLineNumber = -1;
+  protected int numberOfSkippedLines = 0;
+
+  protected boolean hasHeader;
+  protected boolean skipDifferingLines;
+
+  /**
+   * Maps the file and reads it with the default charset.
+   *
+   * @param relationName the name of the relation
+   * @param file         the csv file
+   * @param setting      the parser settings
+   * @throws InputIterationException if the file cannot be mapped or the first line cannot be read
+   */
+  public MappedFileIterator(String relationName, File file,
+                            ConfigurationSettingFileInput setting)
+    throws InputIterationException {
+    this(relationName, file, setting, Charset.defaultCharset());
+  }
+
+  /**
+   * @param relationName the name of the relation
+   * @param file         the csv file
+   * @param setting      the parser settings
+   * @param charset      the charset of the file
+   * @throws InputIterationException if the file cannot be mapped or the first line cannot be read
+   */
+  public MappedFileIterator(String relationName, File file,
+                            ConfigurationSettingFileInput setting, Charset charset)
+    throws InputIterationException {
+    this(relationName, file, setting, charset, DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * @param segmentSize the size of the mapped segments, has to be a power of two
+   */
+  protected MappedFileIterator(String relationName, File file,
+                               ConfigurationSettingFileInput setting, Charset charset,
+                               int segmentSize)
+    throws InputIterationException {
+    if (Integer.bitCount(segmentSize) != 1) {
+      throw new IllegalArgumentException("The segment size has to be a power of two.");
+    }
+    this.relationName = relationName;
+    this.charset = charset;
+
+    this.hasHeader = setting.hasHeader();
+    this.skipDifferingLines = setting.isSkipDifferingLines();
+    this.nullValue = setting.getNullValue();
+    this.separator = setting.getSeparatorAsChar();
+    this.quote = setting.getQuoteCharAsChar();
+    this.escape = setting.getEscapeCharAsChar();
+    this.strictQuotes = setting.isStrictQuotes();
+    this.ignoreLeadingWhiteSpace = setting.isIgnoreLeadingWhiteSpace();
+    checkCharset();
+    this.separatorByte = toByte(separator);
+    this.quoteByte = toByte(quote);
+    this.escapeByte = toByte(escape);
+    this.nullValueBytes = (nullValue == null) ? null : nullValue.getBytes(charset);
+
+    this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+    this.segmentMask = segmentSize - 1;
+    mapFile(file);
+    skipByteOrderMark();
+    skipLines(setting.getSkipLines());
+
+    this.nextLine = readNextLine();
+    if (this.nextLine != null) {
+      this.numberOfColumns = this.nextLine.size();
+    }
+
+    if (hasHeader) {
+      this.headerLine = (this.nextLine == null) ? null
+        : Collections.unmodifiableList(new ArrayList<>(this.nextLine));
+      next();
+    }
+
+    // If the header is still null generate a standard header the size of number of columns.
+    if (this.headerLine == null) {
+      this.headerLine = generateHeaderLine();
+    }
+  }
+
+  /**
+   * Creates an iterator over the records in [start, end) of the source's file. The chunk shares the
+   * mapping, the settings, the header and the number of columns of the source.
+   *
+   * @param source the iterator over the whole file
+   * @param start  the offset of the chunk's first record
+   * @param end    the offset after the chunk's last record
+   * @throws InputIterationException if the first line cannot be read
+   */
+  protected MappedFileIterator(MappedFileIterator source, long start, long end)
+    throws InputIterationException {
+    this.relationName = source.relationName;
+    this.charset = source.charset;
+    this.hasHeader = source.hasHeader;
+    this.skipDifferingLines = source.skipDifferingLines;
+    this.nullValue = source.nullValue;
+    this.nullValueBytes = source.nullValueBytes;
+    this.separator = source.separator;
+    this.quote = source.quote;
+    this.escape = source.escape;
+    this.strictQuotes = source.strictQuotes;
+    this.ignoreLeadingWhiteSpace = source.ignoreLeadingWhiteSpace;
+    this.separatorByte = source.separatorByte;
+    this.quoteByte = source.quoteByte;
+    this.escapeByte = source.escapeByte;
+
+    this.segments = source.segments;
+    this.segmentShift = source.segmentShift;
+    this.segmentMask = source.segmentMask;
+    this.fileSize = source.fileSize;
+    this.position = start;
+    this.end = end;
+
+    this.headerLine = source.headerLine;
+    this.numberOfColumns = source.numberOfColumns;
+    this.nextLine = readNextLine();
+    if (this.skipDifferingLines) {
+      readToNextValidLine();
+    }
+  }
+
+  /**
+   * Splits the remaining records into chunks of about the same size in bytes. The chunks start at
+   * record boundaries, which are found by tokenizing the records, so quoted line breaks are never
+   * split. The chunks can be read concurrently, this iterator is not changed.
+   *
+   * @param numberOfChunks the maximal number of chunks
+   * @return iterators over the consecutive chunks
+   * @throws InputIterationException if the first line of a chunk cannot be read
+   */
+  public List<MappedFileIterator> split(int numberOfChunks) throws InputIterationException {
+    return split(findChunkStarts(numberOfChunks));
+  }
+
+  /**
+   * Finds the starts of chunks of about the same size in bytes by tokenizing the remaining records.
+   * The starts stay valid as long as the file is not changed, so they can be reused by {@link
+   * #split(long[])} for later iterators over the same file with the same settings.
+   *
+   * @param numberOfChunks the maximal number of chunks
+   * @return the offsets of the chunks' first records in ascending order
+   */
+  public long[] findChunkStarts(int numberOfChunks) {
+    if (numberOfChunks < 1) {
+      throw new IllegalArgumentException("The number of chunks has to be positive.");
+    }
+
+    long start = hasNext() ? nextLineStart : end;
+    long savedPosition = position;
+    List<Long> chunkStarts = new ArrayList<>();
+    chunkStarts.add(start);
+    position = start;
+    for (int chunk = 1; chunk < numberOfChunks && position < end; chunk++) {
+      long target = start + (end - start) * chunk / numberOfChunks;
+      while (position < end && position < target) {
+        tokenizeRecord();
+      }
+      if (position < end && position > chunkStarts.get(chunkStarts.size() - 1)) {
+        chunkStarts.add(position);
+      }
+    }
+    position = savedPosition;
+
+    long[] result = new long[chunkStarts.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = chunkStarts.get(i);
+    }
+    return result;
+  }
+
+  /**
+   * Splits the file into chunks at the given record starts, e.g. found by {@link
+   * #findChunkStarts(int)} on an iterator over the same file. The last chunk ends with this
+   * iterator's end.
+   *
+   * @param chunkStarts the offsets of the chunks' first records in ascending order
+   * @return iterators over the consecutive chunks
+   * @throws InputIterationException if the first line of a chunk cannot be read
+   */
+  public List<MappedFileIterator> split(long[] chunkStarts) throws InputIterationException {
+    List<MappedFileIterator> chunks = new ArrayList<>(chunkStarts.length);
+    for (int i = 0; i < chunkStarts.length; i++) {
+      long chunkEnd = (i + 1 < chunkStarts.length) ? chunkStarts[i + 1] : end;
+      chunks.add(new MappedFileIterator(this, chunkStarts[i], chunkEnd));
+    }
+    return chunks;
+  }
+
+  /**
+   * Tokenizing bytes is only correct if the special characters and line breaks are single bytes
+   * that cannot be part of other characters.
+   */
+  protected void checkCharset() {
+    String specialCharacters = "\n\r" + separator + quote + escape;
+    byte[] encoded = specialCharacters.getBytes(charset);
+    if (encoded.length != specialCharacters.length()) {
+      throw new IllegalArgumentException(
+        "The charset " + charset + " does not encode ASCII characters as single bytes.");
+    }
+    for (int i = 0; i < encoded.length; i++) {
+      if (specialCharacters.charAt(i) > 127 || encoded[i] != specialCharacters.charAt(i)) {
+        throw new IllegalArgumentException(
+          "The separator, quote and escape characters have to be ASCII characters.");
+      }
+    }
+  }
+
+  protected static int toByte(char character) {
+    return (character == '\0') ? UNUSED_CHARACTER : character;
+  }
+
+  protected void mapFile(File inputFile) throws InputIterationException {
+    try {
+      this.file = new RandomAccessFile(inputFile, "r");
+      FileChannel channel = file.getChannel();
+      this.fileSize = channel.size();
+      this.end = fileSize;
+
+      int numberOfSegments = (int) ((fileSize + segmentMask) >>> segmentShift);
+      this.segments = new MappedByteBuffer[numberOfSegments];
+      for (int i = 0; i < numberOfSegments; i++) {
+        long segmentStart = (long) i << segmentShift;
+        long segmentLength = Math.min(fileSize - segmentStart, segmentMask + 1L);
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentLength);
+      }
+    } catch (IOException e) {
+      throw new InputIterationException("Could not map the file input", e);
+    }
+  }
+
+  protected void skipByteOrderMark() {
+    if (!"UTF-8".equals(charset.name()) || fileSize < UTF8_BYTE_ORDER_MARK.length) {
+      return;
+    }
+    for (int i = 0; i < UTF8_BYTE_ORDER_MARK.length; i++) {
+      if (byteAt(i) != UTF8_BYTE_ORDER_MARK[i]) {
+        return;
+      }
+    }
+    position = UTF8_BYTE_ORDER_MARK.length;
+  }
+
+  /**
+   * Skips physical lines like the {@link au.com.bytecode.opencsv.CSVReader}, quotes are not
+   * considered.
+   *
+   * @param numberOfLines the number of lines to skip
+   */
+  protected void skipLines(int numberOfLines) {
+    for (int line = 0; line < numberOfLines && position < fileSize; line++) {
+      while (position < fileSize) {
+        byte current = byteAt(position++);
+        if (current == '\n') {
+          break;
+        }
+        if (current == '\r') {
+          if (position < fileSize && byteAt(position) == '\n') {
+            position++;
+          }
+          break;
+        }
+      }
+    }
+  }
+
+  protected byte byteAt(long offset) {
+    return segments[(int) (offset >>> segmentShift)].get((int) (offset & segmentMask));
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !(this.nextLine == null);
+  }
+
+  @Override
+  public List<String> next() throws InputIterationException {
+    List<String> currentLine = this.nextLine;
+
+    if (currentLine == null) {
+      return null;
+    }
+    this.nextLine = readNextLine();
+
+    if (this.skipDifferingLines) {
+      readToNextValidLine();
+    } else {
+      failDifferingLine(currentLine);
+    }
+
+    return currentLine;
+  }
+
+  protected void failDifferingLine(List<String> currentLine)
+    throws InputIterationException {
+    if (currentLine.size() != this.numberOfColumns()) {
+      throw new InputIterationException(
+        "Csv line length did not match on line " + currentLineNumber);
+    }
+  }
+
+  protected void readToNextValidLine() throws InputIterationException {
+    if (!hasNext()) {
+      return;
+    }
+
+    while (this.nextLine.size() != this.numberOfColumns()) {
+      this.nextLine = readNextLine();
+      this.numberOfSkippedLines++;
+      if (!hasNext()) {
+        break;
+      }
+    }
+  }
+
+  protected List<String> generateHeaderLine() {
+    List<String> headerList = new ArrayList<String>();
+    for (Integer i = 1; i <= this.numberOfColumns; i++) {
+      headerList.add(FileIterator.DEFAULT_HEADER_STRING + i.toString());
+    }
+    return Collections.unmodifiableList(headerList);
+  }
+
+  protected List<String> readNextLine() {
+    if (position >= end) {
+      return null;
+    }
+    nextLineStart = position;
+    currentLineNumber++;
+
+    int numberOfCells = tokenizeRecord();
+    return new MappedRow(Arrays.copyOf(cellBounds, 2 * numberOfCells),
+      Arrays.copyOf(plainCells, numberOfCells));
+  }
+
+  /**
+   * Finds the cells of the record at the current position and moves the position to the next
+   * record. The quote and escape handling mirrors the {@link au.com.bytecode.opencsv.CSVParser}.
+   * Cells without quote and escape characters and cells that are simply enclosed in quotes are
+   * marked as plain, the bytes in their range are the cell's value.
+   *
+   * @return the number of cells in the record
+   */
+  protected int tokenizeRecord() {
+    int numberOfCells = 0;
+    long cellStart = position;
+    int numberOfQuotes = 0;
+    boolean plain = true;
+    boolean inQuotes = false;
+    boolean inField = false;
+
+    long offset = position;
+    long recordEnd = -1;
+    // The current segment is cached, records rarely cross segment borders.
+    ByteBuffer segment = null;
+    long segmentStart = 0;
+    long segmentEnd = 0;
+    while (recordEnd == -1) {
+      if (offset >= fileSize) {
+        recordEnd = offset;
+        break;
+      }
+      if (offset >= segmentEnd) {
+        segment = segments[(int) (offset >>> segmentShift)];
+        segmentStart = offset & ~((long) segmentMask);
+        segmentEnd = segmentStart + segment.limit();
+      }
+      byte current = segment.get((int) (offset - segmentStart));
+      if (current == escapeByte) {
+        plain = false;
+        if ((inQuotes || inField) && isEscapable(offset + 1)) {
+          offset++;
+        }
+      } else if (current == quoteByte) {
+        if ((inQuotes || inField) && offset + 1 < fileSize && byteAt(offset + 1) == quoteByte) {
+          offset++;
+          plain = false;
+        } else {
+          inQuotes = !inQuotes;
+          numberOfQuotes++;
+        }
+        inField = !inField;
+      } else if (inQuotes) {
+        // Separators and line breaks in quotes are part of the cell, '\r' is converted.
+        inField = true;
+        if (current == '\r') {
+          plain = false;
+        }
+      } else if (current == separatorByte) {
+        numberOfCells = addCell(numberOfCells, cellStart, offset, numberOfQuotes, plain);
+        cellStart = offset + 1;
+        numberOfQuotes = 0;
+        plain = true;
+        inField = false;
+      } else if (current == '\n' || current == '\r') {
+        recordEnd = offset;
+      } else if (!strictQuotes) {
+        inField = true;
+      } else {
+        // Strict quotes drop characters outside of quotes.
+        plain = false;
+      }
+      offset++;
+    }
+
+    numberOfCells = addCell(numberOfCells, cellStart, recordEnd, numberOfQuotes, plain);
+    position = recordEnd + 1;
+    if (position < fileSize && byteAt(recordEnd) == '\r' && byteAt(position) == '\n') {
+      position++;
+    }
+    return numberOfCells;
+  }
+
+  protected boolean isEscapable(long offset) {
+    if (offset >= fileSize) {
+      return false;
+    }
+    byte next = byteAt(offset);
+    return next == quoteByte || next == escapeByte;
+  }
+
+  /**
+   * Adds the cell's range to the record. Plain cells that are enclosed in quotes are stored without
+   * the quotes.
+   *
+   * @param numberOfCells  the number of cells in the record so far
+   * @param start          the offset of the cell's first byte
+   * @param end            the offset after the cell's last byte
+   * @param numberOfQuotes the number of opening and closing quotes in the cell
+   * @param plain          the cell contains no escape characters, doubled quotes or characters
+   *                       dropped by strict quotes
+   * @return the number of cells in the record
+   */
+  protected int addCell(int numberOfCells, long start, long end, int numberOfQuotes,
+                        boolean plain) {
+    if (numberOfQuotes == 2 && plain && byteAt(start) == quoteByte
+      && byteAt(end - 1) == quoteByte) {
+      start++;
+      end--;
+    } else if (numberOfQuotes > 0) {
+      plain = false;
+    }
+
+    if (2 * numberOfCells + 2 > cellBounds.length) {
+      cellBounds = Arrays.copyOf(cellBounds, 2 * cellBounds.length);
+      plainCells = Arrays.copyOf(plainCells, 2 * plainCells.length);
+    }
+    cellBounds[2 * numberOfCells] = start;
+    cellBounds[2 * numberOfCells + 1] = end;
+    plainCells[numberOfCells] = plain;
+    return numberOfCells + 1;
+  }
+
+  /**
+   * Converts the bytes of a cell into its value. Plain cells equal to the null value are compared
+   * on the bytes without decoding them.
+   *
+   * @param start the offset of the cell's first byte
+   * @param end   the offset after the cell's last byte
+   * @param plain the bytes of the cell are its value
+   * @return the cell's value or null if it equals the null value
+   */
+  protected String materialize(long start, long end, boolean plain) {
+    int length = (int) (end - start);
+    if (plain && nullValueBytes != null && length == nullValueBytes.length
+      && bytesEqual(start, nullValueBytes)) {
+      return null;
+    }
+
+    String value = new String(readBytes(start, length), charset);
+    if (!plain) {
+      value = unescape(value, linePosition(start));
+      if (value.equals(nullValue)) {
+        return null;
+      }
+    }
+    return value;
+  }
+
+  protected boolean bytesEqual(long start, byte[] bytes) {
+    for (int i = 0; i < bytes.length; i++) {
+      if (byteAt(start + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected byte[] readBytes(long start, int length) {
+    byte[] bytes = new byte[length];
+    ByteBuffer segment = segments[(int) (start >>> segmentShift)];
+    int index = (int) (start & segmentMask);
+    if (index + length <= segment.limit()) {
+      for (int i = 0; i < length; i++) {
+        bytes[i] = segment.get(index + i);
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        bytes[i] = byteAt(start + i);
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Returns the position of a byte in its physical line in chars. The {@link
+   * au.com.bytecode.opencsv.CSVParser} only distinguishes the first three positions of a line, so
+   * larger positions are returned as 3.
+   *
+   * @param offset the offset of the byte
+   * @return the number of chars between the line start and the byte, at most 3
+   */
+  protected int linePosition(long offset) {
+    // A char has at most four bytes.
+    long lineStart = offset;
+    while (lineStart > 0 && offset - lineStart < 12) {
+      byte previous = byteAt(lineStart - 1);
+      if (previous == '\n' || previous == '\r') {
+        break;
+      }
+      lineStart--;
+    }
+    if (offset - lineStart >= 12) {
+      return 3;
+    }
+    String prefix = new String(readBytes(lineStart, (int) (offset - lineStart)), charset);
+    return Math.min(prefix.length(), 3);
+  }
+
+  /**
+   * Removes quotes and escape characters from a cell like the {@link
+   * au.com.bytecode.opencsv.CSVParser}. Line breaks in quotes are converted into '\n'. Like the
+   * CSVParser a quote is kept if it is not among the first three chars of its physical line and
+   * not next to a separator or line end.
+   *
+   * @param cell         the raw cell
+   * @param linePosition the position of the cell's start in its physical line
+   * @return the cell's value
+   */
+  protected String unescape(String cell, int linePosition) {
+    StringBuilder value = new StringBuilder(cell.length());
+    boolean inQuotes = false;
+    boolean inField = false;
+    // The index of the current line's start, the first line may start before the cell.
+    int lineStart = -linePosition;
+    for (int i = 0; i < cell.length(); i++) {
+      char current = cell.charAt(i);
+      boolean hasNext = i + 1 < cell.length();
+      if (current == escape && escape != '\0') {
+        if ((inQuotes || inField) && hasNext
+          && (cell.charAt(i + 1) == quote || cell.charAt(i + 1) == escape)) {
+          value.append(cell.charAt(i + 1));
+          i++;
+        }
+      } else if (current == quote && quote != '\0') {
+        if ((inQuotes || inField) && hasNext && cell.charAt(i + 1) == quote) {
+          value.append(current);
+          i++;
+        } else {
+          // A quote in the middle of a line, e.g. bc"d"ef, is kept. The cell starts after a
+          // separator or at a line start, so its first char is never kept.
+          if (!strictQuotes && i - lineStart > 2 && i > 0 && cell.charAt(i - 1) != separator
+            && hasNext && cell.charAt(i + 1) != separator && cell.charAt(i + 1) != '\n'
+            && cell.charAt(i + 1) != '\r') {
+            if (ignoreLeadingWhiteSpace && value.length() > 0 && isAllWhiteSpace(value)) {
+              value.setLength(0);
+            } else {
+              value.append(current);
+            }
+          }
+          inQuotes = !inQuotes;
+        }
+        inField = !inField;
+      } else if (current == '\r' && inQuotes) {
+        value.append('\n');
+        if (hasNext && cell.charAt(i + 1) == '\n') {
+          i++;
+        }
+        lineStart = i + 1;
+      } else if (!strictQuotes || inQuotes) {
+        value.append(current);
+        inField = true;
+        if (current == '\n') {
+          lineStart = i + 1;
+        }
+      }
+    }
+    return value.toString();
+  }
+
+  protected boolean isAllWhiteSpace(CharSequence sequence) {
+    for (int i = 0; i < sequence.length(); i++) {
+      if (!Character.isWhitespace(sequence.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    // The mappings stay valid until they are garbage collected, rows can still be read.
+    if (file != null) {
+      file.close();
+    }
+  }
+
+  @Override
+  public int numberOfColumns() {
+    return numberOfColumns;
+  }
+
+  @Override
+  public String relationName() {
+    return relationName;
+  }
+
+  @Override
+  public List<String> columnNames() {
+    return headerLine;
+  }
+
+  public int getNumberOfSkippedDifferingLines() {
+    return numberOfSkippedLines;
+  }
+
+  /**
+   * An immutable row that creates the Strings of its cells on the first access.
+   */
+  protected class MappedRow extends AbstractList<String> {
+
+    // Start and end offset of every cell
+    protected long[] bounds;
+    protected boolean[] plain;
+    protected String[] values;
+
+    public MappedRow(long[] bounds, boolean[] plain) {
+      this.bounds = bounds;
+      this.plain = plain;
+      this.values = new String[plain.length];
+      Arrays.fill(values, UNMATERIALIZED);
+    }
+
+    @Override
+    public String get(int index) {
+      String value = values[index];
+      if (value == UNMATERIALIZED) {
+        value = materialize(bounds[2 * index], bounds[2 * index + 1], plain[index]);
+        values[index] = value;
+      }
+      return value;
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.backend.input.file;
+
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Reads consecutive chunks of a relation, e.g. from {@link MappedFileIterator#split(int)}, on one
+ * thread per chunk and returns their rows in order. Every thread parses the cells of its chunk and
+ * buffers a bounded number of row batches, so parsing scales with the number of chunks while the
+ * rows are consumed sequentially. Rows are handed over in batches to keep the synchronization
+ * cost per row low.
+ */
+public class ParallelFileIterator implements RelationalInput {
+
+  public static final int DEFAULT_QUEUE_CAPACITY = 16;
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+
+  // Marks the end of a chunk, compared by reference.
+  protected static final List<List<String>> END_OF_CHUNK =
+    Collections.unmodifiableList(new ArrayList<List<String>>());
+
+  protected List<ChunkReader> chunkReaders;
+  protected ExecutorService executor;
+  protected int currentChunk = 0;
+  protected List<List<String>> currentBatch = END_OF_CHUNK;
+  protected int currentBatchIndex = 0;
+
+  protected String relationName;
+  protected List<String> columnNames;
+  protected int numberOfColumns;
+
+  /**
+   * @param chunks the consecutive chunks of the relation
+   */
+  public ParallelFileIterator(List<? extends RelationalInput> chunks) {
+    this(chunks, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * @param chunks        the consecutive chunks of the relation
+   * @param queueCapacity the maximal number of buffered batches per chunk
+   */
+  public ParallelFileIterator(List<? extends RelationalInput> chunks, int queueCapacity) {
+    this(chunks, queueCapacity, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * @param chunks        the consecutive chunks of the relation
+   * @param queueCapacity the maximal number of buffered batches per chunk
+   * @param batchSize     the number of rows per batch
+   */
+  public ParallelFileIterator(List<? extends RelationalInput> chunks, int queueCapacity,
+                              int batchSize) {
+    if (chunks.isEmpty()) {
+      throw new IllegalArgumentException("There has to be at least one chunk.");
+    }
+    RelationalInput firstChunk = chunks.get(0);
+    this.relationName = firstChunk.relationName();
+    this.columnNames = firstChunk.columnNames();
+    this.numberOfColumns = firstChunk.numberOfColumns();
+
+    // Every chunk needs its own thread, otherwise a full queue of a later chunk could block the
+    // thread an earlier chunk is waiting for.
+    this.executor = Executors.newFixedThreadPool(chunks.size(), new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        // Readers of an input that is not closed must not keep the vm alive.
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.chunkReaders = new ArrayList<>(chunks.size());
+    for (RelationalInput chunk : chunks) {
+      ChunkReader chunkReader = new ChunkReader(chunk, queueCapacity, batchSize);
+      chunkReaders.add(chunkReader);
+      executor.execute(chunkReader);
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws InputIterationException {
+    while (currentBatchIndex >= currentBatch.size()) {
+      if (currentChunk >= chunkReaders.size()) {
+        executor.shutdown();
+        return false;
+      }
+      try {
+        currentBatch = chunkReaders.get(currentChunk).take();
+      } catch (InputIterationException e) {
+        // A failed chunk ends the iteration, readers of later chunks must not wait for consumers.
+        currentChunk = chunkReaders.size();
+        executor.shutdownNow();
+        throw e;
+      }
+      currentBatchIndex = 0;
+      if (currentBatch == END_OF_CHUNK) {
+        currentChunk++;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public List<String> next() throws InputIterationException {
+    if (!hasNext()) {
+      return null;
+    }
+    return currentBatch.get(currentBatchIndex++);
+  }
+
+  /**
+   * Stops the threads reading the chunks.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  @Override
+  public int numberOfColumns() {
+    return numberOfColumns;
+  }
+
+  @Override
+  public String relationName() {
+    return relationName;
+  }
+
+  @Override
+  public List<String> columnNames() {
+    return columnNames;
+  }
+
+  /**
+   * Reads all rows of a chunk in batches into a bounded queue and closes the chunk.
+   */
+  protected static class ChunkReader implements Runnable {
+
+    protected RelationalInput chunk;
+    protected int batchSize;
+    protected BlockingQueue<List<List<String>>> batches;
+    protected volatile Throwable failure;
+
+    public ChunkReader(RelationalInput chunk, int queueCapacity, int batchSize) {
+      this.chunk = chunk;
+      this.batchSize = batchSize;
+      this.batches = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void run() {
+      try {
+        List<List<String>> batch = new ArrayList<>(batchSize);
+        try {
+          while (chunk.hasNext()) {
+            List<String> row = chunk.next();
+            // Parse all cells on this thread.
+            for (int i = 0; i < row.size(); i++) {
+              row.get(i);
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+              batches.put(batch);
+              batch = new ArrayList<>(batchSize);
+            }
+          }
+        } catch (InputIterationException | RuntimeException | Error e) {
+          // Any failure ends the chunk, so that the consumer does not wait forever.
+          failure = e;
+        }
+        if (!batch.isEmpty()) {
+          batches.put(batch);
+        }
+        batches.put(END_OF_CHUNK);
+      } catch (InterruptedException e) {
+        // The iterator was closed.
+      } finally {
+        try {
+          chunk.close();
+        } catch (Exception e) {
+          // The rows have been read.
+        }
+      }
+    }
+
+    /**
+     * @return the next batch of rows or END_OF_CHUNK
+     * @throws InputIterationException if the chunk could not be read
+     */
+    public List<List<String>> take() throws InputIterationException {
+      List<List<String>> batch;
+      try {
+        batch = batches.take();
+      } catch (InterruptedException e) {
+        throw new InputIterationException("Interrupted while waiting for the next rows", e);
+      }
+      if (batch == END_OF_CHUNK && failure != null) {
+        throw new InputIterationException("Could not read a chunk of the file input", failure);
+      }
+      return batch;
+    }
+  }
+}
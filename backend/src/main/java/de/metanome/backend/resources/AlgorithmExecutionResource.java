@@ -28,6 +28,7 @@ import de.metanome.backend.configuration.DefaultConfigurationFactory;
 import de.metanome.backend.helper.FileInputGeneratorMixIn;
 import de.metanome.backend.helper.RelationalInputGeneratorMixIn;
 import de.metanome.backend.helper.TableInputGeneratorMixIn;
+import de.metanome.backend.input.cache.ColumnarInputCache;
 import de.metanome.backend.result_postprocessing.ResultPostProcessor;
 import de.metanome.backend.results_db.*;
 import org.hibernate.criterion.Criterion;
@@ -283,15 +284,27 @@ public class AlgorithmExecutionResource {
       ex.printStackTrace();
     }
 
-    ProcessBuilder builder;
+    List<String> command = new ArrayList<>();
+    command.add(javaBin);
     if (!memory.equals("")) {
-      builder = new ProcessBuilder(
-        javaBin, "-Xmx" + memory + "m", "-Xms" + memory + "m", "-classpath", myPath, className,
-        algorithmId, executionIdentifier);
-    } else {
-      builder = new ProcessBuilder(
-        javaBin, "-classpath", myPath, className, algorithmId, executionIdentifier);
+      command.add("-Xmx" + memory + "m");
+      command.add("-Xms" + memory + "m");
     }
+    // Executions share the cache of parsed inputs.
+    for (String property : new String[]{ColumnarInputCache.DIRECTORY_PROPERTY,
+      ColumnarInputCache.TABLES_PROPERTY}) {
+      String value = System.getProperty(property);
+      if (value != null) {
+        command.add("-D" + property + "=" + value);
+      }
+    }
+    command.add("-classpath");
+    command.add(myPath);
+    command.add(className);
+    command.add(algorithmId);
+    command.add(executionIdentifier);
+
+    ProcessBuilder builder = new ProcessBuilder(command);
     builder.redirectErrorStream(true);
 
     return builder.start();
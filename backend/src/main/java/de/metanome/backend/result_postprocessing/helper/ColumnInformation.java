@@ -110,32 +110,69 @@ public class ColumnInformation {
    */
   protected void createHistogramAndDetermineType(RelationalInput relationalInput)
     throws InputIterationException {
-    this.histogram = new Histogram();
-    this.rowCount = 0L;
-
-    Map<ColumnType, Integer> columnTypeMap = new EnumMap<>(ColumnType.class);
+    this.startDataDependentStatistics();
 
     // iterate over data and add each cell value to the histogram
     while (relationalInput.hasNext()) {
       List<String> row = relationalInput.next();
-      String cellValue = row.get(this.columnIndex);
-
-      // determine type of cell and store it in a map
-      if (cellValue != null) {
-        ColumnType type = getCellType(cellValue);
-        if (columnTypeMap.containsKey(type)) {
-          columnTypeMap.put(type, columnTypeMap.get(type) + 1);
-        } else {
-          columnTypeMap.put(type, 1);
-        }
-      }
-      // add value to histogram
-      this.histogram.addValue(cellValue);
-
-      this.rowCount++;
+      this.addValue(row.get(this.columnIndex));
     }
     // determine column type
-    this.columnType = determineColumnType(columnTypeMap);
+    this.columnType = determineColumnType(this.countColumnTypes());
+  }
+
+  /**
+   * Resets the histogram, so that the column values can be added one by one with {@link
+   * #addValue(String)}. This way the statistics of all columns can be computed in one pass over the
+   * input.
+   */
+  protected void startDataDependentStatistics() {
+    this.histogram = new Histogram();
+    this.rowCount = 0L;
+  }
+
+  /**
+   * Adds the next value of the column to the histogram
+   *
+   * @param cellValue the cell value, null for null values
+   */
+  protected void addValue(String cellValue) {
+    this.histogram.addValue(cellValue);
+    this.rowCount++;
+  }
+
+  /**
+   * Computes the column type and all other data dependent statistics once all column values have
+   * been added with {@link #addValue(String)}.
+   */
+  protected void finishDataDependentStatistics() {
+    this.columnType = determineColumnType(this.countColumnTypes());
+    this.computeDistinctValuesCount();
+    this.computeNullValuesCount();
+    this.computeAverageLength();
+  }
+
+  /**
+   * Counts the cells of each type. The type is determined once per distinct value of the
+   * histogram and counted with the value's number of occurrences.
+   *
+   * @return map holding a count for each occurring column type
+   */
+  protected Map<ColumnType, Long> countColumnTypes() {
+    Map<ColumnType, Long> columnTypeMap = new EnumMap<>(ColumnType.class);
+    for (Map.Entry<String, Long> entry : this.histogram.getHistogramData().entrySet()) {
+      // null values have no type
+      if (entry.getKey() == null) {
+        continue;
+      }
+      ColumnType type = getCellType(entry.getKey());
+      if (columnTypeMap.containsKey(type)) {
+        columnTypeMap.put(type, columnTypeMap.get(type) + entry.getValue());
+      } else {
+        columnTypeMap.put(type, entry.getValue());
+      }
+    }
+    return columnTypeMap;
   }
 
   /**
@@ -163,10 +200,10 @@ public class ColumnInformation {
    * @param columnTypeMap map holding a count for each possible column type
    * @return the column type with the highest occurrence
    */
-  private ColumnType determineColumnType(Map<ColumnType, Integer> columnTypeMap) {
+  private ColumnType determineColumnType(Map<ColumnType, Long> columnTypeMap) {
     ColumnType columnType = ColumnType.STRING_COLUMN;
-    Integer count = 0;
-    for (Map.Entry<ColumnType, Integer> entry : columnTypeMap.entrySet()) {
+    long count = 0;
+    for (Map.Entry<ColumnType, Long> entry : columnTypeMap.entrySet()) {
       if (entry.getValue() > count) {
         columnType = entry.getKey();
         count = entry.getValue();
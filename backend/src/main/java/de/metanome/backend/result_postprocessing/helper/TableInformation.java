@@ -16,20 +16,34 @@
 
 package de.metanome.backend.result_postprocessing.helper;
 
+import de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset;
+import de.metanome.algorithm_helper.data_structures.PLICache;
 import de.metanome.algorithm_helper.data_structures.PositionListIndex;
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+import de.metanome.algorithm_integration.input.BatchRelationalInput;
+import de.metanome.algorithm_integration.input.BatchRelationalInputAdapter;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputGenerationException;
 import de.metanome.algorithm_integration.input.InputIterationException;
 import de.metanome.algorithm_integration.input.RelationalInput;
 import de.metanome.algorithm_integration.input.RelationalInputGenerator;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Provides metadata and statistics about a table including all columns
  */
 public class TableInformation {
 
+  // Number of bytes of intersected PLIs to cache
+  public static final long DEFAULT_PLI_CACHE_BUDGET = Runtime.getRuntime().maxMemory() / 4;
+  // Number of rows read at once when computing the data dependent statistics
+  public static final int BATCH_SIZE = 1024;
+
   // Number of columns
   private int columnCount;
   // Table name
@@ -42,6 +56,8 @@ public class TableInformation {
   private BitSet bitSet;
   // Map of the column indices to the corresponding position list index
   private Map<BitSet, PositionListIndex> PLIs;
+  // Cache of the intersected position list indices
+  private PLICache pliCache;
 
   /**
    * Computes table metadata on the input data
@@ -59,6 +75,32 @@ public class TableInformation {
                           boolean useDataIndependentStatistics,
                           BitSet bitSet)
     throws InputGenerationException, InputIterationException, AlgorithmConfigurationException {
+    this(relationalInputGenerator, useDataIndependentStatistics, bitSet, 1);
+  }
+
+  /**
+   * Computes table metadata on the input data. The data dependent statistics of all columns are
+   * computed in a single pass over the input. With more than one thread, the columns are divided
+   * among the threads, which process a batch of rows while the next batch is read.
+   *
+   * @param relationalInputGenerator     The input data generator providing access to the input data
+   *                                     stream
+   * @param useDataIndependentStatistics true, if data dependent statistics should be calculated,
+   *                                     false otherwise
+   * @param bitSet                       bit set, which represents this table
+   * @param numberOfThreads              number of threads computing the column statistics
+   * @throws InputGenerationException Will be thrown if the input data is not accessible
+   * @throws de.metanome.algorithm_integration.input.InputIterationException if the input is not iterable
+   * @throws de.metanome.algorithm_integration.AlgorithmConfigurationException if input generator could not be build
+   */
+  public TableInformation(RelationalInputGenerator relationalInputGenerator,
+                          boolean useDataIndependentStatistics,
+                          BitSet bitSet,
+                          int numberOfThreads)
+    throws InputGenerationException, InputIterationException, AlgorithmConfigurationException {
+    if (numberOfThreads < 1) {
+      throw new IllegalArgumentException("The number of threads has to be positive.");
+    }
     this.relationalInputGenerator = relationalInputGenerator;
     this.bitSet = bitSet;
 
@@ -70,32 +112,135 @@ public class TableInformation {
     // Create the column information
     List<String> columnNames = relationalInput.columnNames();
     this.columnInformationMap = new HashMap<>();
+    ColumnInformation[] columnInformations = new ColumnInformation[this.columnCount];
 
     for (int columnIndex = 0; columnIndex < this.columnCount; columnIndex++) {
       BitSet columnBitSet = new BitSet(this.columnCount);
       columnBitSet.set(columnIndex);
 
-      // Compute the column information for the current column
-      if (!useDataIndependentStatistics) {
-        // Generate a new data iterator for each column
-        relationalInput = relationalInputGenerator.generateNewCopy();
-        this.columnInformationMap
-          .put(columnNames.get(columnIndex),
-            new ColumnInformation(columnNames.get(columnIndex),
-              columnIndex,
-              columnBitSet,
-              relationalInput,
-              true));
-      } else {
-        this.columnInformationMap.
-          put(columnNames.get(columnIndex),
-            new ColumnInformation(columnNames.get(columnIndex),
-              columnIndex,
-              columnBitSet));
+      columnInformations[columnIndex] =
+        new ColumnInformation(columnNames.get(columnIndex), columnIndex, columnBitSet);
+      this.columnInformationMap.put(columnNames.get(columnIndex), columnInformations[columnIndex]);
+    }
+
+    // Compute the column information of all columns in one pass over the data
+    try {
+      if (!useDataIndependentStatistics && this.columnCount > 0) {
+        computeDataDependentStatistics(relationalInput, columnInformations, numberOfThreads);
+      }
+    } finally {
+      try {
+        relationalInput.close();
+      } catch (Exception e) {
+        // The statistics do not depend on closing the input.
+      }
+    }
+  }
+
+  /**
+   * Reads the input in batches and adds the values of every column to its column information.
+   *
+   * @param relationalInput    relational input
+   * @param columnInformations the column information of all columns by index
+   * @param numberOfThreads    number of threads computing the column statistics
+   * @throws de.metanome.algorithm_integration.input.InputIterationException if the input is not iterable
+   */
+  protected static void computeDataDependentStatistics(RelationalInput relationalInput,
+                                                       ColumnInformation[] columnInformations,
+                                                       int numberOfThreads)
+    throws InputIterationException {
+    for (ColumnInformation columnInformation : columnInformations) {
+      columnInformation.startDataDependentStatistics();
+    }
+
+    BatchRelationalInput batchInput = BatchRelationalInputAdapter.of(relationalInput);
+    numberOfThreads = Math.min(numberOfThreads, columnInformations.length);
+    if (numberOfThreads > 1) {
+      addBatchesConcurrently(batchInput, columnInformations, numberOfThreads);
+    } else {
+      ColumnBatch batch = new ColumnBatch(columnInformations.length, BATCH_SIZE);
+      while (batchInput.nextBatch(batch) > 0) {
+        addBatch(batch, columnInformations, 0, columnInformations.length);
+      }
+    }
+
+    for (ColumnInformation columnInformation : columnInformations) {
+      columnInformation.finishDataDependentStatistics();
+    }
+  }
+
+  /**
+   * Every thread adds the values of a fixed range of columns. Two batches are used alternately, so
+   * that the next batch is read while the threads process the current one.
+   */
+  protected static void addBatchesConcurrently(BatchRelationalInput batchInput,
+                                               final ColumnInformation[] columnInformations,
+                                               int numberOfThreads)
+    throws InputIterationException {
+    int numberOfColumns = columnInformations.length;
+    ColumnBatch batch = new ColumnBatch(numberOfColumns, BATCH_SIZE);
+    ColumnBatch nextBatch = new ColumnBatch(numberOfColumns, BATCH_SIZE);
+    List<Future<?>> futures = new ArrayList<>(numberOfThreads);
+
+    ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+    try {
+      int numberOfRows = batchInput.nextBatch(batch);
+      while (numberOfRows > 0) {
+        final ColumnBatch currentBatch = batch;
+        futures.clear();
+        for (int thread = 0; thread < numberOfThreads; thread++) {
+          final int fromColumn = numberOfColumns * thread / numberOfThreads;
+          final int toColumn = numberOfColumns * (thread + 1) / numberOfThreads;
+          futures.add(executor.submit(new Runnable() {
+            @Override
+            public void run() {
+              addBatch(currentBatch, columnInformations, fromColumn, toColumn);
+            }
+          }));
+        }
+
+        numberOfRows = batchInput.nextBatch(nextBatch);
+        for (Future<?> future : futures) {
+          waitFor(future);
+        }
+        batch = nextBatch;
+        nextBatch = currentBatch;
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  protected static void addBatch(ColumnBatch batch, ColumnInformation[] columnInformations,
+                                 int fromColumn, int toColumn) {
+    for (int columnIndex = fromColumn; columnIndex < toColumn; columnIndex++) {
+      String[] values = batch.getColumn(columnIndex);
+      ColumnInformation columnInformation = columnInformations[columnIndex];
+      for (int rowIndex = 0; rowIndex < batch.size(); rowIndex++) {
+        columnInformation.addValue(values[rowIndex]);
       }
     }
   }
 
+  protected static void waitFor(Future<?> future) throws InputIterationException {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InputIterationException("Interrupted while computing the column statistics", e);
+    } catch (ExecutionException e) {
+      // Fail like the single threaded computation.
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new InputIterationException("Could not compute the column statistics", cause);
+    }
+  }
+
   /**
    * Computes the information content as sum of columns information contents
    *
@@ -150,5 +295,58 @@ public class TableInformation {
 
   public void setPLIs(Map<BitSet, PositionListIndex> PLIs) {
     this.PLIs = PLIs;
+    this.pliCache = null;
+  }
+
+  /**
+   * Returns the cache of intersected position list indices, which is built on the single column
+   * PLIs of the table.
+   *
+   * @return the PLI cache or null if no PLIs were set
+   */
+  public PLICache getPLICache() {
+    if (this.pliCache == null && this.PLIs != null) {
+      this.pliCache = createPLICache(this.PLIs, DEFAULT_PLI_CACHE_BUDGET);
+    }
+    return this.pliCache;
+  }
+
+  /**
+   * Creates a {@link PLICache} on the given single column PLIs.
+   *
+   * @param columnPLIs a map from each column's bit set to its PLI
+   * @param byteBudget the number of bytes of intersected PLIs to cache
+   * @return the PLI cache
+   */
+  public static PLICache createPLICache(final Map<BitSet, PositionListIndex> columnPLIs,
+                                        long byteBudget) {
+    List<PositionListIndex> columnPLIList = new AbstractList<PositionListIndex>() {
+      @Override
+      public PositionListIndex get(int columnIndex) {
+        BitSet bitSet = new BitSet();
+        bitSet.set(columnIndex);
+        return columnPLIs.get(bitSet);
+      }
+
+      @Override
+      public int size() {
+        return columnPLIs.size();
+      }
+    };
+    return new PLICache(columnPLIList, byteBudget);
+  }
+
+  /**
+   * Converts the given bit set into a {@link ColumnCombinationBitset}.
+   *
+   * @param bitSet the columns as bit set
+   * @return the columns as column combination
+   */
+  public static ColumnCombinationBitset toColumnCombination(BitSet bitSet) {
+    ColumnCombinationBitset columnCombination = new ColumnCombinationBitset();
+    for (int i = bitSet.nextSetBit(0); i != -1; i = bitSet.nextSetBit(i + 1)) {
+      columnCombination.addColumn(i);
+    }
+    return columnCombination;
   }
 }
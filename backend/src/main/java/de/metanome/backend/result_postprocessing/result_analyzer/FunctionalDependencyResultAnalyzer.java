@@ -28,6 +28,8 @@ import de.metanome.backend.result_postprocessing.result_ranking.FunctionalDepend
 import de.metanome.backend.result_postprocessing.results.FunctionalDependencyResult;
 import de.metanome.backend.result_postprocessing.visualization.FunctionalDependency.FunctionalDependencyVisualization;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -83,11 +85,30 @@ public class FunctionalDependencyResultAnalyzer
       }
     } catch (Exception e) {
       // Could not analyze results due to error
+    } finally {
+      closePLIs();
     }
 
     return results;
   }
 
+  /**
+   * Deletes the temporary files of position list indices, which were spilled to disk during the
+   * ranking.
+   */
+  protected void closePLIs() {
+    for (TableInformation tableInformation : this.tableInformationMap.values()) {
+      if (tableInformation.getPLIs() instanceof Closeable) {
+        try {
+          ((Closeable) tableInformation.getPLIs()).close();
+        } catch (IOException e) {
+          // The files are deleted on exit
+        }
+      }
+      tableInformation.setPLIs(null);
+    }
+  }
+
   @Override
   public List<FunctionalDependencyResult> convertResults(
     List<FunctionalDependency> prevResults) {
@@ -17,15 +17,19 @@
 package de.metanome.backend.result_postprocessing.result_ranking;
 
 import de.metanome.algorithm_helper.data_structures.PLIBuilder;
+import de.metanome.algorithm_helper.data_structures.PLICache;
 import de.metanome.algorithm_helper.data_structures.PositionListIndex;
+import de.metanome.algorithm_helper.data_structures.SpillingPLIStore;
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
 import de.metanome.algorithm_integration.ColumnIdentifier;
 import de.metanome.algorithm_integration.input.InputGenerationException;
 import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.backend.algorithm_execution.TempFileGenerator;
 import de.metanome.backend.result_postprocessing.helper.ColumnInformation;
 import de.metanome.backend.result_postprocessing.helper.TableInformation;
 import de.metanome.backend.result_postprocessing.results.FunctionalDependencyResult;
 
+import java.io.UnsupportedEncodingException;
 import java.util.*;
 
 /**
@@ -35,6 +39,9 @@ public class FunctionalDependencyRanking extends Ranking {
 
   protected List<FunctionalDependencyResult> results;
   protected Map<BitSet, PositionListIndex> PLIs;
+  protected PLICache pliCache;
+  // Number of bytes of PLIs kept on the heap, further PLIs are spilled to disk
+  protected long pliHeapBudget = Runtime.getRuntime().maxMemory() / 4;
 
   public FunctionalDependencyRanking(List<FunctionalDependencyResult> results,
                                      Map<String, TableInformation> tableInformationMap) {
@@ -45,6 +52,16 @@ public class FunctionalDependencyRanking extends Ranking {
     createOccurrenceList();
   }
 
+  /**
+   * Sets the number of bytes of position list indices that are kept on the heap. Further position
+   * list indices are spilled to temporary files.
+   *
+   * @param pliHeapBudget the heap budget in bytes
+   */
+  public void setPLIHeapBudget(long pliHeapBudget) {
+    this.pliHeapBudget = pliHeapBudget;
+  }
+
   /**
    * The occurrence list stores how often a column occurs in the results.
    */
@@ -77,21 +94,27 @@ public class FunctionalDependencyRanking extends Ranking {
     if (this.tableInformationMap.size() == 1) {
       this.PLIs = createPLIs(tableInformation);
       tableInformation.setPLIs(PLIs);
+      this.pliCache = tableInformation.getPLICache();
     }
 
-    for (FunctionalDependencyResult result : this.results) {
-      calculateColumnRatios(result);
-      calculateGeneralCoverage(result);
-      calculateOccurrenceRatios(result);
-      calculateUniquenessRatios(result);
-
-      // The pollution rank and information gain are
-      // only defined on one table
-      if (this.tableInformationMap.size() == 1) {
-        calculatePollution(result, tableInformation);
-        calculateInformationGainCells(result, tableInformation);
-        calculateInformationGainBytes(result, tableInformation);
+    try {
+      for (FunctionalDependencyResult result : this.results) {
+        calculateColumnRatios(result);
+        calculateGeneralCoverage(result);
+        calculateOccurrenceRatios(result);
+        calculateUniquenessRatios(result);
+
+        // The pollution rank and information gain are
+        // only defined on one table
+        if (this.tableInformationMap.size() == 1) {
+          calculatePollution(result, tableInformation);
+          calculateInformationGainCells(result, tableInformation);
+          calculateInformationGainBytes(result, tableInformation);
+        }
       }
+    } finally {
+      // The rankings are calculated on request threads, which should not keep the probing table.
+      PositionListIndex.releaseProbingTable();
     }
   }
 
@@ -231,27 +254,13 @@ public class FunctionalDependencyRanking extends Ranking {
       return 0L;
     }
 
-    // the PLI already exists
-    if (this.PLIs.containsKey(columnBitSet)) {
-      return this.PLIs.get(columnBitSet).getRawKeyError();
-    }
-
-    // get all individual columns as bit set
-    List<BitSet> columns = new ArrayList<>();
-    for (int i = columnBitSet.nextSetBit(0); i != -1; i = columnBitSet.nextSetBit(i + 1)) {
-      BitSet bitSet = new BitSet();
-      bitSet.set(i);
-      columns.add(bitSet);
+    if (this.pliCache == null) {
+      this.pliCache = TableInformation.createPLICache(this.PLIs,
+        TableInformation.DEFAULT_PLI_CACHE_BUDGET);
     }
 
-    // calculate the new PLI
-    PositionListIndex pli = this.PLIs.get(columns.get(0));
-    for (int i = 1; i < columns.size(); i++) {
-      pli = pli.intersect(this.PLIs.get(columns.get(i)));
-    }
-    this.PLIs.put(columnBitSet, pli);
-
-    return pli.getRawKeyError();
+    return this.pliCache.getPLI(TableInformation.toColumnCombination(columnBitSet))
+      .getRawKeyError();
   }
 
   /**
@@ -338,7 +347,9 @@ public class FunctionalDependencyRanking extends Ranking {
   }
 
   /**
-   * Creates the position list indices for the given table.
+   * Creates the position list indices for the given table. The returned map keeps at most the
+   * configured heap budget of position list indices on the heap and spills the others to temporary
+   * files. It should be closed when the rankings and visualizations are done.
    *
    * @param tableInformation the table
    * @return a map containing for each column its position list index
@@ -348,7 +359,12 @@ public class FunctionalDependencyRanking extends Ranking {
    */
   public Map<BitSet, PositionListIndex> createPLIs(TableInformation tableInformation)
     throws InputGenerationException, InputIterationException, AlgorithmConfigurationException {
-    Map<BitSet, PositionListIndex> pliList = new HashMap<>();
+    Map<BitSet, PositionListIndex> pliList;
+    try {
+      pliList = new SpillingPLIStore<>(new TempFileGenerator(), this.pliHeapBudget);
+    } catch (UnsupportedEncodingException e) {
+      throw new InputGenerationException("Could not create the temporary file directory.", e);
+    }
 
     PLIBuilder pliBuilder =
       new PLIBuilder(tableInformation.getRelationalInputGenerator().generateNewCopy());
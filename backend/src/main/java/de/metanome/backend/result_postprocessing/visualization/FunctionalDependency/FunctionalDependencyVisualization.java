@@ -64,7 +64,12 @@ public class FunctionalDependencyVisualization {
       dependantMap = createDependantMap();
 
     // Print to JSON file
-    printFunctionalDependencyVisualizationData(dependantMap);
+    try {
+      printFunctionalDependencyVisualizationData(dependantMap);
+    } finally {
+      // The key errors are calculated on request threads, which should not keep the probing table.
+      PositionListIndex.releaseProbingTable();
+    }
   }
 
   /**
@@ -229,30 +234,8 @@ public class FunctionalDependencyVisualization {
    * @return the key error
    */
   private long calculateKeyError(BitSet columnBitSet) {
-    Map<BitSet, PositionListIndex> PLIs = this.tableInformation.getPLIs();
-
-    // the PLI already exists
-    if (PLIs.containsKey(columnBitSet)) {
-      return PLIs.get(columnBitSet).getRawKeyError();
-    }
-
-    // get all individual columns as bit set
-    List<BitSet> columns = new ArrayList<>();
-    for (int i = columnBitSet.nextSetBit(0); i != -1; i = columnBitSet.nextSetBit(i + 1)) {
-      BitSet bitSet = new BitSet();
-      bitSet.set(i);
-      columns.add(bitSet);
-    }
-
-    // calculate the new PLI
-    PositionListIndex pli = PLIs.get(columns.get(0));
-    for (int i = 1; i < columns.size(); i++) {
-      pli = pli.intersect(PLIs.get(columns.get(i)));
-    }
-    PLIs.put(columnBitSet, pli);
-    this.tableInformation.setPLIs(PLIs);
-
-    return pli.getRawKeyError();
+    return this.tableInformation.getPLICache()
+      .getPLI(TableInformation.toColumnCombination(columnBitSet)).getRawKeyError();
   }
 
   /**
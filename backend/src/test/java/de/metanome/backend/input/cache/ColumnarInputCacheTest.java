@@ -0,0 +1,358 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.metanome.backend.input.cache;
+
+import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.ColumnBatch;
+import de.metanome.algorithm_integration.input.FileInputGenerator;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import de.metanome.algorithm_integration.results.JsonConverter;
+import de.metanome.backend.helper.FileInputGeneratorMixIn;
+import de.metanome.backend.input.file.DefaultFileInputGenerator;
+import de.metanome.backend.input.file.FileIterator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ColumnarInputCache}
+ */
+public class ColumnarInputCacheTest {
+
+  protected File directory;
+  protected ColumnarInputCache cache;
+  protected File file;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("cache").toFile();
+    cache = new ColumnarInputCache(directory);
+    file = File.createTempFile("cached", ".csv");
+    file.deleteOnExit();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    cache.clear();
+    File[] remainingFiles = directory.listFiles();
+    if (remainingFiles != null) {
+      for (File remainingFile : remainingFiles) {
+        remainingFile.delete();
+      }
+    }
+    directory.delete();
+    file.delete();
+  }
+
+  protected void writeFile(String data) throws Exception {
+    FileOutputStream outputStream = new FileOutputStream(file);
+    outputStream.write(data.getBytes(StandardCharsets.UTF_8));
+    outputStream.close();
+  }
+
+  protected DefaultFileInputGenerator createGenerator() throws Exception {
+    ConfigurationSettingFileInput setting = new ConfigurationSettingFileInput(file.getPath())
+      .setHeader(true)
+      .setNullValue("NULL");
+    return new DefaultFileInputGenerator(setting).setCache(cache);
+  }
+
+  protected List<List<String>> readAll(RelationalInput input) throws Exception {
+    List<List<String>> rows = new ArrayList<>();
+    while (input.hasNext()) {
+      rows.add(input.next());
+    }
+    input.close();
+    return rows;
+  }
+
+  /**
+   * Test method for {@link ColumnarInputCache#generateNewCopy(String,
+   * de.metanome.algorithm_integration.input.RelationalInputGenerator)}
+   * <p/>
+   * The first copy should parse the file and write the cache entry, the second copy should return
+   * the same rows, column names and relation name from the cache.
+   */
+  @Test
+  public void testGenerateNewCopy() throws Exception {
+    // Setup
+    writeFile("A,B,C\nx,1,NULL\ny,2,\"a,b\"\nx,1,\"\"\n");
+    DefaultFileInputGenerator generator = createGenerator();
+
+    // Expected values
+    List<List<String>> expectedRows = Arrays.asList(
+      Arrays.asList("x", "1", null),
+      Arrays.asList("y", "2", "a,b"),
+      Arrays.asList("x", "1", ""));
+
+    // Execute functionality
+    RelationalInput firstCopy = generator.generateNewCopy();
+    assertTrue(firstCopy instanceof CachingRelationalInput);
+    List<List<String>> actualFirstRows = readAll(firstCopy);
+    RelationalInput secondCopy = generator.generateNewCopy();
+
+    // Check result
+    assertEquals(expectedRows, actualFirstRows);
+    assertTrue(cache.contains(generator.getCacheKey()));
+    assertTrue(secondCopy instanceof CachedRelationalInput);
+    assertEquals(file.getName(), secondCopy.relationName());
+    assertEquals(3, secondCopy.numberOfColumns());
+    assertEquals(Arrays.asList("A", "B", "C"), secondCopy.columnNames());
+    List<List<String>> actualSecondRows = readAll(secondCopy);
+    assertEquals(expectedRows, actualSecondRows);
+    // Dictionary encoded values are shared.
+    assertSame(actualSecondRows.get(0).get(0), actualSecondRows.get(2).get(0));
+  }
+
+  /**
+   * Test method for {@link DefaultFileInputGenerator#generateNewCopy()}
+   * <p/>
+   * Generators are passed to the algorithm execution as json. Deserialized generators should read
+   * through the cache of the system property.
+   */
+  @Test
+  public void testGenerateNewCopyAfterJsonRoundTrip() throws Exception {
+    // Setup
+    writeFile("A,B\nx,1\ny,2\n");
+    ConfigurationSettingFileInput setting = new ConfigurationSettingFileInput(file.getPath())
+      .setHeader(true);
+    JsonConverter<FileInputGenerator> jsonConverter = new JsonConverter<>();
+    jsonConverter.addMixIn(FileInputGenerator.class, FileInputGeneratorMixIn.class);
+    String json = jsonConverter.toJsonString(new DefaultFileInputGenerator(setting));
+
+    // Expected values
+    List<List<String>> expectedRows =
+      Arrays.asList(Arrays.asList("x", "1"), Arrays.asList("y", "2"));
+
+    // Execute functionality
+    RelationalInput firstCopy;
+    RelationalInput secondCopy;
+    List<List<String>> actualFirstRows;
+    System.setProperty(ColumnarInputCache.DIRECTORY_PROPERTY, directory.getPath());
+    try {
+      FileInputGenerator generator = jsonConverter.fromJsonString(json, FileInputGenerator.class);
+      firstCopy = generator.generateNewCopy();
+      actualFirstRows = readAll(firstCopy);
+      secondCopy = generator.generateNewCopy();
+    } finally {
+      System.clearProperty(ColumnarInputCache.DIRECTORY_PROPERTY);
+    }
+
+    // Check result
+    assertTrue(firstCopy instanceof CachingRelationalInput);
+    assertEquals(expectedRows, actualFirstRows);
+    assertTrue(secondCopy instanceof CachedRelationalInput);
+    assertEquals(expectedRows, readAll(secondCopy));
+  }
+
+  /**
+   * Test method for {@link CachedRelationalInput#next()}
+   * <p/>
+   * Like the {@link de.metanome.backend.input.file.FileIterator}, exhausted cached inputs should
+   * return null.
+   */
+  @Test
+  public void testNextExhausted() throws Exception {
+    // Setup
+    writeFile("A,B\nx,1\n");
+    DefaultFileInputGenerator generator = createGenerator();
+    readAll(generator.generateNewCopy());
+    RelationalInput copy = generator.generateNewCopy();
+
+    // Execute functionality
+    List<String> actualRow = copy.next();
+    List<String> actualExhaustedRow = copy.next();
+    copy.close();
+
+    // Check result
+    assertEquals(Arrays.asList("x", "1"), actualRow);
+    assertNull(actualExhaustedRow);
+  }
+
+  /**
+   * Test method for {@link ColumnarInputCache#generateNewCopy(String,
+   * de.metanome.algorithm_integration.input.RelationalInputGenerator)}
+   * <p/>
+   * Copies that are closed before their end should not leave a cache entry behind.
+   */
+  @Test
+  public void testGenerateNewCopyIncomplete() throws Exception {
+    // Setup
+    writeFile("A,B\nx,1\ny,2\n");
+    DefaultFileInputGenerator generator = createGenerator();
+
+    // Execute functionality
+    RelationalInput copy = generator.generateNewCopy();
+    copy.next();
+    copy.close();
+
+    // Check result
+    assertFalse(cache.contains(generator.getCacheKey()));
+    assertEquals(0, directory.listFiles().length);
+  }
+
+  /**
+   * Test method for {@link DefaultFileInputGenerator#getCacheKey()}
+   * <p/>
+   * The key should change when the setting or the file changes.
+   */
+  @Test
+  public void testGetCacheKey() throws Exception {
+    // Setup
+    writeFile("A,B\nx,1\n");
+    DefaultFileInputGenerator generator = createGenerator();
+    String key = generator.getCacheKey();
+    readAll(generator.generateNewCopy());
+
+    // Execute functionality
+    generator.getSetting().setSeparatorChar(";");
+    String keyOfChangedSetting = generator.getCacheKey();
+    generator.getSetting().setSeparatorChar(",");
+    writeFile("A,B\nx,1\ny,2\n");
+    String keyOfChangedFile = generator.getCacheKey();
+
+    // Check result
+    assertTrue(cache.contains(key));
+    assertNotEquals(key, keyOfChangedSetting);
+    assertNotEquals(key, keyOfChangedFile);
+    assertFalse(cache.contains(keyOfChangedFile));
+    assertEquals(Arrays.asList(Arrays.asList("x", "1"), Arrays.asList("y", "2")),
+      readAll(generator.generateNewCopy()));
+  }
+
+  /**
+   * Test method for {@link CachedRelationalInput#nextBatch(ColumnBatch)}
+   * <p/>
+   * Columns with more distinct values than the maximum dictionary size should be stored plainly and
+   * be read correctly across blocks and batches.
+   */
+  @Test
+  public void testNextBatchPlainColumns() throws Exception {
+    // Setup
+    int numberOfRows =
+      ColumnarInputCache.MAXIMUM_DICTIONARY_SIZE + 2 * ColumnarInputCache.BLOCK_SIZE;
+    StringBuilder data = new StringBuilder("unique,flag\n");
+    for (int row = 0; row < numberOfRows; row++) {
+      data.append(row).append(',').append(row % 3 == 0 ? "NULL" : row % 2).append('\n');
+    }
+    writeFile(data.toString());
+    DefaultFileInputGenerator generator = createGenerator();
+    readAll(generator.generateNewCopy());
+
+    // Execute functionality
+    RelationalInput copy = generator.generateNewCopy();
+    ColumnBatch batch = new ColumnBatch(2, 1000);
+    int actualNumberOfRows = 0;
+    boolean valuesMatch = true;
+    while (((CachedRelationalInput) copy).nextBatch(batch) > 0) {
+      for (int rowIndex = 0; rowIndex < batch.size(); rowIndex++) {
+        int row = actualNumberOfRows + rowIndex;
+        String expectedFlag = row % 3 == 0 ? null : String.valueOf(row % 2);
+        valuesMatch &= String.valueOf(row).equals(batch.getValue(rowIndex, 0));
+        valuesMatch &= expectedFlag == null
+                       ? batch.getValue(rowIndex, 1) == null
+                       : expectedFlag.equals(batch.getValue(rowIndex, 1));
+      }
+      actualNumberOfRows += batch.size();
+    }
+    copy.close();
+
+    // Check result
+    assertEquals(numberOfRows, actualNumberOfRows);
+    assertTrue(valuesMatch);
+  }
+
+  /**
+   * Test method for {@link CachingRelationalInput#nextBatch(ColumnBatch)}
+   * <p/>
+   * The first copy should read batches from the file natively and write the complete cache entry,
+   * also if the batches cross the cache's blocks.
+   */
+  @Test
+  public void testNextBatchCaching() throws Exception {
+    // Setup
+    int numberOfRows = 2 * ColumnarInputCache.BLOCK_SIZE + 10;
+    StringBuilder data = new StringBuilder("id,parity\n");
+    List<List<String>> expectedRows = new ArrayList<>();
+    for (int row = 0; row < numberOfRows; row++) {
+      data.append(row).append(',').append(row % 2).append('\n');
+      expectedRows.add(Arrays.asList(String.valueOf(row), String.valueOf(row % 2)));
+    }
+    writeFile(data.toString());
+    DefaultFileInputGenerator generator = createGenerator();
+
+    // Execute functionality
+    RelationalInput firstCopy = generator.generateNewCopy();
+    ColumnBatch batch = new ColumnBatch(2, 1000);
+    List<List<String>> actualBatchedRows = new ArrayList<>();
+    while (((CachingRelationalInput) firstCopy).nextBatch(batch) > 0) {
+      for (int rowIndex = 0; rowIndex < batch.size(); rowIndex++) {
+        actualBatchedRows.add(Arrays.asList(batch.getValue(rowIndex, 0),
+          batch.getValue(rowIndex, 1)));
+      }
+    }
+    firstCopy.close();
+    RelationalInput secondCopy = generator.generateNewCopy();
+
+    // Check result
+    assertTrue(((CachingRelationalInput) firstCopy).source instanceof FileIterator);
+    assertEquals(expectedRows, actualBatchedRows);
+    assertTrue(secondCopy instanceof CachedRelationalInput);
+    assertEquals(expectedRows, readAll(secondCopy));
+  }
+
+  /**
+   * Test method for {@link ColumnarInputCache#invalidate(String)} and {@link
+   * ColumnarInputCache#clear()}
+   */
+  @Test
+  public void testInvalidate() throws Exception {
+    // Setup
+    writeFile("A,B\nx,1\n");
+    DefaultFileInputGenerator generator = createGenerator();
+    readAll(generator.generateNewCopy());
+    String key = generator.getCacheKey();
+
+    // Execute functionality
+    cache.invalidate(key);
+    boolean containedAfterInvalidation = cache.contains(key);
+    readAll(generator.generateNewCopy());
+    boolean containedAfterReading = cache.contains(key);
+    cache.clear();
+
+    // Check result
+    assertFalse(containedAfterInvalidation);
+    assertTrue(containedAfterReading);
+    assertFalse(cache.contains(key));
+  }
+}
@@ -18,10 +18,19 @@ package de.metanome.backend.input.database;
 
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
 import de.metanome.algorithm_integration.input.InputGenerationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import de.metanome.backend.input.cache.CachingRelationalInput;
+import de.metanome.backend.input.cache.ColumnarInputCache;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Tests for {@link de.metanome.backend.input.database.DefaultTableInputGenerator}
@@ -55,6 +64,46 @@ public class DefaultTableInputGeneratorTest {
         String.format(DefaultTableInputGenerator.BASE_STATEMENT, expectedTable));
   }
 
+  /**
+   * Test method for {@link DefaultTableInputGenerator#generateNewCopy()}
+   * <p/>
+   * Tables should only be read through the cache of the system properties if caching of tables is
+   * enabled explicitly, as changed tables are not detected.
+   */
+  @Test
+  public void testGenerateNewCopyCachedFromSystemProperties() throws Exception {
+    // Setup
+    File directory = Files.createTempDirectory("cache").toFile();
+    DefaultDatabaseConnectionGenerator
+      defaultDatabaseConnectionGenerator = mock(DefaultDatabaseConnectionGenerator.class);
+    String expectedTable = "some table";
+    RelationalInput expectedInput = mock(RelationalInput.class);
+    when(defaultDatabaseConnectionGenerator.generateRelationalInputFromSql(
+      String.format(DefaultTableInputGenerator.BASE_STATEMENT, expectedTable)))
+      .thenReturn(expectedInput);
+    DefaultTableInputGenerator tableInputGenerator =
+      new DefaultTableInputGenerator(defaultDatabaseConnectionGenerator, expectedTable);
+
+    // Execute functionality
+    RelationalInput actualUncachedInput;
+    RelationalInput actualCachedInput;
+    System.setProperty(ColumnarInputCache.DIRECTORY_PROPERTY, directory.getPath());
+    try {
+      actualUncachedInput = tableInputGenerator.generateNewCopy();
+      System.setProperty(ColumnarInputCache.TABLES_PROPERTY, "true");
+      actualCachedInput = tableInputGenerator.generateNewCopy();
+      actualCachedInput.close();
+    } finally {
+      System.clearProperty(ColumnarInputCache.DIRECTORY_PROPERTY);
+      System.clearProperty(ColumnarInputCache.TABLES_PROPERTY);
+      directory.delete();
+    }
+
+    // Check result
+    assertSame(expectedInput, actualUncachedInput);
+    assertTrue(actualCachedInput instanceof CachingRelationalInput);
+  }
+
   /**
    * Test method for {@link DefaultTableInputGenerator#select()}
    * <p/>
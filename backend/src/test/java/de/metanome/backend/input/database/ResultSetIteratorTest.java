@@ -17,6 +17,7 @@
 package de.metanome.backend.input.database;
 
 import com.google.common.collect.ImmutableList;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputIterationException;
 import org.junit.After;
 import org.junit.Before;
@@ -28,6 +29,7 @@ import java.sql.Statement;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.*;
 
 /**
@@ -120,6 +122,33 @@ public class ResultSetIteratorTest {
     verify(resultSet, times(2)).next();
   }
 
+  /**
+   * Test method for {@link ResultSetIterator#nextBatch(de.metanome.algorithm_integration.input.ColumnBatch)}
+   * <p/>
+   * The rows of the result set should be read into batches column by column.
+   */
+  @Test
+  public void testNextBatch() throws SQLException, InputIterationException {
+    // Setup
+    ResultSet resultSet = twoLinesResultSetFixture.getTestData();
+    ResultSetIterator resultSetIterator = new ResultSetIterator(resultSet);
+    ColumnBatch batch = new ColumnBatch(twoLinesResultSetFixture.numberOfColumns(), 1);
+    // Expected values
+    List<ImmutableList<String>> expectedRecords = twoLinesResultSetFixture.getExpectedRecords();
+
+    // Execute functionality
+    // Check result
+    for (int i = 0; i < twoLinesResultSetFixture.numberOfRows(); i++) {
+      assertEquals(1, resultSetIterator.nextBatch(batch));
+      for (int columnIndex = 0; columnIndex < batch.numberOfColumns(); columnIndex++) {
+        assertEquals(expectedRecords.get(i).get(columnIndex), batch.getColumn(columnIndex)[0]);
+      }
+    }
+    assertEquals(0, resultSetIterator.nextBatch(batch));
+    assertFalse(resultSetIterator.hasNext());
+    verify(resultSet, times(3)).next();
+  }
+
   /**
    * Test method for {@link ResultSetIterator#numberOfColumns()} <p/> A {@link ResultSetIterator}
    * should return the correct number of columns of the result.
@@ -26,8 +26,15 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for {@link DefaultFileInputGenerator}
@@ -136,6 +143,84 @@ public class DefaultFileInputGeneratorTest {
     assertEquals(csvFileFixture.expectedSecondLine(), csv2.next());
   }
 
+  /**
+   * Test method for {@link DefaultFileInputGenerator#generateNewCopy()}
+   * <p/>
+   * With a parallelism the generator should read the chunks of the file concurrently and return
+   * the rows in order.
+   */
+  @Test
+  public void testGenerateNewCopyParallel() throws InputGenerationException, InputIterationException {
+    // Setup
+    generator.setParallelism(2);
+
+    // Execute functionality
+    RelationalInput fileInput = generator.generateNewCopy();
+
+    // Check result
+    assertTrue(fileInput instanceof ParallelFileIterator);
+    assertEquals(csvFileFixture.expectedHeader(), fileInput.columnNames());
+    assertEquals(csvFileFixture.expectedFirstLine(), fileInput.next());
+    assertEquals(csvFileFixture.expectedSecondLine(), fileInput.next());
+    // The differing third line is skipped.
+    assertFalse(fileInput.hasNext());
+  }
+
+  /**
+   * Test method for {@link DefaultFileInputGenerator#generateChunks()}
+   * <p/>
+   * The chunks should contain the rows of the file in order.
+   */
+  @Test
+  public void testGenerateChunks() throws Exception {
+    // Setup
+    generator.setParallelism(3);
+    List<List<String>> actualRows = new ArrayList<>();
+
+    // Execute functionality
+    List<RelationalInput> chunks = generator.generateChunks();
+    for (RelationalInput chunk : chunks) {
+      while (chunk.hasNext()) {
+        actualRows.add(chunk.next());
+      }
+      chunk.close();
+    }
+
+    // Check result
+    assertTrue(chunks.size() <= 3);
+    assertEquals(csvFileFixture.expectedHeader(), chunks.get(0).columnNames());
+    assertEquals(
+      Arrays.asList(csvFileFixture.expectedFirstLine(), csvFileFixture.expectedSecondLine()),
+      actualRows);
+  }
+
+  /**
+   * Test method for {@link DefaultFileInputGenerator#generateChunks()}
+   * <p/>
+   * The chunk starts should be found once and reused until the parallelism changes.
+   */
+  @Test
+  public void testGenerateChunksReusesChunkStarts() throws Exception {
+    // Setup
+    generator.setParallelism(3);
+
+    // Execute functionality
+    generator.generateChunks();
+    long[] firstChunkStarts = generator.chunkStarts;
+    List<RelationalInput> chunks = generator.generateChunks();
+    long[] secondChunkStarts = generator.chunkStarts;
+    generator.setParallelism(2);
+    generator.generateChunks();
+    long[] changedChunkStarts = generator.chunkStarts;
+
+    // Check result
+    assertSame(firstChunkStarts, secondChunkStarts);
+    assertEquals(firstChunkStarts.length, chunks.size());
+    assertNotSame(firstChunkStarts, changedChunkStarts);
+    assertTrue(changedChunkStarts.length <= 2);
+    assertEquals(csvFileFixture.expectedFirstLine(), chunks.get(0).next());
+  }
+
   /**
    * Test method for {@link DefaultFileInputGenerator#getInputFile()}
    */
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.backend.input.file;
+
+import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the parsing throughput of the {@link FileIterator} and the {@link MappedFileIterator}
+ * on a generated csv file. The {@link MappedFileIterator} is measured reading all cells and
+ * reading a single column, the {@link ParallelFileIterator} reads chunks on one thread per
+ * available processor. The number of rows is passed as argument (default 1000000). Run with
+ * java -cp (test and runtime classpath) de.metanome.backend.input.file.FileInputBenchmark
+ * 10000000.
+ */
+public class FileInputBenchmark {
+
+  protected static final int NUMBER_OF_COLUMNS = 10;
+  protected static final int NUMBER_OF_RUNS = 3;
+  protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+  public static void main(String[] args) throws IOException, InputIterationException {
+    int numberOfRows = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+    File file = createCsvFile(numberOfRows);
+    double megabytes = file.length() / (1024.0 * 1024.0);
+    System.out.printf("%d rows, %.1f MB%n", numberOfRows, megabytes);
+
+    ConfigurationSettingFileInput setting = new ConfigurationSettingFileInput(file.getPath())
+      .setHeader(false);
+    for (int run = 0; run < NUMBER_OF_RUNS; run++) {
+      long start = System.nanoTime();
+      long fileIteratorChecksum = readCells(new FileIterator(file.getName(),
+        new InputStreamReader(new FileInputStream(file), UTF8), setting), false);
+      double fileIteratorTime = (System.nanoTime() - start) / 1e9;
+
+      start = System.nanoTime();
+      long mappedChecksum =
+        readCells(new MappedFileIterator(file.getName(), file, setting, UTF8), false);
+      double mappedTime = (System.nanoTime() - start) / 1e9;
+
+      start = System.nanoTime();
+      readCells(new MappedFileIterator(file.getName(), file, setting, UTF8), true);
+      double mappedColumnTime = (System.nanoTime() - start) / 1e9;
+
+      start = System.nanoTime();
+      MappedFileIterator source = new MappedFileIterator(file.getName(), file, setting, UTF8);
+      long parallelChecksum = readCells(
+        new ParallelFileIterator(source.split(Runtime.getRuntime().availableProcessors())), false);
+      source.close();
+      double parallelTime = (System.nanoTime() - start) / 1e9;
+
+      if (fileIteratorChecksum != mappedChecksum || fileIteratorChecksum != parallelChecksum) {
+        throw new IllegalStateException("The iterators read different values.");
+      }
+      System.out.printf("FileIterator %.1f MB/s, MappedFileIterator %.1f MB/s, "
+                        + "MappedFileIterator (one column) %.1f MB/s, "
+                        + "ParallelFileIterator %.1f MB/s%n",
+        megabytes / fileIteratorTime, megabytes / mappedTime, megabytes / mappedColumnTime,
+        megabytes / parallelTime);
+    }
+
+    file.delete();
+  }
+
+  protected static File createCsvFile(int numberOfRows) throws IOException {
+    File file = File.createTempFile("benchmark", ".csv");
+    file.deleteOnExit();
+    Random random = new Random(1);
+    Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF8));
+    for (int row = 0; row < numberOfRows; row++) {
+      for (int column = 0; column < NUMBER_OF_COLUMNS; column++) {
+        if (column > 0) {
+          writer.write(',');
+        }
+        if (column % 4 == 3) {
+          writer.write("\"value, " + random.nextInt(1000) + "\"");
+        } else {
+          writer.write("value" + random.nextInt(100000));
+        }
+      }
+      writer.write('\n');
+    }
+    writer.close();
+    return file;
+  }
+
+  protected static long readCells(RelationalInput input, boolean firstColumnOnly)
+    throws InputIterationException, IOException {
+    long checksum = 0;
+    while (input.hasNext()) {
+      List<String> row = input.next();
+      int numberOfReadColumns = firstColumnOnly ? 1 : row.size();
+      for (int column = 0; column < numberOfReadColumns; column++) {
+        String value = row.get(column);
+        checksum += (value == null) ? 0 : value.hashCode();
+      }
+    }
+    try {
+      input.close();
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+    return checksum;
+  }
+}
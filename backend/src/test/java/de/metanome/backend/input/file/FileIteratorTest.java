@@ -17,6 +17,7 @@
 package de.metanome.backend.input.file;
 
 import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputGenerationException;
 import de.metanome.algorithm_integration.input.InputIterationException;
 import org.junit.After;
@@ -25,6 +26,8 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -162,6 +165,42 @@ public class FileIteratorTest {
     assertEquals(1, multiLineCsvFile.getNumberOfSkippedDifferingLines());
   }
 
+  /**
+   * Test method for {@link FileIterator#nextBatch(de.metanome.algorithm_integration.input.ColumnBatch)}
+   * <p/>
+   * Batches should continue after the rows returned by next, null values should be converted and
+   * differing lines should be skipped.
+   */
+  @Test
+  public void testNextBatch() throws InputIterationException, InputGenerationException {
+    // Setup
+    CsvFileShortLineFixture shortLineFixture = new CsvFileShortLineFixture();
+    FileIterator csvFileThroughErrors = shortLineFixture.getTestData(true);
+    ColumnBatch batch = new ColumnBatch(csvFileThroughErrors.numberOfColumns(), 10);
+    CsvFileNullValuesFixture nullValuesFixture = new CsvFileNullValuesFixture();
+    FileIterator csvFileWithNullValues = nullValuesFixture.getTestData();
+    ColumnBatch nullValuesBatch = new ColumnBatch(csvFileWithNullValues.numberOfColumns(), 1);
+
+    // Execute functionality
+    List<String> actualFirstLine = csvFileThroughErrors.next();
+    int actualNumberOfRows = csvFileThroughErrors.nextBatch(batch);
+
+    // Check result
+    assertEquals(shortLineFixture.getExpectedFirstParsableLine(), actualFirstLine);
+    assertEquals(1, actualNumberOfRows);
+    for (int columnIndex = 0; columnIndex < batch.numberOfColumns(); columnIndex++) {
+      assertEquals(shortLineFixture.getExpectedSecondParsableLine().get(columnIndex),
+        batch.getValue(0, columnIndex));
+    }
+    assertEquals(0, csvFileThroughErrors.nextBatch(batch));
+    assertEquals(2, csvFileThroughErrors.getNumberOfSkippedDifferingLines());
+
+    assertEquals(1, csvFileWithNullValues.nextBatch(nullValuesBatch));
+    assertEquals(nullValuesFixture.getFirstLineWithNullValues(),
+      Arrays.asList(nullValuesBatch.getValue(0, 0), nullValuesBatch.getValue(0, 1),
+        nullValuesBatch.getValue(0, 2)));
+  }
+
   /**
    * Test method for {@link FileIterator#next()}
    * <p/>
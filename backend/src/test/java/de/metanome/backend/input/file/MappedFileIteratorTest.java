@@ -0,0 +1,286 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.backend.input.file;
+
+import com.google.common.collect.ImmutableList;
+import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MappedFileIterator}
+ */
+public class MappedFileIteratorTest {
+
+  protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+  protected static final String TRICKY_CSV_DATA =
+    "plain,\"quoted, with separator\",\"doubled \"\"quotes\"\"\",empty\n" +
+      "a\\\"b,\"escaped \\\" quote\",,\\N\r\n" +
+      "\"multi\nline\",\"crlf\r\nin quotes\",  \"leading space\",bc\"d\"ef\n" +
+      "x,\"\",\"äöü €\",last\n" +
+      "a\"b\"c,x,ab\"cd\"e,y\n" +
+      "ab\"cd\"e,x,y,z\n" +
+      " \"ab\",x,y,z\n" +
+      "x,\"line\nab\"cd\"e\",y,z\n" +
+      "x,\"a,\"b\"\",y,z\n" +
+      "short,row\n" +
+      "\n" +
+      "1,2,3,4";
+
+  protected ConfigurationSettingFileInput createSetting() {
+    return new ConfigurationSettingFileInput("some_file")
+      .setSeparatorChar(",")
+      .setQuoteChar("\"")
+      .setEscapeChar("\\")
+      .setHeader(false)
+      .setIgnoreLeadingWhiteSpace(true)
+      .setSkipDifferingLines(true)
+      .setNullValue("\\N");
+  }
+
+  protected File writeFile(String fileName, byte[] data) throws IOException {
+    File file = File.createTempFile(fileName, ".csv");
+    file.deleteOnExit();
+    FileOutputStream outputStream = new FileOutputStream(file);
+    outputStream.write(data);
+    outputStream.close();
+    return file;
+  }
+
+  protected List<List<String>> readAll(MappedFileIterator iterator)
+    throws InputIterationException {
+    List<List<String>> rows = new ArrayList<>();
+    while (iterator.hasNext()) {
+      rows.add(iterator.next());
+    }
+    return rows;
+  }
+
+  protected List<List<String>> readAll(FileIterator iterator) throws InputIterationException {
+    List<List<String>> rows = new ArrayList<>();
+    while (iterator.hasNext()) {
+      rows.add(iterator.next());
+    }
+    return rows;
+  }
+
+  /**
+   * Test method for {@link MappedFileIterator#next()}
+   * <p/>
+   * The rows should equal the rows of a {@link FileIterator} on the same data, including quoted
+   * separators and line breaks, escapes, null values and skipped differing lines. The small
+   * segment size forces cells across segment borders.
+   */
+  @Test
+  public void testNextEqualsFileIterator() throws IOException, InputIterationException {
+    for (boolean strictQuotes : new boolean[]{false, true}) {
+      // Setup
+      ConfigurationSettingFileInput setting = createSetting().setStrictQuotes(strictQuotes);
+      File file = writeFile("tricky", TRICKY_CSV_DATA.getBytes(UTF8));
+      // Expected values
+      FileIterator fileIterator =
+        new FileIterator("some_file", new StringReader(TRICKY_CSV_DATA), setting);
+      List<List<String>> expectedRows = readAll(fileIterator);
+
+      for (int segmentSize : new int[]{8, MappedFileIterator.DEFAULT_SEGMENT_SIZE}) {
+        // Execute functionality
+        MappedFileIterator mappedFileIterator =
+          new MappedFileIterator("some_file", file, setting, UTF8, segmentSize);
+        List<List<String>> actualRows = readAll(mappedFileIterator);
+
+        // Check result
+        assertEquals(expectedRows, actualRows);
+        assertEquals(fileIterator.columnNames(), mappedFileIterator.columnNames());
+        assertEquals(fileIterator.getNumberOfSkippedDifferingLines(),
+          mappedFileIterator.getNumberOfSkippedDifferingLines());
+        mappedFileIterator.close();
+      }
+    }
+  }
+
+  /**
+   * Test method for {@link MappedFileIterator#next()}
+   * <p/>
+   * The header should be read from the first line, lines should be skipped and a UTF-8 byte
+   * order mark should be ignored. Rows should stay readable after the iterator moved on.
+   */
+  @Test
+  public void testNextWithHeaderAndSkipLines() throws IOException, InputIterationException {
+    // Setup
+    ConfigurationSettingFileInput setting = createSetting()
+      .setHeader(true)
+      .setSkipLines(1)
+      .setSkipDifferingLines(false)
+      .setNullValue("NULL");
+    byte[] data = "\uFEFFskipped line\none,two\n3,NULL\n5,6\n".getBytes(UTF8);
+    File file = writeFile("header", data);
+
+    // Execute functionality
+    MappedFileIterator mappedFileIterator = new MappedFileIterator("header", file, setting, UTF8);
+    List<String> actualFirstRow = mappedFileIterator.next();
+    List<String> actualSecondRow = mappedFileIterator.next();
+
+    // Check result
+    assertEquals(ImmutableList.of("one", "two"), mappedFileIterator.columnNames());
+    assertEquals(2, mappedFileIterator.numberOfColumns());
+    assertEquals(Arrays.asList("3", null), actualFirstRow);
+    assertEquals(ImmutableList.of("5", "6"), actualSecondRow);
+    assertFalse(mappedFileIterator.hasNext());
+    assertNull(mappedFileIterator.next());
+    mappedFileIterator.close();
+    assertEquals("3", actualFirstRow.get(0));
+  }
+
+  /**
+   * Test method for {@link MappedFileIterator#split(int)}
+   * <p/>
+   * The chunks should contain the rows of the file in order, quoted line breaks must not be split.
+   */
+  @Test
+  public void testSplit() throws IOException, InputIterationException {
+    // Setup
+    ConfigurationSettingFileInput setting = createSetting().setHeader(true);
+    StringBuilder data = new StringBuilder("first,second\n");
+    for (int i = 0; i < 100; i++) {
+      data.append(i).append(",\"quoted\nline ").append(i).append("\"\n");
+    }
+    File file = writeFile("split", data.toString().getBytes(UTF8));
+    MappedFileIterator mappedFileIterator = new MappedFileIterator("split", file, setting, UTF8);
+    // Expected values
+    List<List<String>> expectedRows =
+      readAll(new MappedFileIterator("split", file, setting, UTF8));
+
+    for (int numberOfChunks = 1; numberOfChunks < 8; numberOfChunks++) {
+      // Execute functionality
+      List<MappedFileIterator> chunks = mappedFileIterator.split(numberOfChunks);
+      List<List<String>> actualRows = new ArrayList<>();
+      for (MappedFileIterator chunk : chunks) {
+        actualRows.addAll(readAll(chunk));
+      }
+
+      // Check result
+      assertEquals(numberOfChunks, chunks.size());
+      assertEquals(expectedRows, actualRows);
+      assertEquals(ImmutableList.of("first", "second"), chunks.get(0).columnNames());
+    }
+    assertEquals(expectedRows, readAll(mappedFileIterator));
+    mappedFileIterator.close();
+  }
+
+  /**
+   * Test method for {@link MappedFileIterator#next()}
+   * <p/>
+   * Differing lines should fail if they are not skipped.
+   */
+  @Test
+  public void testNextDifferingLine() throws IOException, InputIterationException {
+    // Setup
+    ConfigurationSettingFileInput setting = createSetting().setSkipDifferingLines(false);
+    File file = writeFile("differing", "1,2\n3\n".getBytes(UTF8));
+    MappedFileIterator mappedFileIterator =
+      new MappedFileIterator("differing", file, setting, UTF8);
+
+    // Execute functionality
+    // Check result
+    try {
+      mappedFileIterator.next();
+      mappedFileIterator.next();
+      fail("Expected an InputIterationException to be thrown.");
+    } catch (InputIterationException e) {
+      assertTrue(e.getMessage().contains("1"));
+    }
+    mappedFileIterator.close();
+  }
+
+  /**
+   * Test method for {@link MappedFileIterator#MappedFileIterator(String, java.io.File,
+   * de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput)}
+   * <p/>
+   * An empty file should have no rows, no columns and a valid header.
+   */
+  @Test
+  public void testConstructWithEmptyFile() throws IOException, InputIterationException {
+    // Setup
+    File file = writeFile("empty", new byte[0]);
+
+    // Execute functionality
+    MappedFileIterator mappedFileIterator =
+      new MappedFileIterator("empty", file, createSetting().setHeader(true));
+
+    // Check result
+    assertFalse(mappedFileIterator.hasNext());
+    assertEquals(0, mappedFileIterator.numberOfColumns());
+    assertNotNull(mappedFileIterator.columnNames());
+    assertEquals("empty", mappedFileIterator.relationName());
+    mappedFileIterator.close();
+  }
+
+  /**
+   * Test method for {@link MappedFileIterator#MappedFileIterator(String, java.io.File,
+   * de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput,
+   * java.nio.charset.Charset)}
+   * <p/>
+   * Charsets that do not encode ASCII characters as single bytes cannot be tokenized.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructWithUnsupportedCharset() throws IOException, InputIterationException {
+    // Setup
+    File file = writeFile("utf16", "a,b".getBytes(Charset.forName("UTF-16")));
+
+    // Execute functionality
+    new MappedFileIterator("utf16", file, createSetting(), Charset.forName("UTF-16"));
+  }
+
+  /**
+   * Test method for {@link MappedFileIterator#next()}
+   * <p/>
+   * Without a quote character, bytes like 0xFF (&yuml; in ISO-8859-1) should be read as ordinary
+   * characters and not as quotes.
+   */
+  @Test
+  public void testNextWithoutQuote() throws IOException, InputIterationException {
+    // Setup
+    Charset latin1 = Charset.forName("ISO-8859-1");
+    File file = writeFile("latin1", "\u00ff\"a,b\u00ff\nc,d".getBytes(latin1));
+    ConfigurationSettingFileInput setting = createSetting().setQuoteChar("");
+
+    // Expected values
+    List<List<String>> expectedRows = new ArrayList<>();
+    expectedRows.add(Arrays.asList("\u00ff\"a", "b\u00ff"));
+    expectedRows.add(Arrays.asList("c", "d"));
+
+    // Execute functionality
+    MappedFileIterator mappedFileIterator = new MappedFileIterator("latin1", file, setting, latin1);
+    List<List<String>> actualRows = readAll(mappedFileIterator);
+    mappedFileIterator.close();
+
+    // Check result
+    assertEquals(expectedRows, actualRows);
+  }
+}
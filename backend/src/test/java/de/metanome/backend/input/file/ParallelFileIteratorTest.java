@@ -0,0 +1,205 @@
+/*
+ * Copyright 2014 by the Metanome project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.metanome.backend.input.file;
+
+import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ParallelFileIterator}
+ */
+public class ParallelFileIteratorTest {
+
+  protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+  protected ConfigurationSettingFileInput createSetting() {
+    return new ConfigurationSettingFileInput("some_file")
+      .setSeparatorChar(",")
+      .setQuoteChar("\"")
+      .setEscapeChar("\\")
+      .setHeader(true)
+      .setSkipDifferingLines(true);
+  }
+
+  protected String createCsvData(int numberOfRows) {
+    StringBuilder data = new StringBuilder("id,text,number\n");
+    for (int i = 0; i < numberOfRows; i++) {
+      data.append(i).append(",\"line\nbreak, ").append(i).append("\",").append(i % 7);
+      // Differing lines should be skipped in every chunk.
+      data.append((i % 50 == 0) ? "\nshort\n" : "\n");
+    }
+    return data.toString();
+  }
+
+  protected File writeFile(String data) throws IOException {
+    File file = File.createTempFile("parallel", ".csv");
+    file.deleteOnExit();
+    FileOutputStream outputStream = new FileOutputStream(file);
+    outputStream.write(data.getBytes(UTF8));
+    outputStream.close();
+    return file;
+  }
+
+  /**
+   * Test method for {@link ParallelFileIterator#next()}
+   * <p/>
+   * The rows of all chunks should be returned in the order of the file. Small queues and batches
+   * force the chunk readers to wait for the consumer.
+   */
+  @Test
+  public void testNext() throws IOException, InputIterationException {
+    // Setup
+    String data = createCsvData(1000);
+    ConfigurationSettingFileInput setting = createSetting();
+    File file = writeFile(data);
+    // Expected values
+    FileIterator fileIterator = new FileIterator("parallel", new StringReader(data), setting);
+    List<List<String>> expectedRows = new ArrayList<>();
+    while (fileIterator.hasNext()) {
+      expectedRows.add(fileIterator.next());
+    }
+
+    // Execute functionality
+    MappedFileIterator mappedFileIterator = new MappedFileIterator("parallel", file, setting, UTF8);
+    ParallelFileIterator parallelFileIterator =
+      new ParallelFileIterator(mappedFileIterator.split(4), 2, 16);
+    List<List<String>> actualRows = new ArrayList<>();
+    while (parallelFileIterator.hasNext()) {
+      actualRows.add(parallelFileIterator.next());
+    }
+
+    // Check result
+    assertEquals(expectedRows, actualRows);
+    assertEquals(fileIterator.columnNames(), parallelFileIterator.columnNames());
+    assertEquals(3, parallelFileIterator.numberOfColumns());
+    assertEquals("parallel", parallelFileIterator.relationName());
+    assertNull(parallelFileIterator.next());
+    parallelFileIterator.close();
+    mappedFileIterator.close();
+  }
+
+  /**
+   * Test method for {@link ParallelFileIterator#next()}
+   * <p/>
+   * A chunk that cannot be read should end the iteration with an {@link InputIterationException}.
+   */
+  @Test
+  public void testNextDifferingLine() throws IOException, InputIterationException {
+    // Setup
+    File file = writeFile(createCsvData(100));
+    MappedFileIterator mappedFileIterator = new MappedFileIterator("parallel", file,
+      createSetting().setSkipDifferingLines(false), UTF8);
+    ParallelFileIterator parallelFileIterator =
+      new ParallelFileIterator(mappedFileIterator.split(2), 2, 16);
+    int numberOfRows = 0;
+
+    // Execute functionality
+    // Check result
+    try {
+      while (parallelFileIterator.hasNext()) {
+        parallelFileIterator.next();
+        numberOfRows++;
+      }
+      fail("Expected an InputIterationException to be thrown.");
+    } catch (InputIterationException e) {
+      assertFalse(parallelFileIterator.hasNext());
+    }
+    // The rows before the first differing line are returned.
+    assertEquals(1, numberOfRows);
+    parallelFileIterator.close();
+    mappedFileIterator.close();
+  }
+
+  /**
+   * Test method for {@link ParallelFileIterator#hasNext()}
+   * <p/>
+   * Unchecked exceptions of a chunk should end the chunk and be rethrown to the consumer instead
+   * of leaving it waiting for the chunk. The readers of later chunks should be stopped.
+   */
+  @Test(timeout = 10000)
+  public void testHasNextFailingChunk() throws Exception {
+    // Setup
+    RelationalInput chunk = mock(RelationalInput.class);
+    when(chunk.hasNext()).thenReturn(true);
+    when(chunk.next())
+      .thenReturn(Arrays.asList("a", "b"))
+      .thenThrow(new IllegalStateException("broken chunk"));
+    // The reader of an endless later chunk blocks until it is stopped.
+    RelationalInput laterChunk = mock(RelationalInput.class);
+    when(laterChunk.hasNext()).thenReturn(true);
+    when(laterChunk.next()).thenReturn(Arrays.asList("c", "d"));
+    ParallelFileIterator parallelFileIterator =
+      new ParallelFileIterator(Arrays.asList(chunk, laterChunk), 2, 16);
+
+    // Execute functionality
+    // Check result
+    assertTrue(parallelFileIterator.hasNext());
+    assertEquals(Arrays.asList("a", "b"), parallelFileIterator.next());
+    try {
+      parallelFileIterator.hasNext();
+      fail("Expected an InputIterationException to be thrown.");
+    } catch (InputIterationException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+    // The failure stops the readers of later chunks without a call to close.
+    while (!parallelFileIterator.executor.isTerminated()) {
+      Thread.sleep(10);
+    }
+    parallelFileIterator.close();
+  }
+
+  /**
+   * Test method for {@link ParallelFileIterator#close()}
+   * <p/>
+   * Closing the iterator before all rows are consumed should stop the waiting chunk readers.
+   */
+  @Test(timeout = 10000)
+  public void testClose() throws IOException, InputIterationException {
+    // Setup
+    File file = writeFile(createCsvData(1000));
+    MappedFileIterator mappedFileIterator =
+      new MappedFileIterator("parallel", file, createSetting(), UTF8);
+    ParallelFileIterator parallelFileIterator =
+      new ParallelFileIterator(mappedFileIterator.split(3), 1, 4);
+
+    // Execute functionality
+    parallelFileIterator.next();
+    parallelFileIterator.close();
+
+    // Check result
+    assertTrue(parallelFileIterator.executor.isShutdown());
+    while (!parallelFileIterator.executor.isTerminated()) {
+      Thread.yield();
+    }
+    mappedFileIterator.close();
+  }
+}
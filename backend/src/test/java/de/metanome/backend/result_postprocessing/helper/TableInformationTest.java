@@ -25,6 +25,7 @@ import de.metanome.backend.result_postprocessing.file_fixture.FileFixtureDiffere
 import org.junit.Test;
 
 import java.util.BitSet;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -32,9 +33,11 @@ import static org.junit.Assert.assertNotNull;
 public class TableInformationTest {
 
   FileFixtureDifferentColumnTypes fileFixture = new FileFixtureDifferentColumnTypes();
+  int numberOfCopies = 0;
   RelationalInputGenerator relationalInputGenerator = new RelationalInputGenerator() {
     @Override
     public RelationalInput generateNewCopy() throws InputGenerationException {
+      numberOfCopies++;
       try {
         return fileFixture.getTestData();
       } catch (InputIterationException e) {
@@ -83,4 +86,70 @@ public class TableInformationTest {
     assertEquals(expectedBitSet, tableInformation.getBitSet());
   }
 
+  /**
+   * Test method for {@link TableInformation#TableInformation(RelationalInputGenerator, boolean,
+   * BitSet, int)}
+   * <p/>
+   * The statistics of all columns should be computed in a single pass, with one or more threads,
+   * and equal the statistics computed column by column.
+   */
+  @Test
+  public void testSetUpWithDataDependentStatisticsSinglePass() throws Exception {
+    // Setup
+    List<String> columnNames = fileFixture.getTestData().columnNames();
+
+    // Execute Functionality
+    TableInformation tableInformation =
+      new TableInformation(relationalInputGenerator, false, new BitSet());
+    int actualNumberOfCopies = numberOfCopies;
+    TableInformation concurrentTableInformation =
+      new TableInformation(relationalInputGenerator, false, new BitSet(), 3);
+
+    // Check
+    assertEquals(1, actualNumberOfCopies);
+    assertEquals(tableInformation.getInformationContent(),
+      concurrentTableInformation.getInformationContent());
+    for (int columnIndex = 0; columnIndex < columnNames.size(); columnIndex++) {
+      ColumnInformation expectedColumn = new ColumnInformation(columnNames.get(columnIndex),
+        columnIndex, new BitSet(), fileFixture.getTestData(), true);
+      for (TableInformation actualTable : new TableInformation[]{tableInformation,
+        concurrentTableInformation}) {
+        ColumnInformation actualColumn = actualTable.getColumn(columnIndex);
+        assertEquals(expectedColumn.getColumnType(), actualColumn.getColumnType());
+        assertEquals(expectedColumn.getRowCount(), actualColumn.getRowCount());
+        assertEquals(expectedColumn.getNullValuesCount(), actualColumn.getNullValuesCount());
+        assertEquals(expectedColumn.getDistinctValuesCount(),
+          actualColumn.getDistinctValuesCount());
+        assertEquals(expectedColumn.getHistogram().getHistogramData(),
+          actualColumn.getHistogram().getHistogramData());
+      }
+    }
+  }
+
+  /**
+   * Test method for {@link TableInformation#computeDataDependentStatistics(RelationalInput,
+   * ColumnInformation[], int)}
+   * <p/>
+   * Failures of the threads should be rethrown as they are, like in the single threaded case.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testComputeDataDependentStatisticsConcurrentFailure() throws Exception {
+    // Setup
+    RelationalInput relationalInput = fileFixture.getTestData();
+    ColumnInformation[] columnInformations =
+      new ColumnInformation[relationalInput.numberOfColumns()];
+    for (int columnIndex = 0; columnIndex < columnInformations.length; columnIndex++) {
+      columnInformations[columnIndex] =
+        new ColumnInformation("column" + columnIndex, columnIndex, new BitSet()) {
+          @Override
+          protected void addValue(String cellValue) {
+            throw new UnsupportedOperationException();
+          }
+        };
+    }
+
+    // Execute functionality
+    TableInformation.computeDataDependentStatistics(relationalInput, columnInformations, 2);
+  }
+
 }
@@ -17,6 +17,7 @@
 package de.metanome.backend.result_postprocessing.result_ranking;
 
 import de.metanome.algorithm_helper.data_structures.PositionListIndex;
+import de.metanome.algorithm_helper.data_structures.SpillingPLIStore;
 import de.metanome.algorithm_integration.ColumnCombination;
 import de.metanome.algorithm_integration.ColumnIdentifier;
 import de.metanome.algorithm_integration.input.InputGenerationException;
@@ -304,6 +305,7 @@ public class FunctionalDependencyRankingTest {
     // Check
     assertEquals(0.0, keyError, 0.00);
     assertEquals(tableInformation.getColumnCount(), ranking.PLIs.keySet().size());
+    assertEquals(0, ranking.pliCache.size());
 
     // Execute Functionality
     columns = new BitSet(5);
@@ -313,7 +315,7 @@ public class FunctionalDependencyRankingTest {
 
     // Check
     assertEquals(0.0, keyError, 0.0001);
-    assertEquals(tableInformation.getColumnCount() + 1, ranking.PLIs.keySet().size());
+    assertEquals(1, ranking.pliCache.size());
 
     // Execute Functionality
     columns = new BitSet(5);
@@ -323,7 +325,7 @@ public class FunctionalDependencyRankingTest {
 
     // Check
     assertEquals(1.0, keyError, 0.0001);
-    assertEquals(tableInformation.getColumnCount() + 2, ranking.PLIs.keySet().size());
+    assertEquals(2, ranking.pliCache.size());
 
     // Execute Functionality
     columns = new BitSet(5);
@@ -333,7 +335,35 @@ public class FunctionalDependencyRankingTest {
 
     // Check
     assertEquals(3.0, keyError, 0.0001);
-    assertEquals(tableInformation.getColumnCount() + 3, ranking.PLIs.keySet().size());
+    assertEquals(3, ranking.pliCache.size());
+  }
+
+  @Test
+  public void testCalculateKeyErrorSpilled() throws Exception {
+    // Set up
+    setUpPollution();
+    FunctionalDependencyRanking ranking = new FunctionalDependencyRanking(functionalDependencyResults,
+      tableInformationMap);
+    ranking.setPLIHeapBudget(0);
+
+    TableInformation tableInformation = tableInformationMap.values().iterator().next();
+    Map<BitSet, PositionListIndex> plis = ranking.createPLIs(tableInformation);
+    ranking.PLIs = plis;
+
+    // Execute Functionality
+    BitSet columns = new BitSet(5);
+    columns.set(2);
+    columns.set(4);
+    float keyError = ranking.calculateKeyError(columns);
+
+    // Check
+    assertEquals(3.0, keyError, 0.0001);
+    assertEquals(1, ranking.pliCache.size());
+    assertEquals(3.0, ranking.calculateKeyError(columns), 0.0001);
+    assertEquals(1, ranking.pliCache.getHits());
+
+    // Clean up
+    ((SpillingPLIStore<?>) plis).close();
   }
 
   @Test